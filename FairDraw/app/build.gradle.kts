@@ -35,6 +35,12 @@ android {
         sourceCompatibility = JavaVersion.VERSION_11
         targetCompatibility = JavaVersion.VERSION_11
     }
+    testOptions {
+        unitTests.all {
+            // *Benchmark unit tests are skipped unless the build is run with -Pbenchmarks
+            it.systemProperty("fairdraw.benchmarks", project.hasProperty("benchmarks").toString())
+        }
+    }
 }
 
 tasks.register<Javadoc>("androidJavadoc") {
@@ -0,0 +1,128 @@
+package com.example.fairdraw.Activities;
+
+import static org.junit.Assert.assertTrue;
+
+import android.util.Log;
+import android.view.Choreographer;
+import android.view.ViewGroup;
+
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.RecyclerView;
+import androidx.test.core.app.ActivityScenario;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import com.example.fairdraw.Adapters.EntrantEventAdapter;
+import com.example.fairdraw.Models.Event;
+import com.example.fairdraw.Models.EventCard;
+import com.example.fairdraw.Others.EventState;
+import com.example.fairdraw.R;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Frame-timing benchmark for the entrant home feed: scrolls 1,000 synthetic events from top to
+ * bottom and records the interval between frames with {@link Choreographer}.
+ *
+ * <p>There is no macrobenchmark module in this project, so this runs as a regular
+ * instrumented test. Results (frame percentiles and jank count) are written to logcat under
+ * the tag {@value #TAG}; the assertions only check that view holders are being recycled.</p>
+ */
+@RunWith(AndroidJUnit4.class)
+public class EntrantHomeScrollBenchmark {
+
+    private static final String TAG = "EntrantHomeScrollBench";
+    private static final int EVENT_COUNT = 1_000;
+    private static final int SCROLL_PX_PER_FRAME = 60;
+    private static final long FRAME_BUDGET_NANOS = 16_666_667L;
+
+    private static List<EventCard> syntheticEvents() {
+        List<EventCard> events = new ArrayList<>(EVENT_COUNT);
+        for (int i = 0; i < EVENT_COUNT; i++) {
+            Event e = new Event();
+            e.setUuid("bench-" + i);
+            e.setTitle("Event " + i);
+            e.setLocation("Location " + i);
+            e.setCapacity(50);
+            e.setPrice((float) i);
+            e.setTime(new Date());
+            e.setState(i % 3 == 0 ? EventState.CLOSED : EventState.PUBLISHED);
+            e.setWaitingList(new ArrayList<>(Arrays.asList("a", "b")));
+            events.add(EventCard.of(e));
+        }
+        return events;
+    }
+
+    @Test
+    public void scrollThousandEvents_recordsFrameTimes() throws InterruptedException {
+        AtomicInteger holdersCreated = new AtomicInteger();
+        List<Long> frameNanos = new ArrayList<>();
+        CountDownLatch done = new CountDownLatch(1);
+
+        try (ActivityScenario<EntrantHomeActivity> scenario = ActivityScenario.launch(EntrantHomeActivity.class)) {
+            scenario.onActivity(activity -> {
+                RecyclerView rv = activity.findViewById(R.id.event_list_container);
+                rv.setVisibility(android.view.View.VISIBLE);
+                // A separate adapter so the live Firestore listener cannot replace the data
+                EntrantEventAdapter adapter = new EntrantEventAdapter(null) {
+                    @NonNull
+                    @Override
+                    public ViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+                        holdersCreated.incrementAndGet();
+                        return super.onCreateViewHolder(parent, viewType);
+                    }
+                };
+                rv.setAdapter(adapter);
+                adapter.submitList(syntheticEvents());
+
+                Choreographer.getInstance().postFrameCallback(new Choreographer.FrameCallback() {
+                    private long last = 0;
+
+                    @Override
+                    public void doFrame(long frameTimeNanos) {
+                        if (last != 0) frameNanos.add(frameTimeNanos - last);
+                        last = frameTimeNanos;
+                        if (!rv.canScrollVertically(1) && last != 0 && !frameNanos.isEmpty()) {
+                            done.countDown();
+                            return;
+                        }
+                        rv.scrollBy(0, SCROLL_PX_PER_FRAME);
+                        Choreographer.getInstance().postFrameCallback(this);
+                    }
+                });
+            });
+
+            assertTrue("Scroll did not reach the end", done.await(5, TimeUnit.MINUTES));
+        }
+
+        List<Long> sorted = new ArrayList<>(frameNanos);
+        sorted.sort(Long::compare);
+        int janky = 0;
+        for (long f : sorted) if (f > FRAME_BUDGET_NANOS * 3 / 2) janky++;
+        Log.i(TAG, String.format("frames=%d p50=%.2fms p90=%.2fms p99=%.2fms janky=%d holders=%d",
+                sorted.size(),
+                percentile(sorted, 0.50) / 1e6,
+                percentile(sorted, 0.90) / 1e6,
+                percentile(sorted, 0.99) / 1e6,
+                janky,
+                holdersCreated.get()));
+
+        assertTrue(sorted.size() > 0);
+        // Recycling keeps the number of inflated cards to about a screenful, not one per event
+        assertTrue("Too many view holders created: " + holdersCreated.get(), holdersCreated.get() < 100);
+    }
+
+    private static long percentile(List<Long> sorted, double p) {
+        if (sorted.isEmpty()) return 0;
+        int idx = (int) Math.min(sorted.size() - 1, Math.round(p * (sorted.size() - 1)));
+        return sorted.get(idx);
+    }
+}
@@ -11,10 +11,13 @@ import com.example.fairdraw.DBs.EventDB;
 
 
 import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.recyclerview.widget.RecyclerView;
 import androidx.test.core.app.ActivityScenario;
+import androidx.test.platform.app.InstrumentationRegistry;
 
 import com.example.fairdraw.Activities.EntrantHomeActivity;
 import com.example.fairdraw.Models.Event;
+import com.example.fairdraw.Models.EventCard;
 import com.example.fairdraw.Others.EventState;
 import com.example.fairdraw.R;
 
@@ -50,17 +53,15 @@ public class EntrantHomeActivityTest {
 
         // Launch activity and call displayEvents on the UI thread
         try (ActivityScenario<EntrantHomeActivity> scenario = ActivityScenario.launch(EntrantHomeActivity.class)) {
-            scenario.onActivity(activity -> {
-                // Clear the container first
-                android.widget.LinearLayout container = activity.findViewById(R.id.event_list_container);
-                if (container != null) {
-                    container.removeAllViews();
-                }
+            // Call the method under test
+            scenario.onActivity(activity -> activity.displayEvents(Arrays.asList(EventCard.of(fake))));
 
-                // Call the method under test
-                activity.displayEvents(Arrays.asList(fake));
+            // The list is diffed off the main thread; wait for it to be applied and laid out
+            InstrumentationRegistry.getInstrumentation().waitForIdleSync();
 
+            scenario.onActivity(activity -> {
                 // Assert that at least one child (card) was added
+                RecyclerView container = activity.findViewById(R.id.event_list_container);
                 int childCount = container != null ? container.getChildCount() : 0;
                 assertTrue("Expected at least one event card to be displayed", childCount > 0);
             });
@@ -0,0 +1,328 @@
+package com.example.fairdraw.ServiceUtility;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+import android.content.Context;
+import android.net.Uri;
+
+import androidx.test.core.app.ApplicationProvider;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.FirebaseApp;
+import com.google.firebase.storage.FirebaseStorage;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Instrumented tests for {@link ResumableUploadManager} against the Storage emulator
+ * ({@code firebase emulators:start --only storage}), reached from the Android emulator at
+ * 10.0.2.2. Skipped when the emulator is not running.
+ * <p>
+ * A connection drop is injected at the transport: uploads under test go through a local proxy
+ * to the emulator, which cuts every connection part way into a chunk and refuses new ones until
+ * restored, so the upload fails the way it would on a lost network. A new manager then resumes
+ * it from disk through the restored proxy.
+ */
+@RunWith(AndroidJUnit4.class)
+public class ResumableUploadManagerTest {
+
+    private static final String EMULATOR_HOST = "10.0.2.2";
+    private static final int EMULATOR_PORT = 9199;
+    private static final String APP_NAME = "resumable-upload-test";
+    private static final String PROXY_APP_NAME = "resumable-upload-proxy-test";
+    private static final int POSTER_BYTES = 4 * 1024 * 1024;
+    // Bytes of the next chunk let through before the connections are cut
+    private static final int CUT_INTO_CHUNK = 64 * 1024;
+    // Allowance for request headers and status queries when counting resent bytes
+    private static final int HEADER_SLACK = 32 * 1024;
+
+    private static FirebaseStorage storage;
+    private static CuttableProxy proxy;
+    // Reaches the emulator through the proxy; gives up on a dropped upload quickly
+    private static FirebaseStorage proxiedStorage;
+
+    private Context context;
+
+    @Before
+    public void setUp() throws Exception {
+        context = ApplicationProvider.getApplicationContext();
+        assumeTrue("Storage emulator not running", emulatorReachable());
+        synchronized (ResumableUploadManagerTest.class) {
+            if (storage == null) {
+                FirebaseApp app = FirebaseApp.initializeApp(context,
+                        FirebaseApp.getInstance().getOptions(), APP_NAME);
+                storage = FirebaseStorage.getInstance(app);
+                storage.useEmulator(EMULATOR_HOST, EMULATOR_PORT);
+
+                proxy = new CuttableProxy();
+                FirebaseApp proxyApp = FirebaseApp.initializeApp(context,
+                        FirebaseApp.getInstance().getOptions(), PROXY_APP_NAME);
+                proxiedStorage = FirebaseStorage.getInstance(proxyApp);
+                proxiedStorage.useEmulator("127.0.0.1", proxy.port());
+                proxiedStorage.setMaxUploadRetryTimeMillis(3000);
+            }
+        }
+        proxy.restore();
+        context.getSharedPreferences("resumable_uploads", Context.MODE_PRIVATE).edit().clear().commit();
+    }
+
+    private static boolean emulatorReachable() {
+        try (Socket socket = new Socket()) {
+            socket.connect(new InetSocketAddress(EMULATOR_HOST, EMULATOR_PORT), 1000);
+            return true;
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
+    private static byte[] randomBytes(int length) {
+        byte[] data = new byte[length];
+        new Random(42).nextBytes(data);
+        return data;
+    }
+
+    /**
+     * Test that an upload whose connection drops mid-chunk is resumed by a new manager from the
+     * bytes Storage acknowledged: only the rest is sent again, and the stored object matches
+     * what was uploaded.
+     */
+    @Test
+    public void droppedUpload_resumesFromAcknowledgedBytes() throws Exception {
+        String path = "test/" + UUID.randomUUID() + "/poster.jpg";
+        byte[] data = randomBytes(POSTER_BYTES);
+
+        ResumableUploadManager first = new ResumableUploadManager(context, proxiedStorage);
+        AtomicLong acknowledged = new AtomicLong();
+        AtomicBoolean armed = new AtomicBoolean();
+        ResumableUploadManager.Upload dropped = first.upload(path, data, "image/jpeg")
+                .addProgressListener((sent, total) -> {
+                    acknowledged.set(sent);
+                    // Cut the connection part way into the chunk after the first acknowledged one
+                    if (sent > 0 && sent < total && armed.compareAndSet(false, true)) {
+                        proxy.cutAfter(CUT_INTO_CHUNK);
+                    }
+                });
+        try {
+            Tasks.await(dropped.getResult(), 60, TimeUnit.SECONDS);
+            throw new AssertionError("Upload survived the dropped connection");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause().toString(), ResumableUploadManager.isRecoverable((Exception) e.getCause()));
+        }
+        assertTrue("Connection was never cut", proxy.isDown());
+        assertTrue("Nothing acknowledged before the drop: " + acknowledged.get(),
+                acknowledged.get() > HEADER_SLACK && acknowledged.get() < POSTER_BYTES);
+        assertEquals(1, first.pendingPaths().size());
+
+        proxy.restore();
+        long sentBefore = proxy.upstreamBytes();
+        ResumableUploadManager second = new ResumableUploadManager(context, proxiedStorage);
+        AtomicLong firstResumed = new AtomicLong(-1);
+        List<ResumableUploadManager.Upload> resumed = second.resumePending();
+        assertEquals(1, resumed.size());
+        resumed.get(0).addProgressListener((sent, total) -> firstResumed.compareAndSet(-1, sent));
+        Uri url = Tasks.await(resumed.get(0).getResult(), 60, TimeUnit.SECONDS);
+        long resent = proxy.upstreamBytes() - sentBefore;
+
+        assertTrue(url.toString().length() > 0);
+        assertTrue("Resumed upload started over: " + firstResumed.get() + " < " + acknowledged.get(),
+                firstResumed.get() >= acknowledged.get());
+        assertTrue("Resumed upload sent " + resent + " bytes for " + (POSTER_BYTES - acknowledged.get()) + " remaining",
+                resent <= POSTER_BYTES - acknowledged.get() + HEADER_SLACK);
+        assertArrayEquals(data, Tasks.await(storage.getReference(path).getBytes(POSTER_BYTES), 30, TimeUnit.SECONDS));
+        assertTrue(second.pendingPaths().isEmpty());
+    }
+
+    /**
+     * Test that uploading the same bytes again after a dropped connection, as a retry from the
+     * UI does, continues the saved session instead of starting from byte 0.
+     */
+    @Test
+    public void retryOfDroppedUpload_continuesSavedSession() throws Exception {
+        String path = "test/" + UUID.randomUUID() + "/poster.jpg";
+        byte[] data = randomBytes(POSTER_BYTES);
+        ResumableUploadManager manager = new ResumableUploadManager(context, proxiedStorage);
+
+        AtomicLong acknowledged = new AtomicLong();
+        AtomicBoolean armed = new AtomicBoolean();
+        ResumableUploadManager.Upload dropped = manager.upload(path, data, "image/jpeg")
+                .addProgressListener((sent, total) -> {
+                    acknowledged.set(sent);
+                    if (sent > 0 && sent < total && armed.compareAndSet(false, true)) {
+                        proxy.cutAfter(CUT_INTO_CHUNK);
+                    }
+                });
+        try {
+            Tasks.await(dropped.getResult(), 60, TimeUnit.SECONDS);
+            throw new AssertionError("Upload survived the dropped connection");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause().toString(), ResumableUploadManager.isRecoverable((Exception) e.getCause()));
+        }
+
+        proxy.restore();
+        long sentBefore = proxy.upstreamBytes();
+        ResumableUploadManager.Upload retry = manager.upload(path, data, "image/jpeg");
+        Tasks.await(retry.getResult(), 60, TimeUnit.SECONDS);
+        long resent = proxy.upstreamBytes() - sentBefore;
+
+        assertTrue("Retry sent " + resent + " bytes for " + (POSTER_BYTES - acknowledged.get()) + " remaining",
+                resent <= POSTER_BYTES - acknowledged.get() + HEADER_SLACK);
+        assertArrayEquals(data, Tasks.await(storage.getReference(path).getBytes(POSTER_BYTES), 30, TimeUnit.SECONDS));
+        assertTrue(manager.pendingPaths().isEmpty());
+    }
+
+    /**
+     * Test that a cancelled upload fails with a CancellationException and leaves nothing to resume.
+     */
+    @Test
+    public void cancel_clearsPendingUpload() throws Exception {
+        String path = "test/" + UUID.randomUUID() + "/poster.jpg";
+        ResumableUploadManager manager = new ResumableUploadManager(context, storage);
+
+        ResumableUploadManager.Upload upload = manager.upload(path, randomBytes(POSTER_BYTES), "image/jpeg");
+        CountDownLatch started = new CountDownLatch(1);
+        upload.addProgressListener((sent, total) -> started.countDown());
+        assertTrue(started.await(30, TimeUnit.SECONDS));
+        assertTrue(manager.cancel(path));
+
+        try {
+            Tasks.await(upload.getResult(), 30, TimeUnit.SECONDS);
+            throw new AssertionError("Cancelled upload succeeded");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof CancellationException);
+        }
+        assertTrue(manager.pendingPaths().isEmpty());
+        assertFalse(manager.cancel(path));
+    }
+
+    /**
+     * Forwards local connections to the Storage emulator, counting the bytes sent upstream, and
+     * can cut every connection once a number of further bytes have gone through.
+     */
+    private static final class CuttableProxy {
+        private final ServerSocket server;
+        private final List<Socket> open = new CopyOnWriteArrayList<>();
+        private final AtomicLong upstream = new AtomicLong();
+        private volatile long cutAt = Long.MAX_VALUE;
+        private volatile boolean down;
+
+        CuttableProxy() throws IOException {
+            server = new ServerSocket(0, 50, InetAddress.getByName("127.0.0.1"));
+            daemon(this::acceptLoop, "CuttableProxy");
+        }
+
+        int port() {
+            return server.getLocalPort();
+        }
+
+        long upstreamBytes() {
+            return upstream.get();
+        }
+
+        boolean isDown() {
+            return down;
+        }
+
+        /** Cuts all connections after {@code bytes} more bytes upstream and refuses new ones. */
+        void cutAfter(long bytes) {
+            cutAt = upstream.get() + bytes;
+        }
+
+        /** Accepts and forwards connections again. */
+        void restore() {
+            cutAt = Long.MAX_VALUE;
+            down = false;
+        }
+
+        private void acceptLoop() {
+            while (!server.isClosed()) {
+                try {
+                    Socket client = server.accept();
+                    if (down) {
+                        client.close();
+                        continue;
+                    }
+                    Socket target = new Socket(EMULATOR_HOST, EMULATOR_PORT);
+                    open.add(client);
+                    open.add(target);
+                    daemon(() -> pump(client, target, true), "CuttableProxy-up");
+                    daemon(() -> pump(target, client, false), "CuttableProxy-down");
+                } catch (IOException e) {
+                    // Server closed, or the emulator refused the connection
+                }
+            }
+        }
+
+        private void pump(Socket from, Socket to, boolean countUpstream) {
+            byte[] buffer = new byte[8192];
+            try {
+                InputStream in = from.getInputStream();
+                OutputStream out = to.getOutputStream();
+                int n;
+                while ((n = in.read(buffer)) > 0) {
+                    if (countUpstream) {
+                        long before = upstream.getAndAdd(n);
+                        if (before + n >= cutAt) {
+                            out.write(buffer, 0, (int) Math.max(0, cutAt - before));
+                            out.flush();
+                            cut();
+                            return;
+                        }
+                    }
+                    out.write(buffer, 0, n);
+                    out.flush();
+                }
+            } catch (IOException e) {
+                // The other side or a cut closed the connection
+            } finally {
+                closeQuietly(from);
+                closeQuietly(to);
+            }
+        }
+
+        private void cut() {
+            down = true;
+            for (Socket socket : open) closeQuietly(socket);
+            open.clear();
+        }
+
+        private static void closeQuietly(Closeable closeable) {
+            try {
+                closeable.close();
+            } catch (IOException ignored) {
+                // Already closed
+            }
+        }
+
+        private static void daemon(Runnable work, String name) {
+            Thread thread = new Thread(work, name);
+            thread.setDaemon(true);
+            thread.start();
+        }
+    }
+}
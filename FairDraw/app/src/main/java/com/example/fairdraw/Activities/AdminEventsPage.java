@@ -1,5 +1,6 @@
 package com.example.fairdraw.Activities;
 
+import android.content.SharedPreferences;
 import android.os.Bundle;
 import android.util.Log;
 import android.view.LayoutInflater;
@@ -22,9 +23,10 @@ import androidx.core.view.WindowInsetsCompat;
 import com.bumptech.glide.Glide;
 import com.example.fairdraw.DBs.EventDB;
 import com.example.fairdraw.DBs.UserDB;
-import com.example.fairdraw.Models.Event;
+import com.example.fairdraw.Models.EventCard;
 import com.example.fairdraw.Models.User;
 import com.example.fairdraw.Others.BarType;
+import com.example.fairdraw.Others.DocumentStore;
 import com.example.fairdraw.R;
 import com.example.fairdraw.ServiceUtility.FirebaseImageStorageService;
 import com.google.android.material.bottomnavigation.BottomNavigationView;
@@ -32,13 +34,22 @@ import com.google.android.material.snackbar.Snackbar;
 import com.google.firebase.firestore.ListenerRegistration;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 
 public class AdminEventsPage extends BaseTopBottomActivity {
+    private static final String PREFS = "admin_prefs";
+    private static final String KEY_CARDS_BACKFILLED = "event_cards_backfilled";
+
     private LinearLayout eventListContainer;
     private ListenerRegistration eventListener;
-    private List<Event> allEvents;  // store full list
+    // Every event card keyed by event id, updated incrementally by the listener
+    private final DocumentStore<EventCard> eventStore = new DocumentStore<>();
+    // Cards currently shown, keyed by document id, so a change only touches its own card
+    private final Map<String, CardView> cardsById = new HashMap<>();
+    private boolean loaded = false;
     private EditText searchBar;
 
 
@@ -66,13 +77,33 @@ public class AdminEventsPage extends BaseTopBottomActivity {
         // setup search filtering
         setupSearchBar();
 
-        // Fetch all events from Firestore, listen for real-time updates and display them
-        eventListener = EventDB.listenToEvents(events -> {
-            if (events != null) {
-                allEvents = events; // ✅ store the full list
-                displayEvents(events);
-            } else {
-                showNoEventsMessage();
+        // Events created before cards were maintained have no card yet; write them once
+        SharedPreferences prefs = getSharedPreferences(PREFS, MODE_PRIVATE);
+        if (!prefs.getBoolean(KEY_CARDS_BACKFILLED, false)) {
+            EventDB.backfillEventCards(success -> {
+                if (success) prefs.edit().putBoolean(KEY_CARDS_BACKFILLED, true).apply();
+            });
+        }
+
+        // Fetch all event cards from Firestore, listen for real-time updates and display them
+        eventListener = EventDB.listenToEventCardChanges(new EventDB.EventCardChangesListener() {
+            @Override
+            public void onChanges(List<DocumentStore.Change<EventCard>> changes) {
+                eventStore.apply(changes);
+                boolean firstLoad = !loaded;
+                loaded = true;
+                String query = searchBar == null ? "" : searchBar.getText().toString().trim();
+                if (firstLoad || !query.isEmpty() || cardsById.isEmpty()) {
+                    // Filtered or empty views are cheap to rebuild from the store
+                    filterAndDisplayEvents(query);
+                } else {
+                    applyChanges(changes);
+                }
+            }
+
+            @Override
+            public void onError(Exception e) {
+                if (eventStore.size() == 0) showNoEventsMessage();
             }
         });
 
@@ -94,6 +125,7 @@ public class AdminEventsPage extends BaseTopBottomActivity {
 
     private void showNoEventsMessage() {
         eventListContainer.removeAllViews(); // Clear previous views
+        cardsById.clear();
         TextView emptyView = new TextView(this);
         emptyView.setText("No Events found");
         emptyView.setTextSize(16);
@@ -101,69 +133,67 @@ public class AdminEventsPage extends BaseTopBottomActivity {
         eventListContainer.addView(emptyView);
     }
 
-    private void displayEvents(List<Event> events) {
+    private void displayEvents(List<EventCard> events) {
         eventListContainer.removeAllViews(); // Clear previous views to prevent duplicates
+        cardsById.clear();
         LayoutInflater inflater = LayoutInflater.from(this);
 
-        for (Event event : events) {
-            // If event is null, skip it
-            if (event == null) continue;
+        for (EventCard event : events) {
+            CardView cardView = createCard(inflater, event);
+            if (cardView != null) eventListContainer.addView(cardView);
+        }
+    }
 
-            // If event uuid is null, skip it
-            if (event.getUuid() == null) {
-                Log.w("AdminEventsPage", "Skipping event with null UUID with title: " + event.getTitle());
-                continue;
+    /**
+     * Applies listener changes to the cards on screen without rebuilding the unaffected ones.
+     */
+    private void applyChanges(List<DocumentStore.Change<EventCard>> changes) {
+        LayoutInflater inflater = LayoutInflater.from(this);
+        for (DocumentStore.Change<EventCard> change : changes) {
+            CardView existing = cardsById.get(change.id);
+            if (change.type == DocumentStore.Change.Type.REMOVED) {
+                if (existing != null) {
+                    eventListContainer.removeView(existing);
+                    cardsById.remove(change.id);
+                }
+            } else if (existing != null && change.event != null) {
+                bindCard(existing, change.event);
+            } else {
+                CardView cardView = createCard(inflater, change.event);
+                if (cardView != null) eventListContainer.addView(cardView);
             }
+        }
+        if (cardsById.isEmpty()) showNoEventsMessage();
+    }
 
-            // Inflate the card layout
-            CardView cardView = (CardView) inflater.inflate(R.layout.admin_eventscard, eventListContainer, false);
-
-            // Bind views
-            TextView titleView = cardView.findViewById(R.id.event_title);
-            TextView locationView = cardView.findViewById(R.id.event_location);
-            TextView organizerNameView = cardView.findViewById(R.id.event_organizer_name);
-            TextView eventIdView = cardView.findViewById(R.id.event_id);
-            ImageButton deleteButton = cardView.findViewById(R.id.delete_button);
-            ImageView eventImage = cardView.findViewById(R.id.event_image);
-
-            // Set values
-            titleView.setText(event.getTitle());
-            locationView.setText(event.getLocation());
-            UserDB.getUserOrNull(event.getOrganizer(), new UserDB.GetUserCallback() {
-                @Override
-                public void onCallback(@Nullable User user, @Nullable Exception e) {
-                    if(user != null) {
-                        organizerNameView.setText(user.getName());
-                    }
-                    else {
-                        organizerNameView.setText("Unknown Organizer");
-                        Log.e("AdminEventsPage", "Failed to load organizer for event " + event.getUuid());
-                    }
-                }
-            });
-            eventIdView.setText("id: " + event.getUuid());
-
-            //On click listener for deleting events
-            deleteButton.setOnClickListener(v -> {
-                // Show a confirmation dialog before deleting
-                new AlertDialog.Builder(AdminEventsPage.this)
-                        .setTitle("Delete Event")
-                        .setMessage("Are you sure you want to permanently delete '" + event.getTitle() + "'?")
-                        .setPositiveButton("Delete", (dialog, which) -> {
-                            // User confirmed deletion
-                            EventDB.deleteEvent(event.getUuid(), success -> {
-                                if (success) {
-                                    Snackbar.make(findViewById(R.id.main), "Event deleted successfully", Snackbar.LENGTH_LONG).show();
-                                } else {
-                                    Snackbar.make(findViewById(R.id.main), "Failed to delete event", Snackbar.LENGTH_LONG).show();
-                                }
-                            });
-                        })
-                        .setNegativeButton("Cancel", null) // Do nothing if cancelled
-                        .show();
-            });
+    /**
+     * Inflates and binds a card for an event, or returns null for events that cannot be shown.
+     */
+    @Nullable
+    private CardView createCard(LayoutInflater inflater, @Nullable EventCard event) {
+        // If event is null, skip it
+        if (event == null) return null;
+
+        // If event uuid is null, skip it
+        if (event.getUuid() == null) {
+            Log.w("AdminEventsPage", "Skipping event with null UUID with title: " + event.getTitle());
+            return null;
+        }
 
-            // Try to fetch the Bitmap for the event image
+        // Inflate the card layout
+        CardView cardView = (CardView) inflater.inflate(R.layout.admin_eventscard, eventListContainer, false);
+        bindCard(cardView, event);
+
+        // Try to fetch the Bitmap for the event image
+        ImageView eventImage = cardView.findViewById(R.id.event_image);
+        String stored = FirebaseImageStorageService.posterUrlFor(
+                event.getPosterRenditions(), event.getPosterUrl(), eventImage);
+        if (stored != null) {
+            Glide.with(this)
+                    .load(stored)
+                    .placeholder(R.drawable.swimming)
+                    .into(eventImage);
+        } else {
             FirebaseImageStorageService storageService = new FirebaseImageStorageService();
             storageService.getEventPosterDownloadUrl(event.getUuid()).addOnSuccessListener(uri -> {
                 Glide.with(this)
@@ -173,10 +203,56 @@ public class AdminEventsPage extends BaseTopBottomActivity {
             }).addOnFailureListener(e -> {
                 Log.e("AdminEventsPage", "Failed to load image for event " + event.getUuid(), e);
             });
-
-            // Add card to layout
-            eventListContainer.addView(cardView);
         }
+
+        cardsById.put(event.getUuid(), cardView);
+        return cardView;
+    }
+
+    private void bindCard(CardView cardView, EventCard event) {
+        // Bind views
+        TextView titleView = cardView.findViewById(R.id.event_title);
+        TextView locationView = cardView.findViewById(R.id.event_location);
+        TextView organizerNameView = cardView.findViewById(R.id.event_organizer_name);
+        TextView eventIdView = cardView.findViewById(R.id.event_id);
+        ImageButton deleteButton = cardView.findViewById(R.id.delete_button);
+
+        // Set values
+        titleView.setText(event.getTitle());
+        locationView.setText(event.getLocation());
+        UserDB.getUserOrNull(event.getOrganizer(), new UserDB.GetUserCallback() {
+            @Override
+            public void onCallback(@Nullable User user, @Nullable Exception e) {
+                if(user != null) {
+                    organizerNameView.setText(user.getName());
+                }
+                else {
+                    organizerNameView.setText("Unknown Organizer");
+                    Log.e("AdminEventsPage", "Failed to load organizer for event " + event.getUuid());
+                }
+            }
+        });
+        eventIdView.setText("id: " + event.getUuid());
+
+        //On click listener for deleting events
+        deleteButton.setOnClickListener(v -> {
+            // Show a confirmation dialog before deleting
+            new AlertDialog.Builder(AdminEventsPage.this)
+                    .setTitle("Delete Event")
+                    .setMessage("Are you sure you want to permanently delete '" + event.getTitle() + "'?")
+                    .setPositiveButton("Delete", (dialog, which) -> {
+                        // User confirmed deletion
+                        EventDB.deleteEvent(event.getUuid(), success -> {
+                            if (success) {
+                                Snackbar.make(findViewById(R.id.main), "Event deleted successfully", Snackbar.LENGTH_LONG).show();
+                            } else {
+                                Snackbar.make(findViewById(R.id.main), "Failed to delete event", Snackbar.LENGTH_LONG).show();
+                            }
+                        });
+                    })
+                    .setNegativeButton("Cancel", null) // Do nothing if cancelled
+                    .show();
+        });
     }
 
     // New helper: set up a TextWatcher on the search bar to filter events
@@ -197,20 +273,22 @@ public class AdminEventsPage extends BaseTopBottomActivity {
         });
     }
 
-    // Filter the cached `allEvents` by the query and display results. Matches title, location, or uuid.
+    // Filter the cached events by the query and display results. Matches title, location, or uuid.
     private void filterAndDisplayEvents(String query) {
-        if (allEvents == null) {
+        if (!loaded) {
             // If we haven't loaded events yet, nothing to filter
             return;
         }
+        List<EventCard> allEvents = eventStore.getAll();
         String input = query == null ? "" : query.trim().toLowerCase(Locale.ROOT);
         if (input.isEmpty()) {
-            displayEvents(allEvents);
+            if (allEvents.isEmpty()) showNoEventsMessage();
+            else displayEvents(allEvents);
             return;
         }
 
-        List<Event> filtered = new ArrayList<>();
-        for (Event event : allEvents) {
+        List<EventCard> filtered = new ArrayList<>();
+        for (EventCard event : allEvents) {
             if (event == null) continue;
             String title = event.getTitle() == null ? "" : event.getTitle().toLowerCase(Locale.ROOT);
             String location = event.getLocation() == null ? "" : event.getLocation().toLowerCase(Locale.ROOT);
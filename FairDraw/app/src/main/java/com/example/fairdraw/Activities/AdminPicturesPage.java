@@ -1,11 +1,14 @@
 package com.example.fairdraw.Activities;
 
+import android.content.SharedPreferences;
 import android.os.Bundle;
 import android.util.Log;
 import android.view.LayoutInflater;
+import android.view.View;
 import android.widget.ImageButton;
 import android.widget.ImageView;
 import android.widget.LinearLayout;
+import android.widget.ScrollView;
 import android.widget.TextView;
 
 import androidx.activity.EdgeToEdge;
@@ -16,29 +19,32 @@ import androidx.core.view.WindowInsetsCompat;
 
 import com.bumptech.glide.Glide;
 import com.example.fairdraw.DBs.EventDB;
+import com.example.fairdraw.Models.Event;
 import com.example.fairdraw.Others.BarType;
 import com.example.fairdraw.R;
 import com.example.fairdraw.ServiceUtility.FirebaseImageStorageService;
 import com.google.android.material.bottomnavigation.BottomNavigationView;
 import com.google.android.material.snackbar.Snackbar;
-import com.google.firebase.firestore.ListenerRegistration;
+import com.google.firebase.firestore.DocumentSnapshot;
 
-import java.util.ArrayList;
 import java.util.List;
 
 public class AdminPicturesPage extends BaseTopBottomActivity {
 
     private static final String TAG = "AdminPicturesPage";
+    private static final String PREFS = "admin_prefs";
+    private static final String KEY_POSTERS_BACKFILLED = "event_posters_backfilled";
+
+    private static final int PAGE_SIZE = 20;
+    // Load the next page when the user scrolls within this many pixels of the bottom
+    private static final int LOAD_MORE_THRESHOLD_PX = 600;
 
     private LinearLayout pictureListContainer;
 
-    /**
-     * List of Firestore listener registrations for real-time event data updates.
-     * Each event poster gets its own listener attached in displayPictures().
-     * All listeners are removed in onStop() to avoid memory leaks and ensure
-     * the listener lifecycle is tied to the activity's visible state.
-     */
-    private final List<ListenerRegistration> eventListeners = new ArrayList<>();
+    // Cursor for the next page of the poster query; null once the last page is loaded
+    private DocumentSnapshot pageCursor;
+    private boolean loadingPage = false;
+    private boolean reachedEnd = false;
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -59,79 +65,77 @@ public class AdminPicturesPage extends BaseTopBottomActivity {
 
 
         pictureListContainer = findViewById(R.id.picture_list_container);
+
+        ScrollView scrollView = findViewById(R.id.scroll_view);
+        if (scrollView != null) {
+            scrollView.setOnScrollChangeListener((v, x, y, oldX, oldY) -> {
+                View content = scrollView.getChildAt(0);
+                if (content != null
+                        && content.getBottom() - (scrollView.getHeight() + y) < LOAD_MORE_THRESHOLD_PX) {
+                    loadNextPage();
+                }
+            });
+        }
+
+        // Posters uploaded before they were recorded on the event are missing from the
+        // gallery's query; record them once, then show the gallery again
+        SharedPreferences prefs = getSharedPreferences(PREFS, MODE_PRIVATE);
+        if (!prefs.getBoolean(KEY_POSTERS_BACKFILLED, false)) {
+            new FirebaseImageStorageService().backfillPosterInfo()
+                    .addOnSuccessListener(v -> {
+                        prefs.edit().putBoolean(KEY_POSTERS_BACKFILLED, true).apply();
+                        if (!isFinishing() && !isDestroyed()) reload();
+                    })
+                    .addOnFailureListener(e -> Log.w(TAG, "Poster backfill failed", e));
+        }
     }
 
     /**
-     * Attach the Firestore listeners in onStart() so that the UI updates in real-time
-     * whenever events are added, removed, or changed. This follows the established
-     * pattern used by other activities (e.g., EntrantNotificationsActivity, EntrantMyEventsActivity)
-     * for proper lifecycle management and avoiding memory leaks.
+     * Reload the gallery from the first page each time the screen becomes visible.
      */
     @Override
     protected void onStart() {
         super.onStart();
-        loadPictures();
+        reload();
     }
 
-    /**
-     * Remove all Firestore listeners in onStop() to prevent memory leaks and
-     * unnecessary background updates when the activity is no longer visible.
-     * This mirrors the onStart() attachment and follows Android lifecycle best practices.
-     */
-    @Override
-    protected void onStop() {
-        super.onStop();
-        // Remove all listeners with null checks to prevent potential crashes
-        removeAllListeners();
+    private void reload() {
+        pictureListContainer.removeAllViews();
+        pageCursor = null;
+        reachedEnd = false;
+        loadNextPage();
     }
 
     /**
-     * Removes all attached Firestore listeners and clears the list.
-     * Thread-safe removal with exception handling for each listener.
+     * Loads the next page of events that have a poster. The poster URL is stored on the event
+     * document, so a page costs one Firestore query and no Storage requests.
      */
-    private void removeAllListeners() {
-        for (ListenerRegistration listener : eventListeners) {
-            if (listener != null) {
-                try {
-                    listener.remove();
-                } catch (Exception e) {
-                    Log.w(TAG, "Failed to remove event listener", e);
-                }
-            }
-        }
-        eventListeners.clear();
-    }
-
-    /**
-     * Loads event posters from Firebase Storage and displays them.
-     * Uses the callback-based listenToEventPosters method for consistent error handling
-     * and a cleaner interface pattern matching other listener methods in the codebase.
-     * For each poster, a real-time Firestore listener is attached for event data updates.
-     */
-    private void loadPictures() {
-        FirebaseImageStorageService imageService = new FirebaseImageStorageService();
-
-        // Use the callback-based method for fetching event posters
-        imageService.listenToEventPosters(eventPosters -> {
-            if (eventPosters != null) {
-                displayPictures(eventPosters);
-            } else {
+    private void loadNextPage() {
+        if (loadingPage || reachedEnd) return;
+        loadingPage = true;
+        EventDB.getPosterEventsPage(pageCursor, PAGE_SIZE, (events, lastVisible) -> {
+            loadingPage = false;
+            if (events == null) {
                 // Show a snack bar / error UI
                 Log.e(TAG, "Failed to load pictures");
                 Snackbar.make(findViewById(R.id.main), "Failed to load pictures", Snackbar.LENGTH_LONG).show();
+                return;
             }
+            pageCursor = lastVisible;
+            reachedEnd = lastVisible == null;
+            displayPictures(events);
         });
     }
 
-    public void displayPictures(List<FirebaseImageStorageService.EventPosterInfo> eventPosters) {
-        // Clear any existing listeners before adding new ones to prevent duplicates.
-        // This is necessary because loadPictures() is async (Firebase Storage call) and
-        // could potentially return after activity lifecycle changes, causing duplicate listeners.
-        removeAllListeners();
-
-        pictureListContainer.removeAllViews(); // Clear previous views to prevent duplicates
+    /**
+     * Appends a card for each event poster in the page.
+     */
+    public void displayPictures(List<Event> events) {
         LayoutInflater inflater = LayoutInflater.from(this);
-        for (FirebaseImageStorageService.EventPosterInfo posterInfo : eventPosters) {
+        for (Event event : events) {
+            if (event.getUuid() == null || event.getPosterUrl() == null) continue;
+            String eventId = event.getUuid();
+
             CardView cardView = (CardView) inflater.inflate(R.layout.picture_card, pictureListContainer, false);
             ImageView posterImage = cardView.findViewById(R.id.event_picture);
             TextView eventTitleView = cardView.findViewById(R.id.event_picture_title);
@@ -140,7 +144,7 @@ public class AdminPicturesPage extends BaseTopBottomActivity {
 
             deleteButton.setOnClickListener(v -> {
                 FirebaseImageStorageService imageService = new FirebaseImageStorageService();
-                imageService.deleteEventPoster(posterInfo.eventId).addOnSuccessListener(aVoid -> {
+                imageService.deleteEventPoster(eventId).addOnSuccessListener(aVoid -> {
                     // Remove the card view from the container
                     pictureListContainer.removeView(cardView);
                     Snackbar.make(findViewById(R.id.main), "Picture deleted successfully", Snackbar.LENGTH_LONG).show();
@@ -149,29 +153,18 @@ public class AdminPicturesPage extends BaseTopBottomActivity {
                 });
             });
 
-            // Attach a real-time listener for event data updates.
-            // Store the registration in the list so it can be properly removed in onStop().
-            ListenerRegistration listener = EventDB.listenToEvent(posterInfo.eventId, event -> {
-                if (event != null) {
-                    eventTitleView.setText(event.getTitle());
-                    organizerView.setText("By: " + event.getOrganizer());
-                } else {
-                    eventTitleView.setText("Unknown Event");
-                    organizerView.setText("");
-                }
-            });
-            eventListeners.add(listener);
+            eventTitleView.setText(event.getTitle());
+            organizerView.setText("By: " + event.getOrganizer());
 
-            // Load image using Glide
+            // Load the smallest rendition that fills the card
             Glide.with(this)
-                    .load(posterInfo.downloadUri)
+                    .load(FirebaseImageStorageService.posterUrlFor(
+                            event.getPosterRenditions(), event.getPosterUrl(), posterImage))
                     .placeholder(R.drawable.default_event_banner) // Optional placeholder
                     .error(R.drawable.default_event_banner) // Optional error image
                     .into(posterImage);
 
             pictureListContainer.addView(cardView);
-
         }
     }
 }
-
@@ -256,7 +256,7 @@ public class CreateEventPage extends BaseTopBottomActivity {
                     Uri deepLinkUri = DeepLinkUtil.buildLink(EntrantEventDetails.class, extras);
                     Bitmap qr;
                     try {
-                        qr = QrUtil.generate(deepLinkUri.toString(), 800);
+                        qr = QrUtil.generate(deepLinkUri.toString(), QrUtil.EVENT_QR_SIZE);
                         // Save QR code to Firebase Storage
                         storageService.uploadEventQr(event.getUuid(), qr, 90, 1000000).addOnSuccessListener(uri -> {
                             Log.d("CreateEventPage", "QR code uploaded for event: " + event.getUuid());
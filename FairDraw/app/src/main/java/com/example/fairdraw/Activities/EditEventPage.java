@@ -5,6 +5,7 @@ import static android.app.Activity.RESULT_OK;
 import android.content.Intent;
 import android.net.Uri;
 import android.os.Bundle;
+import android.util.Log;
 
 import androidx.activity.result.ActivityResultLauncher;
 import androidx.activity.result.contract.ActivityResultContracts;
@@ -26,6 +27,7 @@ import com.google.android.material.snackbar.Snackbar;
 import com.example.fairdraw.Models.Event;
 import com.example.fairdraw.Others.OrganizerEventsDataHolder;
 import com.example.fairdraw.R;
+import com.example.fairdraw.ServiceUtility.FirebaseImageStorageService;
 
 import java.text.DateFormat;
 import java.text.SimpleDateFormat;
@@ -233,6 +235,13 @@ public class EditEventPage extends Fragment {
                     }
                     if (bannerPhoto != null){
                         event.setPosterPath(bannerPhoto.toString());
+                        // Decoded within a memory budget and uploaded in the background
+                        FirebaseImageStorageService storageService = new FirebaseImageStorageService();
+                        storageService.uploadEventPoster(event.getUuid(), bannerPhoto).addOnSuccessListener(uri -> {
+                            Log.d("EditEventPage", "Banner photo uploaded for event: " + event.getUuid());
+                        }).addOnFailureListener(e -> {
+                            Log.e("EditEventPage", "Error uploading banner photo for event: " + event.getUuid(), e);
+                        });
                     }
                     OrganizerEventsDataHolder.updateEvent(event, index);
                     requireActivity().getSupportFragmentManager().popBackStack();
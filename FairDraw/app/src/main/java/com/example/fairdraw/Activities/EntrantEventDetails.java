@@ -20,6 +20,7 @@ import com.example.fairdraw.Fragments.QrCodeFragment;
 import com.example.fairdraw.ServiceUtility.DevicePrefsManager;
 import com.example.fairdraw.ServiceUtility.FirebaseImageStorageService;
 import com.example.fairdraw.Models.Event;
+import com.example.fairdraw.Others.EventCounts;
 import com.example.fairdraw.R;
 import com.example.fairdraw.ServiceUtility.GeoService;
 import com.google.android.material.bottomnavigation.BottomNavigationView;
@@ -52,6 +53,15 @@ public class EntrantEventDetails extends BaseTopBottomActivity {
     private final NumberFormat moneyFmt = NumberFormat.getCurrencyInstance(Locale.getDefault());
 
     private ListenerRegistration eventListener;
+    private ListenerRegistration countsListener;
+    private ListenerRegistration waitlistEntryListener;
+    // Whether this device has a waitlist entry, for events that store their waiting list as
+    // entries and so do not carry it on the event document
+    private boolean hasWaitlistEntry;
+    // Latest counts summed from the event's counter shards; null until they arrive or if the
+    // event has no shards yet, in which case the list sizes are shown
+    @Nullable
+    private EventCounts latestCounts;
     FirebaseImageStorageService storageService;
     final boolean[] onWaitlist = {false};
     // Keep a reference to the last received Event so click handlers can consult helper methods immediately
@@ -116,29 +126,37 @@ public class EntrantEventDetails extends BaseTopBottomActivity {
             }
             // Cache the latest event for use in click callbacks
             currentEvent = event;
-            // Determine device id and use Event helper methods to set button state/text
-            String deviceId = DevicePrefsManager.getDeviceId(this);
-
-            // Track whether we're on the waiting list so the click handler can toggle correctly
-            onWaitlist[0] = event.isOnWaitingList(deviceId);
-
-            // If user is on the waiting list we want to allow them to leave, so enable the button in that case.
-            if (onWaitlist[0]) {
-                // When on the waiting list we present a leave action (enabled)
-                btnWaitlist.setText(getString(R.string.leave_lottery_waitlist));
-                btnWaitlist.setEnabled(true);
-            } else {
-                // Use the Event helpers for other states (enrolled/invited/full/available)
-                int resId = event.getJoinWaitlistButtonText(deviceId);
-                btnWaitlist.setText(getString(resId));
-                btnWaitlist.setEnabled(event.isJoinWaitlistButtonEnabled(deviceId));
+            event.applyCounts(latestCounts);
+            if (event.usesWaitlistEntries()) {
+                event.applyWaitlistEntry(DevicePrefsManager.getDeviceId(this), hasWaitlistEntry);
             }
+            updateWaitlistButton(event);
 
             bindEvent(event);
 
             setupQrButton(event);
         });
 
+        waitlistEntryListener = EventDB.listenToWaitlistEntry(eventId, DevicePrefsManager.getDeviceId(this), present -> {
+            hasWaitlistEntry = present;
+            if (currentEvent == null || !currentEvent.usesWaitlistEntries()) return;
+            currentEvent.applyWaitlistEntry(DevicePrefsManager.getDeviceId(this), present);
+            updateWaitlistButton(currentEvent);
+        });
+
+        // Counts come from the counter shards, so the waitlist size and limit stay right without
+        // reading the whole list
+        countsListener = EventDB.listenToCounts(eventId, counts -> {
+            latestCounts = counts;
+            if (currentEvent == null) return;
+            currentEvent.applyCounts(counts);
+            updateWaitlistButton(currentEvent);
+            bindCell(R.id.cell_capacity,
+                    R.drawable.ic_people_24,
+                    "Capacity & Waitlist",
+                    buildCapacityText(currentEvent));
+        });
+
         storageService = new FirebaseImageStorageService();
 
         // 3) setup waitlist button
@@ -319,12 +337,38 @@ public class EntrantEventDetails extends BaseTopBottomActivity {
     }
 
 
+    private void updateWaitlistButton(Event event) {
+        // Determine device id and use Event helper methods to set button state/text
+        String deviceId = DevicePrefsManager.getDeviceId(this);
+
+        // Track whether we're on the waiting list so the click handler can toggle correctly
+        onWaitlist[0] = event.isOnWaitingList(deviceId);
+
+        // If user is on the waiting list we want to allow them to leave, so enable the button in that case.
+        if (onWaitlist[0]) {
+            // When on the waiting list we present a leave action (enabled)
+            btnWaitlist.setText(getString(R.string.leave_lottery_waitlist));
+            btnWaitlist.setEnabled(true);
+        } else {
+            // Use the Event helpers for other states (enrolled/invited/full/available)
+            int resId = event.getJoinWaitlistButtonText(deviceId);
+            btnWaitlist.setText(getString(resId));
+            btnWaitlist.setEnabled(event.isJoinWaitlistButtonEnabled(deviceId));
+        }
+    }
+
     @Override
     protected void onDestroy() {
         super.onDestroy();
         if (eventListener != null) {
             eventListener.remove();
         }
+        if (countsListener != null) {
+            countsListener.remove();
+        }
+        if (waitlistEntryListener != null) {
+            waitlistEntryListener.remove();
+        }
     }
 
     private static String safe(String s, String fallback) {
@@ -387,6 +431,16 @@ public class EntrantEventDetails extends BaseTopBottomActivity {
         // Add a placeholder bitmap saying loading for event poster
         heroImage.setImageResource(R.drawable.loading);
 
+        // Use the rendition recorded on the event that fills the hero image, if any
+        String stored = FirebaseImageStorageService.posterUrlFor(
+                e.getPosterRenditions(), e.getPosterUrl(), heroImage);
+        if (stored != null) {
+            Glide.with(this)
+                    .load(stored)
+                    .into(heroImage);
+            return;
+        }
+
         // Fetch the event poster
         storageService.getEventPosterDownloadUrl(e.getUuid()).addOnCompleteListener(urlTask -> {
             if (urlTask.isSuccessful()) {
@@ -406,8 +460,8 @@ public class EntrantEventDetails extends BaseTopBottomActivity {
         // expected fields: totalSpots, waitlistCount, confirmedCount
         // fallbacks to 0 if null
         int total  = nz(e.getCapacity());
-        int wait   = e.getWaitingList().size();
-        int conf   = e.getEnrolledList().size();
+        int wait   = latestCounts != null ? latestCounts.waiting : e.getWaitingList().size();
+        int conf   = latestCounts != null ? latestCounts.enrolled : e.getEnrolledList().size();
         int avail  = Math.max(total - conf, 0);
 
         return avail + " spots • " + wait + " on waitlist • " + conf + " confirmed";
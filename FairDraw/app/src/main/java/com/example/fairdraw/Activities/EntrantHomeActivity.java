@@ -2,37 +2,32 @@ package com.example.fairdraw.Activities;
 
 import android.content.Intent;
 import android.os.Bundle;
-import android.util.Log;
-import android.view.LayoutInflater;
+import android.view.View;
 import android.widget.Button;
-import android.widget.ImageView;
-import android.widget.LinearLayout;
 import android.widget.TextView;
 
 import androidx.activity.EdgeToEdge;
 import com.google.android.material.bottomnavigation.BottomNavigationView;
-import androidx.cardview.widget.CardView;
 import androidx.core.graphics.Insets;
 import androidx.core.view.ViewCompat;
 import androidx.core.view.WindowInsetsCompat;
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
 
-import com.bumptech.glide.Glide;
+import com.example.fairdraw.Adapters.EntrantEventAdapter;
 import com.example.fairdraw.DBs.EventDB;
 import com.example.fairdraw.Fragments.FilterEventsDialogFragment;
-import com.example.fairdraw.Models.Event;
-import com.example.fairdraw.Others.EventState;
+import com.example.fairdraw.Models.EventCard;
+import com.example.fairdraw.Others.DocumentStore;
 import com.example.fairdraw.Others.FilterUtils;
 import com.example.fairdraw.Others.BarType;
 import com.example.fairdraw.R;
-import com.example.fairdraw.ServiceUtility.FirebaseImageStorageService;
 import com.google.firebase.firestore.ListenerRegistration;
 
-import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
-import java.util.Locale;
 import java.util.Set;
 
 /**
@@ -42,10 +37,15 @@ import java.util.Set;
  */
 public class EntrantHomeActivity extends BaseTopBottomActivity {
 
-    private LinearLayout eventListContainer;
+    private RecyclerView eventList;
+    private TextView emptyView;
+    private EntrantEventAdapter eventAdapter;
     private ListenerRegistration eventListener;
 
-    private List<Event> allEvents;  // store full list
+    // Every event card keyed by event id, updated incrementally by the listener. Cards carry
+    // counts instead of the membership lists, so the feed does not grow with entrants.
+    private final DocumentStore<EventCard> eventStore = new DocumentStore<>();
+    private List<EventCard> allEvents;  // current list view of eventStore
     private ArrayList<String> availableTags = new ArrayList<>();
 
     // Store current filter state
@@ -78,18 +78,32 @@ public class EntrantHomeActivity extends BaseTopBottomActivity {
             return insets;
         });
 
-        eventListContainer = findViewById(R.id.event_list_container);
-
-        // Fetch all events from Firestore and listen for real-time updates
-        eventListener = EventDB.listenToEvents(events -> {
-            if (events != null) {
-                allEvents = events;       // store the full list
+        eventList = findViewById(R.id.event_list_container);
+        emptyView = findViewById(R.id.empty_events_text);
+        eventAdapter = new EntrantEventAdapter(event -> {
+            Intent intent = new Intent(EntrantHomeActivity.this, EntrantEventDetails.class);
+            intent.putExtra("event_id", event.getUuid());
+            startActivity(intent);
+        });
+        eventList.setLayoutManager(new LinearLayoutManager(this));
+        eventList.setAdapter(eventAdapter);
+
+        // Fetch all event cards from Firestore and listen for real-time updates
+        eventListener = EventDB.listenToEventCardChanges(new EventDB.EventCardChangesListener() {
+            @Override
+            public void onChanges(List<DocumentStore.Change<EventCard>> changes) {
+                // Only the changed cards were deserialized; the rest are reused from the store
+                if (!eventStore.apply(changes) && allEvents != null) return;
+                allEvents = eventStore.getAll();
                 // Compute distinct available tags
                 computeAvailableTags();
                 // Re-apply the current filters to the updated list
                 applyFilters(currentStatusFilter, currentInterestFilter, currentAvailabilityFilter);
-            } else {
-                showNoEventsMessage();
+            }
+
+            @Override
+            public void onError(Exception e) {
+                if (allEvents == null) showNoEventsMessage();
             }
         });
 
@@ -135,7 +149,7 @@ public class EntrantHomeActivity extends BaseTopBottomActivity {
     private void computeAvailableTags() {
         Set<String> tagsSet = new HashSet<>();
         if (allEvents != null) {
-            for (Event event : allEvents) {
+            for (EventCard event : allEvents) {
                 if (event != null && event.getTags() != null) {
                     tagsSet.addAll(event.getTags());
                 }
@@ -155,93 +169,26 @@ public class EntrantHomeActivity extends BaseTopBottomActivity {
     }
 
     /**
-     * Adds eventscard.xml for each Event
+     * Shows the given events in the recycled event list. The new list is diffed against the
+     * current one on a background thread, so only changed cards are rebound.
      */
-    public void displayEvents(List<Event> events) {
-        eventListContainer.removeAllViews(); // Clear previous views to prevent duplicates
-        LayoutInflater inflater = LayoutInflater.from(this);
-        SimpleDateFormat dateFormat = new SimpleDateFormat("dd/MM/yyyy", Locale.getDefault());
-
-        for (Event event : events) {
-            // If event is null, skip it
-            if (event == null) continue;
-
-            // If event uuid is null, skip it
-            if (event.getUuid() == null) {
-                Log.w("EntrantHomeActivity", "Skipping event with null UUID with title: " + event.getTitle());
-                continue;
-            }
-
-            // Inflate the card layout
-            CardView cardView = (CardView) inflater.inflate(R.layout.eventscard, eventListContainer, false);
-
-            // Bind views
-            TextView titleView = cardView.findViewById(R.id.event_content_title);
-            TextView locationView = cardView.findViewById(R.id.event_content_location);
-            TextView dateView = cardView.findViewById(R.id.event_content_date);
-            TextView capacityView = cardView.findViewById(R.id.event_content_capacity);
-            TextView priceView = cardView.findViewById(R.id.event_content_price);
-            TextView statusView = cardView.findViewById(R.id.eventStatus);
-            Button joinBtn = cardView.findViewById(R.id.event_edit_button);
-            Button viewDetailsButton = cardView.findViewById(R.id.view_details_button);
-            ImageView eventImage = cardView.findViewById(R.id.eventImage);
-
-            // Set values
-            titleView.setText(event.getTitle());
-            locationView.setText(event.getLocation());
-            if (event.getTime() != null) {
-                dateView.setText(dateFormat.format(event.getTime()));
-            } else {
-                dateView.setText("Date not available");
-            }
-
-            capacityView.setText(String.format(Locale.getDefault(),
-                    "%d/%d confirmed - %d on waiting list",
-                    event.getEnrolledList() != null ? event.getEnrolledList().size() : 0,
-                    event.getCapacity(),
-                    event.getWaitingList() != null ? event.getWaitingList().size() : 0
-            ));
-            priceView.setText("$" + event.getPrice());
-
-            // Status
-            statusView.setText(event.getState().toString());
-            if (event.getState() == EventState.PUBLISHED) {
-                statusView.setBackgroundColor(getColor(android.R.color.holo_green_dark));
-            } else if (event.getState() == EventState.CLOSED) {
-                statusView.setBackgroundColor(getColor(android.R.color.holo_red_dark));
-            } else {
-                statusView.setBackgroundColor(getColor(android.R.color.darker_gray));
-            }
-
-            // Set button click
-            viewDetailsButton.setOnClickListener(v -> {
-                // TODO: navigate to event details
-                Intent intent = new Intent(EntrantHomeActivity.this, EntrantEventDetails.class);
-                intent.putExtra("event_id", event.getUuid());
-                startActivity(intent);
-            });
-
-            // Try to fetch the Bitmap for the event image
-            FirebaseImageStorageService storageService = new FirebaseImageStorageService();
-            storageService.getEventPosterDownloadUrl(event.getUuid()).addOnSuccessListener(uri -> {
-                Glide.with(this)
-                        .load(uri)
-                        .placeholder(R.drawable.swimming)
-                        .into(eventImage);
-            }).addOnFailureListener(e -> {
-                Log.e("EntrantHomeActivity", "Failed to load image for event " + event.getUuid(), e);
-            });
-
-            // Add card to layout
-            eventListContainer.addView(cardView);
+    public void displayEvents(List<EventCard> events) {
+        List<EventCard> shown = new ArrayList<>(events.size());
+        for (EventCard event : events) {
+            // Skip null events and events without an id; DiffUtil matches cards by uuid
+            if (event == null || event.getUuid() == null) continue;
+            shown.add(event);
         }
+        emptyView.setVisibility(shown.isEmpty() ? View.VISIBLE : View.GONE);
+        eventList.setVisibility(shown.isEmpty() ? View.GONE : View.VISIBLE);
+        eventAdapter.submitList(shown);
     }
 
     private void applyFilters(String status, String interest, int availability) {
         if (allEvents == null) return;
 
         // Use FilterUtils to filter events (operates on a copy, does not mutate allEvents)
-        List<Event> filtered = FilterUtils.filter(allEvents, status, interest, availability);
+        List<EventCard> filtered = FilterUtils.filterCards(allEvents, status, interest, availability);
 
         // Update UI
         if (filtered.isEmpty()) {
@@ -252,11 +199,6 @@ public class EntrantHomeActivity extends BaseTopBottomActivity {
     }
 
     private void showNoEventsMessage() {
-        eventListContainer.removeAllViews(); // Clear previous views
-        TextView emptyView = new TextView(this);
-        emptyView.setText("No events match your filter criteria.");
-        emptyView.setTextSize(16);
-        emptyView.setPadding(16, 16, 16, 16);
-        eventListContainer.addView(emptyView);
+        displayEvents(Collections.emptyList());
     }
 }
@@ -29,9 +29,10 @@ import com.google.firebase.firestore.ListenerRegistration;
 import com.google.android.material.card.MaterialCardView;
 import android.graphics.Color;
 
-import java.util.Collections;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 
 public class EntrantMyEventsActivity extends BaseTopBottomActivity {
 
@@ -39,6 +40,10 @@ public class EntrantMyEventsActivity extends BaseTopBottomActivity {
     private LinearLayout historyContainer;
     private LayoutInflater inflater;
 
+    // History and status map the rows were last built from
+    private List<String> renderedHistory;
+    private Map<String, Map<String, Object>> renderedStatus;
+
     @Override
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
@@ -78,6 +83,8 @@ public class EntrantMyEventsActivity extends BaseTopBottomActivity {
 
         reg = EntrantDB.listenToEntrant(deviceId, entrant -> {
             if (entrant == null) {
+                renderedHistory = null;
+                renderedStatus = null;
                 populateEmpty();
                 return;
             }
@@ -90,68 +97,102 @@ public class EntrantMyEventsActivity extends BaseTopBottomActivity {
             Log.d("EntrantMyEventsActivity", "Fetched entrant event history status map: " + statusMap);
 
             if (history == null || history.isEmpty()) {
+                renderedHistory = null;
+                renderedStatus = null;
                 populateEmpty();
                 return;
             }
 
-            // Clear previous rows
-            historyContainer.removeAllViews();
-            LayoutInflater inflater = LayoutInflater.from(this);
-
-            // For each event id, inflate a row and populate it (async fetch of Event)
-            for (String eventId : history) {
-                final View row = inflater.inflate(R.layout.history_card, historyContainer, false);
-
-                TextView tvTitle = row.findViewById(R.id.tvTitle);
-                TextView tvDate = row.findViewById(R.id.tvDate);
-                MaterialCardView statusStrip = row.findViewById(R.id.statusStrip);
-
-                // show placeholder until event loads
-                tvTitle.setText(eventId);
-                tvDate.setText("Loading...");
-                statusStrip.setCardBackgroundColor(Color.parseColor("#BDBDBD"));
-
-                historyContainer.addView(row);
-
-                // Fetch event details and update the row when available
-                EventDB.getEvent(eventId, event -> {
-                    runOnUiThread(() -> {
-                        if (event != null) {
-                            String title = event.getTitle() == null ? eventId : event.getTitle();
-                            tvTitle.setText(title);
-
-                            Map<String, Object> statusObj = statusMap.get(eventId);
-                            assert statusObj != null;
-                            String entrantStatus = (String) statusObj.get("status");
-                            Timestamp lastUpdated = (Timestamp) statusObj.get("lastUpdated");
-
-                            if (lastUpdated != null) {
-                                assert entrantStatus != null;
-                                tvDate.setText(String.format("%s · %s", entrantStatus.toUpperCase(), lastUpdated.toDate().toString()));
-                            } else {
-                                tvDate.setText("");
-                            }
-
-                            if (entrantStatus != null) {
-                                statusStrip.setCardBackgroundColor(
-                                        EntrantEventStatus.colorForStatus(this, entrantStatus)
-                                );
-                            }
-                        } else {
-                            tvTitle.setText(eventId);
-                            tvDate.setText("(event not found)");
-                            statusStrip.setCardBackgroundColor(Color.parseColor("#E6E6E6"));
-                        }
-                    });
-                });
+            // The entrant document also changes for notifications and profile edits;
+            // only rebuild the rows when the history itself changed
+            if (history.equals(renderedHistory) && Objects.equals(statusMap, renderedStatus)) {
+                return;
             }
+            renderedHistory = new ArrayList<>(history);
+            renderedStatus = statusMap;
+            renderHistory(renderedHistory, statusMap);
         });
     }
 
+    /**
+     * Inflates one row per history entry and fills them once the events are resolved.
+     * Events are fetched together with {@link EventDB#getEventsByIds(List, EventDB.GetEventsCallback)},
+     * which reuses events it has already resolved.
+     */
+    private void renderHistory(List<String> history, Map<String, Map<String, Object>> statusMap) {
+        historyContainer.removeAllViews();
+        List<View> rows = new ArrayList<>(history.size());
+
+        for (String eventId : history) {
+            final View row = inflater.inflate(R.layout.history_card, historyContainer, false);
+
+            TextView tvTitle = row.findViewById(R.id.tvTitle);
+            TextView tvDate = row.findViewById(R.id.tvDate);
+            MaterialCardView statusStrip = row.findViewById(R.id.statusStrip);
+
+            // show placeholder until event loads
+            tvTitle.setText(eventId);
+            tvDate.setText("Loading...");
+            statusStrip.setCardBackgroundColor(Color.parseColor("#BDBDBD"));
+
+            historyContainer.addView(row);
+            rows.add(row);
+        }
+
+        EventDB.getEventsByIds(history, events -> runOnUiThread(() -> {
+            // A newer history may have been rendered while these events were loading
+            if (history != renderedHistory) return;
+            if (events == null) {
+                for (View row : rows) {
+                    ((TextView) row.findViewById(R.id.tvDate)).setText("(failed to load)");
+                }
+                return;
+            }
+            for (int i = 0; i < rows.size(); i++) {
+                bindRow(rows.get(i), history.get(i), events.get(i), statusMap);
+            }
+        }));
+    }
+
+    private void bindRow(View row, String eventId, Event event,
+                         Map<String, Map<String, Object>> statusMap) {
+        TextView tvTitle = row.findViewById(R.id.tvTitle);
+        TextView tvDate = row.findViewById(R.id.tvDate);
+        MaterialCardView statusStrip = row.findViewById(R.id.statusStrip);
+
+        if (event == null) {
+            tvTitle.setText(eventId);
+            tvDate.setText("(event not found)");
+            statusStrip.setCardBackgroundColor(Color.parseColor("#E6E6E6"));
+            return;
+        }
+
+        String title = event.getTitle() == null ? eventId : event.getTitle();
+        tvTitle.setText(title);
+
+        Map<String, Object> statusObj = statusMap == null ? null : statusMap.get(eventId);
+        String entrantStatus = statusObj == null ? null : (String) statusObj.get("status");
+        Timestamp lastUpdated = statusObj == null ? null : (Timestamp) statusObj.get("lastUpdated");
+
+        if (lastUpdated != null && entrantStatus != null) {
+            tvDate.setText(String.format("%s · %s", entrantStatus.toUpperCase(), lastUpdated.toDate().toString()));
+        } else {
+            tvDate.setText("");
+        }
+
+        if (entrantStatus != null) {
+            statusStrip.setCardBackgroundColor(
+                    EntrantEventStatus.colorForStatus(this, entrantStatus)
+            );
+        }
+    }
+
     @Override
     protected void onStop() {
         super.onStop();
         if (reg != null) { reg.remove(); reg = null; }
+        renderedHistory = null;
+        renderedStatus = null;
     }
 
     private void populateEmpty() {
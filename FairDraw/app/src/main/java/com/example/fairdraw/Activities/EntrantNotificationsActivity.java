@@ -1,7 +1,9 @@
 package com.example.fairdraw.Activities;
 
 import android.os.Bundle;
+import android.widget.TextView;
 
+import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
@@ -9,39 +11,72 @@ import androidx.recyclerview.widget.RecyclerView;
 import com.example.fairdraw.DBs.EntrantDB;
 import com.example.fairdraw.Others.BarType;
 import com.example.fairdraw.Fragments.DecisionFragment;
-import com.example.fairdraw.Models.Entrant;
 import com.example.fairdraw.Others.EntrantNotification;
 import com.example.fairdraw.ServiceUtility.DevicePrefsManager;
 import com.example.fairdraw.Adapters.EntrantNotificationAdapter;
 import com.example.fairdraw.R;
 import com.google.android.material.bottomnavigation.BottomNavigationView;
+import com.google.firebase.firestore.DocumentSnapshot;
 import com.google.firebase.firestore.ListenerRegistration;
 
-import java.util.Collections;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 
-/** Entrant screen: listens to entrants/{deviceId}.notifications and displays them. */
+/**
+ * Entrant screen: shows entrants/{deviceId}/notifications newest first. The newest page is
+ * kept live; older pages are loaded with a cursor as the user scrolls.
+ */
 public final class EntrantNotificationsActivity extends BaseTopBottomActivity {
+    private static final int PAGE_SIZE = 20;
+    // Start loading the next page when this many rows are left below the last visible one
+    private static final int LOAD_MORE_THRESHOLD = 5;
+
     private ListenerRegistration reg;
+    private ListenerRegistration unreadReg;
     private EntrantNotificationAdapter adapter;
+    private TextView tvHeader;
+    private String deviceId;
+
+    // Notifications on screen keyed by document id
+    private final Map<String, EntrantNotification> loaded = new LinkedHashMap<>();
+    private DocumentSnapshot pageCursor;
+    private boolean loadingPage = false;
+    private boolean reachedEnd = false;
 
     @Override
     protected void onCreate(@Nullable Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
         setContentView(R.layout.fragment_notifications_entrant); // contains @id/rvNotifications
 
+        deviceId = DevicePrefsManager.getDeviceId(this);
+        tvHeader = findViewById(R.id.tvHeader);
+
         RecyclerView rv = findViewById(R.id.rvNotifications);
-        rv.setLayoutManager(new LinearLayoutManager(this));
+        LinearLayoutManager lm = new LinearLayoutManager(this);
+        rv.setLayoutManager(lm);
 
         adapter = new EntrantNotificationAdapter(new EntrantNotificationAdapter.OnAction() {
             @Override public void onAcceptDecline(EntrantNotification n) {
+                markRead(n);
                 // TODO: navigate to event details
                 new DecisionFragment().newInstance(n).show(getSupportFragmentManager(), "Decision");
             }
             @Override public void onItemClick(EntrantNotification n) {
-
+                markRead(n);
             }
         });
         rv.setAdapter(adapter);
+        rv.addOnScrollListener(new RecyclerView.OnScrollListener() {
+            @Override
+            public void onScrolled(@NonNull RecyclerView recyclerView, int dx, int dy) {
+                if (dy <= 0) return;
+                if (lm.findLastVisibleItemPosition() >= adapter.getItemCount() - LOAD_MORE_THRESHOLD) {
+                    loadNextPage();
+                }
+            }
+        });
 
         // Setup the top and bottom bars
         // Use shared helpers from BaseTopBottomActivity
@@ -51,38 +86,73 @@ public final class EntrantNotificationsActivity extends BaseTopBottomActivity {
         BottomNavigationView bottomNav = findViewById(R.id.home_bottom_nav_bar);
         if (bottomNav != null) bottomNav.setSelectedItemId(R.id.notifications_activity);
 
+        // Move anything still stored on the entrant document, then load the first page
+        EntrantDB.migrateLegacyNotifications(deviceId, (success, e) -> loadNextPage());
     }
 
     @Override
     protected void onStart() {
         super.onStart();
-        String deviceId = DevicePrefsManager.getDeviceId(this);
-        reg = EntrantDB.getEntrantCollection()
-                .document(deviceId)
-                .addSnapshotListener((snap, err) -> {
-                    if (err != null || snap == null || !snap.exists()) {
-                        adapter.setItems(Collections.emptyList());
-                        return;
-                    }
-
-                    Entrant entrant = snap.toObject(Entrant.class);
-
-                    assert entrant != null;
-                    adapter.setItems(entrant.getNotifications());
-                });
+        reg = EntrantDB.listenToNotifications(deviceId, PAGE_SIZE, new EntrantDB.NotificationsListener() {
+            @Override
+            public void onChanged(List<EntrantNotification> notifications) {
+                merge(notifications);
+            }
+
+            @Override
+            public void onError(Exception e) {
+                // Keep whatever is already on screen
+            }
+        });
+        unreadReg = EntrantDB.listenToEntrant(deviceId, entrant -> {
+            if (tvHeader == null) return;
+            long unread = entrant == null ? 0 : entrant.getUnreadNotifications();
+            tvHeader.setText(unread > 0 ? "Notifications (" + unread + ")" : "Notifications");
+        });
     }
 
     @Override
     protected void onStop() {
         super.onStop();
         if (reg != null) { reg.remove(); reg = null; }
+        if (unreadReg != null) { unreadReg.remove(); unreadReg = null; }
     }
 
     // --- helpers ---
 
+    private void loadNextPage() {
+        if (loadingPage || reachedEnd) return;
+        loadingPage = true;
+        EntrantDB.getNotificationsPage(deviceId, pageCursor, PAGE_SIZE, (page, lastVisible, e) -> {
+            loadingPage = false;
+            if (e != null) return;
+            pageCursor = lastVisible;
+            reachedEnd = lastVisible == null;
+            merge(page);
+        });
+    }
 
+    /**
+     * Adds or replaces notifications by document id and re-sorts the list newest first.
+     * Notifications written with a pending server timestamp sort to the top.
+     */
+    private void merge(List<EntrantNotification> notifications) {
+        for (EntrantNotification n : notifications) {
+            if (n.id != null) loaded.put(n.id, n);
+        }
+        List<EntrantNotification> sorted = new ArrayList<>(loaded.values());
+        sorted.sort((a, b) -> {
+            if (a.timestamp == null || b.timestamp == null) {
+                return a.timestamp == b.timestamp ? 0 : (a.timestamp == null ? -1 : 1);
+            }
+            return b.timestamp.compareTo(a.timestamp);
+        });
+        adapter.setItems(sorted);
+    }
 
-    private static String asStr(Object o) {
-        return o == null ? null : String.valueOf(o);
+    private void markRead(EntrantNotification n) {
+        if (n.read || n.id == null) return;
+        n.read = true;
+        EntrantDB.markNotificationRead(deviceId, n.id, null);
     }
 }
@@ -12,7 +12,6 @@ import android.widget.Toast;
 import androidx.activity.EdgeToEdge;
 import androidx.activity.result.ActivityResultLauncher;
 import androidx.activity.result.contract.ActivityResultContracts;
-import androidx.annotation.NonNull;
 import androidx.appcompat.app.AppCompatActivity;
 import androidx.core.graphics.Insets;
 import androidx.core.view.ViewCompat;
@@ -23,10 +22,11 @@ import androidx.recyclerview.widget.RecyclerView;
 import com.bumptech.glide.Glide;
 import com.example.fairdraw.Adapters.EntrantListArrayAdapter;
 import com.example.fairdraw.DBs.EventDB;
-import com.example.fairdraw.DBs.UserDB;
 import com.example.fairdraw.Models.Event;
+import com.example.fairdraw.Others.CsvWriter;
 import com.example.fairdraw.Others.ListItemEntrant;
 import com.example.fairdraw.R;
+import com.example.fairdraw.ServiceUtility.EnrolledEntrantsCsvExporter;
 import com.example.fairdraw.ServiceUtility.FirebaseImageStorageService;
 
 import java.io.IOException;
@@ -36,7 +36,6 @@ import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
 import java.util.Locale;
-import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  *  OrganizerExportActivity class allows organizers to export the final entrants list to a CSV file.
@@ -59,7 +58,9 @@ public class OrganizerExportActivity extends BaseTopBottomActivity{
 
     // Fields used for ACTION_CREATE_DOCUMENT flow using Activity Result API
     private ActivityResultLauncher<Intent> createFileLauncher;
-    private byte[] pendingCsvBytes = null;
+    // What to write once the user picks a location: either ids to export or ready-made rows
+    private List<String> pendingExportIds = null;
+    private List<String[]> pendingCsvRows = null;
     private String pendingCsvFileName = null;
 
     protected void onCreate(Bundle savedInstanceState) {
@@ -83,52 +84,14 @@ public class OrganizerExportActivity extends BaseTopBottomActivity{
                 Uri uri = data.getData();
                 if (uri == null) {
                     Toast.makeText(this, "No location selected to save the CSV.", Toast.LENGTH_LONG).show();
-                    pendingCsvBytes = null;
-                    pendingCsvFileName = null;
+                    clearPendingCsv();
                     return;
                 }
-
-                if (pendingCsvBytes == null) {
-                    Toast.makeText(this, "No CSV content to save.", Toast.LENGTH_LONG).show();
-                    pendingCsvFileName = null;
-                    return;
-                }
-
-                try (OutputStream os = getContentResolver().openOutputStream(uri)) {
-                    if (os == null) throw new IOException("OutputStream was null");
-                    os.write(pendingCsvBytes);
-                    os.flush();
-                } catch (IOException ioe) {
-                    Log.e("OrganizerManageEvent", "Failed to write CSV to selected Uri", ioe);
-                    Toast.makeText(this, "Failed to save CSV: " + ioe.getMessage(), Toast.LENGTH_LONG).show();
-                    pendingCsvBytes = null;
-                    pendingCsvFileName = null;
-                    return;
-                }
-
-                // clear pending data and notify
-                String savedFileName = pendingCsvFileName;
-                pendingCsvBytes = null;
-                pendingCsvFileName = null;
-                Toast.makeText(this, "Saved CSV to chosen location: " + (savedFileName != null ? savedFileName : ""), Toast.LENGTH_LONG).show();
-
-                // Offer to share the newly created document
-                try {
-                    Uri shareUri = data.getData();
-                    Intent share = new Intent(Intent.ACTION_SEND);
-                    share.setType("text/csv");
-                    share.putExtra(Intent.EXTRA_STREAM, shareUri);
-                    share.addFlags(Intent.FLAG_GRANT_READ_URI_PERMISSION);
-                    startActivity(Intent.createChooser(share, "Share enrolled entrants"));
-                } catch (Exception ex) {
-                    Log.w("OrganizerManageEvent", "Share chooser failed", ex);
-                }
-
+                saveCsvTo(uri);
             } else {
                 // User cancelled or no data
                 Toast.makeText(this, "Save cancelled.", Toast.LENGTH_SHORT).show();
-                pendingCsvBytes = null;
-                pendingCsvFileName = null;
+                clearPendingCsv();
             }
         });
 
@@ -214,23 +177,41 @@ public class OrganizerExportActivity extends BaseTopBottomActivity{
 
     // Export Final Entrant List to CSV
     private void writeCsvAndShare(List<String[]> rows, String eventTitle) {
-        // Build CSV content bytes
-        StringBuilder sb = getStringBuilder(rows);
-        byte[] bytes = sb.toString().getBytes();
+        pendingCsvRows = rows;
+        promptForCsvLocation(eventTitle);
+    }
 
+    /**
+     * Export the enrolled entrants to a CSV file. The user first picks where to save it; the
+     * rows are then streamed into that document by {@link EnrolledEntrantsCsvExporter}, which
+     * looks up name/email/phone in batches and keeps the order of the enrolled list.
+     */
+    private void exportEnrolledEntrantsToCsv(List<String> enrolledIds, String eventTitle) {
+        if (enrolledIds == null ) {
+            Toast.makeText(this, "No enrolled entrants to export.", Toast.LENGTH_SHORT).show();
+            return;
+        }else if(enrolledIds.isEmpty()){
+            Toast.makeText(this, "No enrolled entrants to export.", Toast.LENGTH_SHORT).show();
+            return;
+        }
+
+        pendingExportIds = new ArrayList<>(enrolledIds);
+        promptForCsvLocation(eventTitle);
+    }
+
+    /**
+     * Launches ACTION_CREATE_DOCUMENT so the user can pick Downloads or another location.
+     */
+    private void promptForCsvLocation(String eventTitle) {
         // File name with timestamp
         String safeTitle = (eventTitle == null || eventTitle.isEmpty()) ? "event" : eventTitle.replaceAll("[^a-zA-Z0-9-_]", "_");
         String time = new SimpleDateFormat("yyyyMMdd_HHmmss", Locale.US).format(new Date());
-        String fileName = safeTitle + "_enrolled_" + time + ".csv";
-
-        // Store pending bytes and fileName, then launch ACTION_CREATE_DOCUMENT so the user can pick Downloads or another location
-        pendingCsvBytes = bytes;
-        pendingCsvFileName = fileName;
+        pendingCsvFileName = safeTitle + "_enrolled_" + time + ".csv";
 
         Intent intent = new Intent(Intent.ACTION_CREATE_DOCUMENT);
         intent.addCategory(Intent.CATEGORY_OPENABLE);
         intent.setType("text/csv");
-        intent.putExtra(Intent.EXTRA_TITLE, fileName);
+        intent.putExtra(Intent.EXTRA_TITLE, pendingCsvFileName);
         // Use ActivityResultLauncher instead of deprecated startActivityForResult
         try {
             createFileLauncher.launch(intent);
@@ -239,67 +220,89 @@ public class OrganizerExportActivity extends BaseTopBottomActivity{
             Toast.makeText(this, "Unable to open save dialog: " + ex.getMessage(), Toast.LENGTH_LONG).show();
         }
     }
+
     /**
-     * Export the enrolled entrant IDs to a CSV file. For each entrant id we try to fetch
-     * a User record to include name/email/phone if available. The resulting file is saved
-     * into the app external files directory and then shared using a FileProvider URI.
+     * Writes the pending CSV into the document the user picked.
      */
-    private void exportEnrolledEntrantsToCsv(List<String> enrolledIds, String eventTitle) {
-        if (enrolledIds == null ) {
-            Toast.makeText(this, "No enrolled entrants to export.", Toast.LENGTH_SHORT).show();
-            return;
-        }else if(enrolledIds.isEmpty()){
-            Toast.makeText(this, "No enrolled entrants to export.", Toast.LENGTH_SHORT).show();
+    private void saveCsvTo(Uri uri) {
+        List<String> ids = pendingExportIds;
+        List<String[]> rows = pendingCsvRows;
+        String fileName = pendingCsvFileName;
+        clearPendingCsv();
+
+        if (ids == null && rows == null) {
+            Toast.makeText(this, "No CSV content to save.", Toast.LENGTH_LONG).show();
             return;
         }
 
-        // Header
-        final List<String[]> rows = new ArrayList<>();
-        rows.add(new String[]{"DeviceId", "Name", "Email", "Phone"});
-
-        // We'll fetch User objects for each entrant asynchronously and collect rows.
-        AtomicInteger remaining = new AtomicInteger(enrolledIds.size());
-
-        for (String deviceId : enrolledIds) {
-            UserDB.getUserOrNull(deviceId, (user, ex) -> {
-                if (user != null) {
-                    rows.add(new String[]{deviceId,
-                            user.getName() == null ? "" : user.getName(),
-                            user.getEmail() == null ? "" : user.getEmail(),
-                            user.getPhoneNum() == null ? "" : user.getPhoneNum()});
-                } else {
-                    // Either user not found or error; still include id and leave other columns blank
-                    rows.add(new String[]{deviceId, "", "", ""});
-                    if (ex != null) Log.w("OrganizerManageEvent", "Failed to fetch user " + deviceId, ex);
-                }
+        OutputStream os;
+        try {
+            os = getContentResolver().openOutputStream(uri);
+            if (os == null) throw new IOException("OutputStream was null");
+        } catch (IOException ioe) {
+            Log.e("OrganizerManageEvent", "Failed to write CSV to selected Uri", ioe);
+            Toast.makeText(this, "Failed to save CSV: " + ioe.getMessage(), Toast.LENGTH_LONG).show();
+            return;
+        }
 
-                if (remaining.decrementAndGet() == 0) {
-                    // All fetched - write CSV
-                    writeCsvAndShare(rows, eventTitle);
-                }
-            });
+        if (rows != null) {
+            try (CsvWriter csv = new CsvWriter(os)) {
+                for (String[] row : rows) csv.writeRow(row);
+            } catch (IOException ioe) {
+                Log.e("OrganizerManageEvent", "Failed to write CSV to selected Uri", ioe);
+                Toast.makeText(this, "Failed to save CSV: " + ioe.getMessage(), Toast.LENGTH_LONG).show();
+                return;
+            }
+            onCsvSaved(uri, fileName);
+            return;
         }
-    }
 
-    @NonNull
-    private static StringBuilder getStringBuilder(List<String[]> rows) {
-        StringBuilder sb = new StringBuilder();
-        for (String[] row : rows) {
-            for (int i = 0; i < row.length; i++) {
-                String cell = row[i] == null ? "" : row[i];
-                // Escape quotes
-                cell = cell.replace("\"", "\"\"");
-                if (cell.contains(",") || cell.contains("\n") || cell.contains("\"")) {
-                    sb.append('"').append(cell).append('"');
-                } else {
-                    sb.append(cell);
+        CharSequence buttonText = btnDownloadFinalEntrants.getText();
+        btnDownloadFinalEntrants.setEnabled(false);
+        new EnrolledEntrantsCsvExporter(ids, os, new EnrolledEntrantsCsvExporter.Listener() {
+            @Override
+            public void onProgress(int written, int total) {
+                btnDownloadFinalEntrants.setText(String.format(Locale.getDefault(), "Exporting %d/%d", written, total));
+            }
+
+            @Override
+            public void onComplete(int written, int failedLookups) {
+                btnDownloadFinalEntrants.setText(buttonText);
+                btnDownloadFinalEntrants.setEnabled(true);
+                if (failedLookups > 0) {
+                    Log.w("OrganizerManageEvent", failedLookups + " entrants exported without user details");
                 }
-                if (i < row.length - 1) sb.append(',');
+                onCsvSaved(uri, fileName);
             }
-            sb.append('\n');
-        }
-        return sb;
+
+            @Override
+            public void onError(Exception e) {
+                btnDownloadFinalEntrants.setText(buttonText);
+                btnDownloadFinalEntrants.setEnabled(true);
+                Log.e("OrganizerManageEvent", "Failed to write CSV to selected Uri", e);
+                Toast.makeText(OrganizerExportActivity.this, "Failed to save CSV: " + e.getMessage(), Toast.LENGTH_LONG).show();
+            }
+        }).start();
     }
 
+    private void onCsvSaved(Uri uri, String fileName) {
+        Toast.makeText(this, "Saved CSV to chosen location: " + (fileName != null ? fileName : ""), Toast.LENGTH_LONG).show();
 
+        // Offer to share the newly created document
+        try {
+            Intent share = new Intent(Intent.ACTION_SEND);
+            share.setType("text/csv");
+            share.putExtra(Intent.EXTRA_STREAM, uri);
+            share.addFlags(Intent.FLAG_GRANT_READ_URI_PERMISSION);
+            startActivity(Intent.createChooser(share, "Share enrolled entrants"));
+        } catch (Exception ex) {
+            Log.w("OrganizerManageEvent", "Share chooser failed", ex);
+        }
+    }
+
+    private void clearPendingCsv() {
+        pendingExportIds = null;
+        pendingCsvRows = null;
+        pendingCsvFileName = null;
+    }
 }
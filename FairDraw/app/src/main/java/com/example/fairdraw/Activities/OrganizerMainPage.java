@@ -6,6 +6,7 @@ import android.util.Log;
 import android.widget.FrameLayout;
 
 import androidx.activity.EdgeToEdge;
+import androidx.annotation.NonNull;
 import androidx.core.graphics.Insets;
 import androidx.core.view.ViewCompat;
 import androidx.core.view.WindowInsetsCompat;
@@ -15,20 +16,21 @@ import androidx.recyclerview.widget.RecyclerView;
 
 import com.example.fairdraw.Adapters.EventRecyclerAdapter;
 import com.example.fairdraw.Adapters.ItemSpacingDecoration;
+import com.example.fairdraw.DBs.EventDB;
 import com.example.fairdraw.DBs.UserDB;
 import com.example.fairdraw.Models.Event;
 import com.example.fairdraw.Models.User;
 import com.example.fairdraw.Others.BarType;
+import com.example.fairdraw.Others.EventStore;
 import com.example.fairdraw.Others.OrganizerEventsDataHolder;
 import com.example.fairdraw.R;
 import com.example.fairdraw.ServiceUtility.DevicePrefsManager;
+import com.example.fairdraw.ServiceUtility.OrganizerEventFeed;
 import com.google.android.material.dialog.MaterialAlertDialogBuilder;
 import com.google.android.material.snackbar.Snackbar;
-import com.google.firebase.firestore.CollectionReference;
-import com.google.firebase.firestore.FirebaseFirestore;
-import com.google.firebase.firestore.QueryDocumentSnapshot;
 
 import java.util.ArrayList;
+import java.util.List;
 
 /**
  * Activity for the organizer main page.
@@ -37,8 +39,10 @@ public class OrganizerMainPage extends BaseTopBottomActivity {
     FrameLayout fragmentContainer;
     RecyclerView eventList;
     EventRecyclerAdapter eventAdapter;
-    FirebaseFirestore db;
-    CollectionReference eventsRef;
+    // Paged listener over this organizer's events only
+    OrganizerEventFeed eventFeed;
+    // Request the next page when this many rows are left below the last visible one
+    private static final int LOAD_MORE_THRESHOLD = 5;
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -142,35 +146,38 @@ public class OrganizerMainPage extends BaseTopBottomActivity {
         // Get User DeviceID
         final String deviceId = DevicePrefsManager.getDeviceId(this);
 
-        // Populate event list with database data
-        db = FirebaseFirestore.getInstance();
-        eventsRef = db.collection("events");
-        eventsRef.addSnapshotListener((value, e) -> {
-            if (e != null) {
-                Log.e("Firestore", e.toString());
-            }
-            if (value != null && !value.isEmpty()) {
-                ArrayList<Event> filtered = new ArrayList<>();
-                for (QueryDocumentSnapshot doc : value) {
-                    Event event = doc.toObject(Event.class);
-                    if (event.getOrganizer() == null){
-                        continue;
+        // Populate event list with this organizer's events, one page at a time. Each page
+        // listener only reports the events that changed, which the holder applies in place.
+        OrganizerEventsDataHolder.clear();
+        if (eventFeed != null) eventFeed.stop();
+        eventFeed = new OrganizerEventFeed(deviceId, OrganizerEventFeed.DEFAULT_PAGE_SIZE,
+                new EventDB.EventChangesListener() {
+                    @Override
+                    public void onChanges(List<EventStore.Change> changes) {
+                        // Update the shared holder which will notify adapters
+                        OrganizerEventsDataHolder.applyChanges(changes);
                     }
-                    if (event.getOrganizer().equals(deviceId)){
-                        filtered.add(event);
+
+                    @Override
+                    public void onError(Exception e) {
+                        Log.e("Firestore", e.toString());
                     }
-                }
-                // Update the shared holder which will notify adapters
-                OrganizerEventsDataHolder.setDataList(filtered);
-            } else {
-                // If empty, clear the holder
-                OrganizerEventsDataHolder.clear();
-            }
-        });
+                });
+        eventFeed.start();
 
         // Set up RecyclerView
         eventList = findViewById(R.id.event_list);
-        eventList.setLayoutManager(new LinearLayoutManager(this));
+        LinearLayoutManager layoutManager = new LinearLayoutManager(this);
+        eventList.setLayoutManager(layoutManager);
+        eventList.addOnScrollListener(new RecyclerView.OnScrollListener() {
+            @Override
+            public void onScrolled(@NonNull RecyclerView recyclerView, int dx, int dy) {
+                if (dy > 0 && layoutManager.findLastVisibleItemPosition()
+                        >= eventAdapter.getItemCount() - LOAD_MORE_THRESHOLD) {
+                    eventFeed.loadMore();
+                }
+            }
+        });
 
         // use custom spacing between MaterialCardView items
         int spacing = getResources().getDimensionPixelSize(R.dimen.event_item_spacing);
@@ -189,4 +196,13 @@ public class OrganizerMainPage extends BaseTopBottomActivity {
         // inform holder about adapter so external code can update it
         OrganizerEventsDataHolder.setEventAdapter(eventAdapter);
     }
+
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+        if (eventFeed != null) {
+            eventFeed.stop();
+            eventFeed = null;
+        }
+    }
 }
\ No newline at end of file
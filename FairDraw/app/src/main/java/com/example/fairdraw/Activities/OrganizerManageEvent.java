@@ -10,8 +10,6 @@ import com.example.fairdraw.Others.EntrantEventStatus;
 import com.google.android.material.snackbar.Snackbar;
 
 import androidx.activity.EdgeToEdge;
-import androidx.activity.result.ActivityResultLauncher;
-import androidx.activity.result.contract.ActivityResultContracts;
 import androidx.annotation.NonNull;
 import androidx.core.graphics.Insets;
 import androidx.core.view.ViewCompat;
@@ -27,23 +25,19 @@ import com.example.fairdraw.Adapters.EntrantListArrayAdapter;
 import com.example.fairdraw.Others.EntrantNotification;
 import com.example.fairdraw.Others.NotificationType;
 import com.example.fairdraw.ServiceUtility.FirebaseImageStorageService;
+import com.example.fairdraw.ServiceUtility.NotificationDispatcher;
 import com.example.fairdraw.Others.ListItemEntrant;
 import com.example.fairdraw.Models.Event;
 import com.example.fairdraw.R;
 import com.example.fairdraw.Fragments.SendNotificationDialogFragment;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.ListenerRegistration;
 
-import java.io.IOException;
-import java.io.OutputStream;
-import java.text.SimpleDateFormat;
 import java.util.ArrayList;
-import java.util.Date;
 import java.util.List;
-import java.util.Locale;
-import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
 
 import android.content.Intent;
-import android.net.Uri;
 
 /**
  * OrganizerManageEvent class allows organizers to manage event details,
@@ -66,11 +60,20 @@ public class OrganizerManageEvent extends BaseTopBottomActivity {
     Button btnDownloadFinalEntrants;
     Button btnSeeWaitingMap;
     FirebaseImageStorageService storageService;
-
-    // Fields used for ACTION_CREATE_DOCUMENT flow using Activity Result API
-    ActivityResultLauncher<Intent> createFileLauncher;
-    byte[] pendingCsvBytes = null;
-    String pendingCsvFileName = null;
+    private ListenerRegistration eventListener;
+    private boolean migrationStarted;
+
+    // The waiting list of events stored as entries is shown a page at a time
+    private static final int WAITING_PAGE_SIZE = 50;
+    private static final int WAITING_LOAD_MORE_THRESHOLD = 10;
+    private final List<ListItemEntrant> waitingItems = new ArrayList<>();
+    private EntrantListArrayAdapter waitingAdapter;
+    private DocumentSnapshot waitingCursor;
+    private boolean waitingLoading;
+    private boolean waitingExhausted;
+    // Incremented whenever the pages are reset, so pages of an older listing are dropped
+    private int waitingGeneration;
+    TextView tvWaitingHeader;
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -79,63 +82,6 @@ public class OrganizerManageEvent extends BaseTopBottomActivity {
         setContentView(R.layout.activity_organizer_manage_event);
         eventId = getIntent().getStringExtra("eventId");
 
-        // Register the ActivityResultLauncher to handle the CREATE_DOCUMENT result
-        createFileLauncher = registerForActivityResult(new ActivityResultContracts.StartActivityForResult(), result -> {
-            Intent data = result.getData();
-            int resultCode = result.getResultCode();
-            if (resultCode == RESULT_OK && data != null) {
-                Uri uri = data.getData();
-                if (uri == null) {
-                    Snackbar.make(findViewById(android.R.id.content), "No location selected to save the CSV.", Snackbar.LENGTH_LONG).show();
-                    pendingCsvBytes = null;
-                    pendingCsvFileName = null;
-                    return;
-                }
-
-                if (pendingCsvBytes == null) {
-                    Snackbar.make(findViewById(android.R.id.content), "No CSV content to save.", Snackbar.LENGTH_LONG).show();
-                    pendingCsvFileName = null;
-                    return;
-                }
-
-                try (OutputStream os = getContentResolver().openOutputStream(uri)) {
-                    if (os == null) throw new IOException("OutputStream was null");
-                    os.write(pendingCsvBytes);
-                    os.flush();
-                } catch (IOException ioe) {
-                    Log.e("OrganizerManageEvent", "Failed to write CSV to selected Uri", ioe);
-                    Snackbar.make(findViewById(android.R.id.content), "Failed to save CSV: " + ioe.getMessage(), Snackbar.LENGTH_LONG).show();
-                    pendingCsvBytes = null;
-                    pendingCsvFileName = null;
-                    return;
-                }
-
-                // clear pending data and notify
-                String savedFileName = pendingCsvFileName;
-                pendingCsvBytes = null;
-                pendingCsvFileName = null;
-                Snackbar.make(findViewById(android.R.id.content), "Saved CSV to chosen location: " + (savedFileName != null ? savedFileName : ""), Snackbar.LENGTH_LONG).show();
-
-                // Offer to share the newly created document
-                try {
-                    Uri shareUri = data.getData();
-                    Intent share = new Intent(Intent.ACTION_SEND);
-                    share.setType("text/csv");
-                    share.putExtra(Intent.EXTRA_STREAM, shareUri);
-                    share.addFlags(Intent.FLAG_GRANT_READ_URI_PERMISSION);
-                    startActivity(Intent.createChooser(share, "Share enrolled entrants"));
-                } catch (Exception ex) {
-                    Log.w("OrganizerManageEvent", "Share chooser failed", ex);
-                }
-
-            } else {
-                // User cancelled or no data
-                Snackbar.make(findViewById(android.R.id.content), "Save cancelled.", Snackbar.LENGTH_SHORT).show();
-                pendingCsvBytes = null;
-                pendingCsvFileName = null;
-            }
-        });
-
         // Setup the top and bottom edge-to-edge insets
         ViewCompat.setOnApplyWindowInsetsListener(findViewById(R.id.top_bar), (v, insets) -> {
             Insets systemBars = insets.getInsets(WindowInsetsCompat.Type.systemBars());
@@ -169,11 +115,12 @@ public class OrganizerManageEvent extends BaseTopBottomActivity {
         rvCancelled = findViewById(R.id.rvCancelled);
         rvRegistered = findViewById(R.id.rvRegistered);
         rvWaiting = findViewById(R.id.rvWaiting);
+        tvWaitingHeader = findViewById(R.id.tvWaitingHeader);
         btnSendNotification = findViewById(R.id.btnSendNotification);
         btnDownloadFinalEntrants = findViewById(R.id.btnReturn);
         btnSeeWaitingMap = findViewById(R.id.btnSeeWaitingMap);
 
-        EventDB.getEventCollection().document(eventId).addSnapshotListener((snapshot, e) -> {
+        eventListener = EventDB.getEventCollection().document(eventId).addSnapshotListener((snapshot, e) -> {
             if (e != null) {
                 Log.w("OrganizerManageEvent", "Listen failed.", e);
                 return;
@@ -182,11 +129,83 @@ public class OrganizerManageEvent extends BaseTopBottomActivity {
             if (snapshot != null && snapshot.exists()) {
                 Event event1 = snapshot.toObject(Event.class);
                 assert event1 != null;
+                if (event1.usesWaitlistEntries()) {
+                    // Only pages of the waiting list are read; see showWaitlistPages
+                    if (event1.getWaitingList() == null) event1.setWaitingList(new ArrayList<>());
+                } else if (!migrationStarted) {
+                    // Move an older event's inline waiting list to entries; this listener sees the switch
+                    migrationStarted = true;
+                    EventDB.migrateWaitingListToEntries(eventId, success -> {
+                        if (!success) Log.w("OrganizerManageEvent", "Waiting list migration failed for event " + eventId);
+                    });
+                }
                 bindEvent(event1);
             } else {
                 Log.d("OrganizerManageEvent", "Current data: null");
             }
         });
+
+        rvWaiting.addOnScrollListener(new RecyclerView.OnScrollListener() {
+            @Override
+            public void onScrolled(@NonNull RecyclerView recyclerView, int dx, int dy) {
+                if (dy <= 0 || waitingAdapter == null || recyclerView.getAdapter() != waitingAdapter) return;
+                LinearLayoutManager layoutManager = (LinearLayoutManager) recyclerView.getLayoutManager();
+                if (layoutManager != null && layoutManager.findLastVisibleItemPosition()
+                        >= waitingItems.size() - WAITING_LOAD_MORE_THRESHOLD) {
+                    loadNextWaitlistPage(waitingGeneration);
+                }
+            }
+        });
+    }
+
+    // Stop rebinding and detach the entrant adapters, which the shared profile cache
+    // otherwise keeps listening along with this activity
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+        if (eventListener != null) {
+            eventListener.remove();
+            eventListener = null;
+        }
+        for (RecyclerView recyclerView : new RecyclerView[] {rvInvited, rvCancelled, rvRegistered, rvWaiting}) {
+            if (recyclerView != null) recyclerView.setAdapter(null);
+        }
+    }
+
+    // Shows the first page of an entries event's waiting list and its size from the counter
+    // shards; further pages load as the list is scrolled
+    private void showWaitlistPages() {
+        int generation = ++waitingGeneration;
+        waitingItems.clear();
+        waitingCursor = null;
+        waitingLoading = false;
+        waitingExhausted = false;
+        waitingAdapter = new EntrantListArrayAdapter(this, waitingItems, true, eventId);
+        rvWaiting.setLayoutManager(new LinearLayoutManager(this));
+        rvWaiting.setAdapter(waitingAdapter);
+        loadNextWaitlistPage(generation);
+        EventDB.getCounts(eventId, counts -> {
+            if (generation != waitingGeneration || tvWaitingHeader == null) return;
+            tvWaitingHeader.setText(counts == null ? "Waiting List" : "Waiting List (" + counts.waiting + ")");
+        });
+    }
+
+    private void loadNextWaitlistPage(int generation) {
+        if (waitingLoading || waitingExhausted) return;
+        waitingLoading = true;
+        EventDB.getWaitlistPage(eventId, waitingCursor, WAITING_PAGE_SIZE, (ids, last) -> {
+            if (generation != waitingGeneration) return;
+            waitingLoading = false;
+            if (ids == null) {
+                Log.w("OrganizerManageEvent", "Failed to load waiting list page for event " + eventId);
+                return;
+            }
+            int start = waitingItems.size();
+            for (String id : ids) waitingItems.add(new ListItemEntrant(id));
+            waitingAdapter.notifyItemRangeInserted(start, ids.size());
+            waitingCursor = last;
+            waitingExhausted = last == null;
+        });
     }
 
     /**
@@ -217,63 +236,27 @@ public class OrganizerManageEvent extends BaseTopBottomActivity {
         // Draw and invite button logic later
         btnDrawAndInvite.setOnClickListener(v -> {
             Snackbar.make(findViewById(android.R.id.content), "Draw and Invite clicked for event: " + eventId, Snackbar.LENGTH_SHORT).show();
-            EventDB.getEvent(eventId, (event) -> {
-                if (event != null) {
-                    // Perform draw and invite logic here
-                    Snackbar.make(findViewById(android.R.id.content), "Drawing and inviting entrants...", Snackbar.LENGTH_SHORT).show();
-                    List<String> newInvitedEntrants = event.drawLotteryWinners();
-
-                    // Update the event in the database
-                    EventDB.updateEvent(event, success -> {
-                        if (success) {
-                            Snackbar.make(findViewById(android.R.id.content), "Entrants drawn and updated!", Snackbar.LENGTH_SHORT).show();
-                            // now send the win notifications to the invited entrants
-                            for (String entrantId : newInvitedEntrants) {
-                                EntrantDB.pushNotificationToUser(entrantId, new EntrantNotification(NotificationType.WIN, eventId, event.getTitle()), (ok, e1) -> {
-                                    if (ok) {
-                                        Log.d("OrganizerManageEvent", "Notification sent to entrant ID: " + entrantId);
-                                    } else {
-                                        Log.d("OrganizerManageEvent", "Failed to send notification to entrant ID: " + entrantId + " | " + (e1 != null ? e1.getMessage() : "Unknown error"));
-                                    }
-                                });
-
-                                // Also update entrant event history
-                                EntrantDB.addEventToHistory(entrantId, eventId, EntrantEventStatus.INVITED, (ok, ex) -> {
-                                    if (ok) {
-                                        Log.d("OrganizerManageEvent", "Event added to entrant history for ID: " + entrantId);
-                                    } else {
-                                        Log.d("OrganizerManageEvent", "Failed to add event to entrant history for ID: " + entrantId + " | " + (ex != null ? ex.getMessage() : "Unknown error"));
-                                    }
-                                });
-                            }
-
-                            // Also notify those who remained on the waiting list that they did not win
-                            List<String> remainingWaitlist = event.getWaitingList();
-                            if (remainingWaitlist != null && !remainingWaitlist.isEmpty()) {
-                                for (String loserId : remainingWaitlist) {
-                                    EntrantDB.pushNotificationToUser(loserId, new EntrantNotification(NotificationType.LOSE, eventId, event.getTitle()), (ok, e2) -> {
-                                        if (ok) {
-                                            Log.d("OrganizerManageEvent", "Lose notification sent to entrant ID: " + loserId);
-                                        } else {
-                                            Log.d("OrganizerManageEvent", "Failed to send lose notification to entrant ID: " + loserId + " | " + (e2 != null ? e2.getMessage() : "Unknown error"));
-                                        }
-                                    });
-
-                                    EntrantDB.addEventToHistory(loserId, eventId, EntrantEventStatus.NOT_SELECTED, (ok, ex) -> {
-                                        if (ok) {
-                                            Log.d("OrganizerManageEvent", "Event added to entrant history as not selected for ID: " + loserId);
-                                        } else {
-                                            Log.d("OrganizerManageEvent", "Failed to add event to entrant history for ID: " + loserId + " | " + (ex != null ? ex.getMessage() : "Unknown error"));
-                                        }
-                                    });
-                                }
-                            }
-                        } else {
-                            Snackbar.make(findViewById(android.R.id.content), "Failed to update event after drawing.", Snackbar.LENGTH_LONG).show();
-                        }
-                    });
-                } else {
-                    Snackbar.make(findViewById(android.R.id.content), "Failed to retrieve event for drawing: ", Snackbar.LENGTH_LONG).show();
+            // Run the draw in a transaction so waitlist joins that race the draw are not lost
+            EventDB.drawLotteryWinners(eventId, (result, drawEx) -> {
+                if (result == null) {
+                    Log.e("OrganizerManageEvent", "Lottery draw failed for event " + eventId, drawEx);
+                    Snackbar.make(findViewById(android.R.id.content), "Failed to update event after drawing.", Snackbar.LENGTH_LONG).show();
+                    return;
+                }
+
+                Snackbar.make(findViewById(android.R.id.content), "Entrants drawn and updated!", Snackbar.LENGTH_SHORT).show();
+                Log.d("OrganizerManageEvent", "Draw committed with " + result.retries + " retries");
+                // Fan the WIN/LOSE results out in batches; each write also records the entrant's
+                // event history status and the admin notification log entry.
+                NotificationDispatcher dispatcher = new NotificationDispatcher(this);
+                dispatcher.dispatch(eventId, result.eventTitle, NotificationType.WIN, null,
+                        EntrantEventStatus.INVITED, result.winners, drawNotificationListener("Win"));
+
+                // Also notify everyone else on the waiting list the draw ran over that they did not win
+                List<String> remainingWaitlist = result.losers;
+                if (!remainingWaitlist.isEmpty()) {
+                    dispatcher.dispatch(eventId, result.eventTitle, NotificationType.LOSE, null,
+                            EntrantEventStatus.NOT_SELECTED, remainingWaitlist, drawNotificationListener("Lose"));
                 }
             });
         });
@@ -330,7 +313,12 @@ public class OrganizerManageEvent extends BaseTopBottomActivity {
         buildEntrantItemRecyclerView(rvRegistered, enrolledSafe, true);
 
         // Waiting list
-        buildEntrantItemRecyclerView(rvWaiting, waitingSafe, true);
+        if (e.usesWaitlistEntries()) {
+            showWaitlistPages();
+        } else {
+            buildEntrantItemRecyclerView(rvWaiting, waitingSafe, true);
+            if (tvWaitingHeader != null) tvWaitingHeader.setText("Waiting List (" + waitingSafe.size() + ")");
+        }
 
         // Link action buttons later
         btnSendNotification.setOnClickListener(v -> {
@@ -340,6 +328,20 @@ public class OrganizerManageEvent extends BaseTopBottomActivity {
                 Snackbar.make(findViewById(android.R.id.content),
                         "Send to " + audience + " | " + message, Snackbar.LENGTH_SHORT).show();
 
+                EntrantNotification notification = new EntrantNotification(NotificationType.OTHER, eventId1, "No title");
+                notification.message = message;
+                if (audience == SendNotificationDialogFragment.Audience.WAITING_LIST && e.usesWaitlistEntries()) {
+                    // Only a page is loaded on screen; read the whole list for the message
+                    EventDB.loadWaitlistIds(eventId, ids -> {
+                        if (ids == null) {
+                            Snackbar.make(findViewById(android.R.id.content), "Failed to load the waiting list.", Snackbar.LENGTH_SHORT).show();
+                            return;
+                        }
+                        sendCustomNotification(ids, notification);
+                    });
+                    return;
+                }
+
                 List<String> targetEntrants;
                 switch (audience) {
                     case SELECTED:
@@ -354,34 +356,7 @@ public class OrganizerManageEvent extends BaseTopBottomActivity {
                         break;
                 }
 
-                if (targetEntrants.isEmpty()) {
-                    Snackbar.make(findViewById(android.R.id.content), "No recipients available for selected audience.", Snackbar.LENGTH_SHORT).show();
-                    return;
-                }
-
-                EntrantNotification notification = new EntrantNotification(NotificationType.OTHER, eventId1, "No title");
-                notification.message = message;
-                for (String entrantId : targetEntrants) {
-                    // Fetch the user's data to check their preference
-                    UserDB.getUserOrNull(entrantId, (user, userEx) -> {
-                        if (user != null && user.isNotificationsEnabled()) {
-                            // 2. User exists and has notifications ENABLED, so send it.
-                            EntrantDB.pushNotificationToUser(entrantId, notification, (ok, ex) -> {
-                                if (ok) {
-                                    Log.d("OrganizerManageEvent", "Custom notification sent to entrant ID: " + entrantId);
-                                } else {
-                                    Log.e("OrganizerManageEvent", "Failed to send custom notification to entrant ID: " + entrantId, ex);
-                                }
-                            });
-                        } else if (user == null) {
-                            // Log if we couldn't find the user document
-                            Log.w("OrganizerManageEvent", "Could not find user " + entrantId + " to check notification preferences.");
-                        } else {
-                            // 3. User was found but has notifications DISABLED, so we skip them.
-                            Log.d("OrganizerManageEvent", "Skipping custom notification for user " + entrantId + " (notifications disabled).");
-                        }
-                    });
-                }
+                sendCustomNotification(targetEntrants, notification);
             });
 
             dialog.show(getSupportFragmentManager(), "SendNotificationDialog");
@@ -401,6 +376,59 @@ public class OrganizerManageEvent extends BaseTopBottomActivity {
         });
     }
 
+    // Sends an organizer message to each recipient that has notifications enabled
+    private void sendCustomNotification(List<String> recipients, EntrantNotification notification) {
+        if (recipients.isEmpty()) {
+            Snackbar.make(findViewById(android.R.id.content), "No recipients available for selected audience.", Snackbar.LENGTH_SHORT).show();
+            return;
+        }
+
+        for (String entrantId : recipients) {
+            // Fetch the user's data to check their preference
+            UserDB.getUserOrNull(entrantId, (user, userEx) -> {
+                if (user != null && user.isNotificationsEnabled()) {
+                    // 2. User exists and has notifications ENABLED, so send it.
+                    EntrantDB.pushNotificationToUser(entrantId, notification, (ok, ex) -> {
+                        if (ok) {
+                            Log.d("OrganizerManageEvent", "Custom notification sent to entrant ID: " + entrantId);
+                        } else {
+                            Log.e("OrganizerManageEvent", "Failed to send custom notification to entrant ID: " + entrantId, ex);
+                        }
+                    });
+                } else if (user == null) {
+                    // Log if we couldn't find the user document
+                    Log.w("OrganizerManageEvent", "Could not find user " + entrantId + " to check notification preferences.");
+                } else {
+                    // 3. User was found but has notifications DISABLED, so we skip them.
+                    Log.d("OrganizerManageEvent", "Skipping custom notification for user " + entrantId + " (notifications disabled).");
+                }
+            });
+        }
+    }
+
+    /**
+     * Creates a progress listener that logs batched draw notifications and reports failures.
+     *
+     * @param label short label for the notification kind, used in log messages
+     * @return listener passed to {@link NotificationDispatcher#dispatch}
+     */
+    private NotificationDispatcher.ProgressListener drawNotificationListener(String label) {
+        return new NotificationDispatcher.ProgressListener() {
+            @Override
+            public void onProgress(int sent, int total) {
+                Log.d("OrganizerManageEvent", label + " notifications sent: " + sent + "/" + total);
+            }
+
+            @Override
+            public void onComplete(int sent, int failed) {
+                if (failed > 0) {
+                    Log.d("OrganizerManageEvent", "Failed to send " + failed + " " + label + " notifications; they will be retried");
+                    Snackbar.make(findViewById(android.R.id.content), "Some notifications could not be sent and will be retried.", Snackbar.LENGTH_LONG).show();
+                }
+            }
+        };
+    }
+
     private void buildEntrantItemRecyclerView(RecyclerView recyclerView, List<String> stringList, Boolean hideCloseButton) {
         // Make resilient to null inputs by treating null as empty list
         List<String> safeList = stringList == null ? new ArrayList<>() : stringList;
@@ -412,91 +440,4 @@ public class OrganizerManageEvent extends BaseTopBottomActivity {
         recyclerView.setLayoutManager(new LinearLayoutManager(this));
         recyclerView.setAdapter(adapter);
     }
-
-    /**
-     * Export the enrolled entrant IDs to a CSV file. For each entrant id we try to fetch
-     * a User record to include name/email/phone if available. The resulting file is saved
-     * into the app external files directory and then shared using a FileProvider URI.
-     */
-    private void exportEnrolledEntrantsToCsv(List<String> enrolledIds, String eventTitle) {
-        if (enrolledIds == null || enrolledIds.isEmpty()) {
-            Snackbar.make(findViewById(android.R.id.content), "No enrolled entrants to export.", Snackbar.LENGTH_SHORT).show();
-            return;
-        }
-
-        // Header
-        final List<String[]> rows = new ArrayList<>();
-        rows.add(new String[]{"DeviceId", "Name", "Email", "Phone"});
-
-        // We'll fetch User objects for each entrant asynchronously and collect rows.
-        AtomicInteger remaining = new AtomicInteger(enrolledIds.size());
-
-        for (String deviceId : enrolledIds) {
-            UserDB.getUserOrNull(deviceId, (user, ex) -> {
-                if (user != null) {
-                    rows.add(new String[]{deviceId,
-                            user.getName() == null ? "" : user.getName(),
-                            user.getEmail() == null ? "" : user.getEmail(),
-                            user.getPhoneNum() == null ? "" : user.getPhoneNum()});
-                } else {
-                    // Either user not found or error; still include id and leave other columns blank
-                    rows.add(new String[]{deviceId, "", "", ""});
-                    if (ex != null) Log.w("OrganizerManageEvent", "Failed to fetch user " + deviceId, ex);
-                }
-
-                if (remaining.decrementAndGet() == 0) {
-                    // All fetched - write CSV
-                    writeCsvAndShare(rows, eventTitle);
-                }
-            });
-        }
-    }
-
-    private void writeCsvAndShare(List<String[]> rows, String eventTitle) {
-        // Build CSV content bytes
-        StringBuilder sb = getStringBuilder(rows);
-        byte[] bytes = sb.toString().getBytes();
-
-        // File name with timestamp
-        String safeTitle = (eventTitle == null || eventTitle.isEmpty()) ? "event" : eventTitle.replaceAll("[^a-zA-Z0-9-_]", "_");
-        String time = new SimpleDateFormat("yyyyMMdd_HHmmss", Locale.US).format(new Date());
-        String fileName = safeTitle + "_enrolled_" + time + ".csv";
-
-        // Store pending bytes and fileName, then launch ACTION_CREATE_DOCUMENT so the user can pick Downloads or another location
-        pendingCsvBytes = bytes;
-        pendingCsvFileName = fileName;
-
-        Intent intent = new Intent(Intent.ACTION_CREATE_DOCUMENT);
-        intent.addCategory(Intent.CATEGORY_OPENABLE);
-        intent.setType("text/csv");
-        intent.putExtra(Intent.EXTRA_TITLE, fileName);
-        // Use ActivityResultLauncher instead of deprecated startActivityForResult
-        try {
-            createFileLauncher.launch(intent);
-        } catch (Exception ex) {
-            Log.e("OrganizerManageEvent", "Failed to launch create document picker", ex);
-            Snackbar.make(findViewById(android.R.id.content), "Unable to open save dialog: " + ex.getMessage(), Snackbar.LENGTH_LONG).show();
-         }
-     }
-
-     @NonNull
-     private static StringBuilder getStringBuilder(List<String[]> rows) {
-         StringBuilder sb = new StringBuilder();
-         for (String[] row : rows) {
-             for (int i = 0; i < row.length; i++) {
-                 String cell = row[i] == null ? "" : row[i];
-                 // Escape quotes
-                 cell = cell.replace("\"", "\"\"");
-                 if (cell.contains(",") || cell.contains("\n") || cell.contains("\"")) {
-                     sb.append('\"').append(cell).append('\"');
-                 } else {
-                     sb.append(cell);
-                 }
-                 if (i < row.length - 1) sb.append(',');
-             }
-             sb.append('\n');
-         }
-         return sb;
-     }
-
- }
+}
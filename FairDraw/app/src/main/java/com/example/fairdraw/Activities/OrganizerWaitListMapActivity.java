@@ -18,20 +18,29 @@ import com.bumptech.glide.Glide;
 import com.example.fairdraw.DBs.EventDB;
 import com.example.fairdraw.Models.Event;
 import com.example.fairdraw.Models.AreaStats;
+import com.example.fairdraw.Others.GeoClusterIndex;
 import com.example.fairdraw.R;
 import com.example.fairdraw.ServiceUtility.FirebaseImageStorageService;
+import com.example.fairdraw.ServiceUtility.HeatmapTileProvider;
+import com.example.fairdraw.ServiceUtility.WaitlistLocationFeed;
 import com.google.android.gms.maps.CameraUpdateFactory;
 import com.google.android.gms.maps.GoogleMap;
 import com.google.android.gms.maps.OnMapReadyCallback;
 import com.google.android.gms.maps.SupportMapFragment;
 import com.google.android.gms.maps.model.BitmapDescriptorFactory;
 import com.google.android.gms.maps.model.LatLng;
+import com.google.android.gms.maps.model.LatLngBounds;
 import com.google.android.gms.maps.model.MarkerOptions;
+import com.google.android.gms.maps.model.TileOverlay;
+import com.google.android.gms.maps.model.TileOverlayOptions;
 
 import java.util.Date;
-import java.util.HashMap;
+import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 public class OrganizerWaitListMapActivity extends BaseTopBottomActivity implements OnMapReadyCallback {
 
@@ -46,8 +55,20 @@ public class OrganizerWaitListMapActivity extends BaseTopBottomActivity implemen
     private TextView tvStatusPill;
     private FirebaseImageStorageService storageService;
 
-    // key -> AreaStats (bucketed region)
-    private final Map<String, AreaStats> areaMap = new HashMap<>();
+    // Clustering runs off the main thread; one thread keeps builds and queries in order
+    private final ExecutorService clusterExecutor = Executors.newSingleThreadExecutor();
+    // Index of the loaded waitlist locations, replaced when they change
+    private volatile GeoClusterIndex clusterIndex;
+    // Incremented per render request so results for an older camera position are dropped
+    private int renderGeneration;
+    // Loads the locations of the areas the camera has shown
+    private WaitlistLocationFeed locationFeed;
+
+    // Heatmap mode draws density tiles instead of cluster markers
+    private HeatmapTileProvider heatmapProvider;
+    private TileOverlay heatmapOverlay;
+    private boolean heatmapMode;
+    private Button btnToggleHeatmap;
 
     @Override
     protected void onCreate(@Nullable Bundle savedInstanceState) {
@@ -76,6 +97,14 @@ public class OrganizerWaitListMapActivity extends BaseTopBottomActivity implemen
         Button btnBack = findViewById(R.id.btnBackToEvent);
         btnBack.setOnClickListener(v -> finish());
 
+        heatmapProvider = new HeatmapTileProvider(this, eventId);
+        // The tile cache on disk is kept only if nobody joined, left or moved since it was drawn
+        EventDB.getWaitlistLocationTotals(eventId, totals -> {
+            if (!isDestroyed()) clusterExecutor.execute(() -> heatmapProvider.open(totals));
+        });
+        btnToggleHeatmap = findViewById(R.id.btnToggleHeatmap);
+        btnToggleHeatmap.setOnClickListener(v -> setHeatmapMode(!heatmapMode));
+
         // Initialize storage service and views
         storageService = new FirebaseImageStorageService();
         ivHeroImage = findViewById(R.id.heroImage);
@@ -100,6 +129,10 @@ public class OrganizerWaitListMapActivity extends BaseTopBottomActivity implemen
             }
         });
 
+        // Locations live in a subcollection; move any left in the event document there first
+        EventDB.migrateLegacyWaitlistLocations(eventId, null);
+        locationFeed = new WaitlistLocationFeed(eventId, this::onWaitlistLocationsChanged);
+
         // Attach a SupportMapFragment into the FrameLayout
         SupportMapFragment mapFragment = SupportMapFragment.newInstance();
         getSupportFragmentManager()
@@ -155,74 +188,117 @@ public class OrganizerWaitListMapActivity extends BaseTopBottomActivity implemen
         // Optional: enable zoom controls
         mMap.getUiSettings().setZoomControlsEnabled(true);
 
-        // Load event and build area markers
-        loadEventAndBuildAreas();
-    }
+        // Load the locations in view and re-cluster whenever the camera settles
+        mMap.setOnCameraIdleListener(this::onCameraIdle);
 
-    private void loadEventAndBuildAreas() {
-        EventDB.getEvent(eventId, event -> {
-            if (event == null) {
-                Toast.makeText(this, "Failed to load event", Toast.LENGTH_LONG).show();
-                return;
-            }
+        // Heatmap mode may have been switched on before the map was ready
+        if (heatmapMode) setHeatmapMode(true);
 
-            Map<String, Event.EntrantLocation> waitlistLocations = event.getWaitlistLocations();
-            if (waitlistLocations == null || waitlistLocations.isEmpty()) {
+        // Start over any entrant; moving the camera loads the locations around them
+        EventDB.getAnyWaitlistLocation(eventId, location -> {
+            if (isDestroyed()) return;
+            if (location == null) {
                 Toast.makeText(this, "No waitlist locations yet", Toast.LENGTH_SHORT).show();
                 return;
             }
+            mMap.moveCamera(CameraUpdateFactory.newLatLngZoom(
+                    new LatLng(location.getLat(), location.getLng()), 10f));
+        });
+    }
 
-            areaMap.clear();
-
-            // Aggregate into "buckets" by rounded lat/lng (~city-level)
-            for (Map.Entry<String, Event.EntrantLocation> entry : waitlistLocations.entrySet()) {
-                Event.EntrantLocation loc = entry.getValue();
-                if (loc == null || loc.getLat() == null || loc.getLng() == null) {
-                    continue;
-                }
-
-                double lat = loc.getLat();
-                double lng = loc.getLng();
-
-                double latBucket = round(lat, 2); // ~1–2km resolution
-                double lngBucket = round(lng, 2);
-
-                String key = latBucket + "," + lngBucket;
+    private void onCameraIdle() {
+        LatLngBounds bounds = mMap.getProjection().getVisibleRegion().latLngBounds;
+        locationFeed.setViewport(bounds.southwest.latitude, bounds.southwest.longitude,
+                bounds.northeast.latitude, bounds.northeast.longitude);
+        renderVisibleClusters();
+    }
 
-                AreaStats stats = areaMap.get(key);
-                if (stats == null) {
-                    stats = new AreaStats(latBucket, lngBucket);
-                    areaMap.put(key, stats);
-                }
-                stats.increment();
-            }
+    /**
+     * Rebuilds the location index off the main thread when entrants join, leave or move, or
+     * when the locations of an area are loaded or dropped.
+     */
+    private void onWaitlistLocationsChanged(Map<String, Event.EntrantLocation> waitlistLocations,
+                                            List<double[]> joined, List<double[]> left) {
+        // Copy coordinates into primitive arrays; the index is built off the main thread
+        double[] lats = new double[waitlistLocations.size()];
+        double[] lngs = new double[waitlistLocations.size()];
+        int n = 0;
+        for (Event.EntrantLocation loc : waitlistLocations.values()) {
+            if (loc == null || loc.getLat() == null || loc.getLng() == null) continue;
+            lats[n] = loc.getLat();
+            lngs[n] = loc.getLng();
+            n++;
+        }
+        Set<String> loadedAreas = locationFeed.loadedPrefixes();
+
+        final int count = n;
+        clusterExecutor.execute(() -> {
+            GeoClusterIndex index = GeoClusterIndex.build(lats, lngs, count);
+            // Drops only the cached heatmap tiles of entrants that joined or left
+            heatmapProvider.update(index, loadedAreas, joined, left);
+            runOnUiThread(() -> {
+                if (isDestroyed()) return;
+                clusterIndex = index;
+                refreshMap();
+            });
+        });
+    }
 
-            if (areaMap.isEmpty()) {
-                Toast.makeText(this, "No valid locations to display", Toast.LENGTH_SHORT).show();
-                return;
-            }
+    private void refreshMap() {
+        if (mMap == null) return;
+        if (heatmapMode) {
+            // Tiles not affected by the update come straight from the provider's caches
+            if (heatmapOverlay != null) heatmapOverlay.clearTileCache();
+        } else {
+            renderVisibleClusters();
+        }
+    }
 
-            showAreasOnMap();
-        });
+    private void setHeatmapMode(boolean enabled) {
+        heatmapMode = enabled;
+        btnToggleHeatmap.setText(enabled ? "Show Markers" : "Show Heatmap");
+        if (mMap == null) return;
+        if (enabled) {
+            mMap.clear();
+            heatmapOverlay = mMap.addTileOverlay(new TileOverlayOptions()
+                    .tileProvider(heatmapProvider)
+                    .fadeIn(false));
+        } else {
+            if (heatmapOverlay != null) heatmapOverlay.remove();
+            heatmapOverlay = null;
+            renderVisibleClusters();
+        }
     }
 
-    private double round(double value, int places) {
-        double factor = Math.pow(10, places);
-        return Math.round(value * factor) / factor;
+    /**
+     * Computes the clusters for the current zoom level that fall inside the visible region
+     * on the background executor, then replaces the markers with them.
+     */
+    private void renderVisibleClusters() {
+        GeoClusterIndex index = clusterIndex;
+        if (mMap == null || index == null || heatmapMode) return;
+
+        int level = GeoClusterIndex.levelForZoom(mMap.getCameraPosition().zoom);
+        LatLngBounds bounds = mMap.getProjection().getVisibleRegion().latLngBounds;
+        int generation = ++renderGeneration;
+
+        clusterExecutor.execute(() -> {
+            List<AreaStats> clusters = index.clusters(level,
+                    bounds.southwest.latitude, bounds.southwest.longitude,
+                    bounds.northeast.latitude, bounds.northeast.longitude);
+            runOnUiThread(() -> {
+                if (isDestroyed() || generation != renderGeneration || heatmapMode) return;
+                showAreasOnMap(clusters);
+            });
+        });
     }
 
-    private void showAreasOnMap() {
+    private void showAreasOnMap(List<AreaStats> clusters) {
         mMap.clear();
 
-        LatLng firstCenter = null;
-
-        for (AreaStats area : areaMap.values()) {
+        for (AreaStats area : clusters) {
             LatLng position = new LatLng(area.getLat(), area.getLng());
 
-            if (firstCenter == null) {
-                firstCenter = position;
-            }
-
             String title = String.format(Locale.getDefault(),
                     "Entrants: %d", area.getCount());
             String snippet = String.format(Locale.getDefault(),
@@ -236,9 +312,12 @@ public class OrganizerWaitListMapActivity extends BaseTopBottomActivity implemen
                     .icon(BitmapDescriptorFactory.defaultMarker(
                             BitmapDescriptorFactory.HUE_AZURE)));
         }
+    }
 
-        if (firstCenter != null) {
-            mMap.moveCamera(CameraUpdateFactory.newLatLngZoom(firstCenter, 10f));
-        }
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+        clusterExecutor.shutdownNow();
+        if (locationFeed != null) locationFeed.stop();
     }
 }
@@ -13,6 +13,8 @@ import androidx.core.view.WindowInsetsCompat;
 import com.example.fairdraw.DBs.UserDB;
 import com.example.fairdraw.ServiceUtility.DevicePrefsManager;
 import com.example.fairdraw.ServiceUtility.GatePrefs;
+import com.example.fairdraw.ServiceUtility.FirebaseImageStorageService;
+import com.example.fairdraw.ServiceUtility.NotificationDispatcher;
 import com.example.fairdraw.R;
 
 /**
@@ -36,6 +38,11 @@ public class SplashActivity extends AppCompatActivity {
         super.onCreate(savedInstanceState);
         setContentView(R.layout.activity_splash);
 
+        // Finish any batched notification sends that were interrupted when the app was killed
+        new NotificationDispatcher(this).resumePending(null);
+        // Likewise continue image uploads from the last byte Storage received
+        new FirebaseImageStorageService().resumePendingUploads();
+
         String deviceId = DevicePrefsManager.getDeviceId(this);
         UserDB.userExists(deviceId, ((exists, e) -> {
             if (e != null) {
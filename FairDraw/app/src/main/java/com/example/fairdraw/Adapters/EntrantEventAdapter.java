@@ -0,0 +1,194 @@
+package com.example.fairdraw.Adapters;
+
+import android.content.Context;
+import android.net.Uri;
+import android.util.Log;
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.Button;
+import android.widget.ImageView;
+import android.widget.TextView;
+
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.ListAdapter;
+import androidx.recyclerview.widget.RecyclerView;
+
+import com.bumptech.glide.Glide;
+import com.example.fairdraw.Models.EventCard;
+import com.example.fairdraw.Others.EventState;
+import com.example.fairdraw.R;
+import com.example.fairdraw.ServiceUtility.FirebaseImageStorageService;
+
+import java.text.SimpleDateFormat;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * RecyclerView ListAdapter for the entrant home feed. Binds {@link EventCard}s to the
+ * eventscard layout, diffs submitted lists on a background thread and reuses view holders
+ * while scrolling.
+ */
+public class EntrantEventAdapter extends ListAdapter<EventCard, EntrantEventAdapter.ViewHolder> {
+
+    private static final String TAG = "EntrantEventAdapter";
+
+    /**
+     * Callback for when the "View Details" button of a card is clicked.
+     */
+    public interface OnViewDetailsListener {
+        /**
+         * @param event the event whose card was clicked
+         */
+        void onViewDetails(EventCard event);
+    }
+
+    private final OnViewDetailsListener viewDetailsListener;
+    private final SimpleDateFormat dateFormat = new SimpleDateFormat("dd/MM/yyyy", Locale.getDefault());
+    private final FirebaseImageStorageService imageStorageService = new FirebaseImageStorageService();
+
+    // Stable ids handed out per event uuid; uuids are strings, so hashing them could collide
+    private final Map<String, Long> stableIds = new HashMap<>();
+
+    public EntrantEventAdapter(OnViewDetailsListener viewDetailsListener) {
+        super(DIFF_CALLBACK);
+        this.viewDetailsListener = viewDetailsListener;
+        setHasStableIds(true);
+    }
+
+    static final DiffUtil.ItemCallback<EventCard> DIFF_CALLBACK = new DiffUtil.ItemCallback<EventCard>() {
+        @Override
+        public boolean areItemsTheSame(@NonNull EventCard oldItem, @NonNull EventCard newItem) {
+            String o = oldItem.getUuid();
+            return o != null && o.equals(newItem.getUuid());
+        }
+
+        @Override
+        public boolean areContentsTheSame(@NonNull EventCard oldItem, @NonNull EventCard newItem) {
+            // The store only replaces a card when its document changed
+            if (oldItem == newItem) return true;
+            return Objects.equals(oldItem.getTitle(), newItem.getTitle())
+                    && Objects.equals(oldItem.getLocation(), newItem.getLocation())
+                    && Objects.equals(oldItem.getTime(), newItem.getTime())
+                    && Objects.equals(oldItem.getPrice(), newItem.getPrice())
+                    && Objects.equals(oldItem.getCapacity(), newItem.getCapacity())
+                    && oldItem.getState() == newItem.getState()
+                    && Objects.equals(oldItem.getPosterUrl(), newItem.getPosterUrl())
+                    && Objects.equals(oldItem.getPosterRenditions(), newItem.getPosterRenditions())
+                    && oldItem.getEnrolledCount() == newItem.getEnrolledCount()
+                    && oldItem.getWaitingCount() == newItem.getWaitingCount();
+        }
+    };
+
+    @Override
+    public long getItemId(int position) {
+        String uuid = getItem(position).getUuid();
+        Long id = stableIds.get(uuid);
+        if (id == null) {
+            id = (long) stableIds.size();
+            stableIds.put(uuid, id);
+        }
+        return id;
+    }
+
+    @NonNull
+    @Override
+    public ViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+        View v = LayoutInflater.from(parent.getContext()).inflate(R.layout.eventscard, parent, false);
+        return new ViewHolder(v);
+    }
+
+    @Override
+    public void onBindViewHolder(@NonNull ViewHolder holder, int position) {
+        EventCard event = getItem(position);
+        Context context = holder.itemView.getContext();
+
+        holder.title.setText(event.getTitle());
+        holder.location.setText(event.getLocation());
+        if (event.getTime() != null) {
+            holder.date.setText(dateFormat.format(event.getTime()));
+        } else {
+            holder.date.setText("Date not available");
+        }
+        holder.capacity.setText(String.format(Locale.getDefault(),
+                "%d/%d confirmed - %d on waiting list",
+                event.getEnrolledCount(),
+                event.getCapacity(),
+                event.getWaitingCount()
+        ));
+        holder.price.setText("$" + event.getPrice());
+
+        // Status
+        EventState state = event.getState();
+        holder.status.setText(String.valueOf(state));
+        if (state == EventState.PUBLISHED) {
+            holder.status.setBackgroundColor(context.getColor(android.R.color.holo_green_dark));
+        } else if (state == EventState.CLOSED) {
+            holder.status.setBackgroundColor(context.getColor(android.R.color.holo_red_dark));
+        } else {
+            holder.status.setBackgroundColor(context.getColor(android.R.color.darker_gray));
+        }
+
+        holder.viewDetails.setOnClickListener(v -> {
+            int pos = holder.getBindingAdapterPosition();
+            if (pos != RecyclerView.NO_POSITION && viewDetailsListener != null) {
+                viewDetailsListener.onViewDetails(getItem(pos));
+            }
+        });
+
+        bindPoster(holder, event);
+    }
+
+    private void bindPoster(ViewHolder holder, EventCard event) {
+        String eventId = event.getUuid();
+        holder.boundEventId = eventId;
+        // Prefer the smallest rendition stored on the card that fills the image, then the
+        // storage service's cache of full posters
+        String stored = FirebaseImageStorageService.posterUrlFor(
+                event.getPosterRenditions(), event.getPosterUrl(), holder.image);
+        Uri cached = stored != null
+                ? Uri.parse(stored)
+                : imageStorageService.peekEventPosterDownloadUrl(eventId);
+        if (cached != null) {
+            loadInto(holder.image, cached);
+            return;
+        }
+        // Clear whatever the recycled holder showed before while the URL resolves
+        Glide.with(holder.image).clear(holder.image);
+        holder.image.setImageResource(R.drawable.swimming);
+        imageStorageService.getEventPosterDownloadUrl(eventId).addOnSuccessListener(uri -> {
+            // The holder may have been recycled for another event in the meantime
+            if (eventId.equals(holder.boundEventId)) loadInto(holder.image, uri);
+        }).addOnFailureListener(e ->
+                Log.e(TAG, "Failed to load image for event " + eventId, e));
+    }
+
+    private static void loadInto(ImageView image, Uri uri) {
+        Glide.with(image)
+                .load(uri)
+                .placeholder(R.drawable.swimming)
+                .into(image);
+    }
+
+    public static class ViewHolder extends RecyclerView.ViewHolder {
+        final TextView title, location, date, capacity, price, status;
+        final Button viewDetails;
+        final ImageView image;
+        String boundEventId;
+
+        public ViewHolder(@NonNull View itemView) {
+            super(itemView);
+            title = itemView.findViewById(R.id.event_content_title);
+            location = itemView.findViewById(R.id.event_content_location);
+            date = itemView.findViewById(R.id.event_content_date);
+            capacity = itemView.findViewById(R.id.event_content_capacity);
+            price = itemView.findViewById(R.id.event_content_price);
+            status = itemView.findViewById(R.id.eventStatus);
+            viewDetails = itemView.findViewById(R.id.view_details_button);
+            image = itemView.findViewById(R.id.eventImage);
+        }
+    }
+}
@@ -2,6 +2,7 @@ package com.example.fairdraw.Adapters;
 
 import android.app.Activity;
 import android.content.Context;
+import android.util.Log;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
@@ -13,16 +14,18 @@ import androidx.recyclerview.widget.RecyclerView;
 
 import com.example.fairdraw.DBs.EntrantDB;
 import com.example.fairdraw.DBs.EventDB;
-import com.example.fairdraw.DBs.UserDB;
+import com.example.fairdraw.Models.User;
 import com.example.fairdraw.Others.EntrantEventStatus;
 import com.example.fairdraw.Others.ListItemEntrant;
 import com.example.fairdraw.R;
+import com.example.fairdraw.ServiceUtility.UserProfileCache;
 import com.google.android.material.snackbar.Snackbar;
 
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * RecyclerView adapter that displays a list of entrants in a compact item view.
@@ -35,7 +38,9 @@ import java.util.Map;
  * - If {@code hideCloseButton} is true, the close (remove) button will be hidden.
  * - The adapter does not modify the provided list; callers should update the list
  *   and call {@link #notifyDataSetChanged()} or the appropriate notify method when
- *   the data changes.</p>
+ *   the data changes.
+ * - Names come from the shared {@link UserProfileCache}; rows around each bound row are
+ *   fetched together and only the rows of a changed profile are rebound.</p>
  */
 public class EntrantListArrayAdapter extends RecyclerView.Adapter<EntrantListArrayAdapter.EntrantViewHolder> {
 
@@ -44,8 +49,18 @@ public class EntrantListArrayAdapter extends RecyclerView.Adapter<EntrantListArr
     private final Boolean hideCloseButton; // initialize in constructor
     private final String eventId; // initialize in constructor
 
-    // Simple in-memory cache mapping deviceId -> display name to avoid repeated DB calls
-    private final Map<String, String> nameCache = new HashMap<>();
+    // Rows on either side of a bound row whose profiles are fetched along with it
+    private static final int PREFETCH_BEHIND = 10;
+    private static final int PREFETCH_AHEAD = 50;
+
+    // Shared profile cache; names are fetched in batches and shared with other lists
+    private final UserProfileCache userCache = UserProfileCache.getInstance();
+    private final UserProfileCache.Listener userListener = this::onUsersChanged;
+
+    // deviceId -> positions showing it, so a loaded profile only rebinds its own rows.
+    // Rebuilt lazily after the list changes.
+    private final Map<String, List<Integer>> positionsById = new HashMap<>();
+    private boolean positionsStale = true;
 
     /**
      * Create an adapter with explicit control over the close button visibility.
@@ -59,6 +74,28 @@ public class EntrantListArrayAdapter extends RecyclerView.Adapter<EntrantListArr
         this.entrantList = entrantList;
         this.hideCloseButton = hideCloseButton != null ? hideCloseButton : true;
         this.eventId = eventId != null ? eventId : "";
+        // Any structural change announced through a notify method moves rows
+        registerAdapterDataObserver(new RecyclerView.AdapterDataObserver() {
+            @Override
+            public void onChanged() {
+                positionsStale = true;
+            }
+
+            @Override
+            public void onItemRangeInserted(int positionStart, int itemCount) {
+                positionsStale = true;
+            }
+
+            @Override
+            public void onItemRangeRemoved(int positionStart, int itemCount) {
+                positionsStale = true;
+            }
+
+            @Override
+            public void onItemRangeMoved(int fromPosition, int toPosition, int itemCount) {
+                positionsStale = true;
+            }
+        });
     }
 
     /**
@@ -90,32 +127,14 @@ public class EntrantListArrayAdapter extends RecyclerView.Adapter<EntrantListArr
         if (listItemEntrant != null) {
             String deviceId = listItemEntrant.getEntrantId();
 
-            // If we have the name cached, use it; otherwise show a placeholder (deviceId) and fetch.
-            if (deviceId != null && nameCache.containsKey(deviceId)) {
-                holder.entrantName.setText(nameCache.get(deviceId));
+            User user = deviceId == null ? null : userCache.peek(deviceId);
+            if (user != null && user.getName() != null && !user.getName().isEmpty()) {
+                holder.entrantName.setText(user.getName());
             } else {
-                // Show device id as temporary text to avoid empty UI
+                // Show device id until the profile loads, or for good if there is no name
                 holder.entrantName.setText(deviceId != null ? deviceId : context.getString(R.string.unavailable));
-
-                // Avoid refetching if we've previously recorded absence by caching deviceId->deviceId
-                if (deviceId != null && !nameCache.containsKey(deviceId)) {
-                    final String did = deviceId;
-                    UserDB.getUserOrNull(did, (user, e) -> {
-                        if (e == null && user != null && user.getName() != null && !user.getName().isEmpty()) {
-                            nameCache.put(did, user.getName());
-                        } else {
-                            // Fall back to device id as display name so we don't keep refetching
-                            nameCache.put(did, did);
-                        }
-
-                        // Find all positions where this device id appears and notify to rebind
-                        for (int i = 0; i < entrantList.size(); i++) {
-                            ListItemEntrant it = entrantList.get(i);
-                            if (it != null && did.equals(it.getEntrantId())) {
-                                notifyItemChanged(i);
-                            }
-                        }
-                    });
+                if (deviceId != null && !userCache.isResolved(deviceId)) {
+                    prefetchAround(position);
                 }
             }
         }
@@ -171,6 +190,14 @@ public class EntrantListArrayAdapter extends RecyclerView.Adapter<EntrantListArr
                         cancelled.add(entrantId);
                     }
 
+                    // The waiting list of events stored as entries is not part of the event
+                    // document, so remove the entry directly
+                    if (event.usesWaitlistEntries()) {
+                        EventDB.removeFromWaitlist(eventId, entrantId, removed -> {
+                            if (!removed) Log.w("EntrantListArrayAdapter", "Failed to remove waitlist entry of " + entrantId);
+                        });
+                    }
+
                     // Persist changes back to the event object
                     event.setWaitingList(waiting);
                     event.setInvitedList(invited);
@@ -199,6 +226,57 @@ public class EntrantListArrayAdapter extends RecyclerView.Adapter<EntrantListArr
         }
     }
 
+    /**
+     * Fetches the profiles of the rows around a bound row in one go, so scrolling through a
+     * long list costs one batched lookup per window instead of one read per row.
+     */
+    private void prefetchAround(int position) {
+        int from = Math.max(0, position - PREFETCH_BEHIND);
+        int to = Math.min(entrantList.size(), position + PREFETCH_AHEAD);
+        List<String> ids = new ArrayList<>(to - from);
+        for (int i = from; i < to; i++) {
+            ListItemEntrant item = entrantList.get(i);
+            if (item != null) ids.add(item.getEntrantId());
+        }
+        userCache.prefetch(ids);
+    }
+
+    private void onUsersChanged(Set<String> deviceIds) {
+        if (positionsStale) {
+            positionsById.clear();
+            for (int i = 0; i < entrantList.size(); i++) {
+                ListItemEntrant item = entrantList.get(i);
+                if (item == null || item.getEntrantId() == null) continue;
+                List<Integer> positions = positionsById.get(item.getEntrantId());
+                if (positions == null) {
+                    positions = new ArrayList<>(1);
+                    positionsById.put(item.getEntrantId(), positions);
+                }
+                positions.add(i);
+            }
+            positionsStale = false;
+        }
+        for (String id : deviceIds) {
+            List<Integer> positions = positionsById.get(id);
+            if (positions == null) continue;
+            for (int pos : positions) notifyItemChanged(pos);
+        }
+    }
+
+    // The shared cache holds the listener only while the adapter is set on a RecyclerView;
+    // replacing the adapter or setting it to null (see OrganizerManageEvent#onDestroy) detaches it
+    @Override
+    public void onAttachedToRecyclerView(@NonNull RecyclerView recyclerView) {
+        super.onAttachedToRecyclerView(recyclerView);
+        userCache.addListener(userListener);
+    }
+
+    @Override
+    public void onDetachedFromRecyclerView(@NonNull RecyclerView recyclerView) {
+        super.onDetachedFromRecyclerView(recyclerView);
+        userCache.removeListener(userListener);
+    }
+
     /**
      * Returns the number of entrants represented by this adapter.
      *
@@ -108,7 +108,17 @@ public class EventRecyclerAdapter extends ListAdapter<Event, EventRecyclerAdapte
             }
         });
 
-        // poster image handling left to caller; event_content has an ImageView with id eventImage
+        // Load the smallest recorded rendition that fills the image; events whose poster was not
+        // recorded on the document fall back to looking up the full poster in Storage
+        String stored = FirebaseImageStorageService.posterUrlFor(
+                event.getPosterRenditions(), event.getPosterUrl(), holder.eventImage);
+        if (stored != null) {
+            Glide.with(holder.itemView.getContext())
+                    .load(stored)
+                    .placeholder(R.drawable.swimming)
+                    .into(holder.eventImage);
+            return;
+        }
         imageStorageService.getEventPosterDownloadUrl(event.getUuid()).addOnSuccessListener(uri -> {
             Glide.with(holder.itemView.getContext())
                     .load(uri)
@@ -17,7 +17,7 @@ public class AdminDB {
     /**
      * Callback for when an Admin is retrieved from the database.
      */
-    private static final String LOG_COLLECTION = "notification_logs";
+    static final String LOG_COLLECTION = "notification_logs";
 
 
 
@@ -5,13 +5,19 @@ import android.util.Log;
 import com.example.fairdraw.Others.AdminNotificationLog;
 import com.example.fairdraw.Others.EntrantNotification;
 import com.example.fairdraw.Models.Entrant;
+import androidx.annotation.Nullable;
+
 import com.google.firebase.firestore.CollectionReference;
 import com.google.firebase.firestore.DocumentReference;
+import com.google.firebase.firestore.DocumentSnapshot;
 import com.google.firebase.firestore.FieldValue;
 import com.google.firebase.firestore.FirebaseFirestore;
 import com.google.firebase.firestore.ListenerRegistration;
+import com.google.firebase.firestore.Query;
 import com.google.firebase.firestore.SetOptions;
+import com.google.firebase.firestore.WriteBatch;
 
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
@@ -20,13 +26,19 @@ import java.util.Map;
 /**
  * Firestore helper for operations on the "entrants" collection.
  *
- * <p>Provides asynchronous CRUD operations and helpers for pushing notifications
- * into an entrant's notifications array.</p>
+ * <p>Provides asynchronous CRUD operations and helpers for pushing, paging and reading
+ * notifications in an entrant's {@code notifications} subcollection.</p>
  */
 public class EntrantDB {
 
     static String TAG = "EntrantDB";
 
+    /** Name of the per-entrant notifications subcollection. */
+    public static final String NOTIFICATIONS_COLLECTION = "notifications";
+    /** Field on the entrant document holding the unread notification count. */
+    public static final String UNREAD_FIELD = "unreadNotifications";
+    private static final int LEGACY_MIGRATION_BATCH = 450;
+
     /**
      * Callback for when an Entrant is retrieved from the database.
      */
@@ -200,8 +212,61 @@ public class EntrantDB {
     }
 
     /**
-     * Push a single notification into a user's notifications array. If the field
-     * does not exist this method will create it.
+     * Callback for when a page of notifications is retrieved from the database.
+     */
+    public interface NotificationsPageCallback {
+        /**
+         * Invoked when the page read completes.
+         * @param notifications notifications in the page, newest first (empty on error)
+         * @param lastVisible cursor for the next page, or null if there are no more pages
+         * @param e exception occurred during the read or null on success
+         */
+        void onCallback(List<EntrantNotification> notifications,
+                        @Nullable DocumentSnapshot lastVisible,
+                        @Nullable Exception e);
+    }
+
+    /**
+     * Returns the notifications subcollection for an entrant.
+     *
+     * @param deviceId entrant's device id
+     * @return collection reference for entrants/{deviceId}/notifications
+     */
+    public static CollectionReference getNotificationCollection(String deviceId) {
+        return getEntrantCollection().document(deviceId).collection(NOTIFICATIONS_COLLECTION);
+    }
+
+    /**
+     * Adds the writes for one notification to a batch: the notification document, the unread
+     * counter increment on the entrant document and, when {@code logRef} is given, the matching
+     * admin notification log record.
+     *
+     * @param batch batch to add the writes to
+     * @param deviceId target user's device id
+     * @param notificationRef document to write the notification to
+     * @param notification notification to write
+     * @param logRef optional notification_logs document for the admin log record
+     */
+    public static void addNotificationWrites(WriteBatch batch, String deviceId,
+                                             DocumentReference notificationRef,
+                                             EntrantNotification notification,
+                                             @Nullable DocumentReference logRef) {
+        batch.set(notificationRef, notification);
+        batch.set(getEntrantCollection().document(deviceId),
+                Collections.singletonMap(UNREAD_FIELD, FieldValue.increment(1)), SetOptions.merge());
+        if (logRef != null) {
+            batch.set(logRef, new AdminNotificationLog(
+                    deviceId,
+                    notification.title,
+                    notification.type,
+                    notification.eventId
+            ));
+        }
+    }
+
+    /**
+     * Push a single notification into a user's notifications subcollection. The notification
+     * document, the unread counter and the admin log record are written in one batch.
      *
      * @param deviceId target user's device id
      * @param notification notification to push
@@ -210,46 +275,180 @@ public class EntrantDB {
     public static void pushNotificationToUser(String deviceId,
                                               EntrantNotification notification,
                                               PushNotificationCallback callB) {
-        DocumentReference ref = getEntrantCollection().document(deviceId);
+        FirebaseFirestore db = FirebaseFirestore.getInstance();
+        WriteBatch batch = db.batch();
+        addNotificationWrites(batch, deviceId, getNotificationCollection(deviceId).document(),
+                notification, db.collection(AdminDB.LOG_COLLECTION).document());
 
-        ref.update("notifications", FieldValue.arrayUnion(notification))
+        batch.commit()
                 .addOnSuccessListener(v -> {
                     Log.d(TAG, "pushNotificationToUser: successfully pushed notification to user " + deviceId);
-                    AdminNotificationLog log = new AdminNotificationLog(
-                            deviceId,
-                            notification.title,
-                            notification.type,
-                            notification.eventId
-
-                    );
-                    Log.d(TAG, "pushNotificationToUser: logging admin notification: " + log.recipientDeviceId + ", " + log.notificationType + ", " + log.eventId);
-                    AdminDB.logNotification(log);
                     if (callB != null) callB.onCallback(true, null);
                 })
                 .addOnFailureListener(e -> {
-                    // Create the notifications array if missing
-                    Map<String, List<EntrantNotification>> init = Collections.singletonMap(
-                            "notifications",
-                            Collections.singletonList(notification)
-                    );
-                    init.put("notifications", Collections.singletonList(notification));
+                    Log.e(TAG, "pushNotificationToUser: failed to push notification to user " + deviceId, e);
+                    if (callB != null) callB.onCallback(false, e);
+                });
+    }
 
-                    ref.set(init, SetOptions.merge())
-                            .addOnSuccessListener(v2 -> {
-                                AdminNotificationLog log = new AdminNotificationLog(
-                                        deviceId,
-                                        notification.title,
-                                        notification.type,
-                                        notification.eventId
-                                );
-                                AdminDB.logNotification(log);
-                                if (callB != null) callB.onCallback(true, null);
+    /**
+     * Returns the query for an entrant's notifications, newest first.
+     *
+     * @param deviceId entrant's device id
+     * @return ordered notifications query
+     */
+    public static Query getNotificationsQuery(String deviceId) {
+        return getNotificationCollection(deviceId).orderBy("timestamp", Query.Direction.DESCENDING);
+    }
 
-                            })
-                            .addOnFailureListener(e2 -> {
-                                if (callB != null) callB.onCallback(false, e2);
-                            });
-                });
+    /**
+     * Read one page of an entrant's notifications, newest first.
+     *
+     * @param deviceId entrant's device id
+     * @param startAfter cursor returned with the previous page, or null for the first page
+     * @param pageSize maximum number of notifications in the page
+     * @param callback callback receiving the page and the cursor for the next one
+     */
+    public static void getNotificationsPage(String deviceId,
+                                            @Nullable DocumentSnapshot startAfter,
+                                            int pageSize,
+                                            NotificationsPageCallback callback) {
+        Query q = getNotificationsQuery(deviceId);
+        if (startAfter != null) q = q.startAfter(startAfter);
+        q.limit(pageSize).get().addOnCompleteListener(task -> {
+            if (!task.isSuccessful() || task.getResult() == null) {
+                callback.onCallback(new ArrayList<>(), null, task.getException());
+                return;
+            }
+            List<DocumentSnapshot> docs = task.getResult().getDocuments();
+            List<EntrantNotification> page = new ArrayList<>();
+            for (DocumentSnapshot ds : docs) {
+                EntrantNotification n = toNotification(ds);
+                if (n != null) page.add(n);
+            }
+            DocumentSnapshot last = docs.size() < pageSize ? null : docs.get(docs.size() - 1);
+            callback.onCallback(page, last, null);
+        });
+    }
+
+    /**
+     * Listen to the newest {@code limit} notifications of an entrant. Each change only
+     * transfers the notifications that changed, not the whole history.
+     *
+     * @param deviceId entrant's device id
+     * @param limit number of newest notifications to keep live
+     * @param listener listener receiving the current window, newest first
+     * @return ListenerRegistration handle which can be used to remove the listener
+     */
+    public static ListenerRegistration listenToNotifications(String deviceId, int limit,
+                                                             NotificationsListener listener) {
+        return getNotificationsQuery(deviceId).limit(limit).addSnapshotListener((snap, e) -> {
+            if (e != null) {
+                Log.e(TAG, "listenToNotifications: listener error for id " + deviceId, e);
+                listener.onError(e);
+                return;
+            }
+            List<EntrantNotification> window = new ArrayList<>();
+            if (snap != null) {
+                for (DocumentSnapshot ds : snap.getDocuments()) {
+                    EntrantNotification n = toNotification(ds);
+                    if (n != null) window.add(n);
+                }
+            }
+            listener.onChanged(window);
+        });
+    }
+
+    /**
+     * Mark a notification as read and decrement the entrant's unread counter. Runs in a
+     * transaction so a notification is only counted down once.
+     *
+     * @param deviceId entrant's device id
+     * @param notificationId id of the notification document
+     * @param callback optional callback invoked with the result
+     */
+    public static void markNotificationRead(String deviceId, String notificationId,
+                                            @Nullable SimpleCallback callback) {
+        DocumentReference entrantRef = getEntrantCollection().document(deviceId);
+        DocumentReference ref = getNotificationCollection(deviceId).document(notificationId);
+        FirebaseFirestore.getInstance().runTransaction(transaction -> {
+            DocumentSnapshot snap = transaction.get(ref);
+            Boolean read = snap.getBoolean("read");
+            if (snap.exists() && (read == null || !read)) {
+                transaction.update(ref, "read", true);
+                transaction.update(entrantRef, UNREAD_FIELD, FieldValue.increment(-1));
+            }
+            return null;
+        }).addOnCompleteListener(task -> {
+            if (callback != null) callback.onCallback(task.isSuccessful(), task.getException());
+        });
+    }
+
+    /**
+     * Move any notifications still stored inline on the entrant document into the
+     * notifications subcollection and remove the inline array. Does nothing for entrants
+     * that have already been migrated.
+     *
+     * <p>Entries are copied to fixed {@code legacy_<index>} document ids, and the inline array
+     * is only deleted (and the unread counter raised) in the last batch, so an interrupted
+     * migration can simply be run again.</p>
+     *
+     * @param deviceId entrant's device id
+     * @param callback optional callback invoked with the result
+     */
+    public static void migrateLegacyNotifications(String deviceId, @Nullable SimpleCallback callback) {
+        getEntrant(deviceId, entrant -> {
+            if (entrant == null || entrant.getNotifications() == null || entrant.getNotifications().isEmpty()) {
+                if (callback != null) callback.onCallback(true, null);
+                return;
+            }
+            migrateLegacyBatch(deviceId, entrant.getNotifications(), 0, callback);
+        });
+    }
+
+    private static void migrateLegacyBatch(String deviceId, List<EntrantNotification> legacy,
+                                           int from, @Nullable SimpleCallback callback) {
+        FirebaseFirestore db = FirebaseFirestore.getInstance();
+        WriteBatch batch = db.batch();
+        // Stays under the 500-write batch limit with room for the entrant update in the last batch
+        int to = Math.min(legacy.size(), from + LEGACY_MIGRATION_BATCH);
+        for (int i = from; i < to; i++) {
+            batch.set(getNotificationCollection(deviceId).document("legacy_" + i), legacy.get(i));
+        }
+        boolean last = to == legacy.size();
+        if (last) {
+            int unread = 0;
+            for (EntrantNotification n : legacy) {
+                if (!n.read) unread++;
+            }
+            DocumentReference entrantRef = getEntrantCollection().document(deviceId);
+            Map<String, Object> update = new HashMap<>();
+            update.put("notifications", FieldValue.delete());
+            update.put(UNREAD_FIELD, FieldValue.increment(unread));
+            batch.update(entrantRef, update);
+        }
+        batch.commit().addOnCompleteListener(task -> {
+            if (!task.isSuccessful()) {
+                Log.e(TAG, "migrateLegacyNotifications: failed for id " + deviceId, task.getException());
+                if (callback != null) callback.onCallback(false, task.getException());
+            } else if (!last) {
+                migrateLegacyBatch(deviceId, legacy, to, callback);
+            } else if (callback != null) {
+                callback.onCallback(true, null);
+            }
+        });
+    }
+
+    @Nullable
+    private static EntrantNotification toNotification(DocumentSnapshot ds) {
+        try {
+            EntrantNotification n = ds.toObject(EntrantNotification.class);
+            if (n != null) n.id = ds.getId();
+            return n;
+        } catch (Exception ex) {
+            Log.e(TAG, "Failed to deserialize notification with id " + ds.getId(), ex);
+            return null;
+        }
     }
 
 
@@ -3,19 +3,57 @@ package com.example.fairdraw.DBs;
 import androidx.annotation.Nullable;
 
 import com.example.fairdraw.Models.Event;
+import com.example.fairdraw.Models.EventCard;
+import com.example.fairdraw.Others.DocumentStore;
+import com.example.fairdraw.Others.DrawLogEntry;
+import com.example.fairdraw.Others.DrawLogVerifier;
+import com.example.fairdraw.Others.EventCounts;
+import com.example.fairdraw.Others.EventStore;
+import com.example.fairdraw.Others.ExpiringLruCache;
+import com.example.fairdraw.Others.GeoHash;
+import com.example.fairdraw.Others.LotteryRandom;
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.firestore.AggregateField;
+import com.google.firebase.firestore.AggregateSource;
 import com.google.firebase.firestore.CollectionReference;
 import com.google.firebase.firestore.DocumentReference;
+import com.google.firebase.firestore.Exclude;
+import com.google.firebase.firestore.FieldPath;
 import com.google.firebase.firestore.FieldValue;
 import com.google.firebase.firestore.FirebaseFirestore;
 import com.google.firebase.firestore.ListenerRegistration;
+import com.google.firebase.firestore.DocumentChange;
 import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FirebaseFirestoreException;
+import com.google.firebase.firestore.Query;
+import com.google.firebase.firestore.QuerySnapshot;
+import com.google.firebase.firestore.SetOptions;
+import com.google.firebase.firestore.Transaction;
+import com.google.firebase.firestore.TransactionOptions;
+import com.google.firebase.firestore.WriteBatch;
 
 import android.util.Log;
 
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.security.SecureRandom;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * Firestore helper for operations on the "events" collection.
@@ -27,6 +65,108 @@ public class EventDB {
     // Tag for logging
     private static final String TAG = "EventDB";
 
+    // Maximum number of attempts for the draw transaction before giving up. Firestore applies
+    // exponential backoff between attempts when the transaction is aborted by contention.
+    private static final int DRAW_MAX_ATTEMPTS = 8;
+
+    // Collection of EventCard projections, one per event under the same id
+    private static final String EVENT_CARDS_COLLECTION = "event_cards";
+
+    // Card writes per batch when backfilling cards for existing events
+    private static final int CARD_BACKFILL_BATCH = 450;
+
+    // Subcollection under each event holding its append-only draw log
+    private static final String DRAW_LOG_COLLECTION = "draw_log";
+
+    // Waiting list snapshot chunks written per batch; at up to 5000 ids each this keeps a
+    // commit to a few MiB
+    private static final int SNAPSHOT_CHUNKS_PER_BATCH = 10;
+
+    // Subcollection under each event holding one document per waitlisted entrant's location,
+    // keyed by device id and indexed by geohash
+    private static final String LOCATIONS_COLLECTION = "locations";
+
+    /** Geohash field of a location document, ordered for viewport range queries. */
+    public static final String GEOHASH_FIELD = "geohash";
+
+    // Legacy locations per migration transaction, which reads each location document first
+    private static final int LEGACY_LOCATION_BATCH = 100;
+
+    // Subcollection under each event holding one document per waitlisted entrant, keyed by
+    // device id, for events stored as Event.WAITLIST_ENTRIES
+    private static final String WAITLIST_COLLECTION = "waitlist";
+
+    // Waitlist entries read per query when enumerating a whole waiting list
+    private static final int WAITLIST_PAGE_SIZE = 1000;
+
+    // Device ids splitting a waiting list into ranges that are read in parallel. Device ids are
+    // random UUIDs, so each range holds about a sixteenth of a list; ids of any other form still
+    // fall into exactly one range.
+    private static final String[] WAITLIST_RANGE_BOUNDS = {
+            "1", "2", "3", "4", "5", "6", "7", "8", "9", "a", "b", "c", "d", "e", "f"};
+
+    // Entries written per batch when moving an inline waiting list to entries
+    private static final int WAITLIST_MIGRATION_BATCH = 450;
+
+    // Subcollection under each event holding its membership counter shards
+    private static final String COUNTERS_COLLECTION = "counters";
+
+    /** Number of counter shards per event; joins and leaves each increment a random one. */
+    public static final int COUNTER_SHARDS = 10;
+
+    // Set on the event document once its shards hold the counts of its lists. Shards of older
+    // events are seeded from the lists by the first membership change that sees it unset.
+    private static final String COUNTERS_INITIALIZED_FIELD = "countersInitialized";
+
+    // Card field recording when the counts on the card were last rolled up from the shards
+    private static final String COUNTS_UPDATED_AT_FIELD = "countsUpdatedAt";
+
+    // Minimum time between two rollups of the shard counts onto an event's card
+    static final long CARD_ROLLUP_INTERVAL_MS = 15 * 1000L;
+
+    // Firestore's limit on the number of values in a single whereIn filter
+    static final int WHERE_IN_LIMIT = 30;
+
+    // Events resolved by getEventsByIds, so repeated lookups of the same ids cost no reads.
+    // Ids without an event document are remembered for a shorter time.
+    private static final ExpiringLruCache<String, Event> eventCache =
+            new ExpiringLruCache<>(500, 5 * 60 * 1000L, 60 * 1000L);
+
+    // Aggregated shard counts by event id, so screens opened in quick succession do not each
+    // read every shard. Kept short because other entrants change the counts.
+    private static final ExpiringLruCache<String, EventCounts> countsCache =
+            new ExpiringLruCache<>(100, 10 * 1000L, 10 * 1000L);
+
+    // Counts this device last rolled up by event id, so an open counts listener reads the card
+    // at most once per rollup interval however often the shards change
+    private static final ExpiringLruCache<String, EventCounts> rollUpAttempts =
+            new ExpiringLruCache<>(100, CARD_ROLLUP_INTERVAL_MS, CARD_ROLLUP_INTERVAL_MS);
+
+    // Events known to keep their waiting list as entries. Events are never moved back to an
+    // inline list, so joins and leaves on these events need not read the event document.
+    private static final Set<String> entriesEvents = Collections.synchronizedSet(new HashSet<>());
+
+    private static final Random shardPicker = new Random();
+
+    // Poster fields are written only by setPosterInfo and clearPosterInfo. Saving an Event
+    // leaves them alone, so an edit made from a copy loaded before the poster upload finished
+    // does not drop the poster.
+    static final Set<String> POSTER_FIELDS = new HashSet<>(Arrays.asList(
+            "posterUrl", "posterSize", "posterHash", "posterUpdatedAt", "posterRenditions"));
+
+    // Legacy fields only their migrations write, so saving an Event loaded before a migration
+    // finished does not bring them back
+    static final Set<String> LEGACY_EVENT_FIELDS = Collections.singleton("waitlistLocations");
+
+    // Fields writeEventAndCard writes for an event and its card
+    static final List<String> EVENT_WRITE_FIELDS = mappedFields(Event.class, union(POSTER_FIELDS, LEGACY_EVENT_FIELDS));
+    static final List<String> CARD_WRITE_FIELDS = mappedFields(EventCard.class, POSTER_FIELDS);
+    // For events stored as entries, whose waitingList field holds no one. Their card's waiting
+    // count comes only from rollups of the counter shards.
+    static final List<String> ENTRIES_EVENT_WRITE_FIELDS = withoutField(EVENT_WRITE_FIELDS, "waitingList");
+    static final List<String> ENTRIES_CARD_WRITE_FIELDS =
+            withoutField(withoutField(CARD_WRITE_FIELDS, "waitingCount"), COUNTS_UPDATED_AT_FIELD);
+
     /**
      * Callback for when an Event is retrieved from the database.
      */
@@ -49,6 +189,24 @@ public class EventDB {
         void onCallback(List<Event> events);
     }
 
+    /**
+     * Listener for incremental changes to the events collection.
+     */
+    public interface EventChangesListener {
+        /**
+         * Invoked with the changes carried by one snapshot. The first call contains every
+         * existing event as ADDED.
+         * @param changes typed changes; only added and modified events are deserialized
+         */
+        void onChanges(List<EventStore.Change> changes);
+
+        /**
+         * Invoked when the listener fails.
+         * @param e exception describing the error
+         */
+        void onError(Exception e);
+    }
+
     /**
      * Callback for when an Event is added to the database.
      */
@@ -104,6 +262,85 @@ public class EventDB {
         void onCallback(boolean success);
     }
 
+    /**
+     * Listener for incremental changes to the event_cards collection.
+     */
+    public interface EventCardChangesListener {
+        /**
+         * Invoked with the changes carried by one snapshot. The first call contains every
+         * existing card as ADDED.
+         * @param changes typed changes; only added and modified cards are deserialized
+         */
+        void onChanges(List<DocumentStore.Change<EventCard>> changes);
+
+        /**
+         * Invoked when the listener fails.
+         * @param e exception describing the error
+         */
+        void onError(Exception e);
+    }
+
+    /**
+     * Callback for a single waitlist location lookup.
+     */
+    public interface GetWaitlistLocationCallback {
+        /**
+         * Invoked when the lookup completes.
+         * @param location a location, or null if there is none or the read failed
+         */
+        void onCallback(@Nullable Event.EntrantLocation location);
+    }
+
+    /**
+     * Callback for the totals of an event's waitlist locations.
+     */
+    public interface WaitlistLocationTotalsCallback {
+        /**
+         * Invoked when the aggregation completes.
+         * @param totals {number of locations, sum of latitudes, sum of longitudes}, or null if
+         *               the read failed
+         */
+        void onCallback(@Nullable double[] totals);
+    }
+
+    /**
+     * Result of a transactional lottery draw.
+     */
+    public static class DrawResult {
+        /** Device ids drawn as new winners in this draw. */
+        public final List<String> winners;
+        /** Device ids of the waiting list the draw ran over that were not drawn. */
+        public final List<String> losers;
+        /** Title of the event at the time of the draw (for notifications). */
+        public final String eventTitle;
+        /** Number of times the transaction was retried because of contention. */
+        public final int retries;
+        /** Draw log record written for this draw, or null if nobody was drawn. */
+        @Nullable
+        public final DrawLogEntry logEntry;
+
+        DrawResult(List<String> winners, List<String> losers, String eventTitle,
+                   int retries, @Nullable DrawLogEntry logEntry) {
+            this.winners = winners;
+            this.losers = losers;
+            this.eventTitle = eventTitle;
+            this.retries = retries;
+            this.logEntry = logEntry;
+        }
+    }
+
+    /**
+     * Callback for when a transactional lottery draw completes.
+     */
+    public interface DrawLotteryCallback {
+        /**
+         * Invoked when the draw transaction completes.
+         * @param result the draw result, or null on failure
+         * @param e exception describing the failure, or null on success
+         */
+        void onCallback(@Nullable DrawResult result, @Nullable Exception e);
+    }
+
     /**
      * Returns a CollectionReference pointing to the "events" collection.
      * @return collection reference for events
@@ -113,6 +350,16 @@ public class EventDB {
         return db.collection("events");
     }
 
+    /**
+     * Returns a CollectionReference pointing to the "event_cards" collection, which holds an
+     * {@link EventCard} for every event under the event's id.
+     * @return collection reference for event cards
+     */
+    public static CollectionReference getEventCardCollection() {
+        FirebaseFirestore db = FirebaseFirestore.getInstance();
+        return db.collection(EVENT_CARDS_COLLECTION);
+    }
+
     /**
      * Get a single event by id.
      * @param eventId id of the event to retrieve
@@ -125,6 +372,7 @@ public class EventDB {
                 try {
                     if (task.getResult() != null) {
                         Event event = task.getResult().toObject(Event.class);
+                        rememberStorage(eventId, event);
                         callback.onCallback(event);
                     } else {
                         Log.e(TAG, "getEvent: task returned null result for id " + eventId);
@@ -158,6 +406,7 @@ public class EventDB {
             if (snapshot != null && snapshot.exists()) {
                 try {
                     Event event = snapshot.toObject(Event.class);
+                    rememberStorage(eventId, event);
                     callback.onCallback(event);
                 } catch (Exception ex) {
                     Log.e(TAG, "Failed to deserialize event in listener for id " + eventId, ex);
@@ -176,8 +425,12 @@ public class EventDB {
      * @param callback callback invoked with success flag when the operation completes
      */
     public static void addEvent(Event event, AddEventCallback callback) {
-        getEventCollection().document(event.getUuid().toString()).set(event)
-                .addOnCompleteListener(task -> callback.onCallback(task.isSuccessful()));
+        // New events keep their waiting list as entries from the start
+        if (event.getWaitlistStorage() == null
+                && (event.getWaitingList() == null || event.getWaitingList().isEmpty())) {
+            event.setWaitlistStorage(Event.WAITLIST_ENTRIES);
+        }
+        writeEventAndCard(event).addOnCompleteListener(task -> callback.onCallback(task.isSuccessful()));
     }
 
     /**
@@ -187,8 +440,445 @@ public class EventDB {
      * @param callback callback invoked with success flag when the operation completes
      */
     public static void updateEvent(Event event, UpdateEventCallback callback) {
-        getEventCollection().document(event.getUuid().toString()).set(event)
-                .addOnCompleteListener(task -> callback.onCallback(task.isSuccessful()));
+        writeEventAndCard(event).addOnCompleteListener(task -> callback.onCallback(task.isSuccessful()));
+    }
+
+    // Writes the event and its card together, so feeds never see lists and counts disagree.
+    // Every mapped field is written except the poster fields (see POSTER_FIELDS).
+    // The counter shards are moved by the difference between the stored lists and the lists
+    // written here, read in the same transaction, so joins and leaves counted meanwhile are kept;
+    // shards that were never initialized are seeded instead. For events stored as entries the
+    // waiting list is neither written nor counted, since the event only holds whatever part of it
+    // was loaded, and the card keeps the waiting count last rolled up from the shards.
+    private static Task<Void> writeEventAndCard(Event event) {
+        String id = event.getUuid().toString();
+        DocumentReference eventRef = getEventCollection().document(id);
+        boolean entries = event.usesWaitlistEntries();
+        EventCard card = EventCard.of(event);
+        EventCounts counts = EventCounts.of(event);
+        Task<Void> commit = FirebaseFirestore.getInstance().runTransaction(transaction -> {
+            DocumentSnapshot stored = transaction.get(eventRef);
+            Event before = stored.exists() ? stored.toObject(Event.class) : null;
+            EventCounts delta = before != null ? counts.minus(EventCounts.of(before)) : counts;
+            if (entries) delta = new EventCounts(0, delta.invited, delta.enrolled, delta.cancelled);
+            transaction.set(eventRef, event,
+                    SetOptions.mergeFields(entries ? ENTRIES_EVENT_WRITE_FIELDS : EVENT_WRITE_FIELDS));
+            transaction.set(getEventCardCollection().document(id), card,
+                    SetOptions.mergeFields(entries ? ENTRIES_CARD_WRITE_FIELDS : CARD_WRITE_FIELDS));
+            recordCountChange(transaction, stored, event, delta);
+            return null;
+        });
+        commit.addOnSuccessListener(unused -> {
+            countsCache.invalidate(id);
+            rememberStorage(id, event);
+        });
+        return commit;
+    }
+
+    // Remembers events stored as entries, see entriesEvents
+    private static void rememberStorage(String eventId, @Nullable Event event) {
+        if (event != null && event.usesWaitlistEntries()) entriesEvents.add(eventId);
+    }
+
+    private static Set<String> union(Set<String> a, Set<String> b) {
+        Set<String> all = new HashSet<>(a);
+        all.addAll(b);
+        return all;
+    }
+
+    private static List<String> withoutField(List<String> fields, String field) {
+        List<String> result = new ArrayList<>(fields);
+        result.remove(field);
+        return result;
+    }
+
+    /**
+     * Returns the names Firestore maps a class's properties to, the way it derives them from
+     * public getters ({@code getX} and {@code isX} without parameters, not {@code @Exclude}d)
+     * and public fields, minus the excluded names. Used as the field mask for partial writes.
+     *
+     * @param type     class written with Firestore's object mapping
+     * @param excluded property names to leave out
+     * @return property names, sorted
+     */
+    static List<String> mappedFields(Class<?> type, Set<String> excluded) {
+        Set<String> names = new TreeSet<>();
+        for (Method method : type.getMethods()) {
+            String name = method.getName();
+            int prefix = name.startsWith("get") ? 3 : name.startsWith("is") ? 2 : 0;
+            if (prefix == 0 || name.length() == prefix || name.equals("getClass")
+                    || Modifier.isStatic(method.getModifiers()) || method.getParameterTypes().length > 0
+                    || method.getReturnType() == void.class || method.isBridge()
+                    || method.isAnnotationPresent(Exclude.class)) {
+                continue;
+            }
+            // Leading capitals are lower-cased together, as Firestore does: getURL -> url
+            char[] chars = name.substring(prefix).toCharArray();
+            for (int i = 0; i < chars.length && Character.isUpperCase(chars[i]); i++) {
+                chars[i] = Character.toLowerCase(chars[i]);
+            }
+            names.add(new String(chars));
+        }
+        for (Field field : type.getFields()) {
+            int modifiers = field.getModifiers();
+            if (!Modifier.isStatic(modifiers) && !Modifier.isTransient(modifiers)
+                    && !field.isAnnotationPresent(Exclude.class)) {
+                names.add(field.getName());
+            }
+        }
+        names.removeAll(excluded);
+        return new ArrayList<>(names);
+    }
+
+    /**
+     * Record the uploaded poster on the event document. Uses a merge so it also works when the
+     * upload finishes before the event document is first written.
+     *
+     * @param eventId id of the event
+     * @param downloadUrl poster download URL
+     * @param sizeBytes poster size in bytes
+     * @param contentHash poster content hash reported by Storage, may be null
+     * @param renditionUrls download URL of each uploaded rendition, by
+     *                      {@link com.example.fairdraw.Others.PosterRendition#key}
+     */
+    public static void setPosterInfo(String eventId, String downloadUrl, long sizeBytes,
+                                     @Nullable String contentHash, Map<String, String> renditionUrls) {
+        Map<String, Object> poster = new HashMap<>();
+        poster.put("posterUrl", downloadUrl);
+        poster.put("posterSize", sizeBytes);
+        poster.put("posterHash", contentHash);
+        poster.put("posterUpdatedAt", FieldValue.serverTimestamp());
+        poster.put("posterRenditions", renditionUrls);
+        Map<String, Object> card = new HashMap<>();
+        card.put("posterUrl", downloadUrl);
+        card.put("posterRenditions", renditionUrls);
+        // mergeFields rather than merge, so renditions a previous poster had are replaced, not kept
+        WriteBatch batch = FirebaseFirestore.getInstance().batch();
+        batch.set(getEventCollection().document(eventId), poster,
+                SetOptions.mergeFields(new ArrayList<>(poster.keySet())));
+        batch.set(getEventCardCollection().document(eventId), card,
+                SetOptions.mergeFields(new ArrayList<>(card.keySet())));
+        batch.commit()
+                .addOnFailureListener(e -> Log.e(TAG, "setPosterInfo: failed for id " + eventId, e));
+    }
+
+    /**
+     * Remove the poster fields from an event document after its poster was deleted.
+     *
+     * @param eventId id of the event
+     */
+    public static void clearPosterInfo(String eventId) {
+        Map<String, Object> poster = new HashMap<>();
+        poster.put("posterUrl", FieldValue.delete());
+        poster.put("posterSize", FieldValue.delete());
+        poster.put("posterHash", FieldValue.delete());
+        poster.put("posterUpdatedAt", FieldValue.delete());
+        poster.put("posterRenditions", FieldValue.delete());
+        Map<String, Object> card = new HashMap<>();
+        card.put("posterUrl", FieldValue.delete());
+        card.put("posterRenditions", FieldValue.delete());
+        WriteBatch batch = FirebaseFirestore.getInstance().batch();
+        batch.update(getEventCollection().document(eventId), poster);
+        batch.set(getEventCardCollection().document(eventId), card, SetOptions.merge());
+        batch.commit()
+                .addOnFailureListener(e -> Log.e(TAG, "clearPosterInfo: failed for id " + eventId, e));
+    }
+
+    /**
+     * Callback for a page of events.
+     */
+    public interface EventsPageCallback {
+        /**
+         * Invoked when the page read completes.
+         * @param events events in the page, or null on error
+         * @param lastVisible cursor for the next page, or null if there are no more pages
+         */
+        void onCallback(@Nullable List<Event> events, @Nullable DocumentSnapshot lastVisible);
+    }
+
+    /**
+     * Read one page of events that have a poster, most recently uploaded first. Only events
+     * whose poster fields were recorded by {@link #setPosterInfo} are returned; posters uploaded
+     * before that are recorded by
+     * {@link com.example.fairdraw.ServiceUtility.FirebaseImageStorageService#backfillPosterInfo}.
+     *
+     * @param startAfter cursor returned with the previous page, or null for the first page
+     * @param pageSize maximum number of events in the page
+     * @param callback callback receiving the page and the cursor for the next one
+     */
+    public static void getPosterEventsPage(@Nullable DocumentSnapshot startAfter, int pageSize,
+                                           EventsPageCallback callback) {
+        Query q = getEventCollection().orderBy("posterUpdatedAt", Query.Direction.DESCENDING);
+        if (startAfter != null) q = q.startAfter(startAfter);
+        q.limit(pageSize).get().addOnCompleteListener(task -> {
+            if (!task.isSuccessful() || task.getResult() == null) {
+                Log.e(TAG, "getPosterEventsPage: query failed", task.getException());
+                callback.onCallback(null, null);
+                return;
+            }
+            List<DocumentSnapshot> docs = task.getResult().getDocuments();
+            List<Event> events = new ArrayList<>(docs.size());
+            for (DocumentSnapshot ds : docs) {
+                try {
+                    Event ev = ds.toObject(Event.class);
+                    if (ev != null) events.add(ev);
+                } catch (Exception ex) {
+                    Log.e(TAG, "Failed to deserialize event with id " + ds.getId(), ex);
+                }
+            }
+            DocumentSnapshot last = docs.size() < pageSize ? null : docs.get(docs.size() - 1);
+            callback.onCallback(events, last);
+        });
+    }
+
+    /**
+     * Draw lottery winners for an event inside a Firestore transaction.
+     *
+     * <p>The event is re-read inside the transaction so entrants that joined the waitlist
+     * after the caller loaded the event are included in the draw. Only the waitingList and
+     * invitedList fields are written, so other fields changed concurrently are not overwritten.
+     * If another write lands on the event while the draw runs, Firestore aborts and retries the
+     * transaction with exponential backoff, up to {@value #DRAW_MAX_ATTEMPTS} attempts.</p>
+     *
+     * <p>For events stored as entries, the waiting list is first read in pages ordered by
+     * device id and the draw is taken from it. The transaction then re-reads the entries of
+     * everyone drawn and deletes them; if one of them has left in the meantime, the waiting
+     * list is read again and the draw repeated, also up to {@value #DRAW_MAX_ATTEMPTS} times.</p>
+     *
+     * <p>The draw uses a freshly seeded {@link LotteryRandom}. When anyone is drawn, the seed,
+     * the waiting list size and digest, the ordered picks and the positions the draw took them
+     * from are appended to the event's draw log in the same transaction. Once the draw has
+     * committed, the waiting list in the order the draw saw it is stored under its digest, once
+     * per distinct list and outside the transaction so long lists do not count against its size
+     * limit; the draw can then be checked with {@link DrawLogVerifier} (see
+     * {@link #loadDrawLogWaitlist}).</p>
+     *
+     * @param eventId id of the event to draw
+     * @param callback callback invoked with the draw result (including retry count) or an error
+     */
+    public static void drawLotteryWinners(String eventId, DrawLotteryCallback callback) {
+        drawLotteryWinners(eventId, 0, callback);
+    }
+
+    private static void drawLotteryWinners(String eventId, int redraws, DrawLotteryCallback callback) {
+        getEvent(eventId, current -> {
+            if (current == null || !current.usesWaitlistEntries()) {
+                // A missing event is reported by the transaction
+                runDraw(eventId, null, redraws, callback);
+                return;
+            }
+            loadWaitlistIds(eventId, ids -> {
+                if (ids == null) {
+                    callback.onCallback(null, new FirebaseFirestoreException(
+                            "Failed to read the waiting list of event " + eventId,
+                            FirebaseFirestoreException.Code.UNAVAILABLE));
+                    return;
+                }
+                runDraw(eventId, ids, redraws, callback);
+            });
+        });
+    }
+
+    // Runs the draw transaction. entryIds is the enumerated waiting list for events stored as
+    // entries, or null for the inline list. Completes with a null result when the draw must be
+    // repeated with a fresh waiting list.
+    private static void runDraw(String eventId, @Nullable List<String> entryIds, int redraws,
+                                DrawLotteryCallback callback) {
+        FirebaseFirestore db = FirebaseFirestore.getInstance();
+        DocumentReference eventRef = getEventCollection().document(eventId);
+        TransactionOptions options = new TransactionOptions.Builder()
+                .setMaxAttempts(DRAW_MAX_ATTEMPTS)
+                .build();
+        AtomicInteger attempts = new AtomicInteger(0);
+        SecureRandom seeds = new SecureRandom();
+        // Waiting list of the attempt that committed, for its snapshot
+        AtomicReference<List<String>> drawnFrom = new AtomicReference<>();
+
+        db.runTransaction(options, transaction -> {
+            attempts.incrementAndGet();
+            DocumentSnapshot snapshot = transaction.get(eventRef);
+            Event event = snapshot.toObject(Event.class);
+            if (event == null) {
+                throw new FirebaseFirestoreException("Event " + eventId + " not found",
+                        FirebaseFirestoreException.Code.NOT_FOUND);
+            }
+            boolean entries = event.usesWaitlistEntries();
+            // The event was moved to entries after its waiting list was read
+            if (entries && entryIds == null) return null;
+            if (entries) event.setWaitingList(new ArrayList<>(entryIds));
+
+            // Copied, since the draw reorders the event's list in place
+            List<String> waitingBefore = event.getWaitingList() == null
+                    ? new ArrayList<>() : new ArrayList<>(event.getWaitingList());
+            drawnFrom.set(waitingBefore);
+            long seed = seeds.nextLong();
+
+            List<Integer> pickIndices = new ArrayList<>();
+            List<String> winners = event.drawLotteryWinners(new LotteryRandom(seed), pickIndices);
+            int drawn = waitingBefore.size() - event.getWaitingList().size();
+
+            if (entries && drawn > 0) {
+                // Everyone drawn must still be waiting; reads come before any write
+                for (String winner : winners) {
+                    if (!transaction.get(getWaitlistCollection(eventId).document(winner)).exists()) {
+                        return null;
+                    }
+                }
+            }
+
+            DrawLogEntry logEntry = null;
+            if (drawn > 0) {
+                Map<String, Object> updates = new HashMap<>();
+                if (entries) {
+                    for (String winner : winners) {
+                        transaction.delete(getWaitlistCollection(eventId).document(winner));
+                    }
+                } else {
+                    updates.put("waitingList", event.getWaitingList());
+                }
+                updates.put("invitedList", event.getInvitedList());
+                transaction.update(eventRef, updates);
+                EventCounts delta = new EventCounts(-drawn, drawn, 0, 0);
+                recordCountChange(transaction, snapshot, event, delta);
+                // Its counts are exact here; countsUpdatedAt is left for the server to stamp
+                transaction.set(getEventCardCollection().document(eventId), EventCard.of(event));
+
+                logEntry = DrawLogEntry.forDraw(eventId, seed, waitingBefore, pickIndices, winners);
+                DocumentReference logRef = eventRef.collection(DRAW_LOG_COLLECTION).document();
+                transaction.set(logRef, logEntry);
+            }
+
+            return new DrawResult(winners, event.getWaitingList(),
+                    event.getTitle(), attempts.get() - 1 + redraws, logEntry);
+        }).addOnCompleteListener(task -> {
+            countsCache.invalidate(eventId);
+            if (task.isSuccessful() && task.getResult() == null) {
+                if (redraws + 1 < DRAW_MAX_ATTEMPTS) {
+                    drawLotteryWinners(eventId, redraws + 1, callback);
+                } else {
+                    Log.e(TAG, "drawLotteryWinners: waiting list of event " + eventId
+                            + " kept changing during the draw");
+                    callback.onCallback(null, new FirebaseFirestoreException(
+                            "Waiting list changed during the draw",
+                            FirebaseFirestoreException.Code.ABORTED));
+                }
+            } else if (task.isSuccessful()) {
+                DrawResult result = task.getResult();
+                if (result.logEntry != null) {
+                    saveWaitlistSnapshot(eventId, result.logEntry.waitlistDigest, drawnFrom.get());
+                }
+                if (result.retries > 0) {
+                    Log.d(TAG, "drawLotteryWinners: event " + eventId + " drawn after " + result.retries + " retries");
+                }
+                callback.onCallback(result, null);
+            } else {
+                Log.e(TAG, "drawLotteryWinners: draw failed for event " + eventId
+                        + " after " + attempts.get() + " attempts", task.getException());
+                callback.onCallback(null, task.getException());
+            }
+        });
+    }
+
+    /**
+     * Returns a query over one event's draw log, oldest draw first.
+     *
+     * @param eventId id of the event
+     * @return query over {@code events/{eventId}/draw_log}
+     */
+    public static Query getDrawLogQuery(String eventId) {
+        return getEventCollection().document(eventId).collection(DRAW_LOG_COLLECTION)
+                .orderBy("timestamp", Query.Direction.ASCENDING);
+    }
+
+    // Stores the waiting list a draw ran over under its digest, unless a draw over the same
+    // list already stored it. The chunks go first, in batches kept well under Firestore's commit
+    // size limit, and the snapshot document last, so a snapshot that exists is complete.
+    private static void saveWaitlistSnapshot(String eventId, String digest, List<String> waitingBefore) {
+        DocumentReference snapshotRef = getEventCollection().document(eventId)
+                .collection(DrawLogEntry.SNAPSHOT_COLLECTION).document(digest);
+        snapshotRef.get().addOnCompleteListener(read -> {
+            if (read.isSuccessful() && read.getResult() != null && read.getResult().exists()) return;
+            List<List<String>> chunks = DrawLogEntry.waitlistChunks(waitingBefore);
+            List<Task<Void>> commits = new ArrayList<>();
+            for (int from = 0; from < chunks.size(); from += SNAPSHOT_CHUNKS_PER_BATCH) {
+                WriteBatch batch = FirebaseFirestore.getInstance().batch();
+                for (int i = from; i < Math.min(from + SNAPSHOT_CHUNKS_PER_BATCH, chunks.size()); i++) {
+                    Map<String, Object> chunk = new HashMap<>();
+                    chunk.put("index", i);
+                    chunk.put("ids", chunks.get(i));
+                    batch.set(snapshotRef.collection(DrawLogEntry.SNAPSHOT_CHUNK_COLLECTION)
+                            .document(String.valueOf(i)), chunk);
+                }
+                commits.add(batch.commit());
+            }
+            Tasks.whenAll(commits).addOnCompleteListener(written -> {
+                if (!written.isSuccessful()) {
+                    Log.e(TAG, "saveWaitlistSnapshot: failed to store chunks of " + eventId + "/" + digest,
+                            written.getException());
+                    return;
+                }
+                Map<String, Object> fields = new HashMap<>();
+                fields.put("size", waitingBefore.size());
+                fields.put("chunks", chunks.size());
+                snapshotRef.set(fields).addOnFailureListener(e ->
+                        Log.e(TAG, "saveWaitlistSnapshot: failed for " + eventId + "/" + digest, e));
+            });
+        });
+    }
+
+    /**
+     * Callback for the waiting list a logged draw ran over.
+     */
+    public interface DrawLogWaitlistCallback {
+        /**
+         * @param waitingList the waiting list in the order the draw saw it, or null on error or
+         *                    if it was not stored
+         */
+        void onCallback(@Nullable List<String> waitingList);
+    }
+
+    /**
+     * Reads the waiting list a logged draw ran over, stored under the record's digest, for
+     * {@link DrawLogVerifier#verify(DrawLogEntry, List)}.
+     *
+     * @param entry    record from the event's draw log
+     * @param callback callback receiving the waiting list, or null on error or if it was not stored
+     */
+    @SuppressWarnings("unchecked")
+    public static void loadDrawLogWaitlist(DrawLogEntry entry, DrawLogWaitlistCallback callback) {
+        DocumentReference snapshotRef = getEventCollection().document(entry.eventId)
+                .collection(DrawLogEntry.SNAPSHOT_COLLECTION).document(entry.waitlistDigest);
+        snapshotRef.get().continueWithTask(header -> {
+            if (!header.isSuccessful()) return Tasks.<QuerySnapshot>forException(header.getException());
+            if (!header.getResult().exists()) return Tasks.<QuerySnapshot>forResult(null);
+            return snapshotRef.collection(DrawLogEntry.SNAPSHOT_CHUNK_COLLECTION)
+                    .orderBy("index", Query.Direction.ASCENDING)
+                    .get();
+        }).addOnSuccessListener(qs -> {
+            if (qs == null) {
+                callback.onCallback(null);
+                return;
+            }
+            List<String> waitingList = new ArrayList<>(entry.waitlistSize);
+            for (DocumentSnapshot chunk : qs.getDocuments()) {
+                List<String> ids = (List<String>) chunk.get("ids");
+                if (ids != null) waitingList.addAll(ids);
+            }
+            callback.onCallback(waitingList);
+        }).addOnFailureListener(e -> {
+            Log.e(TAG, "loadDrawLogWaitlist: failed for " + entry.eventId + "/" + entry.waitlistDigest, e);
+            callback.onCallback(null);
+        });
+    }
+
+    /**
+     * Returns a query over the draw logs of all events, for batch audits that should not
+     * load the event documents themselves.
+     *
+     * @return collection group query over every event's draw log
+     */
+    public static Query getAllDrawLogsQuery() {
+        return FirebaseFirestore.getInstance().collectionGroup(DRAW_LOG_COLLECTION);
     }
 
     /**
@@ -198,7 +888,14 @@ public class EventDB {
      * @param callback callback invoked with success flag when the operation completes
      */
     public static void deleteEvent(String eventId, DeleteEventCallback callback) {
-        getEventCollection().document(eventId).delete()
+        WriteBatch batch = FirebaseFirestore.getInstance().batch();
+        batch.delete(getEventCollection().document(eventId));
+        batch.delete(getEventCardCollection().document(eventId));
+        for (int shard = 0; shard < COUNTER_SHARDS; shard++) {
+            batch.delete(getCounterCollection(eventId).document(String.valueOf(shard)));
+        }
+        countsCache.invalidate(eventId);
+        batch.commit()
                 .addOnCompleteListener(task -> callback.onCallback(task.isSuccessful()));
     }
 
@@ -229,6 +926,85 @@ public class EventDB {
         });
     }
 
+    /**
+     * Resolve many events by id. Ids that are not cached are fetched with
+     * {@code whereIn(FieldPath.documentId(), ...)} queries of up to {@value #WHERE_IN_LIMIT}
+     * ids each, run in parallel, so 200 uncached ids take 7 queries instead of 200 reads.
+     * Ids already cached (including ids known to have no event) are not read again.
+     *
+     * @param ids event ids to resolve; duplicates are allowed
+     * @param callback invoked with a list the same length and order as {@code ids}, holding
+     *                 null where no event exists, or with null if any query failed
+     */
+    public static void getEventsByIds(List<String> ids, GetEventsCallback callback) {
+        Map<String, Event> resolved = new HashMap<>();
+        List<String> missing = new ArrayList<>();
+        for (String id : ids) {
+            if (id == null || resolved.containsKey(id) || missing.contains(id)) continue;
+            ExpiringLruCache.Entry<Event> cached = eventCache.get(id);
+            if (cached != null) {
+                resolved.put(id, cached.value);
+            } else {
+                missing.add(id);
+            }
+        }
+        if (missing.isEmpty()) {
+            callback.onCallback(inRequestedOrder(ids, resolved));
+            return;
+        }
+
+        List<Task<QuerySnapshot>> queries = new ArrayList<>();
+        for (List<String> chunk : chunk(missing, WHERE_IN_LIMIT)) {
+            queries.add(getEventCollection().whereIn(FieldPath.documentId(), chunk).get());
+        }
+        Tasks.whenAllComplete(queries).addOnCompleteListener(all -> {
+            boolean failed = false;
+            for (Task<QuerySnapshot> q : queries) {
+                if (!q.isSuccessful() || q.getResult() == null) {
+                    Log.e(TAG, "getEventsByIds: chunk query failed", q.getException());
+                    failed = true;
+                    continue;
+                }
+                for (DocumentSnapshot ds : q.getResult().getDocuments()) {
+                    try {
+                        Event ev = ds.toObject(Event.class);
+                        if (ev != null) {
+                            resolved.put(ds.getId(), ev);
+                            eventCache.put(ds.getId(), ev);
+                        }
+                    } catch (Exception ex) {
+                        Log.e(TAG, "Failed to deserialize event with id " + ds.getId(), ex);
+                    }
+                }
+            }
+            if (failed) {
+                callback.onCallback(null);
+                return;
+            }
+            for (String id : missing) {
+                if (!resolved.containsKey(id)) eventCache.putMissing(id);
+            }
+            callback.onCallback(inRequestedOrder(ids, resolved));
+        });
+    }
+
+    /**
+     * Splits a list into consecutive sublists of at most {@code size} elements.
+     */
+    static <T> List<List<T>> chunk(List<T> items, int size) {
+        List<List<T>> chunks = new ArrayList<>();
+        for (int from = 0; from < items.size(); from += size) {
+            chunks.add(new ArrayList<>(items.subList(from, Math.min(from + size, items.size()))));
+        }
+        return chunks;
+    }
+
+    private static List<Event> inRequestedOrder(List<String> ids, Map<String, Event> resolved) {
+        List<Event> ordered = new ArrayList<>(ids.size());
+        for (String id : ids) ordered.add(resolved.get(id));
+        return ordered;
+    }
+
     /**
      * Attaches a snapshot listener to the events collection for real-time updates.
      *
@@ -260,39 +1036,854 @@ public class EventDB {
         });
     }
 
+    /**
+     * Attaches a snapshot listener to the events collection that reports only what changed.
+     * Unlike {@link #listenToEvents(GetEventsCallback)}, unchanged events are not deserialized
+     * again on each snapshot.
+     *
+     * @param listener listener receiving typed added/modified/removed changes
+     * @return The listener registration.
+     */
+    public static ListenerRegistration listenToEventChanges(EventChangesListener listener) {
+        return getEventCollection().addSnapshotListener((snapshots, e) -> {
+            if (e != null) {
+                Log.e(TAG, "listenToEventChanges: listener error", e);
+                listener.onError(e);
+                return;
+            }
+            if (snapshots == null) return;
+            listener.onChanges(toEventChanges(snapshots));
+        });
+    }
+
+    /**
+     * Converts the document changes of a query snapshot into typed event changes. Only added
+     * and modified documents are deserialized; documents that fail to deserialize are skipped.
+     *
+     * @param snapshots snapshot delivered to a listener on an events query
+     * @return typed changes in the order Firestore reported them
+     */
+    public static List<EventStore.Change> toEventChanges(QuerySnapshot snapshots) {
+        List<DocumentChange> docChanges = snapshots.getDocumentChanges();
+        List<EventStore.Change> changes = new ArrayList<>(docChanges.size());
+        for (DocumentChange dc : docChanges) {
+            String id = dc.getDocument().getId();
+            if (dc.getType() == DocumentChange.Type.REMOVED) {
+                changes.add(new EventStore.Change(EventStore.Change.Type.REMOVED, id, null));
+                continue;
+            }
+            try {
+                Event ev = dc.getDocument().toObject(Event.class);
+                EventStore.Change.Type type = dc.getType() == DocumentChange.Type.ADDED
+                        ? EventStore.Change.Type.ADDED : EventStore.Change.Type.MODIFIED;
+                changes.add(new EventStore.Change(type, id, ev));
+            } catch (Exception ex) {
+                Log.e(TAG, "Failed to deserialize event with id " + id, ex);
+            }
+        }
+        return changes;
+    }
+
+    /**
+     * Attaches a snapshot listener to the event_cards collection that reports only what
+     * changed. Feeds that only show cards use this instead of
+     * {@link #listenToEventChanges(EventChangesListener)}, so each event costs a small fixed
+     * payload instead of one that grows with its lists.
+     *
+     * @param listener listener receiving typed added/modified/removed changes
+     * @return The listener registration.
+     */
+    public static ListenerRegistration listenToEventCardChanges(EventCardChangesListener listener) {
+        return getEventCardCollection().addSnapshotListener((snapshots, e) -> {
+            if (e != null) {
+                Log.e(TAG, "listenToEventCardChanges: listener error", e);
+                listener.onError(e);
+                return;
+            }
+            if (snapshots == null) return;
+            List<DocumentChange> docChanges = snapshots.getDocumentChanges();
+            List<DocumentStore.Change<EventCard>> changes = new ArrayList<>(docChanges.size());
+            for (DocumentChange dc : docChanges) {
+                String id = dc.getDocument().getId();
+                if (dc.getType() == DocumentChange.Type.REMOVED) {
+                    changes.add(new DocumentStore.Change<>(DocumentStore.Change.Type.REMOVED, id, null));
+                    continue;
+                }
+                try {
+                    EventCard card = dc.getDocument().toObject(EventCard.class);
+                    DocumentStore.Change.Type type = dc.getType() == DocumentChange.Type.ADDED
+                            ? DocumentStore.Change.Type.ADDED : DocumentStore.Change.Type.MODIFIED;
+                    changes.add(new DocumentStore.Change<>(type, id, card));
+                } catch (Exception ex) {
+                    Log.e(TAG, "Failed to deserialize event card with id " + id, ex);
+                }
+            }
+            listener.onChanges(changes);
+        });
+    }
+
+    /**
+     * Writes a card for every event, for events created before cards were maintained.
+     * Reads every event once, so run it rarely.
+     *
+     * @param callback invoked with true once every card was written; may be null
+     */
+    public static void backfillEventCards(@Nullable UpdateEventCallback callback) {
+        getEvents(events -> {
+            if (events == null) {
+                if (callback != null) callback.onCallback(false);
+                return;
+            }
+            List<Event> valid = new ArrayList<>();
+            for (Event event : events) {
+                if (event != null && event.getUuid() != null) valid.add(event);
+            }
+            backfillCardBatch(valid, 0, callback);
+        });
+    }
+
+    private static void backfillCardBatch(List<Event> events, int from,
+                                          @Nullable UpdateEventCallback callback) {
+        if (from >= events.size()) {
+            if (callback != null) callback.onCallback(true);
+            return;
+        }
+        WriteBatch batch = FirebaseFirestore.getInstance().batch();
+        int to = Math.min(events.size(), from + CARD_BACKFILL_BATCH);
+        for (int i = from; i < to; i++) {
+            Event event = events.get(i);
+            batch.set(getEventCardCollection().document(event.getUuid()), EventCard.of(event));
+        }
+        batch.commit().addOnCompleteListener(task -> {
+            if (!task.isSuccessful()) {
+                Log.e(TAG, "backfillEventCards: batch failed", task.getException());
+                if (callback != null) callback.onCallback(false);
+            } else {
+                backfillCardBatch(events, to, callback);
+            }
+        });
+    }
+
+    /**
+     * Returns the query for one organizer's events in document id order. Equality on
+     * {@code organizer} plus document id order is served by the automatic single-field
+     * index, and gives a stable order for cursor paging.
+     *
+     * @param organizerId device id of the organizer
+     * @return organizer events query
+     */
+    public static Query getOrganizerEventsQuery(String organizerId) {
+        return getEventCollection()
+                .whereEqualTo("organizer", organizerId)
+                .orderBy(FieldPath.documentId());
+    }
+
+    /**
+     * Returns the subcollection holding the locations entrants joined the waitlist from.
+     * Documents are keyed by device id and hold {@code lat}, {@code lng} and
+     * {@link #GEOHASH_FIELD}.
+     *
+     * @param eventId id of the event
+     * @return collection reference for {@code events/{eventId}/locations}
+     */
+    public static CollectionReference getWaitlistLocationCollection(String eventId) {
+        return getEventCollection().document(eventId).collection(LOCATIONS_COLLECTION);
+    }
+
+    /**
+     * Returns the query for the waitlist locations whose geohash starts with {@code prefix},
+     * i.e. the locations inside that geohash cell. The automatic single-field index on
+     * {@link #GEOHASH_FIELD} serves it.
+     *
+     * @param eventId id of the event
+     * @param prefix  geohash prefix; empty for every location
+     * @return location query ordered by geohash
+     */
+    public static Query getWaitlistLocationsQuery(String eventId, String prefix) {
+        return getWaitlistLocationCollection(eventId)
+                .orderBy(GEOHASH_FIELD)
+                .startAt(prefix)
+                .endAt(prefix + "\uf8ff");
+    }
+
+    /**
+     * Reads the location of one document from {@link #getWaitlistLocationCollection(String)}.
+     *
+     * @param doc location document
+     * @return the location, or null if a coordinate is missing
+     */
+    @Nullable
+    public static Event.EntrantLocation toEntrantLocation(DocumentSnapshot doc) {
+        Double lat = doc.getDouble("lat");
+        Double lng = doc.getDouble("lng");
+        if (lat == null || lng == null) return null;
+        return new Event.EntrantLocation(lat, lng);
+    }
+
+    /**
+     * Reads any one waitlist location of an event, e.g. to center a map before the locations
+     * in view are loaded.
+     *
+     * @param eventId  id of the event
+     * @param callback receives a location, or null if there is none
+     */
+    public static void getAnyWaitlistLocation(String eventId, GetWaitlistLocationCallback callback) {
+        getWaitlistLocationCollection(eventId).limit(1).get()
+                .addOnSuccessListener(qs -> callback.onCallback(
+                        qs.isEmpty() ? null : toEntrantLocation(qs.getDocuments().get(0))))
+                .addOnFailureListener(e -> {
+                    Log.e(TAG, "getAnyWaitlistLocation: failed for event " + eventId, e);
+                    callback.onCallback(null);
+                });
+    }
+
+    /**
+     * Reads the number of waitlist locations of an event and the sums of their coordinates
+     * with one aggregation query, which tells whether anyone joined, left or moved since a
+     * cache of them was built without reading the locations.
+     *
+     * @param eventId  id of the event
+     * @param callback receives the totals, or null on error
+     */
+    public static void getWaitlistLocationTotals(String eventId, WaitlistLocationTotalsCallback callback) {
+        AggregateField latSum = AggregateField.sum("lat");
+        AggregateField lngSum = AggregateField.sum("lng");
+        getWaitlistLocationCollection(eventId)
+                .aggregate(AggregateField.count(), latSum, lngSum)
+                .get(AggregateSource.SERVER)
+                .addOnSuccessListener(snapshot -> {
+                    Double lat = snapshot.getDouble(latSum);
+                    Double lng = snapshot.getDouble(lngSum);
+                    callback.onCallback(new double[]{snapshot.getCount(),
+                            lat == null ? 0 : lat, lng == null ? 0 : lng});
+                })
+                .addOnFailureListener(e -> {
+                    Log.e(TAG, "getWaitlistLocationTotals: failed for event " + eventId, e);
+                    callback.onCallback(null);
+                });
+    }
+
+    private static Map<String, Object> locationFields(Event.EntrantLocation location) {
+        Map<String, Object> fields = new HashMap<>();
+        fields.put("lat", location.getLat());
+        fields.put("lng", location.getLng());
+        fields.put(GEOHASH_FIELD, GeoHash.encode(location.getLat(), location.getLng(),
+                GeoHash.DEFAULT_PRECISION));
+        return fields;
+    }
+
+    /**
+     * Moves locations still stored in the event document's {@code waitlistLocations} map into
+     * {@link #getWaitlistLocationCollection(String)}, then deletes the map. Safe to call on
+     * every open; events without the map cost one read.
+     *
+     * @param eventId  id of the event
+     * @param callback invoked with true once there is nothing left to migrate; may be null
+     */
+    public static void migrateLegacyWaitlistLocations(String eventId, @Nullable UpdateEventCallback callback) {
+        getEvent(eventId, event -> {
+            if (event == null || event.getWaitlistLocations().isEmpty()) {
+                if (callback != null) callback.onCallback(event != null);
+                return;
+            }
+            List<Map.Entry<String, Event.EntrantLocation>> legacy =
+                    new ArrayList<>(event.getWaitlistLocations().entrySet());
+            migrateLegacyLocationBatch(eventId, legacy, 0, callback);
+        });
+    }
+
+    private static void migrateLegacyLocationBatch(String eventId,
+                                                   List<Map.Entry<String, Event.EntrantLocation>> legacy,
+                                                   int from, @Nullable UpdateEventCallback callback) {
+        int to = Math.min(legacy.size(), from + LEGACY_LOCATION_BATCH);
+        boolean last = to == legacy.size();
+        FirebaseFirestore.getInstance().runTransaction(transaction -> {
+            // Read everything first, as transactions require, and only create missing documents,
+            // so a location written by a newer client is not replaced by the legacy copy
+            List<DocumentReference> missing = new ArrayList<>();
+            List<Event.EntrantLocation> missingLocations = new ArrayList<>();
+            for (int i = from; i < to; i++) {
+                Event.EntrantLocation location = legacy.get(i).getValue();
+                if (location == null || location.getLat() == null || location.getLng() == null) continue;
+                DocumentReference ref = getWaitlistLocationCollection(eventId).document(legacy.get(i).getKey());
+                if (!transaction.get(ref).exists()) {
+                    missing.add(ref);
+                    missingLocations.add(location);
+                }
+            }
+            for (int i = 0; i < missing.size(); i++) {
+                transaction.set(missing.get(i), locationFields(missingLocations.get(i)));
+            }
+            if (last) {
+                transaction.update(getEventCollection().document(eventId), "waitlistLocations", FieldValue.delete());
+            }
+            return null;
+        }).addOnCompleteListener(task -> {
+            if (!task.isSuccessful()) {
+                Log.e(TAG, "migrateLegacyWaitlistLocations: failed for event " + eventId, task.getException());
+                if (callback != null) callback.onCallback(false);
+            } else if (!last) {
+                migrateLegacyLocationBatch(eventId, legacy, to, callback);
+            } else if (callback != null) {
+                callback.onCallback(true);
+            }
+        });
+    }
+
+    /**
+     * Returns a CollectionReference to the counter shards of an event. Shard documents are
+     * named "0" to {@code COUNTER_SHARDS - 1} and hold {@link EventCounts} fields; the event's
+     * counts are their sum.
+     *
+     * @param eventId id of the event
+     * @return collection reference for {@code events/{eventId}/counters}
+     */
+    public static CollectionReference getCounterCollection(String eventId) {
+        return getEventCollection().document(eventId).collection(COUNTERS_COLLECTION);
+    }
+
+    /**
+     * Callback for the aggregated counts of an event.
+     */
+    public interface GetCountsCallback {
+        /**
+         * Invoked when the counts have been read.
+         * @param counts the summed counts, or null on error or if the event has no shards yet
+         */
+        void onCallback(@Nullable EventCounts counts);
+    }
+
+    /**
+     * Reads the counts of an event by summing its counter shards. Counts read in the last few
+     * seconds are returned from memory. Counts read from the shards are also rolled up onto the
+     * event's card (see {@link #rollUpCardCounts}).
+     *
+     * @param eventId id of the event
+     * @param callback callback receiving the counts, or null if they are not available
+     */
+    public static void getCounts(String eventId, GetCountsCallback callback) {
+        EventCounts cached = countsCache.peek(eventId);
+        if (cached != null) {
+            callback.onCallback(cached);
+            return;
+        }
+        getCounterCollection(eventId).get().addOnCompleteListener(task -> {
+            if (!task.isSuccessful() || task.getResult() == null) {
+                Log.e(TAG, "getCounts: failed for id " + eventId, task.getException());
+                callback.onCallback(null);
+                return;
+            }
+            EventCounts counts = sumShards(task.getResult().getDocuments());
+            if (counts != null) {
+                countsCache.put(eventId, counts);
+                rollUpCardCounts(eventId, counts);
+            }
+            callback.onCallback(counts);
+        });
+    }
+
+    /**
+     * Attach a real-time listener to the counts of an event. Every change to a shard delivers
+     * the new sum, which is also rolled up onto the event's card (see {@link #rollUpCardCounts}).
+     *
+     * @param eventId id of the event
+     * @param callback callback receiving the counts, or null on error or if there are no shards
+     * @return ListenerRegistration handle which can be used to remove the listener
+     */
+    public static ListenerRegistration listenToCounts(String eventId, GetCountsCallback callback) {
+        return getCounterCollection(eventId).addSnapshotListener((qs, e) -> {
+            if (e != null || qs == null) {
+                Log.e(TAG, "listenToCounts: listener failed for id " + eventId, e);
+                callback.onCallback(null);
+                return;
+            }
+            EventCounts counts = sumShards(qs.getDocuments());
+            if (counts != null) {
+                countsCache.put(eventId, counts);
+                rollUpCardCounts(eventId, counts);
+            }
+            callback.onCallback(counts);
+        });
+    }
+
+    // Sum of the shards, or null if there are none, e.g. for events not yet migrated
+    @Nullable
+    private static EventCounts sumShards(List<DocumentSnapshot> shards) {
+        if (shards.isEmpty()) return null;
+        EventCounts total = new EventCounts();
+        for (DocumentSnapshot shard : shards) {
+            try {
+                total = total.plus(shard.toObject(EventCounts.class));
+            } catch (Exception ex) {
+                Log.e(TAG, "Failed to deserialize counter shard " + shard.getReference().getPath(), ex);
+            }
+        }
+        return total;
+    }
+
+    // Records a change in list sizes inside a transaction that has read the event. If the
+    // event's shards were never initialized, they are instead all set from the event's lists,
+    // which already include the change.
+    private static void recordCountChange(Transaction transaction, DocumentSnapshot eventSnapshot,
+                                          Event eventAfter, EventCounts delta) {
+        String eventId = eventSnapshot.getId();
+        if (!Boolean.TRUE.equals(eventSnapshot.getBoolean(COUNTERS_INITIALIZED_FIELD))) {
+            EventCounts counts = EventCounts.of(eventAfter);
+            for (int shard = 0; shard < COUNTER_SHARDS; shard++) {
+                transaction.set(getCounterCollection(eventId).document(String.valueOf(shard)),
+                        shard == 0 ? counts.toMap() : new EventCounts().toMap());
+            }
+            transaction.update(eventSnapshot.getReference(), COUNTERS_INITIALIZED_FIELD, true);
+            return;
+        }
+        incrementShard(transaction, eventId, delta);
+    }
+
+    // Adds a change in list sizes to a random counter shard of an event whose shards are
+    // initialized
+    private static void incrementShard(Transaction transaction, String eventId, EventCounts delta) {
+        Map<String, Object> increments = new HashMap<>();
+        if (delta.waiting != 0) increments.put(EventCounts.WAITING, FieldValue.increment(delta.waiting));
+        if (delta.invited != 0) increments.put(EventCounts.INVITED, FieldValue.increment(delta.invited));
+        if (delta.enrolled != 0) increments.put(EventCounts.ENROLLED, FieldValue.increment(delta.enrolled));
+        if (delta.cancelled != 0) increments.put(EventCounts.CANCELLED, FieldValue.increment(delta.cancelled));
+        if (increments.isEmpty()) return;
+        int shard;
+        synchronized (shardPicker) {
+            shard = shardPicker.nextInt(COUNTER_SHARDS);
+        }
+        transaction.set(getCounterCollection(eventId).document(String.valueOf(shard)),
+                increments, SetOptions.merge());
+    }
+
+    /**
+     * Copies counts just summed from the shards onto the event's card. Called wherever the
+     * shards are read, so joins and leaves never write the card themselves. The card is left
+     * alone when it already shows these counts or its counts were stamped by the server less
+     * than {@link #CARD_ROLLUP_INTERVAL_MS} ago, so a burst of joins writes it a few times
+     * instead of once per join; this device also reads the card at most once per interval
+     * per event. A skipped rollup is not retried: the next read of the counts rolls them up.
+     *
+     * @param eventId id of the event
+     * @param counts  the summed shard counts
+     */
+    static void rollUpCardCounts(String eventId, EventCounts counts) {
+        if (rollUpAttempts.get(eventId) != null) return;
+        rollUpAttempts.put(eventId, counts);
+        DocumentReference cardRef = getEventCardCollection().document(eventId);
+        FirebaseFirestore.getInstance().runTransaction(transaction -> {
+            DocumentSnapshot card = transaction.get(cardRef);
+            if (!card.exists()) return null;
+            Long waiting = card.getLong("waitingCount");
+            Long invited = card.getLong("invitedCount");
+            Long enrolled = card.getLong("enrolledCount");
+            if (waiting != null && waiting == counts.waiting && invited != null && invited == counts.invited
+                    && enrolled != null && enrolled == counts.enrolled) {
+                return null;
+            }
+            // Stamped by the server, so only this device's clock offset matters here
+            Date updatedAt = card.getDate(COUNTS_UPDATED_AT_FIELD);
+            if (updatedAt != null
+                    && System.currentTimeMillis() - updatedAt.getTime() < CARD_ROLLUP_INTERVAL_MS) {
+                return null;
+            }
+            Map<String, Object> updates = new HashMap<>();
+            updates.put("waitingCount", counts.waiting);
+            updates.put("invitedCount", counts.invited);
+            updates.put("enrolledCount", counts.enrolled);
+            updates.put(COUNTS_UPDATED_AT_FIELD, FieldValue.serverTimestamp());
+            transaction.update(cardRef, updates);
+            return null;
+        }).addOnFailureListener(e -> Log.w(TAG, "rollUpCardCounts: failed for id " + eventId, e));
+    }
+
+    /**
+     * Returns a CollectionReference to the waitlist entries of an event: one document per
+     * waiting entrant, named by device id, for events stored as {@link Event#WAITLIST_ENTRIES}.
+     *
+     * @param eventId id of the event
+     * @return collection reference for {@code events/{eventId}/waitlist}
+     */
+    public static CollectionReference getWaitlistCollection(String eventId) {
+        return getEventCollection().document(eventId).collection(WAITLIST_COLLECTION);
+    }
+
+    /**
+     * Callback for a page of waitlist entries.
+     */
+    public interface WaitlistPageCallback {
+        /**
+         * Invoked when the page read completes.
+         * @param deviceIds device ids in the page, or null on error
+         * @param lastVisible cursor for the next page, or null if there are no more pages
+         */
+        void onCallback(@Nullable List<String> deviceIds, @Nullable DocumentSnapshot lastVisible);
+    }
+
+    /**
+     * Read one page of an event's waitlist entries, ordered by device id.
+     *
+     * @param eventId id of the event
+     * @param startAfter cursor returned with the previous page, or null for the first page
+     * @param pageSize maximum number of entries in the page
+     * @param callback callback receiving the page and the cursor for the next one
+     */
+    public static void getWaitlistPage(String eventId, @Nullable DocumentSnapshot startAfter, int pageSize,
+                                       WaitlistPageCallback callback) {
+        getWaitlistRangePage(eventId, null, null, startAfter, pageSize, callback);
+    }
+
+    // Reads one page of the entries whose device ids lie in [from, to); a null bound is open
+    private static void getWaitlistRangePage(String eventId, @Nullable String from, @Nullable String to,
+                                             @Nullable DocumentSnapshot startAfter, int pageSize,
+                                             WaitlistPageCallback callback) {
+        Query q = getWaitlistCollection(eventId).orderBy(FieldPath.documentId());
+        if (from != null) q = q.whereGreaterThanOrEqualTo(FieldPath.documentId(), from);
+        if (to != null) q = q.whereLessThan(FieldPath.documentId(), to);
+        if (startAfter != null) q = q.startAfter(startAfter);
+        q.limit(pageSize).get().addOnCompleteListener(task -> {
+            if (!task.isSuccessful() || task.getResult() == null) {
+                Log.e(TAG, "getWaitlistPage: query failed for id " + eventId, task.getException());
+                callback.onCallback(null, null);
+                return;
+            }
+            List<DocumentSnapshot> docs = task.getResult().getDocuments();
+            List<String> ids = new ArrayList<>(docs.size());
+            for (DocumentSnapshot ds : docs) ids.add(ds.getId());
+            DocumentSnapshot last = docs.size() < pageSize ? null : docs.get(docs.size() - 1);
+            callback.onCallback(ids, last);
+        });
+    }
+
+    /**
+     * Callback for a whole waiting list read from an event's waitlist entries.
+     */
+    public interface WaitlistIdsCallback {
+        /**
+         * Invoked when the waiting list has been read.
+         * @param deviceIds device ids ordered by device id, or null on error
+         */
+        void onCallback(@Nullable List<String> deviceIds);
+    }
+
+    /**
+     * Reads every waitlist entry of an event, ordered by device id. The device id space is
+     * split into {@code WAITLIST_RANGE_BOUNDS.length + 1} ranges that are paged through in
+     * parallel, so a long list takes a sixteenth of the round trips of a single cursor. Only for
+     * whole-list work such as a draw or a message to everyone waiting; screens should use
+     * {@link #getWaitlistPage} and {@link #getCounts}.
+     *
+     * @param eventId id of the event
+     * @param callback callback receiving the whole waiting list, or null if any read failed
+     */
+    public static void loadWaitlistIds(String eventId, WaitlistIdsCallback callback) {
+        int ranges = WAITLIST_RANGE_BOUNDS.length + 1;
+        List<List<String>> parts = new ArrayList<>(ranges);
+        AtomicInteger pending = new AtomicInteger(ranges);
+        AtomicBoolean failed = new AtomicBoolean();
+        for (int r = 0; r < ranges; r++) {
+            List<String> part = new ArrayList<>();
+            parts.add(part);
+            String from = r == 0 ? null : WAITLIST_RANGE_BOUNDS[r - 1];
+            String to = r == ranges - 1 ? null : WAITLIST_RANGE_BOUNDS[r];
+            loadWaitlistRange(eventId, from, to, null, part, ok -> {
+                if (!ok) failed.set(true);
+                if (pending.decrementAndGet() > 0) return;
+                if (failed.get()) {
+                    callback.onCallback(null);
+                    return;
+                }
+                List<String> all = new ArrayList<>();
+                for (List<String> p : parts) all.addAll(p);
+                callback.onCallback(all);
+            });
+        }
+    }
+
+    private static void loadWaitlistRange(String eventId, @Nullable String from, @Nullable String to,
+                                          @Nullable DocumentSnapshot startAfter, List<String> into,
+                                          UpdateEventCallback done) {
+        getWaitlistRangePage(eventId, from, to, startAfter, WAITLIST_PAGE_SIZE, (ids, last) -> {
+            if (ids == null) {
+                done.onCallback(false);
+                return;
+            }
+            into.addAll(ids);
+            if (last == null) done.onCallback(true);
+            else loadWaitlistRange(eventId, from, to, last, into, done);
+        });
+    }
+
+    /**
+     * Fills {@link Event#getWaitingList()} for an event stored as entries by reading all of
+     * its entries, so code written against the inline list keeps working. Events that still
+     * store the list inline are returned as they are. Reads the whole list (see
+     * {@link #loadWaitlistIds}), so prefer {@link #getWaitlistPage} or {@link #getCounts} where
+     * a page or a count is enough.
+     *
+     * @param event event read from the "events" collection
+     * @param callback callback receiving the event with its waiting list, or null on error
+     */
+    public static void loadWaitingList(Event event, GetEventCallback callback) {
+        if (!event.usesWaitlistEntries()) {
+            callback.onCallback(event);
+            return;
+        }
+        loadWaitlistIds(event.getUuid(), ids -> {
+            if (ids == null) {
+                callback.onCallback(null);
+                return;
+            }
+            event.setWaitingList(ids);
+            callback.onCallback(event);
+        });
+    }
+
+    /**
+     * Callback for whether a device has a waitlist entry.
+     */
+    public interface WaitlistEntryCallback {
+        /**
+         * Invoked when the entry is read or changes.
+         * @param present true if the device has a waitlist entry
+         */
+        void onCallback(boolean present);
+    }
 
     /**
-     * Removes a device from the waitlist of a specific event.
+     * Attach a real-time listener to one device's waitlist entry, for events stored as entries.
+     *
+     * @param eventId id of the event
+     * @param deviceId device id of the entrant
+     * @param callback callback receiving whether the entry exists; not called on errors
+     * @return ListenerRegistration handle which can be used to remove the listener
+     */
+    public static ListenerRegistration listenToWaitlistEntry(String eventId, String deviceId,
+                                                             WaitlistEntryCallback callback) {
+        return getWaitlistCollection(eventId).document(deviceId).addSnapshotListener((snapshot, e) -> {
+            if (e != null || snapshot == null) {
+                Log.e(TAG, "listenToWaitlistEntry: listener failed for id " + eventId, e);
+                return;
+            }
+            callback.onCallback(snapshot.exists());
+        });
+    }
+
+    private static Map<String, Object> waitlistEntryFields(String deviceId) {
+        Map<String, Object> fields = new HashMap<>();
+        fields.put("deviceId", deviceId);
+        fields.put("joinedAt", FieldValue.serverTimestamp());
+        return fields;
+    }
+
+    /**
+     * Moves an event's inline waitingList to waitlist entries and marks the event as
+     * {@link Event#WAITLIST_ENTRIES}. Does nothing for events already stored as entries.
+     *
+     * <p>Entries are first copied in batches while joins and leaves still go to the inline
+     * list. A final transaction then copies anyone who joined since, deletes the entries of
+     * anyone who left, clears the inline list and switches the storage, so no join or leave
+     * made during the migration is lost. If too many changed for one transaction, another
+     * round of batches runs first.</p>
+     *
+     * @param eventId id of the event
+     * @param callback optional callback receiving whether the event is now stored as entries
+     */
+    public static void migrateWaitingListToEntries(String eventId, @Nullable UpdateEventCallback callback) {
+        getEvent(eventId, event -> {
+            if (event == null) {
+                if (callback != null) callback.onCallback(false);
+                return;
+            }
+            if (event.usesWaitlistEntries()) {
+                if (callback != null) callback.onCallback(true);
+                return;
+            }
+            List<String> inline = event.getWaitingList() == null
+                    ? new ArrayList<>() : new ArrayList<>(event.getWaitingList());
+            copyWaitlistEntries(eventId, inline, Collections.emptyList(), new HashSet<>(), callback);
+        });
+    }
+
+    // Writes and deletes entries in batches, then attempts the final switch
+    private static void copyWaitlistEntries(String eventId, List<String> toCopy, List<String> toDelete,
+                                            Set<String> copied, @Nullable UpdateEventCallback callback) {
+        List<Task<Void>> commits = new ArrayList<>();
+        for (List<String> part : chunk(toCopy, WAITLIST_MIGRATION_BATCH)) {
+            WriteBatch batch = FirebaseFirestore.getInstance().batch();
+            for (String id : part) {
+                batch.set(getWaitlistCollection(eventId).document(id),
+                        Collections.singletonMap("deviceId", id), SetOptions.merge());
+            }
+            commits.add(batch.commit());
+        }
+        for (List<String> part : chunk(toDelete, WAITLIST_MIGRATION_BATCH)) {
+            WriteBatch batch = FirebaseFirestore.getInstance().batch();
+            for (String id : part) batch.delete(getWaitlistCollection(eventId).document(id));
+            commits.add(batch.commit());
+        }
+        Tasks.whenAll(commits).addOnCompleteListener(task -> {
+            if (!task.isSuccessful()) {
+                Log.e(TAG, "migrateWaitingListToEntries: copy failed for id " + eventId, task.getException());
+                if (callback != null) callback.onCallback(false);
+                return;
+            }
+            copied.addAll(toCopy);
+            copied.removeAll(toDelete);
+            finishWaitlistMigration(eventId, copied, callback);
+        });
+    }
+
+    private static void finishWaitlistMigration(String eventId, Set<String> copied,
+                                                @Nullable UpdateEventCallback callback) {
+        DocumentReference eventRef = getEventCollection().document(eventId);
+        FirebaseFirestore.getInstance().runTransaction(transaction -> {
+            DocumentSnapshot snapshot = transaction.get(eventRef);
+            Event event = snapshot.toObject(Event.class);
+            if (event == null) {
+                throw new FirebaseFirestoreException("Event " + eventId + " not found",
+                        FirebaseFirestoreException.Code.NOT_FOUND);
+            }
+            if (event.usesWaitlistEntries()) return Collections.<List<String>>emptyList();
+            List<String> current = event.getWaitingList() == null
+                    ? new ArrayList<>() : event.getWaitingList();
+            List<List<String>> delta = waitlistMigrationDelta(current, copied);
+            List<String> toCopy = delta.get(0);
+            List<String> toDelete = delta.get(1);
+            if (toCopy.size() + toDelete.size() > WAITLIST_MIGRATION_BATCH) return delta;
+
+            for (String id : toCopy) {
+                transaction.set(getWaitlistCollection(eventId).document(id),
+                        Collections.singletonMap("deviceId", id), SetOptions.merge());
+            }
+            for (String id : toDelete) transaction.delete(getWaitlistCollection(eventId).document(id));
+            // Seeds the counters from the inline list if they were never initialized
+            recordCountChange(transaction, snapshot, event, new EventCounts());
+            Map<String, Object> updates = new HashMap<>();
+            updates.put("waitingList", new ArrayList<String>());
+            updates.put("waitlistStorage", Event.WAITLIST_ENTRIES);
+            transaction.update(eventRef, updates);
+            return Collections.<List<String>>emptyList();
+        }).addOnCompleteListener(task -> {
+            if (!task.isSuccessful()) {
+                Log.e(TAG, "migrateWaitingListToEntries: switch failed for id " + eventId, task.getException());
+                if (callback != null) callback.onCallback(false);
+            } else if (task.getResult().isEmpty()) {
+                countsCache.invalidate(eventId);
+                entriesEvents.add(eventId);
+                if (callback != null) callback.onCallback(true);
+            } else {
+                copyWaitlistEntries(eventId, task.getResult().get(0), task.getResult().get(1), copied, callback);
+            }
+        });
+    }
+
+    /**
+     * Compares the inline waiting list with the entries copied so far during a migration.
+     *
+     * @param current the inline waiting list as it is now
+     * @param copied  device ids whose entries have been written
+     * @return two lists: ids still to copy, and copied ids that have left since
+     */
+    static List<List<String>> waitlistMigrationDelta(List<String> current, Set<String> copied) {
+        Set<String> waiting = new LinkedHashSet<>(current);
+        List<String> toCopy = new ArrayList<>();
+        for (String id : waiting) {
+            if (!copied.contains(id)) toCopy.add(id);
+        }
+        List<String> toDelete = new ArrayList<>();
+        for (String id : copied) {
+            if (!waiting.contains(id)) toDelete.add(id);
+        }
+        List<List<String>> delta = new ArrayList<>(2);
+        delta.add(toCopy);
+        delta.add(toDelete);
+        return delta;
+    }
+
+    // Makes sure an event keeps its waiting list as entries before a join or leave, moving an
+    // inline list over first. Only the first call per event reads the event document.
+    private static void ensureWaitlistEntries(String eventId, UpdateEventCallback callback) {
+        if (entriesEvents.contains(eventId)) {
+            callback.onCallback(true);
+            return;
+        }
+        migrateWaitingListToEntries(eventId, callback);
+    }
+
+    /**
+     * Removes a device from the waitlist of a specific event. The device's entry and the
+     * location it joined from are deleted and a counter shard is decremented in one
+     * transaction that reads only the entry; the event document and its card are not touched.
+     * An event still stored inline is first moved to entries (see
+     * {@link #migrateWaitingListToEntries}).
      * @param eventId The ID of the event to modify.
      * @param deviceId The ID of the device to remove from the waitlist.
      * @param callback The callback to be invoked upon completion.
      */
     public static void removeFromWaitlist(String eventId, String deviceId, RemoveFromWaitlistCallback callback) {
-        DocumentReference eventRef = getEventCollection().document(eventId);
-        eventRef.update("waitingList", FieldValue.arrayRemove(deviceId))
-                .addOnCompleteListener(task -> callback.onCallback(task.isSuccessful()));
+        ensureWaitlistEntries(eventId, ready -> {
+            if (!ready) {
+                callback.onCallback(false);
+                return;
+            }
+            DocumentReference entryRef = getWaitlistCollection(eventId).document(deviceId);
+            FirebaseFirestore.getInstance().runTransaction(transaction -> {
+                boolean removed = transaction.get(entryRef).exists();
+                if (removed) incrementShard(transaction, eventId, new EventCounts(-1, 0, 0, 0));
+                transaction.delete(entryRef);
+                transaction.delete(getWaitlistLocationCollection(eventId).document(deviceId));
+                return removed;
+            }).addOnCompleteListener(task -> {
+                if (task.isSuccessful() && Boolean.TRUE.equals(task.getResult())) {
+                    countsCache.invalidate(eventId);
+                }
+                callback.onCallback(task.isSuccessful());
+            });
+        });
     }
 
     /**
-     * Adds a device to the waitlist of a specific event.
+     * Adds a device to the waitlist of a specific event. The device gets its own document in
+     * {@link #getWaitlistCollection(String)} and a random counter shard is incremented in one
+     * transaction that reads only that document, so concurrent joins touch different documents
+     * apart from the shards. The location, if any, is written to
+     * {@link #getWaitlistLocationCollection(String)}. The event document and its card are not
+     * touched; the card gets the new counts from the next {@link #rollUpCardCounts}. An event
+     * still stored inline is first moved to entries (see {@link #migrateWaitingListToEntries}).
      * @param eventId The ID of the event to modify.
      * @param deviceId The ID of the device to add to the waitlist.
+     * @param location where the entrant joined from, or null if not collected
      * @param callback The callback to be invoked upon completion.
      */
     public static void addToWaitlist(String eventId,
                                      String deviceId,
                                      @Nullable Event.EntrantLocation location,
                                      AddToWaitlistCallback callback) {
-        DocumentReference eventRef = getEventCollection().document(eventId);
-
-        Map<String, Object> updates = new HashMap<>();
-        updates.put("waitingList", FieldValue.arrayUnion(deviceId));
-
-        if (location != null) {
-            updates.put("waitlistLocations." + deviceId, location);
-        }
-
-        eventRef.update(updates)
-                .addOnCompleteListener(task -> callback.onCallback(task.isSuccessful()));
+        ensureWaitlistEntries(eventId, ready -> {
+            if (!ready) {
+                callback.onCallback(false);
+                return;
+            }
+            DocumentReference entryRef = getWaitlistCollection(eventId).document(deviceId);
+            FirebaseFirestore.getInstance().runTransaction(transaction -> {
+                // Joining twice must not count twice
+                boolean added = !transaction.get(entryRef).exists();
+                if (added) {
+                    transaction.set(entryRef, waitlistEntryFields(deviceId));
+                    incrementShard(transaction, eventId, new EventCounts(1, 0, 0, 0));
+                }
+                if (location != null && location.getLat() != null && location.getLng() != null) {
+                    transaction.set(getWaitlistLocationCollection(eventId).document(deviceId),
+                            locationFields(location));
+                }
+                return added;
+            }).addOnCompleteListener(task -> {
+                if (task.isSuccessful() && Boolean.TRUE.equals(task.getResult())) {
+                    countsCache.invalidate(eventId);
+                }
+                callback.onCallback(task.isSuccessful());
+            });
+        });
     }
 }
@@ -8,8 +8,10 @@ import com.google.firebase.firestore.FirebaseFirestore;
 import com.google.firebase.firestore.Query;
 import com.google.firebase.firestore.QueryDocumentSnapshot;
 import com.google.firebase.firestore.QuerySnapshot;
+import com.google.firebase.firestore.SetOptions;
 import com.google.firebase.firestore.WriteBatch;
 
+import java.util.Collections;
 import java.util.Date;
 
 /**
@@ -148,10 +150,15 @@ public class OrganizerDB {
 
             for (QueryDocumentSnapshot doc : snapshot) {
                 Date endDate = doc.getDate("endDate");
+                // Keep each event's feed card in step with the event
+                DocumentReference cardRef = EventDB.getEventCardCollection().document(doc.getId());
                 if (endDate == null || endDate.after(now)) {
                     batch.delete(doc.getReference());
+                    batch.delete(cardRef);
                 } else {
                     batch.update(doc.getReference(), "organizer", "Unknown organizer");
+                    batch.set(cardRef, Collections.singletonMap("organizer", "Unknown organizer"),
+                            SetOptions.merge());
                 }
             }
 
@@ -3,17 +3,26 @@ package com.example.fairdraw.DBs;
 import androidx.annotation.Nullable;
 
 import com.example.fairdraw.Models.User;
+import com.example.fairdraw.ServiceUtility.UserProfileCache;
 import com.google.firebase.firestore.CollectionReference;
 import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FieldPath;
 import com.google.firebase.firestore.FirebaseFirestore;
 import com.google.firebase.firestore.ListenerRegistration;
 
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
 /**
  * Provides a high-level API for interacting with the "users" collection in Firestore.
  * This class handles all the database operations for User objects.
  */
 public class UserDB {
 
+    /** Firestore's limit on the number of values in a single whereIn filter. */
+    public static final int WHERE_IN_LIMIT = 30;
+
     /**
      * Callback interface for when a User is fetched from the database.
      */
@@ -36,6 +45,19 @@ public class UserDB {
         void onCallback(@Nullable java.util.List<User> users);
     }
 
+    /**
+     * Callback interface for when Users are fetched by device id.
+     */
+    public interface GetUsersByIdCallback {
+        /**
+         * Called when the lookup is complete.
+         * @param users Users found, keyed by device ID; ids without a user are absent.
+         *              Null if an error occurred.
+         * @param e The exception if an error occurred, or null otherwise.
+         */
+        void onCallback(@Nullable Map<String, User> users, @Nullable Exception e);
+    }
+
     /**
      * Callback interface for checking if a user exists in the database.
      */
@@ -99,6 +121,34 @@ public class UserDB {
                 .addOnFailureListener(e -> cb.onCallback(null, e));
     }
 
+    /**
+     * Asynchronously retrieves up to {@value #WHERE_IN_LIMIT} users with a single
+     * {@code whereIn(FieldPath.documentId(), ...)} query instead of one read per user.
+     *
+     * @param deviceIds The device IDs to look up; at most {@value #WHERE_IN_LIMIT}.
+     * @param cb The callback to be invoked with the users found, keyed by device ID.
+     * @throws IllegalArgumentException if more than {@value #WHERE_IN_LIMIT} ids are given
+     */
+    public static void getUsersByIds(List<String> deviceIds, GetUsersByIdCallback cb) {
+        if (deviceIds.size() > WHERE_IN_LIMIT) {
+            throw new IllegalArgumentException("At most " + WHERE_IN_LIMIT + " ids per query");
+        }
+        if (deviceIds.isEmpty()) {
+            cb.onCallback(new HashMap<>(), null);
+            return;
+        }
+        getUserCollection().whereIn(FieldPath.documentId(), deviceIds).get()
+                .addOnSuccessListener(snap -> {
+                    Map<String, User> users = new HashMap<>();
+                    for (DocumentSnapshot doc : snap.getDocuments()) {
+                        User user = doc.toObject(User.class);
+                        if (user != null) users.put(doc.getId(), user);
+                    }
+                    cb.onCallback(users, null);
+                })
+                .addOnFailureListener(e -> cb.onCallback(null, e));
+    }
+
     /**
      * Adds a snapshot listener to a user document for real-time updates.
      * @param deviceId The device ID of the user to listen to.
@@ -113,7 +163,10 @@ public class UserDB {
             }
 
             if (snapshot != null && snapshot.exists()) {
-                cb.onCallback(snapshot.toObject(User.class), null);
+                User user = snapshot.toObject(User.class);
+                // Keep lists that show this user in step with the live document
+                if (user != null) UserProfileCache.getInstance().put(user);
+                cb.onCallback(user, null);
             } else {
                 cb.onCallback(null, null);
             }
@@ -145,7 +198,10 @@ public class UserDB {
      */
     public static void upsertUser(User user, WriteCallback cb) {
         getUserCollection().document(user.getDeviceId()).set(user)
-                .addOnSuccessListener(v -> cb.onCallback(true, null))
+                .addOnSuccessListener(v -> {
+                    UserProfileCache.getInstance().put(user);
+                    cb.onCallback(true, null);
+                })
                 .addOnFailureListener(e -> cb.onCallback(false, e));
     }
 
@@ -157,7 +213,10 @@ public class UserDB {
      */
     public static void deleteUser(String deviceId, DeleteCallback cb) {
         getUserCollection().document(deviceId).delete()
-                .addOnSuccessListener(v -> cb.onCallback(true, null))
+                .addOnSuccessListener(v -> {
+                    UserProfileCache.getInstance().invalidate(deviceId);
+                    cb.onCallback(true, null);
+                })
                 .addOnFailureListener(e -> cb.onCallback(false, e));
     }
     public static ListenerRegistration listenToUsers(GetUsersCallback callback) {
@@ -17,8 +17,11 @@ import androidx.annotation.Nullable;
 import androidx.fragment.app.DialogFragment;
 
 import com.bumptech.glide.Glide;
+import com.example.fairdraw.Activities.EntrantEventDetails;
 import com.example.fairdraw.R;
+import com.example.fairdraw.ServiceUtility.DeepLinkUtil;
 import com.example.fairdraw.ServiceUtility.FirebaseImageStorageService;
+import com.example.fairdraw.ServiceUtility.QrUtil;
 import com.google.android.material.button.MaterialButton;
 
 import android.graphics.drawable.BitmapDrawable;
@@ -40,7 +43,9 @@ import java.io.IOException;
  * DialogFragment that displays a QR code image for an event and allows the
  * user to download the QR image to their device.
  *
- * <p>The fragment fetches the QR image from Firebase Storage using the
+ * <p>The fragment draws the QR code locally with {@link QrUtil}, which caches it, so
+ * showing the dialog again is free; if that fails it fetches the uploaded QR image from
+ * Firebase Storage using the
  * {@link com.example.fairdraw.ServiceUtility.FirebaseImageStorageService} and
  * displays it with Glide. The QR image may be saved to the Pictures/FairDraw
  * folder on the device; for Android Q+ the MediaStore API is used.</p>
@@ -110,22 +115,16 @@ public class QrCodeFragment extends DialogFragment {
         btnClose = view.findViewById(R.id.btnCloseQr);
         tvQrEventName = view.findViewById(R.id.tvQrEventName);
 
-        // Fetch the QR code bitmap using the FirebaseImageStorageService and the eventid
-        FirebaseImageStorageService storageService = new FirebaseImageStorageService();
-        storageService.getEventQrDownloadUrl(eventId).addOnSuccessListener(uri -> {
-            // Load the image into the ImageView using Glide
-            Glide.with(requireContext())
-                    .load(uri)
-                    .into(imgQrCode);
-            Log.d("QrCodeFragment", "Successfully loaded QR code image");
-        }).addOnFailureListener(e -> {
-            Log.d("QrCodeFragment", "Failed to load QR code image", e);
-            // Show Snackbar to inform user of failure and to check logs
-            Snackbar.make(view, "Failed to load QR code image. Please try again later.", Snackbar.LENGTH_LONG).show();
-
-             // Close the fragment since QR code cannot be displayed
-            // dismiss();
-         });
+        // Draw the same deep link CreateEventPage encoded and uploaded
+        try {
+            Bundle extras = new Bundle();
+            extras.putString("event_id", eventId);
+            Uri link = DeepLinkUtil.buildLink(EntrantEventDetails.class, extras);
+            imgQrCode.setImageBitmap(QrUtil.generate(link.toString(), QrUtil.EVENT_QR_SIZE));
+        } catch (Exception e) {
+            Log.w("QrCodeFragment", "Failed to draw QR code; loading the uploaded one", e);
+            loadUploadedQr(view);
+        }
 
         // Close fragment when "X" is clicked
         btnClose.setOnClickListener(v -> dismiss());
@@ -167,6 +166,26 @@ public class QrCodeFragment extends DialogFragment {
         });
     }
 
+    /**
+     * Load the QR image uploaded for the event from Firebase Storage.
+     *
+     * @param view root view, for error messages
+     */
+    private void loadUploadedQr(View view) {
+        FirebaseImageStorageService storageService = new FirebaseImageStorageService();
+        storageService.getEventQrDownloadUrl(eventId).addOnSuccessListener(uri -> {
+            // Load the image into the ImageView using Glide
+            Glide.with(requireContext())
+                    .load(uri)
+                    .into(imgQrCode);
+            Log.d("QrCodeFragment", "Successfully loaded QR code image");
+        }).addOnFailureListener(e -> {
+            Log.d("QrCodeFragment", "Failed to load QR code image", e);
+            // Show Snackbar to inform user of failure and to check logs
+            Snackbar.make(view, "Failed to load QR code image. Please try again later.", Snackbar.LENGTH_LONG).show();
+        });
+    }
+
     /**
      * Save a bitmap to the user's Pictures/FairDraw folder. Uses MediaStore on Android Q+ and
      * falls back to writing to external storage on older devices and triggers a media scan.
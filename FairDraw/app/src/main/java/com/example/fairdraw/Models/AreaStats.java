@@ -11,6 +11,12 @@ public class AreaStats {
         this.count = 0;
     }
 
+    public AreaStats(double lat, double lng, int count) {
+        this.lat = lat;
+        this.lng = lng;
+        this.count = count;
+    }
+
     public void increment() {
         count++;
     }
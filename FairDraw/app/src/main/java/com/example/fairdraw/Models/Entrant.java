@@ -17,7 +17,10 @@ public class Entrant implements Serializable {
     private String deviceId;
     private ArrayList<String> eventHistory = new ArrayList<>();
     private Map<String, Map<String, Object>> eventHistoryStatus;
+    // Legacy inline notifications; new notifications live in the entrants/{id}/notifications subcollection
     private ArrayList<EntrantNotification> notifications = new ArrayList<>();
+    // Number of unread documents in the notifications subcollection, kept in step with every write
+    private long unreadNotifications;
 
     // Just email and phone true or false
     private final HashMap<String, Boolean> notificationPrefs = new HashMap<>();
@@ -134,7 +137,9 @@ public class Entrant implements Serializable {
     }
 
     /**
-     * Returns the list of notifications for this entrant.
+     * Returns the legacy inline notifications for this entrant. Notifications are now stored in
+     * the {@code entrants/{id}/notifications} subcollection; this list only holds entries that have
+     * not been migrated yet.
      *
      * @return list of {@link EntrantNotification} objects
      */
@@ -151,5 +156,22 @@ public class Entrant implements Serializable {
         this.notifications = notifications;
     }
 
-}
+    /**
+     * Returns the number of unread notifications in the entrant's notifications subcollection.
+     *
+     * @return unread notification count
+     */
+    public long getUnreadNotifications() {
+        return unreadNotifications;
+    }
 
+    /**
+     * Sets the unread notification count. Useful for deserialization.
+     *
+     * @param unreadNotifications unread notification count
+     */
+    public void setUnreadNotifications(long unreadNotifications) {
+        this.unreadNotifications = unreadNotifications;
+    }
+
+}
@@ -6,12 +6,16 @@ import com.example.fairdraw.Others.NotificationType;
 
 import com.example.fairdraw.DBs.EntrantDB;
 import com.example.fairdraw.Others.EntrantNotification;
+import com.example.fairdraw.Others.EventCounts;
 import com.example.fairdraw.Others.EventState;
+import com.example.fairdraw.Others.LotterySampler;
 import com.example.fairdraw.Others.NotificationType;
 import com.example.fairdraw.R;
+import androidx.annotation.Nullable;
 import androidx.annotation.StringRes;
 
 import java.io.Serializable;
+import java.util.AbstractList;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Date;
@@ -19,8 +23,8 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Random;
+import java.util.RandomAccess;
 import java.util.UUID;
-import java.util.stream.Collectors;
 
 /**
  * Represents an event created in the application. An Event contains metadata such as title,
@@ -82,15 +86,57 @@ public class Event implements Serializable {
     private String organizer;
     private Float price;
     private String posterPath;
+    // Written when the poster upload succeeds so readers do not need a Storage round trip
+    private String posterUrl;
+    private Long posterSize;
+    private String posterHash;
+    private Date posterUpdatedAt;
+    // Download URLs of the smaller poster renditions, by PosterRendition key
+    private Map<String, String> posterRenditions;
     private String qrSlug;
     private EventState state = EventState.DRAFT;
     private final Random random = new Random();
 
-    // List of user IDs who are on the waiting list for the lottery.
+    // Bit flags stored in the membership index, one per status list.
+    private static final int IN_WAITING = 1;
+    private static final int IN_INVITED = 1 << 1;
+    private static final int IN_ENROLLED = 1 << 2;
+    private static final int IN_CANCELLED = 1 << 3;
+
+    // Lazily built index from device id to the status lists it appears in. Never persisted;
+    // dropped whenever a list setter or a lottery method changes the lists.
+    private transient Map<String, Integer> membershipIndex;
+    // Bumped by every change made through a list getter; the index is rebuilt when it moves on
+    // from the value it was built at, so swaps that keep a list's size are noticed too.
+    private transient int listVersion;
+    private transient int indexedVersion;
+    // Views returned by the list getters, recreated when a setter replaces the list behind one.
+    private transient TrackedList waitingView;
+    private transient TrackedList invitedView;
+    private transient TrackedList enrolledView;
+    private transient TrackedList cancelledView;
+    // Counts aggregated from the event's counter shards, when the caller has them. The limit
+    // checks prefer these to the list sizes, which may not reflect the whole waiting list.
+    private transient EventCounts knownCounts;
+
+    /**
+     * Value of {@link #getWaitlistStorage()} for events whose waiting list is stored as one
+     * document per entrant under {@code events/{id}/waitlist} rather than in {@code waitingList}.
+     */
+    public static final String WAITLIST_ENTRIES = "entries";
+
+    // Where the waiting list is stored: null for the waitingList array on this document (older
+    // events), or WAITLIST_ENTRIES. EventDB.migrateWaitingListToEntries moves older events over,
+    // on the organizer screen or at the first join or leave.
+    private String waitlistStorage;
+
+    // List of user IDs who are on the waiting list for the lottery. For events stored as
+    // entries this is empty unless filled by EventDB.loadWaitingList or applyWaitlistEntry.
     private List<String> waitingList;
 
-    // Map from entrant deviceId -> their location when joining the waitlist
-    // (can be extended later to include city/postal code)
+    // Legacy map from entrant deviceId -> their location when joining the waitlist. New joins
+    // write to the events/{id}/locations subcollection instead (see EventDB.addToWaitlist), and
+    // EventDB.migrateLegacyWaitlistLocations moves old entries there.
     private Map<String, EntrantLocation> waitlistLocations;
 
     // List of user IDs who have won the lottery and been sent an invitation.
@@ -441,6 +487,98 @@ public class Event implements Serializable {
         this.posterPath = posterPath;
     }
 
+    /**
+     * Returns the download URL of the uploaded poster.
+     *
+     * @return poster download URL, or null if no poster has been uploaded
+     */
+    public String getPosterUrl() {
+        return posterUrl;
+    }
+
+    /**
+     * Sets the download URL of the uploaded poster.
+     *
+     * @param posterUrl poster download URL
+     */
+    public void setPosterUrl(String posterUrl) {
+        this.posterUrl = posterUrl;
+    }
+
+    /**
+     * Returns the size of the uploaded poster in bytes.
+     *
+     * @return poster size in bytes, or null if unknown
+     */
+    public Long getPosterSize() {
+        return posterSize;
+    }
+
+    /**
+     * Sets the size of the uploaded poster in bytes.
+     *
+     * @param posterSize poster size in bytes
+     */
+    public void setPosterSize(Long posterSize) {
+        this.posterSize = posterSize;
+    }
+
+    /**
+     * Returns the content hash (base64 MD5 as reported by Storage) of the uploaded poster.
+     *
+     * @return poster content hash, or null if unknown
+     */
+    public String getPosterHash() {
+        return posterHash;
+    }
+
+    /**
+     * Sets the content hash of the uploaded poster.
+     *
+     * @param posterHash poster content hash
+     */
+    public void setPosterHash(String posterHash) {
+        this.posterHash = posterHash;
+    }
+
+    /**
+     * Returns when the poster was last uploaded. Events without a poster have no value, which
+     * keeps them out of queries ordered by this field.
+     *
+     * @return poster upload time, or null if no poster
+     */
+    public Date getPosterUpdatedAt() {
+        return posterUpdatedAt;
+    }
+
+    /**
+     * Sets when the poster was last uploaded.
+     *
+     * @param posterUpdatedAt poster upload time
+     */
+    public void setPosterUpdatedAt(Date posterUpdatedAt) {
+        this.posterUpdatedAt = posterUpdatedAt;
+    }
+
+    /**
+     * Returns the download URL of each uploaded poster rendition, keyed by
+     * {@link com.example.fairdraw.Others.PosterRendition#key}.
+     *
+     * @return rendition URLs, or null for events without a poster or uploaded before renditions
+     */
+    public Map<String, String> getPosterRenditions() {
+        return posterRenditions;
+    }
+
+    /**
+     * Sets the download URLs of the uploaded poster renditions.
+     *
+     * @param posterRenditions rendition URLs by rendition key
+     */
+    public void setPosterRenditions(Map<String, String> posterRenditions) {
+        this.posterRenditions = posterRenditions;
+    }
+
     /**
      * Returns the QR slug used for check-ins or short-links.
      *
@@ -483,7 +621,9 @@ public class Event implements Serializable {
      * @return list of device id strings on the waiting list
      */
     public List<String> getWaitingList() {
-        return waitingList;
+        if (waitingList == null) return null;
+        if (waitingView == null || waitingView.backing != waitingList) waitingView = new TrackedList(waitingList);
+        return waitingView;
     }
 
     /**
@@ -493,6 +633,51 @@ public class Event implements Serializable {
      */
     public void setWaitingList(List<String> waitingList) {
         this.waitingList = waitingList;
+        invalidateMembershipIndex();
+    }
+
+    /**
+     * Returns where the waiting list is stored.
+     *
+     * @return null for the waitingList field, or {@link #WAITLIST_ENTRIES}
+     */
+    public String getWaitlistStorage() {
+        return waitlistStorage;
+    }
+
+    /**
+     * Sets where the waiting list is stored.
+     *
+     * @param waitlistStorage null for the waitingList field, or {@link #WAITLIST_ENTRIES}
+     */
+    public void setWaitlistStorage(String waitlistStorage) {
+        this.waitlistStorage = waitlistStorage;
+    }
+
+    /**
+     * Returns whether the waiting list is stored as per-entrant documents, in which case
+     * {@link #getWaitingList()} only holds what was loaded separately.
+     */
+    public boolean usesWaitlistEntries() {
+        return WAITLIST_ENTRIES.equals(waitlistStorage);
+    }
+
+    /**
+     * Records whether a device has a waitlist entry, for events that store their waiting list
+     * as entries and so do not load it with the event.
+     *
+     * @param deviceId device id of the entrant
+     * @param present  true if the device has an entry
+     */
+    public void applyWaitlistEntry(String deviceId, boolean present) {
+        ensureListsInitialized();
+        if (deviceId == null) return;
+        if (present) {
+            if (!isOnWaitingList(deviceId)) waitingList.add(deviceId);
+        } else {
+            waitingList.remove(deviceId);
+        }
+        invalidateMembershipIndex();
     }
 
     public Map<String, EntrantLocation> getWaitlistLocations() {
@@ -530,7 +715,9 @@ public class Event implements Serializable {
      * @return list of invited device ids
      */
     public List<String> getInvitedList() {
-        return invitedList;
+        if (invitedList == null) return null;
+        if (invitedView == null || invitedView.backing != invitedList) invitedView = new TrackedList(invitedList);
+        return invitedView;
     }
 
     /**
@@ -540,6 +727,7 @@ public class Event implements Serializable {
      */
     public void setInvitedList(List<String> invitedList) {
         this.invitedList = invitedList;
+        invalidateMembershipIndex();
     }
 
     /**
@@ -548,7 +736,9 @@ public class Event implements Serializable {
      * @return list of enrolled device ids
      */
     public List<String> getEnrolledList() {
-        return enrolledList;
+        if (enrolledList == null) return null;
+        if (enrolledView == null || enrolledView.backing != enrolledList) enrolledView = new TrackedList(enrolledList);
+        return enrolledView;
     }
 
     /**
@@ -558,6 +748,7 @@ public class Event implements Serializable {
      */
     public void setEnrolledList(List<String> enrolledList) {
         this.enrolledList = enrolledList;
+        invalidateMembershipIndex();
     }
 
     /**
@@ -566,7 +757,9 @@ public class Event implements Serializable {
      * @return list of cancelled device ids
      */
     public List<String> getCancelledList() {
-        return cancelledList;
+        if (cancelledList == null) return null;
+        if (cancelledView == null || cancelledView.backing != cancelledList) cancelledView = new TrackedList(cancelledList);
+        return cancelledView;
     }
 
     /**
@@ -576,6 +769,7 @@ public class Event implements Serializable {
      */
     public void setCancelledList(List<String> cancelledList) {
         this.cancelledList = cancelledList;
+        invalidateMembershipIndex();
     }
 
     /**
@@ -609,13 +803,112 @@ public class Event implements Serializable {
         if (cancelledList == null) cancelledList = new ArrayList<>();
     }
 
+    /**
+     * Drops the membership index so it is rebuilt on the next status check.
+     */
+    private void invalidateMembershipIndex() {
+        membershipIndex = null;
+    }
+
+    /**
+     * Returns the membership flags for a device id, building the index first if needed.
+     * The index is rebuilt when a setter or lottery method changed the lists, or when any
+     * list was changed through its getter since the last build.
+     */
+    private int membershipFlags(String deviceId) {
+        ensureListsInitialized();
+        if (membershipIndex == null || indexedVersion != listVersion) {
+            Map<String, Integer> index = new HashMap<>(
+                    (waitingList.size() + invitedList.size() + enrolledList.size() + cancelledList.size()) * 2);
+            addToIndex(index, waitingList, IN_WAITING);
+            addToIndex(index, invitedList, IN_INVITED);
+            addToIndex(index, enrolledList, IN_ENROLLED);
+            addToIndex(index, cancelledList, IN_CANCELLED);
+            membershipIndex = index;
+            indexedVersion = listVersion;
+        }
+        Integer flags = membershipIndex.get(deviceId);
+        return flags == null ? 0 : flags;
+    }
+
+    /**
+     * Write-through view of a status list that counts every change in {@link #listVersion}.
+     * Bulk removals go to the backing list's own range operations so clearing a large list
+     * stays linear.
+     */
+    private final class TrackedList extends AbstractList<String> implements RandomAccess {
+        final List<String> backing;
+
+        TrackedList(List<String> backing) {
+            this.backing = backing;
+        }
+
+        @Override
+        public String get(int index) {
+            return backing.get(index);
+        }
+
+        @Override
+        public int size() {
+            return backing.size();
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            return backing.contains(o);
+        }
+
+        @Override
+        public int indexOf(Object o) {
+            return backing.indexOf(o);
+        }
+
+        @Override
+        public String set(int index, String element) {
+            String previous = backing.set(index, element);
+            changed();
+            return previous;
+        }
+
+        @Override
+        public void add(int index, String element) {
+            backing.add(index, element);
+            changed();
+        }
+
+        @Override
+        public String remove(int index) {
+            String removed = backing.remove(index);
+            changed();
+            return removed;
+        }
+
+        @Override
+        protected void removeRange(int fromIndex, int toIndex) {
+            backing.subList(fromIndex, toIndex).clear();
+            changed();
+        }
+
+        private void changed() {
+            modCount++;
+            listVersion++;
+        }
+    }
+
+    private static void addToIndex(Map<String, Integer> index, List<String> ids, int flag) {
+        for (String id : ids) {
+            Integer current = index.get(id);
+            index.put(id, current == null ? flag : current | flag);
+        }
+    }
+
     /**
      * Returns true if the given deviceId is already enrolled (registered) for the event.
      */
     public boolean isEnrolled(String deviceId) {
         ensureListsInitialized();
         if (deviceId == null) return false;
-        return enrolledList.contains(deviceId);
+        return (membershipFlags(deviceId) & IN_ENROLLED) != 0;
     }
 
     /**
@@ -624,7 +917,7 @@ public class Event implements Serializable {
     public boolean isInvited(String deviceId) {
         ensureListsInitialized();
         if (deviceId == null) return false;
-        return invitedList.contains(deviceId);
+        return (membershipFlags(deviceId) & IN_INVITED) != 0;
     }
 
     /**
@@ -633,7 +926,21 @@ public class Event implements Serializable {
     public boolean isOnWaitingList(String deviceId) {
         ensureListsInitialized();
         if (deviceId == null) return false;
-        return waitingList.contains(deviceId);
+        return (membershipFlags(deviceId) & IN_WAITING) != 0;
+    }
+
+    /**
+     * Supplies counts aggregated from the event's counter shards, used instead of the list
+     * sizes for the waiting list limit.
+     *
+     * @param counts aggregated counts, or null to fall back to the list sizes
+     */
+    public void applyCounts(@Nullable EventCounts counts) {
+        knownCounts = counts;
+    }
+
+    private int waitingCount() {
+        return knownCounts != null ? knownCounts.waiting : waitingList.size();
     }
 
     /**
@@ -644,8 +951,8 @@ public class Event implements Serializable {
     public boolean canJoinWaitingList(String deviceId) {
         ensureListsInitialized();
         if (deviceId == null) return false;
-        if (isEnrolled(deviceId) || isInvited(deviceId) || isOnWaitingList(deviceId)) return false;
-        if (waitingListLimit != null && waitingListLimit >= 0 && waitingList.size() >= waitingListLimit) return false;
+        if ((membershipFlags(deviceId) & (IN_ENROLLED | IN_INVITED | IN_WAITING)) != 0) return false;
+        if (waitingListLimit != null && waitingListLimit >= 0 && waitingCount() >= waitingListLimit) return false;
         return true;
     }
 
@@ -657,10 +964,11 @@ public class Event implements Serializable {
     public int getJoinWaitlistButtonText(String deviceId) {
         ensureListsInitialized();
         if (deviceId == null) return R.string.unavailable;
-        if (isEnrolled(deviceId)) return R.string.already_registered;
-        if (isInvited(deviceId)) return R.string.invitation_sent;
-        if (isOnWaitingList(deviceId)) return R.string.on_waitlist;
-        if (waitingListLimit != null && waitingListLimit >= 0 && waitingList.size() >= waitingListLimit) return R.string.waitlist_full;
+        int flags = membershipFlags(deviceId);
+        if ((flags & IN_ENROLLED) != 0) return R.string.already_registered;
+        if ((flags & IN_INVITED) != 0) return R.string.invitation_sent;
+        if ((flags & IN_WAITING) != 0) return R.string.on_waitlist;
+        if (waitingListLimit != null && waitingListLimit >= 0 && waitingCount() >= waitingListLimit) return R.string.waitlist_full;
         return R.string.join_lottery_waitlist;
     }
 
@@ -678,9 +986,32 @@ public class Event implements Serializable {
      * @return A list of the new winners' device ids.
      */
     public List<String> drawLotteryWinners() {
+        return drawLotteryWinners(random);
+    }
+
+    /**
+     * Selects new lottery winners using the provided random source. Passing a seeded
+     * {@link com.example.fairdraw.Others.LotteryRandom} makes the draw reproducible from its seed.
+     *
+     * @param random source of randomness for the draw
+     * @return A list of the new winners' device ids.
+     */
+    public List<String> drawLotteryWinners(Random random) {
+        return drawLotteryWinners(random, null);
+    }
+
+    /**
+     * Selects new lottery winners using the provided random source, reporting where each
+     * winner was on the waiting list before the draw (see {@link com.example.fairdraw.Others.DrawLogEntry}).
+     *
+     * @param random      source of randomness for the draw
+     * @param pickIndices if not null, receives the winners' positions on the waiting list
+     *                    before the draw, in draw order
+     * @return A list of the new winners' device ids.
+     */
+    public List<String> drawLotteryWinners(Random random, @Nullable List<Integer> pickIndices) {
         // Calculate how many new winners we need to draw.
         ensureListsInitialized();
-        List<String> originalWaiting = new ArrayList<>(waitingList);
         int spotsToFill = capacity - enrolledList.size() - invitedList.size();
 
 
@@ -694,20 +1025,13 @@ public class Event implements Serializable {
 
         List<String> newWinners = Collections.emptyList();
         if (numToDraw > 0) {
-            // Shuffle the waiting list to ensure fairness.
-            Collections.shuffle(waitingList, random);
-
-            // Take the new winners from the top of the shuffled list.
-            newWinners = new ArrayList<>(waitingList.subList(0, numToDraw));
+            // Partial Fisher-Yates: only numToDraw picks are shuffled out of the waiting list,
+            // which keeps every entrant's chance equal without shuffling the whole list.
+            newWinners = LotterySampler.drawAndRemove(waitingList, numToDraw, random, pickIndices);
 
             // Add the new winners to the invited list.
             invitedList.addAll(newWinners);
-
-            // Remove the new winners from the waiting list.
-            // Create a new list for the remaining waiting list participants.
-            List<String> remainingWaiting = new ArrayList<>(waitingList.subList(numToDraw, waitingList.size()));
-            waitingList.clear();
-            waitingList.addAll(remainingWaiting);
+            invalidateMembershipIndex();
         }
 
         // Return a copy of the new winners so we can send notifications.
@@ -723,16 +1047,22 @@ public class Event implements Serializable {
      * @return The new winner's deviceId, or null if no replacement is possible.
      */
     public String replaceLotteryWinner(String oldWinner) {
+        ensureListsInitialized();
         if (!invitedList.remove(oldWinner)) {
             // The person was not in the invited list; do nothing.
             return null;
         }
+        invalidateMembershipIndex();
 
         // Find candidates for replacement: people on the waiting list who are not already invited.
-        // This prevents picking someone who is already a winner.
-        List<String> replacementCandidates = waitingList.stream()
-                .filter(person -> !invitedList.contains(person))
-                .collect(Collectors.toList());
+        // This prevents picking someone who is already a winner. Uses the membership index so the
+        // scan is linear in the waiting list size.
+        List<String> replacementCandidates = new ArrayList<>();
+        for (String person : waitingList) {
+            if ((membershipFlags(person) & IN_INVITED) == 0) {
+                replacementCandidates.add(person);
+            }
+        }
 
         if (replacementCandidates.isEmpty()) {
             // No one on the waiting list to replace the winner.
@@ -749,6 +1079,7 @@ public class Event implements Serializable {
 
         // Add to cancelled list
         cancelledList.add(oldWinner);
+        invalidateMembershipIndex();
 
         return newWinner;
     }
@@ -762,6 +1093,7 @@ public class Event implements Serializable {
     public void cancelLotteryWinner(String deviceId) {
         if (invitedList.remove(deviceId)) {
             cancelledList.add(deviceId);
+            invalidateMembershipIndex();
         }
     }
 
@@ -774,6 +1106,7 @@ public class Event implements Serializable {
     public void acceptLotteryWinner(String deviceId) {
         if (invitedList.remove(deviceId)) {
             enrolledList.add(deviceId);
+            invalidateMembershipIndex();
         }
     }
 }
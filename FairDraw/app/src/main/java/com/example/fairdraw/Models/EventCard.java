@@ -0,0 +1,215 @@
+package com.example.fairdraw.Models;
+
+import com.example.fairdraw.Others.EventState;
+import com.google.firebase.firestore.ServerTimestamp;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The fields of an {@link Event} that event feeds show, stored in the "event_cards" collection
+ * under the same id as the event.
+ *
+ * <p>Membership lists are replaced by their sizes, so a card stays the same small size however
+ * many entrants the event has. {@link com.example.fairdraw.DBs.EventDB} writes the card in the
+ * same batch or transaction as every change to the event, except joins and leaves: their counts
+ * are rolled up from the event's counter shards when a client reads them, at most every few
+ * seconds, so the counts on a card may lag behind until someone looks at the event.</p>
+ */
+public class EventCard implements Serializable {
+
+    private String uuid;
+    private String title;
+    private String location;
+    private Date time;
+    private Float price;
+    private EventState state = EventState.DRAFT;
+    private List<String> tags = new ArrayList<>();
+    private Integer capacity;
+    private String organizer;
+    private String posterUrl;
+    private Map<String, String> posterRenditions;
+    private int waitingCount;
+    private int invitedCount;
+    private int enrolledCount;
+    @ServerTimestamp
+    private Date countsUpdatedAt;
+
+    /**
+     * No-argument constructor required for Firestore deserialization.
+     */
+    public EventCard() {
+        // Required for Firestore deserialization
+    }
+
+    /**
+     * Builds the card for an event.
+     *
+     * @param event the full event
+     * @return its card
+     */
+    public static EventCard of(Event event) {
+        EventCard card = new EventCard();
+        card.uuid = event.getUuid();
+        card.title = event.getTitle();
+        card.location = event.getLocation();
+        card.time = event.getTime();
+        card.price = event.getPrice();
+        card.state = event.getState();
+        card.tags = event.getTags() == null ? new ArrayList<>() : new ArrayList<>(event.getTags());
+        card.capacity = event.getCapacity();
+        card.organizer = event.getOrganizer();
+        card.posterUrl = event.getPosterUrl();
+        card.posterRenditions = event.getPosterRenditions() == null
+                ? null : new HashMap<>(event.getPosterRenditions());
+        card.waitingCount = sizeOf(event.getWaitingList());
+        card.invitedCount = sizeOf(event.getInvitedList());
+        card.enrolledCount = sizeOf(event.getEnrolledList());
+        return card;
+    }
+
+    private static int sizeOf(List<?> list) {
+        return list == null ? 0 : list.size();
+    }
+
+    public String getUuid() {
+        return uuid;
+    }
+
+    public void setUuid(String uuid) {
+        this.uuid = uuid;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public void setTitle(String title) {
+        this.title = title;
+    }
+
+    public String getLocation() {
+        return location;
+    }
+
+    public void setLocation(String location) {
+        this.location = location;
+    }
+
+    public Date getTime() {
+        return time;
+    }
+
+    public void setTime(Date time) {
+        this.time = time;
+    }
+
+    public Float getPrice() {
+        return price;
+    }
+
+    public void setPrice(Float price) {
+        this.price = price;
+    }
+
+    public EventState getState() {
+        return state;
+    }
+
+    public void setState(EventState state) {
+        this.state = state;
+    }
+
+    public List<String> getTags() {
+        return tags;
+    }
+
+    public void setTags(List<String> tags) {
+        this.tags = tags;
+    }
+
+    public Integer getCapacity() {
+        return capacity;
+    }
+
+    public void setCapacity(Integer capacity) {
+        this.capacity = capacity;
+    }
+
+    public String getOrganizer() {
+        return organizer;
+    }
+
+    public void setOrganizer(String organizer) {
+        this.organizer = organizer;
+    }
+
+    public String getPosterUrl() {
+        return posterUrl;
+    }
+
+    public void setPosterUrl(String posterUrl) {
+        this.posterUrl = posterUrl;
+    }
+
+    /**
+     * @return download URL of each poster rendition by
+     *         {@link com.example.fairdraw.Others.PosterRendition#key}, or null
+     */
+    public Map<String, String> getPosterRenditions() {
+        return posterRenditions;
+    }
+
+    public void setPosterRenditions(Map<String, String> posterRenditions) {
+        this.posterRenditions = posterRenditions;
+    }
+
+    /**
+     * @return number of entrants on the waiting list
+     */
+    public int getWaitingCount() {
+        return waitingCount;
+    }
+
+    public void setWaitingCount(int waitingCount) {
+        this.waitingCount = waitingCount;
+    }
+
+    /**
+     * @return number of entrants invited and not yet accepted or declined
+     */
+    public int getInvitedCount() {
+        return invitedCount;
+    }
+
+    public void setInvitedCount(int invitedCount) {
+        this.invitedCount = invitedCount;
+    }
+
+    /**
+     * @return number of entrants who accepted their invitation
+     */
+    public int getEnrolledCount() {
+        return enrolledCount;
+    }
+
+    public void setEnrolledCount(int enrolledCount) {
+        this.enrolledCount = enrolledCount;
+    }
+
+    /**
+     * @return server time the counts were last written, used to throttle rollups from the
+     *         counter shards; left null when writing, so the server fills it in
+     */
+    public Date getCountsUpdatedAt() {
+        return countsUpdatedAt;
+    }
+
+    public void setCountsUpdatedAt(Date countsUpdatedAt) {
+        this.countsUpdatedAt = countsUpdatedAt;
+    }
+}
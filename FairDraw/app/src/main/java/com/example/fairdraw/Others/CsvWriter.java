@@ -0,0 +1,81 @@
+package com.example.fairdraw.Others;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Writes CSV rows straight to a stream, so a file of any length never has to be held in memory.
+ * Cells containing a comma, quote or line break are quoted and inner quotes are doubled.
+ */
+public class CsvWriter implements Closeable, Flushable {
+
+    private final Writer out;
+    private int rowsWritten;
+
+    /**
+     * @param out destination writer; buffer it if it is not already buffered
+     */
+    public CsvWriter(Writer out) {
+        this.out = out;
+    }
+
+    /**
+     * @param out destination stream; rows are written as buffered UTF-8
+     */
+    public CsvWriter(OutputStream out) {
+        this(new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8)));
+    }
+
+    /**
+     * Writes one row. Null cells are written as empty.
+     *
+     * @param cells cell values
+     * @throws IOException if the underlying writer fails
+     */
+    public void writeRow(String... cells) throws IOException {
+        for (int i = 0; i < cells.length; i++) {
+            if (i > 0) out.write(',');
+            out.write(escape(cells[i]));
+        }
+        out.write('\n');
+        rowsWritten++;
+    }
+
+    /**
+     * @return number of rows written so far, including any header
+     */
+    public int getRowsWritten() {
+        return rowsWritten;
+    }
+
+    /**
+     * Escapes a single cell value.
+     *
+     * @param cell value, may be null
+     * @return the value as it should appear in the file
+     */
+    public static String escape(String cell) {
+        if (cell == null) return "";
+        if (cell.indexOf(',') < 0 && cell.indexOf('"') < 0
+                && cell.indexOf('\n') < 0 && cell.indexOf('\r') < 0) {
+            return cell;
+        }
+        return '"' + cell.replace("\"", "\"\"") + '"';
+    }
+
+    @Override
+    public void flush() throws IOException {
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        out.close();
+    }
+}
@@ -0,0 +1,86 @@
+package com.example.fairdraw.Others;
+
+/**
+ * How to decode an image into an upright bitmap within a pixel budget without exceeding a
+ * memory budget.
+ *
+ * <p>The image is first subsampled by the decoder by a power of two ({@link #sampleSize}),
+ * which never holds the full-size pixels, then scaled the rest of the way and turned upright in
+ * one transform. While that transform runs both bitmaps are alive, so the peak is their sum
+ * ({@link #peakBytes}). The sample size is the largest that keeps at least the pixel budget,
+ * doubled until the peak fits in the memory budget; a tight budget therefore yields a smaller
+ * image rather than a larger allocation.</p>
+ */
+public final class DecodePlan {
+
+    /** Bytes per pixel of the ARGB_8888 bitmaps decoded into. */
+    public static final int BYTES_PER_PIXEL = 4;
+
+    /** Subsampling factor for the decoder, a power of two. */
+    public final int sampleSize;
+    /** Width of the subsampled bitmap, before turning it upright. */
+    public final int decodedWidth;
+    /** Height of the subsampled bitmap, before turning it upright. */
+    public final int decodedHeight;
+    /** Width of the upright result. */
+    public final int outputWidth;
+    /** Height of the upright result. */
+    public final int outputHeight;
+    /** Whether a second bitmap is created to scale or turn the decoded one. */
+    public final boolean transformed;
+    /** Bytes held at once while decoding and transforming. */
+    public final long peakBytes;
+
+    private DecodePlan(int sampleSize, int decodedWidth, int decodedHeight, int outputWidth,
+                       int outputHeight, boolean transformed, long peakBytes) {
+        this.sampleSize = sampleSize;
+        this.decodedWidth = decodedWidth;
+        this.decodedHeight = decodedHeight;
+        this.outputWidth = outputWidth;
+        this.outputHeight = outputHeight;
+        this.transformed = transformed;
+        this.peakBytes = peakBytes;
+    }
+
+    /**
+     * @param width        width of the encoded image
+     * @param height       height of the encoded image
+     * @param orientation  EXIF orientation tag (1 is upright, 2 to 8 flip and/or rotate)
+     * @param maxPixels    pixel budget of the result, or 0 for none
+     * @param memoryBudget largest number of bytes to hold at once
+     * @return the plan; its {@link #peakBytes} exceeds the budget only if even a one-pixel
+     *         decode would
+     */
+    public static DecodePlan of(int width, int height, int orientation, int maxPixels, long memoryBudget) {
+        boolean turned = orientation >= 2 && orientation <= 8;
+        boolean transposed = orientation >= 5 && orientation <= 8;
+
+        int sampleSize = 1;
+        if (maxPixels > 0) {
+            while ((long) (width / (sampleSize * 2)) * (height / (sampleSize * 2)) >= maxPixels) {
+                sampleSize *= 2;
+            }
+        }
+        while (true) {
+            // Decoders round subsampled sizes up
+            int dw = ceilDiv(width, sampleSize);
+            int dh = ceilDiv(height, sampleSize);
+            long decodedPixels = (long) dw * dh;
+            double scale = maxPixels > 0 && decodedPixels > maxPixels
+                    ? Math.sqrt((double) maxPixels / decodedPixels) : 1.0;
+            int ow = Math.max(1, (int) Math.round(dw * scale));
+            int oh = Math.max(1, (int) Math.round(dh * scale));
+            boolean transformed = turned || ow != dw || oh != dh;
+            long peak = (decodedPixels + (transformed ? (long) ow * oh : 0)) * BYTES_PER_PIXEL;
+            if (peak <= memoryBudget || (dw == 1 && dh == 1)) {
+                return new DecodePlan(sampleSize, dw, dh, transposed ? oh : ow, transposed ? ow : oh,
+                        transformed, peak);
+            }
+            sampleSize *= 2;
+        }
+    }
+
+    private static int ceilDiv(int a, int b) {
+        return (int) (((long) a + b - 1) / b);
+    }
+}
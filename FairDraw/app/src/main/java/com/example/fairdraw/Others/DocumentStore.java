@@ -0,0 +1,112 @@
+package com.example.fairdraw.Others;
+
+import androidx.annotation.Nullable;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * In-memory copy of a Firestore collection keyed by document id.
+ *
+ * <p>The store is fed the document changes of a snapshot listener rather than whole
+ * snapshots, so an update to one document only replaces that one entry. Callers that render
+ * the documents can use the same {@link Change} list to update only the affected rows.</p>
+ *
+ * <p>Not thread-safe; snapshot listeners deliver on the main thread.</p>
+ *
+ * @param <T> deserialized document type
+ */
+public class DocumentStore<T> {
+
+    /**
+     * A single typed change to the collection.
+     *
+     * @param <T> deserialized document type
+     */
+    public static class Change<T> {
+        /** Kind of change, mirroring Firestore's document change types. */
+        public enum Type { ADDED, MODIFIED, REMOVED }
+
+        public final Type type;
+        /** Document id of the changed document. */
+        public final String id;
+        /** The new document for ADDED/MODIFIED, or null for REMOVED. */
+        @Nullable
+        public final T event;
+
+        public Change(Type type, String id, @Nullable T event) {
+            this.type = type;
+            this.id = id;
+            this.event = event;
+        }
+    }
+
+    private final Map<String, T> documents = new LinkedHashMap<>();
+    // Cached list view of the store, rebuilt lazily after a change
+    @Nullable
+    private List<T> snapshot;
+
+    /**
+     * Applies a batch of changes. ADDED and MODIFIED entries replace the document with the
+     * same id in place (keeping its position); REMOVED entries drop it.
+     *
+     * @param changes changes from one listener callback
+     * @return true if the store contents changed
+     */
+    public boolean apply(List<? extends Change<T>> changes) {
+        boolean changed = false;
+        for (Change<T> c : changes) {
+            if (c == null || c.id == null) continue;
+            if (c.type == Change.Type.REMOVED || c.event == null) {
+                changed |= documents.remove(c.id) != null;
+            } else {
+                documents.put(c.id, c.event);
+                changed = true;
+            }
+        }
+        if (changed) snapshot = null;
+        return changed;
+    }
+
+    /**
+     * Returns the document with the given id.
+     *
+     * @param id document id
+     * @return the document or null if not in the store
+     */
+    @Nullable
+    public T get(String id) {
+        return documents.get(id);
+    }
+
+    /**
+     * Returns all documents in the order they were first added. The returned list is
+     * read-only and is reused until the next change, so repeated calls are cheap.
+     *
+     * @return list of documents
+     */
+    public List<T> getAll() {
+        if (snapshot == null) {
+            snapshot = Collections.unmodifiableList(new ArrayList<>(documents.values()));
+        }
+        return snapshot;
+    }
+
+    /**
+     * @return number of documents in the store
+     */
+    public int size() {
+        return documents.size();
+    }
+
+    /**
+     * Removes all documents, e.g. before re-attaching a listener.
+     */
+    public void clear() {
+        documents.clear();
+        snapshot = null;
+    }
+}
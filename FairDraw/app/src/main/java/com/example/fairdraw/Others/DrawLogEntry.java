@@ -0,0 +1,95 @@
+package com.example.fairdraw.Others;
+
+import com.google.firebase.firestore.ServerTimestamp;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * One record in an event's append-only draw log ({@code events/{id}/draw_log}).
+ * <p>
+ * The record holds the seed, the size and digest of the waiting list the draw ran over, and
+ * the ordered picks with the positions the draw took them from, so it stays small no matter how
+ * long the list was. The waiting list itself, in the order the draw saw it, is stored once per
+ * digest in the event's {@value #SNAPSHOT_COLLECTION}, split into {@value #SNAPSHOT_CHUNK_COLLECTION}
+ * documents of {@value #WAITLIST_CHUNK_SIZE} ids each. Fields are public for easy
+ * (de)serialization with Firestore.
+ */
+public class DrawLogEntry implements Serializable {
+    /** Identifies the PRNG and sampling algorithm so old logs stay replayable. */
+    public static final String ALGORITHM_V1 = "splitmix64-partial-fisher-yates-v1";
+    /** Subcollection of an event holding waiting list snapshots, keyed by {@link #waitlistDigest}. */
+    public static final String SNAPSHOT_COLLECTION = "waitlist_snapshots";
+    /** Subcollection of a snapshot holding its ids, one document per chunk named by its index. */
+    public static final String SNAPSHOT_CHUNK_COLLECTION = "chunks";
+    /** Device ids per waiting list chunk document. */
+    public static final int WAITLIST_CHUNK_SIZE = 5000;
+
+    /** Event the draw belongs to. */
+    public String eventId;
+    /** Algorithm used for the draw, see {@link #ALGORITHM_V1}. */
+    public String algorithm;
+    /** Seed of the {@link LotteryRandom} that produced the picks. */
+    public long seed;
+    /** Number of entrants on the waiting list when the draw ran. */
+    public int waitlistSize;
+    /**
+     * SHA-256 of the waiting list, in stored order, when the draw ran; also the id of its
+     * snapshot in {@link #SNAPSHOT_COLLECTION}.
+     */
+    public String waitlistDigest;
+    /** Positions the draw took the picks from in the waiting list, in the order they were drawn. */
+    public List<Integer> pickIndices = new ArrayList<>();
+    /** Device ids of the picks, in the order they were drawn. */
+    public List<String> picks = new ArrayList<>();
+    /** Server time the draw was committed. */
+    @ServerTimestamp
+    public Date timestamp;
+
+    /**
+     * Default no-argument constructor required by Firestore / serialization.
+     */
+    public DrawLogEntry() {}
+
+    /**
+     * Builds the log record for a draw that has just run.
+     *
+     * @param eventId       event the draw belongs to
+     * @param seed          seed of the {@link LotteryRandom} used for the draw
+     * @param waitingBefore waiting list the draw ran over, in the order it saw it
+     * @param pickIndices   positions the draw took the picks from, as reported by
+     *                      {@link LotterySampler#drawAndRemove(List, int, java.util.Random, List)}
+     * @param picks         drawn device ids, in draw order
+     * @return a log entry; store {@link #waitlistChunks(List)} of {@code waitingBefore} under
+     *         its digest
+     */
+    public static DrawLogEntry forDraw(String eventId, long seed, List<String> waitingBefore,
+                                       List<Integer> pickIndices, List<String> picks) {
+        DrawLogEntry entry = new DrawLogEntry();
+        entry.eventId = eventId;
+        entry.algorithm = ALGORITHM_V1;
+        entry.seed = seed;
+        entry.waitlistSize = waitingBefore.size();
+        entry.waitlistDigest = DrawLogVerifier.digest(waitingBefore);
+        entry.pickIndices = new ArrayList<>(pickIndices);
+        entry.picks = new ArrayList<>(picks);
+        return entry;
+    }
+
+    /**
+     * Splits a waiting list into the chunks of its snapshot.
+     *
+     * @param waitingBefore waiting list the draw ran over, in the order it saw it
+     * @return consecutive runs of at most {@link #WAITLIST_CHUNK_SIZE} ids
+     */
+    public static List<List<String>> waitlistChunks(List<String> waitingBefore) {
+        List<List<String>> chunks = new ArrayList<>();
+        for (int from = 0; from < waitingBefore.size(); from += WAITLIST_CHUNK_SIZE) {
+            chunks.add(new ArrayList<>(waitingBefore.subList(from,
+                    Math.min(from + WAITLIST_CHUNK_SIZE, waitingBefore.size()))));
+        }
+        return chunks;
+    }
+}
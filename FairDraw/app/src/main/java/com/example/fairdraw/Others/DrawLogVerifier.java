@@ -0,0 +1,87 @@
+package com.example.fairdraw.Others;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.List;
+
+/**
+ * Offline verifier for {@link DrawLogEntry} records.
+ * <p>
+ * Replaying a draw only needs the log record itself: the positions the draw recorded taking
+ * its picks from are checked against the ones the seed and the waiting list size produce, in
+ * O(picks) time. With the waiting list stored next to the record (see
+ * {@link DrawLogEntry#SNAPSHOT_COLLECTION}), it is also checked against the digest and the
+ * picked device ids.
+ */
+public class DrawLogVerifier {
+
+    private DrawLogVerifier() {
+        // Static helpers only
+    }
+
+    /**
+     * Replays the draw from its seed and checks the pick positions the draw recorded.
+     *
+     * @param entry log record to verify
+     * @return true if the seed reproduces exactly the recorded pick positions
+     */
+    public static boolean replay(DrawLogEntry entry) {
+        if (entry == null || !DrawLogEntry.ALGORITHM_V1.equals(entry.algorithm)
+                || entry.pickIndices == null || entry.picks == null
+                || entry.pickIndices.size() != entry.picks.size()) {
+            return false;
+        }
+        int[] expected = LotterySampler.pickIndices(entry.waitlistSize, entry.pickIndices.size(),
+                new LotteryRandom(entry.seed));
+        if (expected.length != entry.pickIndices.size()) return false;
+        for (int i = 0; i < expected.length; i++) {
+            Integer recorded = entry.pickIndices.get(i);
+            if (recorded == null || recorded != expected[i]) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Replays the draw and checks it against the waiting list it ran over.
+     *
+     * @param entry       log record to verify
+     * @param waitingList waiting list, in stored order, at the time of the draw
+     * @return true if the list matches the recorded digest and the replayed positions select
+     *         exactly the recorded picks
+     */
+    public static boolean verify(DrawLogEntry entry, List<String> waitingList) {
+        if (!replay(entry) || waitingList == null || waitingList.size() != entry.waitlistSize) {
+            return false;
+        }
+        if (!digest(waitingList).equals(entry.waitlistDigest)) return false;
+        for (int i = 0; i < entry.picks.size(); i++) {
+            if (!waitingList.get(entry.pickIndices.get(i)).equals(entry.picks.get(i))) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Computes the SHA-256 digest recorded for a waiting list.
+     *
+     * @param waitingList device ids in stored order
+     * @return lowercase hex digest of the ids joined by newlines
+     */
+    public static String digest(List<String> waitingList) {
+        try {
+            MessageDigest sha = MessageDigest.getInstance("SHA-256");
+            for (String id : waitingList) {
+                sha.update((id == null ? "" : id).getBytes(StandardCharsets.UTF_8));
+                sha.update((byte) '\n');
+            }
+            StringBuilder hex = new StringBuilder();
+            for (byte b : sha.digest()) {
+                hex.append(String.format("%02x", b));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            // SHA-256 is guaranteed to be available on Android and the JVM.
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -1,6 +1,10 @@
 package com.example.fairdraw.Others;
 
+import com.google.firebase.firestore.Exclude;
+import com.google.firebase.firestore.ServerTimestamp;
+
 import java.io.Serializable;
+import java.util.Date;
 /**
  * Represents a single in-app notification stored for an entrant.
  * <p>
@@ -17,6 +21,12 @@ public class EntrantNotification implements Serializable {
     public String message;
     /** Whether the notification has been read by the user. Defaults to false. */
     public boolean read = false;
+    /** Server time the notification was written; used to order and page the list. */
+    @ServerTimestamp
+    public Date timestamp;
+    /** Id of the notification document in entrants/{id}/notifications. Not stored in the document. */
+    @Exclude
+    public String id;
 
     /**
      * Default no-argument constructor required by Firestore / serialization.
@@ -0,0 +1,106 @@
+package com.example.fairdraw.Others;
+
+import androidx.annotation.Nullable;
+
+import com.example.fairdraw.Models.Event;
+
+import java.io.Serializable;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Number of entrants in each membership list of an event.
+ * <p>
+ * Each of an event's counter shards ({@code events/{id}/counters/{n}}) holds a part of the
+ * counts under the field names below; the event's counts are the sum over its shards.
+ * Fields are public for easy (de)serialization with Firestore.
+ */
+public class EventCounts implements Serializable {
+    /** Field holding the waiting list count. */
+    public static final String WAITING = "waiting";
+    /** Field holding the invited list count. */
+    public static final String INVITED = "invited";
+    /** Field holding the enrolled list count. */
+    public static final String ENROLLED = "enrolled";
+    /** Field holding the cancelled list count. */
+    public static final String CANCELLED = "cancelled";
+
+    public int waiting;
+    public int invited;
+    public int enrolled;
+    public int cancelled;
+
+    /**
+     * Default no-argument constructor required by Firestore / serialization.
+     */
+    public EventCounts() {}
+
+    public EventCounts(int waiting, int invited, int enrolled, int cancelled) {
+        this.waiting = waiting;
+        this.invited = invited;
+        this.enrolled = enrolled;
+        this.cancelled = cancelled;
+    }
+
+    /**
+     * Counts the lists of an event.
+     *
+     * @param event the event
+     * @return its counts; missing lists count as empty
+     */
+    public static EventCounts of(Event event) {
+        return new EventCounts(sizeOf(event.getWaitingList()), sizeOf(event.getInvitedList()),
+                sizeOf(event.getEnrolledList()), sizeOf(event.getCancelledList()));
+    }
+
+    private static int sizeOf(@Nullable List<?> list) {
+        return list == null ? 0 : list.size();
+    }
+
+    /**
+     * @param other counts to add, e.g. another shard; null adds nothing
+     * @return the sum of both counts
+     */
+    public EventCounts plus(@Nullable EventCounts other) {
+        if (other == null) return this;
+        return new EventCounts(waiting + other.waiting, invited + other.invited,
+                enrolled + other.enrolled, cancelled + other.cancelled);
+    }
+
+    /**
+     * @param other counts to subtract, e.g. the lists an event had before a save; null subtracts nothing
+     * @return the difference of both counts
+     */
+    public EventCounts minus(@Nullable EventCounts other) {
+        if (other == null) return this;
+        return new EventCounts(waiting - other.waiting, invited - other.invited,
+                enrolled - other.enrolled, cancelled - other.cancelled);
+    }
+
+    /**
+     * @return the counts as a field map, for writing a whole shard
+     */
+    public Map<String, Object> toMap() {
+        Map<String, Object> map = new HashMap<>();
+        map.put(WAITING, waiting);
+        map.put(INVITED, invited);
+        map.put(ENROLLED, enrolled);
+        map.put(CANCELLED, cancelled);
+        return map;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof EventCounts)) return false;
+        EventCounts c = (EventCounts) o;
+        return waiting == c.waiting && invited == c.invited
+                && enrolled == c.enrolled && cancelled == c.cancelled;
+    }
+
+    @Override
+    public int hashCode() {
+        return ((waiting * 31 + invited) * 31 + enrolled) * 31 + cancelled;
+    }
+}
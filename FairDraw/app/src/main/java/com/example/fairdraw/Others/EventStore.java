@@ -0,0 +1,34 @@
+package com.example.fairdraw.Others;
+
+import androidx.annotation.Nullable;
+
+import com.example.fairdraw.Models.Event;
+
+import java.util.List;
+
+/**
+ * In-memory copy of the events collection keyed by document id; see {@link DocumentStore}.
+ *
+ * <p>Not thread-safe; snapshot listeners deliver on the main thread.</p>
+ */
+public class EventStore extends DocumentStore<Event> {
+
+    /**
+     * A single typed change to the events collection.
+     */
+    public static final class Change extends DocumentStore.Change<Event> {
+        public Change(Type type, String id, @Nullable Event event) {
+            super(type, id, event);
+        }
+    }
+
+    /**
+     * Returns all events in the order they were first added. The returned list is read-only
+     * and is reused until the next change, so repeated calls are cheap.
+     *
+     * @return list of events
+     */
+    public List<Event> getEvents() {
+        return getAll();
+    }
+}
@@ -0,0 +1,151 @@
+package com.example.fairdraw.Others;
+
+import androidx.annotation.Nullable;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Small thread-safe LRU cache whose entries expire after a fixed time.
+ *
+ * <p>Besides normal values it can remember that a key has <em>no</em> value (a negative
+ * entry), with its own, usually shorter, time to live. This lets callers skip repeated
+ * lookups for things that are known not to exist, such as events without a poster.</p>
+ *
+ * @param <K> key type
+ * @param <V> value type
+ */
+public class ExpiringLruCache<K, V> {
+
+    /**
+     * Source of the current time in milliseconds; replaceable in tests.
+     */
+    public interface Clock {
+        long now();
+    }
+
+    /**
+     * A cached lookup result. {@link #value} is null for a negative entry.
+     */
+    public static final class Entry<V> {
+        @Nullable
+        public final V value;
+        final long expiresAt;
+
+        Entry(@Nullable V value, long expiresAt) {
+            this.value = value;
+            this.expiresAt = expiresAt;
+        }
+
+        /**
+         * @return true if this entry records that the key has no value
+         */
+        public boolean isNegative() {
+            return value == null;
+        }
+    }
+
+    private final long ttlMillis;
+    private final long negativeTtlMillis;
+    private final Clock clock;
+    private final LinkedHashMap<K, Entry<V>> map;
+
+    /**
+     * @param maxEntries        maximum number of entries before the least recently used is evicted
+     * @param ttlMillis         time to live of a value entry
+     * @param negativeTtlMillis time to live of a negative entry
+     */
+    public ExpiringLruCache(int maxEntries, long ttlMillis, long negativeTtlMillis) {
+        this(maxEntries, ttlMillis, negativeTtlMillis, System::currentTimeMillis);
+    }
+
+    /**
+     * @param maxEntries        maximum number of entries before the least recently used is evicted
+     * @param ttlMillis         time to live of a value entry
+     * @param negativeTtlMillis time to live of a negative entry
+     * @param clock             time source
+     */
+    public ExpiringLruCache(int maxEntries, long ttlMillis, long negativeTtlMillis, Clock clock) {
+        this.ttlMillis = ttlMillis;
+        this.negativeTtlMillis = negativeTtlMillis;
+        this.clock = clock;
+        // Access order so that get() moves an entry to the most recently used end
+        this.map = new LinkedHashMap<K, Entry<V>>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    /**
+     * Returns the live entry for a key, or null if there is none or it has expired.
+     *
+     * @param key key to look up
+     * @return cached entry (possibly negative) or null on a miss
+     */
+    @Nullable
+    public synchronized Entry<V> get(K key) {
+        Entry<V> e = map.get(key);
+        if (e == null) return null;
+        if (clock.now() >= e.expiresAt) {
+            map.remove(key);
+            return null;
+        }
+        return e;
+    }
+
+    /**
+     * Returns the cached value for a key, or null on a miss or a negative entry.
+     *
+     * @param key key to look up
+     * @return cached value or null
+     */
+    @Nullable
+    public V peek(K key) {
+        Entry<V> e = get(key);
+        return e == null ? null : e.value;
+    }
+
+    /**
+     * Caches a value for a key.
+     *
+     * @param key   key
+     * @param value value to cache (must not be null; use {@link #putMissing(Object)} instead)
+     */
+    public synchronized void put(K key, V value) {
+        map.put(key, new Entry<>(value, clock.now() + ttlMillis));
+    }
+
+    /**
+     * Records that a key currently has no value.
+     *
+     * @param key key
+     */
+    public synchronized void putMissing(K key) {
+        map.put(key, new Entry<>(null, clock.now() + negativeTtlMillis));
+    }
+
+    /**
+     * Drops any entry for a key.
+     *
+     * @param key key
+     */
+    public synchronized void invalidate(K key) {
+        map.remove(key);
+    }
+
+    /**
+     * Drops every entry.
+     */
+    public synchronized void clear() {
+        map.clear();
+    }
+
+    /**
+     * @return number of entries, including ones that have expired but not been read since
+     */
+    public synchronized int size() {
+        return map.size();
+    }
+}
@@ -1,12 +1,14 @@
 package com.example.fairdraw.Others;
 
 import com.example.fairdraw.Models.Event;
+import com.example.fairdraw.Models.EventCard;
 
 import java.util.ArrayList;
 import java.util.List;
 
 /**
  * Utility class for filtering events based on status, interest (tags), and availability.
+ * Every filter works on a full {@link Event} or on its {@link EventCard}, with the same result.
  */
 public class FilterUtils {
 
@@ -40,6 +42,36 @@ public class FilterUtils {
         return filtered;
     }
 
+    /**
+     * Filters a list of event cards based on status, interest, and availability criteria.
+     *
+     * @param cards        the list of cards to filter
+     * @param status       status filter: "All", "Open", "Closed", or "Draft"
+     * @param interest     interest/tag filter: "All" for no filter, otherwise the tag to match (exact or substring)
+     * @param availability availability code: -1 for all, 0 for has free spots, 1 for full, 2 for has waiting list
+     * @return filtered list of cards (new list, does not mutate the original)
+     */
+    public static List<EventCard> filterCards(List<EventCard> cards, String status, String interest, int availability) {
+        if (cards == null) {
+            return new ArrayList<>();
+        }
+
+        List<EventCard> filtered = new ArrayList<>();
+        String queryLower = interest != null ? interest.toLowerCase() : "";
+
+        for (EventCard card : cards) {
+            if (card == null) continue;
+
+            if (!matchesStatus(card.getState(), status)) continue;
+            if (!matchesInterest(card.getTags(), queryLower)) continue;
+            if (!matchesCardAvailability(card, availability)) continue;
+
+            filtered.add(card);
+        }
+
+        return filtered;
+    }
+
     /**
      * Checks if an event matches the status filter.
      *
@@ -51,12 +83,14 @@ public class FilterUtils {
         if (event == null) {
             return false;
         }
-        
+        return matchesStatus(event.getState(), status);
+    }
+
+    private static boolean matchesStatus(EventState eventState, String status) {
         if (status == null || "All".equalsIgnoreCase(status)) {
             return true;
         }
         
-        EventState eventState = event.getState();
         if (eventState == null) {
             return false;
         }
@@ -84,12 +118,14 @@ public class FilterUtils {
         if (event == null) {
             return false;
         }
-        
+        return matchesInterest(event.getTags(), queryLower);
+    }
+
+    private static boolean matchesInterest(List<String> tags, String queryLower) {
         if (queryLower == null || queryLower.isEmpty() || "all".equals(queryLower)) {
             return true;
         }
         
-        List<String> tags = event.getTags();
         if (tags == null || tags.isEmpty()) {
             return false;
         }
@@ -119,19 +155,38 @@ public class FilterUtils {
             return false;
         }
         
+        int enrolledCount = event.getEnrolledList() != null ? event.getEnrolledList().size() : 0;
+        int invitedCount = event.getInvitedList() != null ? event.getInvitedList().size() : 0;
+        int waitingCount = event.getWaitingList() != null ? event.getWaitingList().size() : 0;
+        return matchesAvailability(event.getCapacity(), enrolledCount, invitedCount, waitingCount, code);
+    }
+
+    /**
+     * Checks if an event card matches the availability filter, using the counts stored on the
+     * card instead of the event's lists.
+     *
+     * @param card the card to check
+     * @param code availability code: -1 for all, 0 for has free spots, 1 for full, 2 for has waiting list
+     * @return true if the card matches the availability filter
+     */
+    public static boolean matchesCardAvailability(EventCard card, int code) {
+        if (card == null) {
+            return false;
+        }
+        return matchesAvailability(card.getCapacity(), card.getEnrolledCount(),
+                card.getInvitedCount(), card.getWaitingCount(), code);
+    }
+
+    private static boolean matchesAvailability(Integer capacity, int enrolledCount, int invitedCount,
+                                               int waitingCount, int code) {
         if (code == -1) {
             return true; // All - no filter
         }
         
-        Integer capacity = event.getCapacity();
         if (capacity == null) {
             capacity = 0;
         }
         
-        int enrolledCount = event.getEnrolledList() != null ? event.getEnrolledList().size() : 0;
-        int invitedCount = event.getInvitedList() != null ? event.getInvitedList().size() : 0;
-        int waitingCount = event.getWaitingList() != null ? event.getWaitingList().size() : 0;
-        
         // Total confirmed + pending = enrolled + invited
         int filledSpots = enrolledCount + invitedCount;
         boolean isFull = filledSpots >= capacity;
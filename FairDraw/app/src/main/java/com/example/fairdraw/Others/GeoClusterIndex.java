@@ -0,0 +1,226 @@
+package com.example.fairdraw.Others;
+
+import com.example.fairdraw.Models.AreaStats;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Immutable index of point locations that answers "which clusters are in this viewport at this
+ * zoom" without touching every point.
+ *
+ * <p>Each point is quantized to a cell of a {@code 2^MAX_LEVEL x 2^MAX_LEVEL} lat/lng grid and
+ * packed into a single {@code long} Morton (Z-order) key, so building the index is one primitive
+ * sort. In sorted Morton order every quadtree node is a contiguous run of keys, and a node one
+ * level up is simply {@code key >>> 2}. Prefix sums over the sorted cells give the count and
+ * centroid of any node in O(1) once its run is found by binary search, so a viewport query only
+ * visits nodes that intersect the viewport.</p>
+ *
+ * <p>Build and query off the main thread for large inputs; instances are safe to share once
+ * built.</p>
+ */
+public final class GeoClusterIndex {
+
+    /** Finest grid level; level {@code l} has {@code 2^l} cells along each axis. */
+    public static final int MAX_LEVEL = 24;
+    private static final long CELLS = 1L << MAX_LEVEL;
+
+    // Distinct cells in Morton order, and prefix sums of their counts and count-weighted centers
+    private final long[] keys;
+    private final int[] countPrefix;
+    private final double[] latPrefix;
+    private final double[] lngPrefix;
+    private final long fingerprint;
+
+    private GeoClusterIndex(long[] keys, int[] countPrefix, double[] latPrefix, double[] lngPrefix,
+                            long fingerprint) {
+        this.keys = keys;
+        this.countPrefix = countPrefix;
+        this.latPrefix = latPrefix;
+        this.lngPrefix = lngPrefix;
+        this.fingerprint = fingerprint;
+    }
+
+    /**
+     * Builds an index over the first {@code n} points.
+     *
+     * @param lats latitudes in degrees
+     * @param lngs longitudes in degrees
+     * @param n    number of points to use
+     * @return the index
+     */
+    public static GeoClusterIndex build(double[] lats, double[] lngs, int n) {
+        long[] raw = new long[n];
+        for (int i = 0; i < n; i++) raw[i] = cellKey(lats[i], lngs[i]);
+        Arrays.sort(raw);
+
+        // Collapse duplicate cells into (key, count) runs in place
+        int[] counts = new int[n];
+        int cells = 0;
+        for (int i = 0; i < n; i++) {
+            if (cells > 0 && raw[cells - 1] == raw[i]) {
+                counts[cells - 1]++;
+            } else {
+                raw[cells] = raw[i];
+                counts[cells] = 1;
+                cells++;
+            }
+        }
+
+        long[] keys = Arrays.copyOf(raw, cells);
+        int[] countPrefix = new int[cells + 1];
+        double[] latPrefix = new double[cells + 1];
+        double[] lngPrefix = new double[cells + 1];
+        long fingerprint = 17;
+        for (int i = 0; i < cells; i++) {
+            fingerprint = 31 * (31 * fingerprint + keys[i]) + counts[i];
+            int x = compact(keys[i]);
+            int y = compact(keys[i] >>> 1);
+            countPrefix[i + 1] = countPrefix[i] + counts[i];
+            latPrefix[i + 1] = latPrefix[i] + counts[i] * cellCenterLat(y, MAX_LEVEL);
+            lngPrefix[i + 1] = lngPrefix[i] + counts[i] * cellCenterLng(x, MAX_LEVEL);
+        }
+        return new GeoClusterIndex(keys, countPrefix, latPrefix, lngPrefix, fingerprint);
+    }
+
+    /**
+     * @return number of points in the index
+     */
+    public int totalCount() {
+        return countPrefix[keys.length];
+    }
+
+    /**
+     * @return hash of every cell and its count; equal for indexes built from the same cells
+     */
+    public long fingerprint() {
+        return fingerprint;
+    }
+
+    /**
+     * @return number of distinct finest-level cells
+     */
+    public int cellCount() {
+        return keys.length;
+    }
+
+    /**
+     * Returns the clusters at {@code level} whose cell intersects the given bounds. Bounds that
+     * cross the antimeridian ({@code west > east}) are handled.
+     *
+     * @param level grid level, 0 to {@link #MAX_LEVEL}
+     * @param south southern latitude of the viewport
+     * @param west  western longitude of the viewport
+     * @param north northern latitude of the viewport
+     * @param east  eastern longitude of the viewport
+     * @return one entry per non-empty cell, positioned at the centroid of its points
+     */
+    public List<AreaStats> clusters(int level, double south, double west, double north, double east) {
+        level = Math.max(0, Math.min(MAX_LEVEL, level));
+        List<AreaStats> out = new ArrayList<>();
+        if (west <= east) {
+            visit(0, 0L, 0, keys.length, level, south, west, north, east, out);
+        } else {
+            visit(0, 0L, 0, keys.length, level, south, west, north, 180, out);
+            visit(0, 0L, 0, keys.length, level, south, -180, north, east, out);
+        }
+        return out;
+    }
+
+    private void visit(int level, long prefix, int lo, int hi, int target,
+                       double south, double west, double north, double east, List<AreaStats> out) {
+        if (lo >= hi) return;
+
+        int x = compact(prefix);
+        int y = compact(prefix >>> 1);
+        double cellLng = 360.0 / (1L << level);
+        double cellLat = 180.0 / (1L << level);
+        double minLng = -180 + x * cellLng;
+        double minLat = -90 + y * cellLat;
+        if (minLng > east || minLng + cellLng < west || minLat > north || minLat + cellLat < south) {
+            return;
+        }
+
+        if (level == target) {
+            int count = countPrefix[hi] - countPrefix[lo];
+            out.add(new AreaStats(
+                    (latPrefix[hi] - latPrefix[lo]) / count,
+                    (lngPrefix[hi] - lngPrefix[lo]) / count,
+                    count));
+            return;
+        }
+
+        int childShift = 2 * (MAX_LEVEL - level - 1);
+        int start = lo;
+        for (long child = 0; child < 4; child++) {
+            long childPrefix = (prefix << 2) | child;
+            int end = child == 3 ? hi : lowerBound(start, hi, (childPrefix + 1) << childShift);
+            visit(level + 1, childPrefix, start, end, target, south, west, north, east, out);
+            start = end;
+        }
+    }
+
+    private int lowerBound(int lo, int hi, long key) {
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (keys[mid] < key) lo = mid + 1; else hi = mid;
+        }
+        return lo;
+    }
+
+    /**
+     * Picks a grid level for a Google Maps zoom so clusters are roughly a quarter tile apart.
+     *
+     * @param zoom camera zoom
+     * @return grid level
+     */
+    public static int levelForZoom(float zoom) {
+        return Math.max(0, Math.min(MAX_LEVEL, Math.round(zoom) + 2));
+    }
+
+    /**
+     * Quantizes a coordinate to its finest-level cell and packs it into a Morton key.
+     *
+     * @param lat latitude in degrees
+     * @param lng longitude in degrees
+     * @return Morton key with x (longitude) in the even bits and y (latitude) in the odd bits
+     */
+    public static long cellKey(double lat, double lng) {
+        long x = (long) Math.floor((lng + 180.0) / 360.0 * CELLS);
+        long y = (long) Math.floor((lat + 90.0) / 180.0 * CELLS);
+        x = Math.max(0, Math.min(CELLS - 1, x));
+        y = Math.max(0, Math.min(CELLS - 1, y));
+        return spread(x) | (spread(y) << 1);
+    }
+
+    private static double cellCenterLng(int x, int level) {
+        return -180 + (x + 0.5) * 360.0 / (1L << level);
+    }
+
+    private static double cellCenterLat(int y, int level) {
+        return -90 + (y + 0.5) * 180.0 / (1L << level);
+    }
+
+    // Spreads the low 32 bits of v so that bit i moves to bit 2i
+    private static long spread(long v) {
+        v &= 0xFFFFFFFFL;
+        v = (v | (v << 16)) & 0x0000FFFF0000FFFFL;
+        v = (v | (v << 8)) & 0x00FF00FF00FF00FFL;
+        v = (v | (v << 4)) & 0x0F0F0F0F0F0F0F0FL;
+        v = (v | (v << 2)) & 0x3333333333333333L;
+        v = (v | (v << 1)) & 0x5555555555555555L;
+        return v;
+    }
+
+    // Inverse of spread: gathers the even bits of v
+    private static int compact(long v) {
+        v &= 0x5555555555555555L;
+        v = (v | (v >>> 1)) & 0x3333333333333333L;
+        v = (v | (v >>> 2)) & 0x0F0F0F0F0F0F0F0FL;
+        v = (v | (v >>> 4)) & 0x00FF00FF00FF00FFL;
+        v = (v | (v >>> 8)) & 0x0000FFFF0000FFFFL;
+        v = (v | (v >>> 16)) & 0x00000000FFFFFFFFL;
+        return (int) v;
+    }
+}
@@ -0,0 +1,143 @@
+package com.example.fairdraw.Others;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Geohash encoding and bounding-box cover, for storing locations under a single string field
+ * that can be queried by prefix.
+ *
+ * <p>A geohash interleaves longitude and latitude bits and writes them five at a time in base
+ * 32, so every point inside a cell has a hash starting with the cell's hash. A region is
+ * therefore fetched with one {@code startAt(prefix) / endAt(prefix + "")} range query per
+ * covering cell.</p>
+ */
+public final class GeoHash {
+
+    private static final String BASE32 = "0123456789bcdefghjkmnpqrstuvwxyz";
+
+    /** Precision stored with each location; a cell is about 5 m across. */
+    public static final int DEFAULT_PRECISION = 9;
+
+    private GeoHash() {}
+
+    /**
+     * @param lat       latitude in degrees
+     * @param lng       longitude in degrees
+     * @param precision number of characters, 1 to 12
+     * @return geohash of the cell containing the point
+     */
+    public static String encode(double lat, double lng, int precision) {
+        double minLat = -90, maxLat = 90, minLng = -180, maxLng = 180;
+        StringBuilder sb = new StringBuilder(precision);
+        boolean evenBit = true;
+        int bit = 0;
+        int ch = 0;
+        while (sb.length() < precision) {
+            if (evenBit) {
+                double mid = (minLng + maxLng) / 2;
+                if (lng >= mid) {
+                    ch = (ch << 1) | 1;
+                    minLng = mid;
+                } else {
+                    ch <<= 1;
+                    maxLng = mid;
+                }
+            } else {
+                double mid = (minLat + maxLat) / 2;
+                if (lat >= mid) {
+                    ch = (ch << 1) | 1;
+                    minLat = mid;
+                } else {
+                    ch <<= 1;
+                    maxLat = mid;
+                }
+            }
+            evenBit = !evenBit;
+            if (++bit == 5) {
+                sb.append(BASE32.charAt(ch));
+                bit = 0;
+                ch = 0;
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Returns the cells that cover a bounding box, at the finest precision for which there
+     * are no more than {@code maxCells} of them. Bounds that cross the antimeridian
+     * ({@code west > east}) are handled.
+     *
+     * @param south    southern latitude
+     * @param west     western longitude
+     * @param north    northern latitude
+     * @param east     eastern longitude
+     * @param maxCells largest number of cells to return
+     * @return geohash prefixes; a single empty prefix if even one-character cells are too many
+     */
+    public static List<String> coveringPrefixes(double south, double west, double north, double east,
+                                                int maxCells) {
+        for (int precision = DEFAULT_PRECISION; precision >= 1; precision--) {
+            if (cellCount(precision, south, west, north, east) > maxCells) continue;
+            Set<String> cells = new LinkedHashSet<>();
+            if (west <= east) {
+                addCells(cells, precision, south, west, north, east);
+            } else {
+                addCells(cells, precision, south, west, north, 180);
+                addCells(cells, precision, south, -180, north, east);
+            }
+            return new ArrayList<>(cells);
+        }
+        return Collections.singletonList("");
+    }
+
+    /**
+     * @param precision number of characters
+     * @return width of a cell in degrees of longitude
+     */
+    static double cellWidth(int precision) {
+        return 360.0 / (1L << ((5 * precision + 1) / 2));
+    }
+
+    /**
+     * @param precision number of characters
+     * @return height of a cell in degrees of latitude
+     */
+    static double cellHeight(int precision) {
+        return 180.0 / (1L << (5 * precision / 2));
+    }
+
+    private static long cellCount(int precision, double south, double west, double north, double east) {
+        if (west > east) {
+            return cellCount(precision, south, west, north, 180)
+                    + cellCount(precision, south, -180, north, east);
+        }
+        return span(south, north, -90, cellHeight(precision))
+                * span(west, east, -180, cellWidth(precision));
+    }
+
+    // Number of cells of the given size, aligned at origin, that [from, to] touches
+    private static long span(double from, double to, double origin, double size) {
+        return (long) Math.floor((to - origin) / size) - (long) Math.floor((from - origin) / size) + 1;
+    }
+
+    private static void addCells(Set<String> out, int precision,
+                                 double south, double west, double north, double east) {
+        double w = cellWidth(precision);
+        double h = cellHeight(precision);
+        long row0 = (long) Math.floor((south + 90) / h);
+        long rows = span(south, north, -90, h);
+        long col0 = (long) Math.floor((west + 180) / w);
+        long cols = span(west, east, -180, w);
+        for (long r = 0; r < rows; r++) {
+            double lat = Math.min(90 - h / 2, -90 + (row0 + r + 0.5) * h);
+            for (long c = 0; c < cols; c++) {
+                double lng = Math.min(180 - w / 2, -180 + (col0 + c + 0.5) * w);
+                out.add(encode(lat, lng, precision));
+            }
+        }
+    }
+}
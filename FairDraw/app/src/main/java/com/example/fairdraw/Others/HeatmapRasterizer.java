@@ -0,0 +1,250 @@
+package com.example.fairdraw.Others;
+
+import androidx.annotation.Nullable;
+
+import com.example.fairdraw.Models.AreaStats;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Renders density heatmap tiles in the Web Mercator tile scheme used by Google Maps.
+ *
+ * <p>Points come from a {@link GeoClusterIndex} queried at a level a few pixels per cell for the
+ * tile's zoom, so the cost of a tile depends on how many cells it covers and not on how many
+ * entrants there are. Cell counts are dropped into a padded grid, blurred with a separable
+ * Gaussian (two 1-D passes, so the cost does not grow with the number of cells) and mapped
+ * through a color ramp. Density saturates with a fixed curve rather than being
+ * normalized per tile, so neighbouring tiles agree at their edges.</p>
+ *
+ * <p>Stateless after construction and safe to use from several threads.</p>
+ */
+public class HeatmapRasterizer {
+
+    /** Tile edge length in pixels. */
+    public static final int TILE_SIZE = 256;
+    /** Kernel radius in pixels; points this close to a tile edge also affect the neighbour. */
+    public static final int RADIUS = 16;
+    // Grid level is the zoom plus this, so a cell is 2^(8 - offset) = 4 pixels wide
+    private static final int LEVEL_OFFSET = 6;
+    // Density at which a pixel reaches about 63% of the color ramp
+    private static final float SATURATION = 6f;
+    // Pixels below this fraction of the ramp stay transparent
+    private static final float MIN_VISIBLE = 0.02f;
+
+    // Side of the count grid: the tile plus one kernel radius on every side
+    private static final int PADDED = TILE_SIZE + 2 * RADIUS;
+
+    private final float[] kernel;
+    private final int[] palette;
+
+    public HeatmapRasterizer() {
+        kernel = new float[2 * RADIUS + 1];
+        double sigma = RADIUS / 3.0;
+        for (int d = -RADIUS; d <= RADIUS; d++) {
+            kernel[d + RADIUS] = (float) Math.exp(-(d * d) / (2 * sigma * sigma));
+        }
+        palette = buildPalette();
+    }
+
+    /**
+     * Rasterizes one tile.
+     *
+     * @param index points to draw
+     * @param zoom  tile zoom
+     * @param tileX tile column
+     * @param tileY tile row
+     * @return ARGB pixels, row-major, {@code TILE_SIZE * TILE_SIZE} long; null if the tile is empty
+     */
+    @Nullable
+    public int[] rasterize(GeoClusterIndex index, int zoom, int tileX, int tileY) {
+        double worldSize = TILE_SIZE * Math.pow(2, zoom);
+        double originX = (double) tileX * TILE_SIZE;
+        double originY = (double) tileY * TILE_SIZE;
+
+        // Query a margin of one kernel radius so splats cross tile edges seamlessly
+        double west = pixelToLng(originX - RADIUS, worldSize);
+        double east = pixelToLng(originX + TILE_SIZE + RADIUS, worldSize);
+        double north = pixelToLat(originY - RADIUS, worldSize);
+        double south = pixelToLat(originY + TILE_SIZE + RADIUS, worldSize);
+        List<AreaStats> cells = new ArrayList<>();
+        int level = Math.min(GeoClusterIndex.MAX_LEVEL, zoom + LEVEL_OFFSET);
+        for (double[] range : lngRanges(west, east)) {
+            cells.addAll(index.clusters(level, south, range[0], north, range[1]));
+        }
+        if (cells.isEmpty()) return null;
+
+        // Counts per pixel of the padded tile
+        float[] counts = new float[PADDED * PADDED];
+        boolean[] rowUsed = new boolean[PADDED];
+        for (AreaStats cell : cells) {
+            int px = (int) Math.floor(unwrap(lngToPixel(cell.getLng(), worldSize), originX, worldSize) - originX) + RADIUS;
+            int py = (int) Math.floor(latToPixel(cell.getLat(), worldSize) - originY) + RADIUS;
+            if (px < 0 || px >= PADDED || py < 0 || py >= PADDED) continue;
+            counts[py * PADDED + px] += cell.getCount();
+            rowUsed[py] = true;
+        }
+
+        // Horizontal pass, only for the columns that end up in the tile
+        float[] horizontal = new float[PADDED * TILE_SIZE];
+        for (int y = 0; y < PADDED; y++) {
+            if (!rowUsed[y]) continue;
+            int src = y * PADDED;
+            int dst = y * TILE_SIZE;
+            for (int x = 0; x < TILE_SIZE; x++) {
+                float sum = 0f;
+                for (int k = 0; k < kernel.length; k++) sum += counts[src + x + k] * kernel[k];
+                horizontal[dst + x] = sum;
+            }
+        }
+
+        // Vertical pass into the tile
+        float[] density = new float[TILE_SIZE * TILE_SIZE];
+        for (int y = 0; y < TILE_SIZE; y++) {
+            int dst = y * TILE_SIZE;
+            for (int k = 0; k < kernel.length; k++) {
+                if (!rowUsed[y + k]) continue;
+                float w = kernel[k];
+                int src = (y + k) * TILE_SIZE;
+                for (int x = 0; x < TILE_SIZE; x++) density[dst + x] += horizontal[src + x] * w;
+            }
+        }
+
+        int[] pixels = new int[density.length];
+        boolean any = false;
+        for (int i = 0; i < density.length; i++) {
+            if (density[i] == 0f) continue;
+            float t = 1f - (float) Math.exp(-density[i] / SATURATION);
+            if (t < MIN_VISIBLE) continue;
+            pixels[i] = palette[Math.min(255, (int) (t * 256))];
+            any = true;
+        }
+        return any ? pixels : null;
+    }
+
+    /**
+     * Returns the tiles at {@code zoom} whose rendering includes a point, i.e. the tile that
+     * contains it plus any neighbour within {@link #RADIUS} pixels. One grid cell of slack is
+     * added because a point is drawn at the centroid of its cell.
+     *
+     * @param lat  latitude in degrees
+     * @param lng  longitude in degrees
+     * @param zoom tile zoom
+     * @return pairs of {x, y}
+     */
+    public static List<int[]> tilesAffectedBy(double lat, double lng, int zoom) {
+        int tiles = 1 << zoom;
+        double worldSize = (double) TILE_SIZE * tiles;
+        double px = lngToPixel(lng, worldSize);
+        double py = latToPixel(lat, worldSize);
+        int reach = RADIUS + (TILE_SIZE >> LEVEL_OFFSET);
+        int minX = (int) Math.floor((px - reach) / TILE_SIZE);
+        int maxX = (int) Math.floor((px + reach) / TILE_SIZE);
+        int minY = Math.max(0, (int) Math.floor((py - reach) / TILE_SIZE));
+        int maxY = Math.min(tiles - 1, (int) Math.floor((py + reach) / TILE_SIZE));
+        List<int[]> out = new ArrayList<>(4);
+        for (int y = minY; y <= maxY; y++) {
+            for (int x = minX; x <= maxX; x++) {
+                out.add(new int[]{Math.floorMod(x, tiles), y});
+            }
+        }
+        return out;
+    }
+
+    /**
+     * Returns the area whose points a tile's rendering includes: the tile plus the margin
+     * {@link #tilesAffectedBy} allows for. Tiles on the top or bottom row reach the pole.
+     *
+     * @param zoom  tile zoom
+     * @param tileX tile column
+     * @param tileY tile row
+     * @return {south, west, north, east} in degrees; {@code west > east} if the area crosses
+     *         the antimeridian
+     */
+    public static double[] tileReach(int zoom, int tileX, int tileY) {
+        double worldSize = (double) TILE_SIZE * (1 << zoom);
+        int reach = RADIUS + (TILE_SIZE >> LEVEL_OFFSET);
+        double west = pixelToLng((double) tileX * TILE_SIZE - reach, worldSize);
+        double east = pixelToLng((double) (tileX + 1) * TILE_SIZE + reach, worldSize);
+        double top = (double) tileY * TILE_SIZE - reach;
+        double bottom = (double) (tileY + 1) * TILE_SIZE + reach;
+        double north = top <= 0 ? 90 : pixelToLat(top, worldSize);
+        double south = bottom >= worldSize ? -90 : pixelToLat(bottom, worldSize);
+        if (east - west >= 360) {
+            west = -180;
+            east = 180;
+        } else {
+            if (west < -180) west += 360;
+            if (east > 180) east -= 360;
+        }
+        return new double[]{south, west, north, east};
+    }
+
+    static double lngToPixel(double lng, double worldSize) {
+        return (lng + 180.0) / 360.0 * worldSize;
+    }
+
+    static double latToPixel(double lat, double worldSize) {
+        double sin = Math.sin(Math.toRadians(Math.max(-85.05113, Math.min(85.05113, lat))));
+        return (0.5 - Math.log((1 + sin) / (1 - sin)) / (4 * Math.PI)) * worldSize;
+    }
+
+    static double pixelToLng(double px, double worldSize) {
+        return px / worldSize * 360.0 - 180.0;
+    }
+
+    static double pixelToLat(double py, double worldSize) {
+        double n = Math.PI - 2 * Math.PI * py / worldSize;
+        return Math.toDegrees(Math.atan(Math.sinh(n)));
+    }
+
+    // Splits a longitude span that runs past +-180 into ranges inside [-180, 180]
+    private static List<double[]> lngRanges(double west, double east) {
+        List<double[]> ranges = new ArrayList<>(2);
+        if (east - west >= 360) {
+            ranges.add(new double[]{-180, 180});
+        } else if (west < -180) {
+            ranges.add(new double[]{west + 360, 180});
+            ranges.add(new double[]{-180, east});
+        } else if (east > 180) {
+            ranges.add(new double[]{west, 180});
+            ranges.add(new double[]{-180, east - 360});
+        } else {
+            ranges.add(new double[]{west, east});
+        }
+        return ranges;
+    }
+
+    // Moves a pixel x by a world width if that puts it next to the tile across the antimeridian
+    private static double unwrap(double px, double originX, double worldSize) {
+        if (px < originX - RADIUS) return px + worldSize;
+        if (px > originX + TILE_SIZE + RADIUS) return px - worldSize;
+        return px;
+    }
+
+    private static int[] buildPalette() {
+        // Transparent blue -> cyan -> green -> yellow -> red, growing more opaque
+        float[] stops = {0f, 0.25f, 0.5f, 0.75f, 1f};
+        int[][] colors = {
+                {0, 0, 0, 255},
+                {150, 0, 255, 255},
+                {190, 0, 255, 0},
+                {220, 255, 255, 0},
+                {240, 255, 0, 0},
+        };
+        int[] palette = new int[256];
+        for (int i = 0; i < 256; i++) {
+            float t = i / 255f;
+            int s = 0;
+            while (s < stops.length - 2 && t > stops[s + 1]) s++;
+            float f = (t - stops[s]) / (stops[s + 1] - stops[s]);
+            int argb = 0;
+            for (int c = 0; c < 4; c++) {
+                int v = Math.round(colors[s][c] + f * (colors[s + 1][c] - colors[s][c]));
+                argb = (argb << 8) | v;
+            }
+            palette[i] = argb;
+        }
+        return palette;
+    }
+}
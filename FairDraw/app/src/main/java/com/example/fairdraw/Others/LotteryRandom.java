@@ -0,0 +1,67 @@
+package com.example.fairdraw.Others;
+
+import java.util.Random;
+
+/**
+ * Seeded, splittable pseudo-random generator used for auditable lottery draws.
+ * <p>
+ * Based on SplitMix64: the whole output sequence is determined by the 64-bit seed, so a draw
+ * can be replayed on any device or JVM from the seed stored in its draw log. It extends
+ * {@link Random} so it can be passed anywhere the lottery accepts a random source; the bounded
+ * helpers such as {@link Random#nextInt(int)} are specified in terms of {@link #next(int)} and
+ * are therefore reproducible too.
+ */
+public class LotteryRandom extends Random {
+
+    private static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+
+    private long state;
+
+    /**
+     * Creates a generator whose output is fully determined by {@code seed}.
+     *
+     * @param seed 64-bit seed, usually stored alongside the draw it produced
+     */
+    public LotteryRandom(long seed) {
+        super(seed);
+        this.state = seed;
+    }
+
+    /**
+     * Resets the generator to the given seed.
+     *
+     * @param seed new 64-bit seed
+     */
+    @Override
+    public synchronized void setSeed(long seed) {
+        // Called by the Random constructor before this class is initialised.
+        this.state = seed;
+    }
+
+    @Override
+    protected int next(int bits) {
+        return (int) (nextRaw() >>> (64 - bits));
+    }
+
+    /**
+     * Returns an independent generator derived from this one. The child sequence is still
+     * determined by the original seed, so split streams (for example one per replacement draw)
+     * stay reproducible.
+     *
+     * @return a new generator seeded from this generator's next output
+     */
+    public LotteryRandom split() {
+        return new LotteryRandom(mix64(nextRaw() ^ GOLDEN_GAMMA));
+    }
+
+    private synchronized long nextRaw() {
+        state += GOLDEN_GAMMA;
+        return mix64(state);
+    }
+
+    private static long mix64(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -0,0 +1,183 @@
+package com.example.fairdraw.Others;
+
+import androidx.annotation.Nullable;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.RandomAccess;
+
+/**
+ * Uniform random sampling helpers used by the lottery.
+ * <p>
+ * Every method picks each k-subset of the source with equal probability (the same fairness
+ * guarantee as shuffling the whole list), but only does work proportional to the number of
+ * picks instead of the size of the waiting list.
+ */
+public class LotterySampler {
+
+    private LotterySampler() {
+        // Static helpers only
+    }
+
+    /**
+     * Draws {@code k} entries from {@code list} and removes them, using a partial Fisher-Yates
+     * shuffle. Picks are swapped to the tail of the list and the tail is then cut off, so the
+     * draw runs in O(k) time with O(k) extra memory. The order of the entries left in the list
+     * is not preserved.
+     *
+     * @param list   mutable list to draw from; must support {@code set} and {@code subList().clear()}
+     * @param k      number of entries to draw (clamped to the list size)
+     * @param random source of randomness
+     * @param <T>    element type
+     * @return the drawn entries, in the order they were picked
+     */
+    public static <T> List<T> drawAndRemove(List<T> list, int k, Random random) {
+        return drawAndRemove(list, k, random, null);
+    }
+
+    /**
+     * Same as {@link #drawAndRemove(List, int, Random)}, and also reports where each pick was
+     * in the list before the draw. A draw log records these positions so that an audit checks
+     * what the draw actually did, not a recomputation of it.
+     *
+     * @param list          mutable list to draw from; must support {@code set} and {@code subList().clear()}
+     * @param k             number of entries to draw (clamped to the list size)
+     * @param random        source of randomness
+     * @param pickedIndices if not null, receives the original positions of the picks, in draw order
+     * @param <T>           element type
+     * @return the drawn entries, in the order they were picked
+     */
+    public static <T> List<T> drawAndRemove(List<T> list, int k, Random random,
+                                            @Nullable List<Integer> pickedIndices) {
+        if (list == null || k <= 0 || list.isEmpty()) {
+            return new ArrayList<>();
+        }
+        int n = list.size();
+        int picks = Math.min(k, n);
+
+        if (!(list instanceof RandomAccess)) {
+            // Index-based swaps are O(n) on linked lists; work on an array copy instead.
+            List<T> copy = new ArrayList<>(list);
+            List<T> drawn = drawAndRemove(copy, picks, random, pickedIndices);
+            list.clear();
+            list.addAll(copy);
+            return drawn;
+        }
+
+        List<T> drawn = new ArrayList<>(picks);
+        // Original index of the entry now at each position moved by a swap
+        Map<Integer, Integer> origins = pickedIndices != null ? new HashMap<>(picks * 2) : null;
+        for (int i = 0; i < picks; i++) {
+            int last = n - 1 - i;
+            int j = random.nextInt(last + 1);
+            T picked = list.get(j);
+            list.set(j, list.get(last));
+            list.set(last, picked);
+            drawn.add(picked);
+            if (origins != null) {
+                pickedIndices.add(valueAt(origins, j));
+                origins.put(j, valueAt(origins, last));
+            }
+        }
+        list.subList(n - picks, n).clear();
+        return drawn;
+    }
+
+    /**
+     * Returns the original positions of the entries {@link #drawAndRemove(List, int, Random)}
+     * would pick from a list of size {@code n}, given a generator in the same state. The result
+     * depends only on {@code n}, {@code k} and the random sequence, which is what lets a logged
+     * draw be replayed without the waiting list.
+     *
+     * @param n      size of the list the draw ran over
+     * @param k      number of entries drawn (clamped to {@code n})
+     * @param random source of randomness, in the state it had before the draw
+     * @return positions of the picks in the original list, in draw order
+     */
+    public static int[] pickIndices(int n, int k, Random random) {
+        int picks = Math.max(0, Math.min(k, n));
+        int[] indices = new int[picks];
+        // Sparse view of the tail swaps made by drawAndRemove: position -> original index
+        Map<Integer, Integer> swapped = new HashMap<>(picks * 2);
+        for (int i = 0; i < picks; i++) {
+            int last = n - 1 - i;
+            int j = random.nextInt(last + 1);
+            indices[i] = valueAt(swapped, j);
+            swapped.put(j, valueAt(swapped, last));
+        }
+        return indices;
+    }
+
+    /**
+     * Draws {@code k} entries from {@code source} without modifying it. Uses a sparse partial
+     * Fisher-Yates shuffle that only records the swapped positions, so extra memory is O(k)
+     * regardless of the source size.
+     *
+     * @param source list to sample from (not modified)
+     * @param k      number of entries to draw (clamped to the list size)
+     * @param random source of randomness
+     * @param <T>    element type
+     * @return the drawn entries, in the order they were picked
+     */
+    public static <T> List<T> sample(List<T> source, int k, Random random) {
+        if (source == null || k <= 0 || source.isEmpty()) {
+            return new ArrayList<>();
+        }
+        int n = source.size();
+        int picks = Math.min(k, n);
+        Map<Integer, Integer> swapped = new HashMap<>(picks * 2);
+        List<T> drawn = new ArrayList<>(picks);
+
+        for (int i = 0; i < picks; i++) {
+            int j = i + random.nextInt(n - i);
+            int atJ = valueAt(swapped, j);
+            int atI = valueAt(swapped, i);
+            swapped.put(j, atI);
+            drawn.add(source.get(atJ));
+        }
+        return drawn;
+    }
+
+    /**
+     * Draws {@code k} entries from a stream of unknown length using reservoir sampling
+     * (Algorithm R). Only the reservoir of {@code k} entries is held in memory.
+     *
+     * @param source entries to sample from, consumed once
+     * @param k      reservoir size
+     * @param random source of randomness
+     * @param <T>    element type
+     * @return up to {@code k} sampled entries, in random order
+     */
+    public static <T> List<T> reservoirSample(Iterator<T> source, int k, Random random) {
+        List<T> reservoir = new ArrayList<>(Math.max(k, 0));
+        if (source == null || k <= 0) {
+            return reservoir;
+        }
+        long seen = 0;
+        while (source.hasNext()) {
+            T item = source.next();
+            if (seen < k) {
+                reservoir.add(item);
+            } else {
+                long j = (long) (random.nextDouble() * (seen + 1));
+                if (j < k) {
+                    reservoir.set((int) j, item);
+                }
+            }
+            seen++;
+        }
+        // The reservoir keeps stream order for the first k items; shuffle so pick order is random too.
+        Collections.shuffle(reservoir, random);
+        return reservoir;
+    }
+
+    private static int valueAt(Map<Integer, Integer> swapped, int index) {
+        Integer value = swapped.get(index);
+        return value == null ? index : value;
+    }
+}
@@ -89,6 +89,36 @@ public final class OrganizerEventsDataHolder {
         notifyAdapters();
     }
 
+    /**
+     * Applies incremental changes from a listener: added and modified events replace the event
+     * with the same uuid in place (or are appended), removed events are dropped. Adapters are
+     * notified once per call.
+     */
+    public static void applyChanges(List<EventStore.Change> changes) {
+        if (changes == null || changes.isEmpty()) return;
+        synchronized (events) {
+            for (EventStore.Change c : changes) {
+                int index = indexOf(c.id);
+                if (c.type == EventStore.Change.Type.REMOVED || c.event == null) {
+                    if (index >= 0) events.remove(index);
+                } else if (index >= 0) {
+                    events.set(index, c.event);
+                } else {
+                    events.add(c.event);
+                }
+            }
+        }
+        notifyAdapters();
+    }
+
+    private static int indexOf(String uuid) {
+        for (int i = 0; i < events.size(); i++) {
+            Event e = events.get(i);
+            if (e != null && uuid != null && uuid.equals(e.getUuid())) return i;
+        }
+        return -1;
+    }
+
     public static void clear() {
         events.clear();
         notifyAdapters();
@@ -0,0 +1,78 @@
+package com.example.fairdraw.Others;
+
+import androidx.annotation.Nullable;
+
+import java.util.Map;
+
+/**
+ * Sizes an event poster is uploaded in, so that a view downloads no more pixels than it shows.
+ *
+ * <p>Each rendition is stored next to the poster under {@code events/{id}/} and its download
+ * URL recorded under its {@link #key} in the event's {@code posterRenditions} map. A rendition
+ * is only produced when it is narrower than the full poster, so small posters may have just
+ * {@link #FULL}.</p>
+ */
+public enum PosterRendition {
+    /** Small previews, such as list rows and grids. */
+    THUMB("thumb", 360, 30 * 1024),
+    /** Full-width cards on a phone. */
+    MEDIUM("medium", 1080, 150 * 1024),
+    /** The poster itself ({@code poster.jpg}), bounded only by the upload's pixel and byte budget. */
+    FULL("full", 0, 0);
+
+    /** Key of the rendition in the {@code posterRenditions} map. */
+    public final String key;
+    /** Largest width in pixels, or 0 for no limit. */
+    public final int maxWidth;
+    /** Byte budget, or 0 to use the one the upload was given. */
+    public final int maxBytes;
+
+    PosterRendition(String key, int maxWidth, int maxBytes) {
+        this.key = key;
+        this.maxWidth = maxWidth;
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * @param fullWidth width of the full rendition
+     * @return whether this rendition is worth storing, i.e. is {@link #FULL} or narrower than it
+     */
+    public boolean isNarrowerThan(int fullWidth) {
+        return maxWidth == 0 || fullWidth > maxWidth;
+    }
+
+    /**
+     * @param width  width of the source image
+     * @param height height of the source image
+     * @return pixel count that scales the source down to {@link #maxWidth} keeping its aspect
+     *         ratio, or 0 if this rendition has no width limit or the source is not wider
+     */
+    public int pixelBudget(int width, int height) {
+        if (maxWidth == 0 || width <= maxWidth) return 0;
+        long scaledHeight = Math.max(1, Math.round((double) height * maxWidth / width));
+        return (int) Math.min(Integer.MAX_VALUE, (long) maxWidth * scaledHeight);
+    }
+
+    /**
+     * Picks the smallest recorded rendition at least as wide as a view.
+     *
+     * @param renditionUrls rendition key -> download URL, may be null for posters uploaded before
+     *                      renditions existed
+     * @param posterUrl     URL of the full poster, used when no rendition is recorded
+     * @param targetWidth   width of the view in pixels; 0 or less picks the largest rendition
+     * @return the URL to load, or null if the event has no poster
+     */
+    @Nullable
+    public static String pickUrl(@Nullable Map<String, String> renditionUrls, @Nullable String posterUrl,
+                                 int targetWidth) {
+        if (renditionUrls == null || renditionUrls.isEmpty()) return posterUrl;
+        String largest = null;
+        for (PosterRendition r : values()) {
+            String url = renditionUrls.get(r.key);
+            if (url == null) continue;
+            if (targetWidth > 0 && (r.maxWidth == 0 || r.maxWidth >= targetWidth)) return url;
+            largest = url;
+        }
+        return largest != null ? largest : posterUrl;
+    }
+}
@@ -0,0 +1,83 @@
+package com.example.fairdraw.Others;
+
+/**
+ * Finds the highest lossy-encoder quality whose output fits in a byte budget, using few
+ * encodes.
+ *
+ * <p>Output size grows with quality, roughly exponentially, so the search keeps the best
+ * quality that fitted and the lowest that did not, and picks the next quality by interpolating
+ * the logarithm of the target size between them (clamped so the interval always shrinks).
+ * Until something fits, the lower end is assumed to produce a fifth of the size that did not. The search stops once a fitting
+ * size is within {@link #GOOD_ENOUGH} of the budget, the interval is empty, or the encode
+ * limit is reached. Typical photos need three encodes.</p>
+ */
+public final class QualitySearch {
+
+    /** A fitting result at least this fraction of the budget ends the search. */
+    public static final double GOOD_ENOUGH = 0.9;
+
+    // Size assumed at the lowest quality before it is measured, as a fraction of a measured size
+    private static final double ASSUMED_FLOOR = 0.2;
+
+    /**
+     * Encodes at a given quality.
+     */
+    public interface Encoder {
+        /**
+         * @param quality quality to encode at
+         * @return number of bytes produced
+         * @throws Exception if encoding fails
+         */
+        int sizeAt(int quality) throws Exception;
+    }
+
+    private QualitySearch() {}
+
+    /**
+     * @param minQuality lowest quality to try
+     * @param maxQuality highest quality, tried first
+     * @param maxBytes   byte budget
+     * @param maxEncodes encodes allowed; one more is spent at {@code minQuality} if nothing fitted
+     * @param encoder    encodes at a quality and reports the size
+     * @return the highest quality found to fit, or -1 if even {@code minQuality} does not
+     * @throws Exception if the encoder fails
+     */
+    public static int search(int minQuality, int maxQuality, int maxBytes, int maxEncodes,
+                             Encoder encoder) throws Exception {
+        int size = encoder.sizeAt(maxQuality);
+        if (size <= maxBytes) return maxQuality;
+        int encodes = 1;
+
+        int badQuality = maxQuality;
+        int badSize = size;
+        int goodQuality = -1;
+        int goodSize = 0;
+        while (encodes < maxEncodes) {
+            int low = goodQuality >= 0 ? goodQuality + 1 : minQuality;
+            int high = badQuality - 1;
+            if (low > high) break;
+
+            double fromQuality = goodQuality >= 0 ? goodQuality : minQuality;
+            double fromSize = Math.max(1, goodQuality >= 0 ? goodSize : badSize * ASSUMED_FLOOR);
+            double t = Math.log(maxBytes / fromSize) / Math.log(badSize / fromSize);
+            int quality = (int) Math.floor(fromQuality + t * (badQuality - fromQuality));
+            quality = Math.max(low, Math.min(high, quality));
+
+            size = encoder.sizeAt(quality);
+            encodes++;
+            if (size <= maxBytes) {
+                goodQuality = quality;
+                goodSize = size;
+                if (size >= maxBytes * GOOD_ENOUGH) break;
+            } else {
+                badQuality = quality;
+                badSize = size;
+            }
+        }
+
+        if (goodQuality < 0 && badQuality > minQuality) {
+            if (encoder.sizeAt(minQuality) <= maxBytes) return minQuality;
+        }
+        return goodQuality;
+    }
+}
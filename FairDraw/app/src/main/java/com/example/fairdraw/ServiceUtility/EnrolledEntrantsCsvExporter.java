@@ -0,0 +1,215 @@
+package com.example.fairdraw.ServiceUtility;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import androidx.annotation.Nullable;
+
+import com.example.fairdraw.DBs.UserDB;
+import com.example.fairdraw.Models.User;
+import com.example.fairdraw.Others.CsvWriter;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Streams a CSV of entrants (device id, name, email, phone) to an output stream.
+ *
+ * <p>Users are looked up {@value UserDB#WHERE_IN_LIMIT} at a time with
+ * {@link UserDB#getUsersByIds(List, UserDB.GetUsersByIdCallback)}, with only a few lookups
+ * in flight. Rows are written in the order of the given ids as soon as every earlier chunk has
+ * been written, so memory use depends on the number of chunks in flight and not on the number
+ * of entrants. All writes happen on a single background thread; the listener is called on the
+ * main thread.</p>
+ *
+ * <p>An entrant whose user record is missing, or whose lookup failed, still gets a row with
+ * only the device id, as before.</p>
+ */
+public class EnrolledEntrantsCsvExporter {
+
+    private static final String TAG = "CsvExporter";
+
+    /** Column headers of the exported file. */
+    public static final String[] HEADER = {"DeviceId", "Name", "Email", "Phone"};
+    /** Default number of user lookups in flight at once. */
+    public static final int DEFAULT_MAX_IN_FLIGHT = 4;
+
+    /**
+     * Looks up a chunk of users; {@link UserDB#getUsersByIds} in production.
+     */
+    public interface UserLookup {
+        void getUsersByIds(List<String> ids, UserDB.GetUsersByIdCallback cb);
+    }
+
+    /**
+     * Receives the progress and outcome of an export. Called on the main thread.
+     */
+    public interface Listener {
+        /**
+         * @param written number of entrant rows written so far
+         * @param total   number of entrant rows in the export
+         */
+        void onProgress(int written, int total);
+
+        /**
+         * The file was written completely and closed.
+         * @param written       number of entrant rows written
+         * @param failedLookups number of rows written without user details because the lookup failed
+         */
+        void onComplete(int written, int failedLookups);
+
+        /**
+         * Writing failed; the stream has been closed and the file is incomplete.
+         * @param e the cause
+         */
+        void onError(Exception e);
+    }
+
+    private final List<String> ids;
+    private final CsvWriter csv;
+    private final Listener listener;
+    private final UserLookup lookup;
+    private final Executor worker;
+    private final Executor callbackExecutor;
+    private final int maxInFlight;
+    private final int chunkCount;
+
+    // Lookup results that arrived before an earlier chunk, by chunk index. Only touched on the worker.
+    private final Map<Integer, Map<String, User>> ready = new HashMap<>();
+    private int nextToRequest;
+    private int nextToWrite;
+    private int written;
+    private int failedLookups;
+    private boolean finished;
+
+    /**
+     * @param ids      device ids to export, in the order the rows should appear
+     * @param out      destination; closed when the export completes or fails
+     * @param listener receives progress and the outcome
+     */
+    public EnrolledEntrantsCsvExporter(List<String> ids, OutputStream out, Listener listener) {
+        this(ids, out, listener, UserDB::getUsersByIds, newWorker(),
+                new Handler(Looper.getMainLooper())::post, DEFAULT_MAX_IN_FLIGHT);
+    }
+
+    EnrolledEntrantsCsvExporter(List<String> ids, OutputStream out, Listener listener,
+                                UserLookup lookup, Executor worker, Executor callbackExecutor,
+                                int maxInFlight) {
+        this.ids = new ArrayList<>(ids);
+        this.csv = new CsvWriter(out);
+        this.listener = listener;
+        this.lookup = lookup;
+        this.worker = worker;
+        this.callbackExecutor = callbackExecutor;
+        this.maxInFlight = maxInFlight;
+        this.chunkCount = (this.ids.size() + UserDB.WHERE_IN_LIMIT - 1) / UserDB.WHERE_IN_LIMIT;
+    }
+
+    // One thread so rows are written in order; it exits when idle, so nothing needs shutting down
+    private static Executor newWorker() {
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(1, 1, 10, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>());
+        pool.allowCoreThreadTimeOut(true);
+        return pool;
+    }
+
+    /**
+     * Writes the header and starts the first lookups. Call once.
+     */
+    public void start() {
+        worker.execute(() -> {
+            try {
+                csv.writeRow(HEADER);
+            } catch (IOException e) {
+                fail(e);
+                return;
+            }
+            if (chunkCount == 0) {
+                complete();
+                return;
+            }
+            for (int i = 0; i < maxInFlight; i++) requestNext();
+        });
+    }
+
+    private List<String> chunkIds(int index) {
+        int from = index * UserDB.WHERE_IN_LIMIT;
+        return ids.subList(from, Math.min(from + UserDB.WHERE_IN_LIMIT, ids.size()));
+    }
+
+    private void requestNext() {
+        if (nextToRequest >= chunkCount) return;
+        int index = nextToRequest++;
+        List<String> chunk = new ArrayList<>(chunkIds(index));
+        lookup.getUsersByIds(chunk, (users, e) -> worker.execute(() -> onChunk(index, users, e)));
+    }
+
+    private void onChunk(int index, @Nullable Map<String, User> users, @Nullable Exception e) {
+        if (finished) return;
+        if (users == null) {
+            Log.w(TAG, "User lookup failed for chunk " + index, e);
+            failedLookups += chunkIds(index).size();
+            users = Collections.emptyMap();
+        }
+        ready.put(index, users);
+
+        try {
+            // Write every chunk that is now contiguous with what has been written
+            while (ready.containsKey(nextToWrite)) {
+                Map<String, User> found = ready.remove(nextToWrite);
+                for (String id : chunkIds(nextToWrite)) {
+                    User user = found.get(id);
+                    if (user != null) {
+                        csv.writeRow(id, user.getName(), user.getEmail(), user.getPhoneNum());
+                    } else {
+                        csv.writeRow(id, "", "", "");
+                    }
+                    written++;
+                }
+                nextToWrite++;
+                requestNext();
+            }
+        } catch (IOException ex) {
+            fail(ex);
+            return;
+        }
+
+        int progress = written;
+        callbackExecutor.execute(() -> listener.onProgress(progress, ids.size()));
+        if (nextToWrite == chunkCount) complete();
+    }
+
+    private void complete() {
+        try {
+            csv.close();
+        } catch (IOException e) {
+            fail(e);
+            return;
+        }
+        finished = true;
+        int rows = written;
+        int failed = failedLookups;
+        callbackExecutor.execute(() -> listener.onComplete(rows, failed));
+    }
+
+    private void fail(Exception e) {
+        finished = true;
+        ready.clear();
+        try {
+            csv.close();
+        } catch (IOException ignored) {
+            // Already failing; report the original cause
+        }
+        callbackExecutor.execute(() -> listener.onError(e));
+    }
+}
@@ -1,26 +1,42 @@
 package com.example.fairdraw.ServiceUtility;
 
 import android.app.Activity;
+import android.content.ContentResolver;
 import android.graphics.Bitmap;
 import android.net.Uri;
+import android.util.Base64;
 import android.util.Log;
+import android.view.View;
 
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 
+import com.example.fairdraw.DBs.EventDB;
+import com.example.fairdraw.Models.Event;
+import com.example.fairdraw.Others.ExpiringLruCache;
+import com.example.fairdraw.Others.PosterRendition;
 import com.google.android.gms.tasks.OnFailureListener;
 import com.google.android.gms.tasks.OnSuccessListener;
 import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.TaskCompletionSource;
 import com.google.android.gms.tasks.Tasks;
 import com.google.firebase.storage.FirebaseStorage;
 import com.google.firebase.storage.ListResult;
+import com.google.firebase.storage.StorageException;
 import com.google.firebase.storage.StorageMetadata;
 import com.google.firebase.storage.StorageReference;
 import com.google.firebase.storage.UploadTask;
 
 import java.io.ByteArrayOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.Executor;
 
 /**
@@ -33,12 +49,51 @@ public class FirebaseImageStorageService {
     private static final String EVENTS_DIR   = "events";
     private static final String PROFILE_NAME = "profile.jpg";
     private static final String POSTER_NAME  = "poster.jpg";
+    // Smaller poster renditions are stored as poster_<key>, in WebP where the device can encode it
+    private static final String POSTER_RENDITION_PREFIX = "poster_";
     private static final String QR_NAME      = "qr.png";
 
+    /** Quality posters picked as files are encoded at. */
+    public static final int DEFAULT_POSTER_QUALITY = 90;
+    /** Byte budget for the full rendition of posters picked as files. */
+    public static final int DEFAULT_POSTER_MAX_BYTES = 1024 * 1024;
+    /** Pixel budget for profile pictures, which are only ever shown small. */
+    public static final int PROFILE_MAX_PIXELS = 1024 * 1024;
+    /** Quality profile pictures picked as files are encoded at. */
+    public static final int DEFAULT_PROFILE_QUALITY = 90;
+    /** Byte budget for profile pictures picked as files. */
+    public static final int DEFAULT_PROFILE_MAX_BYTES = 256 * 1024;
+
+    // Decodes picked files; shared so concurrent uploads stay within one memory budget
+    private static final ImageIngest ingest = new ImageIngest();
+
     private final FirebaseStorage storage;
 
     private static final String TAG = "FirebaseImageStorage";
 
+    // Events whose stored poster is looked up at once when backfilling poster fields
+    private static final int POSTER_BACKFILL_BATCH = 20;
+
+    // Process-wide cache of poster download URLs, shared by every instance of this service.
+    // Download tokens stay valid until the file is replaced, so the TTL only bounds staleness
+    // after another device re-uploads; events without a poster are remembered for less time.
+    private static final int POSTER_URL_CACHE_SIZE = 512;
+    private static final long POSTER_URL_TTL_MS = 30 * 60 * 1000L;
+    private static final long POSTER_MISSING_TTL_MS = 5 * 60 * 1000L;
+    private static final ExpiringLruCache<String, Uri> posterUrls =
+            new ExpiringLruCache<>(POSTER_URL_CACHE_SIZE, POSTER_URL_TTL_MS, POSTER_MISSING_TTL_MS);
+    // Lookups in progress, so concurrent requests for the same poster share one round trip
+    private static final Map<String, Task<Uri>> posterUrlsInFlight = new HashMap<>();
+
+    /**
+     * Failure returned for events that are known to have no poster.
+     */
+    public static class NoPosterException extends Exception {
+        public NoPosterException(@NonNull String eventId) {
+            super("No poster for event " + eventId);
+        }
+    }
+
     /**
      * Simple DTO for mapping an event ID to its poster download Uri.
      */
@@ -79,10 +134,15 @@ public class FirebaseImageStorageService {
     }
 
     private StorageReference eventPosterRef(@NonNull String eventId) {
+        return eventPosterRef(eventId, PosterRendition.FULL);
+    }
+
+    private StorageReference eventPosterRef(@NonNull String eventId, @NonNull PosterRendition rendition) {
         return storage.getReference()
                 .child(EVENTS_DIR)
                 .child(eventId)
-                .child(POSTER_NAME);
+                .child(rendition == PosterRendition.FULL
+                        ? POSTER_NAME : POSTER_RENDITION_PREFIX + rendition.key);
     }
 
     // QR storage reference for events
@@ -97,7 +157,9 @@ public class FirebaseImageStorageService {
 
     /**
      * Uploads an entrant's profile picture from a Bitmap.
-     * The bitmap is compressed to a JPEG with the specified quality and byte limit.
+     * The bitmap is scaled down and compressed to a JPEG with the specified quality and byte
+     * limit on a background thread (see {@link ImageEncoder}); it must not be recycled until
+     * the returned task completes.
      *
      * @param entrantId   The ID of the entrant.
      * @param bitmap      The profile image as a Bitmap.
@@ -109,19 +171,30 @@ public class FirebaseImageStorageService {
                                           @NonNull Bitmap bitmap,
                                           int jpegQuality,
                                           int maxBytes) {
-        byte[] data = compressBitmapToJpegBytes(bitmap, jpegQuality, maxBytes);
-        return putBytesAndGetUrl(entrantProfileRef(entrantId), data, "image/*");
+        return ImageEncoder.encodeJpegAsync(bitmap, ImageEncoder.DEFAULT_MAX_PIXELS, jpegQuality, maxBytes)
+                .onSuccessTask(data -> putBytesAndGetUrl(entrantProfileRef(entrantId), data, "image/*"));
     }
 
     /**
      * Uploads an entrant's profile picture from a file URI.
+     * The image is decoded upright and at most {@link #PROFILE_MAX_PIXELS} within a bounded
+     * amount of memory (see {@link ImageIngest}), then compressed to a JPEG with
+     * {@link #DEFAULT_PROFILE_QUALITY} and {@link #DEFAULT_PROFILE_MAX_BYTES}.
      *
      * @param entrantId The ID of the entrant.
      * @param fileUri   The URI of the image file.
      * @return A Task containing the download URL of the uploaded image.
      */
     public Task<Uri> uploadEntrantProfile(@NonNull String entrantId, @NonNull Uri fileUri) {
-        return putFileAndGetUrl(entrantProfileRef(entrantId), fileUri, "image/*");
+        ContentResolver resolver = contentResolver();
+        return ImageEncoder.submit(() -> {
+            Bitmap bitmap = ingest.decode(resolver, fileUri, PROFILE_MAX_PIXELS);
+            try {
+                return ImageEncoder.encodeJpeg(bitmap, 0, DEFAULT_PROFILE_QUALITY, DEFAULT_PROFILE_MAX_BYTES).bytes;
+            } finally {
+                bitmap.recycle();
+            }
+        }).onSuccessTask(data -> putBytesAndGetUrl(entrantProfileRef(entrantId), data, "image/jpeg"));
     }
 
     /**
@@ -169,7 +242,10 @@ public class FirebaseImageStorageService {
 
     /**
      * Uploads an event poster from a Bitmap.
-     * The bitmap is compressed to a JPEG with the specified quality and byte limit.
+     * The bitmap is scaled down and compressed to a JPEG with the specified quality and byte
+     * limit on a background thread (see {@link ImageEncoder}); it must not be recycled until
+     * the returned task completes. Smaller renditions for feeds and thumbnails are encoded and
+     * uploaded alongside it (see {@link PosterRendition}).
      *
      * @param eventId     The ID of the event.
      * @param bitmap      The poster image as a Bitmap.
@@ -181,29 +257,103 @@ public class FirebaseImageStorageService {
                                        @NonNull Bitmap bitmap,
                                        int jpegQuality,
                                        int maxBytes) {
-        byte[] data = compressBitmapToJpegBytes(bitmap, jpegQuality, maxBytes);
-        return putBytesAndGetUrl(eventPosterRef(eventId), data, "image/*");
+        return ImageEncoder.submit(() -> encodePosterRenditions(bitmap, jpegQuality, maxBytes))
+                .onSuccessTask(renditions -> uploadPosterRenditions(eventId, renditions));
     }
 
     /**
      * Uploads an event poster from a file URI.
+     * The image is decoded upright and at most {@link ImageEncoder#DEFAULT_MAX_PIXELS} within a
+     * bounded amount of memory (see {@link ImageIngest}), then uploaded like
+     * {@link #uploadEventPoster(String, Bitmap, int, int)}, with {@link #DEFAULT_POSTER_QUALITY}
+     * and {@link #DEFAULT_POSTER_MAX_BYTES}.
      *
      * @param eventId The ID of the event.
      * @param fileUri The URI of the image file.
      * @return A Task containing the download URL of the uploaded image.
      */
     public Task<Uri> uploadEventPoster(@NonNull String eventId, @NonNull Uri fileUri) {
-        return putFileAndGetUrl(eventPosterRef(eventId), fileUri, "image/*");
+        ContentResolver resolver = contentResolver();
+        return ImageEncoder.submit(() -> {
+            Bitmap bitmap = ingest.decode(resolver, fileUri, ImageEncoder.DEFAULT_MAX_PIXELS);
+            try {
+                return encodePosterRenditions(bitmap, DEFAULT_POSTER_QUALITY, DEFAULT_POSTER_MAX_BYTES);
+            } finally {
+                bitmap.recycle();
+            }
+        }).onSuccessTask(renditions -> uploadPosterRenditions(eventId, renditions));
     }
 
     /**
      * Gets the download URL for an event poster.
+     * <p>
+     * Results are cached process-wide (including "no poster" results, which fail with
+     * {@link NoPosterException}), and concurrent calls for the same event share one request.
      *
      * @param eventId The ID of the event.
      * @return A Task containing the download URL.
      */
     public Task<Uri> getEventPosterDownloadUrl(@NonNull String eventId) {
-        return eventPosterRef(eventId).getDownloadUrl();
+        ExpiringLruCache.Entry<Uri> cached = posterUrls.get(eventId);
+        if (cached != null) {
+            return cached.isNegative()
+                    ? Tasks.forException(new NoPosterException(eventId))
+                    : Tasks.forResult(cached.value);
+        }
+        synchronized (posterUrlsInFlight) {
+            Task<Uri> inFlight = posterUrlsInFlight.get(eventId);
+            if (inFlight != null) return inFlight;
+
+            Task<Uri> lookup = eventPosterRef(eventId).getDownloadUrl().continueWithTask(task -> {
+                synchronized (posterUrlsInFlight) {
+                    posterUrlsInFlight.remove(eventId);
+                }
+                if (task.isSuccessful()) {
+                    posterUrls.put(eventId, task.getResult());
+                    return task;
+                }
+                Exception e = task.getException();
+                if (e instanceof StorageException
+                        && ((StorageException) e).getErrorCode() == StorageException.ERROR_OBJECT_NOT_FOUND) {
+                    // Only a definite "not found" is cached; network errors are retried next time
+                    posterUrls.putMissing(eventId);
+                    return Tasks.forException(new NoPosterException(eventId));
+                }
+                return task;
+            });
+            posterUrlsInFlight.put(eventId, lookup);
+            return lookup;
+        }
+    }
+
+    /**
+     * Returns the poster URL for an event if it is already cached, without any network access.
+     * Useful for binding list rows synchronously.
+     *
+     * @param eventId The ID of the event.
+     * @return the cached download URL, or null if it is not cached (or the event has no poster)
+     */
+    @Nullable
+    public Uri peekEventPosterDownloadUrl(@NonNull String eventId) {
+        return posterUrls.peek(eventId);
+    }
+
+    /**
+     * Picks the poster URL to load into a view: the smallest rendition at least as wide as the
+     * view, or the full poster for events uploaded before renditions existed.
+     *
+     * @param renditionUrls the event's rendition URLs, may be null
+     * @param posterUrl     the event's full poster URL, may be null
+     * @param target        the view the poster is shown in; if it is not laid out yet, the
+     *                      screen width is used
+     * @return the URL to load, or null if the event has no recorded poster
+     */
+    @Nullable
+    public static String posterUrlFor(@Nullable Map<String, String> renditionUrls,
+                                      @Nullable String posterUrl, @NonNull View target) {
+        int width = target.getWidth();
+        if (width <= 0) width = target.getResources().getDisplayMetrics().widthPixels;
+        return PosterRendition.pickUrl(renditionUrls, posterUrl, width);
     }
 
     /**
@@ -224,7 +374,13 @@ public class FirebaseImageStorageService {
      * @return A Task that completes when the deletion is finished.
      */
     public Task<Void> deleteEventPoster(@NonNull String eventId) {
-        return eventPosterRef(eventId).delete();
+        posterUrls.invalidate(eventId);
+        return eventPosterRef(eventId).delete()
+                .addOnCompleteListener(task -> posterUrls.invalidate(eventId))
+                .addOnSuccessListener(v -> {
+                    deleteStaleRenditions(eventId, EnumSet.noneOf(PosterRendition.class));
+                    EventDB.clearPosterInfo(eventId);
+                });
     }
 
     /**
@@ -240,6 +396,9 @@ public class FirebaseImageStorageService {
     /**
      * Lists all event posters currently stored under the EVENTS_DIR.
      * <p>
+     * This walks Storage and costs one request per event ever created; the admin gallery
+     * pages through {@link EventDB#getPosterEventsPage} instead. Kept for one-off maintenance.
+     * <p>
      * This is primarily intended for admin use: it scans each child folder
      * under {@code /events} (where each folder name is an eventId),
      * attempts to resolve {@code poster.jpg}, and for every event where a
@@ -344,6 +503,7 @@ public class FirebaseImageStorageService {
 
     /**
      * Uploads an event QR image from a Bitmap. Prefers PNG encoding; falls back to JPEG if PNG exceeds maxBytes.
+     * Encoding runs on a background thread; the bitmap must not be recycled until the returned task completes.
      *
      * @param eventId     The ID of the event.
      * @param bitmap      The QR image as a Bitmap.
@@ -355,13 +515,8 @@ public class FirebaseImageStorageService {
                                    @NonNull Bitmap bitmap,
                                    int jpegQuality,
                                    int maxBytes) {
-        byte[] data = compressBitmapToPngBytes(bitmap, maxBytes);
-        // If PNG exceeded maxBytes, compressBitmapToPngBytes will fall back to JPEG compression already.
-        if (data.length > maxBytes) {
-            // As a final attempt, re-encode with provided jpegQuality limits
-            data = compressBitmapToJpegBytes(bitmap, jpegQuality, maxBytes);
-        }
-        return putBytesAndGetUrl(eventQrRef(eventId), data, "image/png");
+        return ImageEncoder.submit(() -> compressBitmapToPngBytes(bitmap, jpegQuality, maxBytes))
+                .onSuccessTask(data -> putBytesAndGetUrl(eventQrRef(eventId), data, "image/png"));
     }
 
     /**
@@ -416,23 +571,211 @@ public class FirebaseImageStorageService {
         return exists(eventQrRef(eventId));
     }
 
+    // ---------- Public API: Interrupted uploads ----------
+
+    /**
+     * Resumes image uploads interrupted by the app being killed or a dropped connection,
+     * continuing each from the last byte Storage acknowledged. Once every resumed upload of an
+     * event's poster has finished, the poster is recorded on the event as a fresh upload would be.
+     * Call once at startup; uploads that fail on a dropped connection later call it again once
+     * the network returns.
+     */
+    public void resumePendingUploads() {
+        Map<String, List<Task<Uri>>> posters = new HashMap<>();
+        for (ResumableUploadManager.Upload upload : uploads().resumePending()) {
+            resumeWhenReconnected(upload.getResult());
+            // Paths look like /events/{eventId}/poster.jpg
+            String[] parts = upload.getPath().replaceFirst("^/", "").split("/");
+            if (parts.length == 3 && parts[0].equals(EVENTS_DIR) && parts[2].startsWith("poster")) {
+                List<Task<Uri>> tasks = posters.get(parts[1]);
+                if (tasks == null) {
+                    tasks = new ArrayList<>();
+                    posters.put(parts[1], tasks);
+                }
+                tasks.add(upload.getResult());
+            }
+        }
+        for (Map.Entry<String, List<Task<Uri>>> entry : posters.entrySet()) {
+            String eventId = entry.getKey();
+            Tasks.whenAllSuccess(entry.getValue())
+                    .onSuccessTask(urls -> recordStoredPoster(eventId))
+                    .addOnFailureListener(e -> Log.w(TAG, "Resumed poster of event " + eventId + " not recorded", e));
+        }
+    }
+
+    /**
+     * Records the poster on every event whose poster was uploaded before posters were recorded
+     * on the event document, so it shows in the admin gallery, which pages through
+     * {@link EventDB#getPosterEventsPage}. Reads every event once, and the stored poster of each
+     * event without one recorded, so run it once.
+     *
+     * @return a task that succeeds once every event has been checked
+     */
+    public Task<Void> backfillPosterInfo() {
+        TaskCompletionSource<List<String>> missing = new TaskCompletionSource<>();
+        EventDB.getEvents(events -> {
+            if (events == null) {
+                missing.setException(new IllegalStateException("Failed to read events"));
+                return;
+            }
+            List<String> ids = new ArrayList<>();
+            for (Event event : events) {
+                if (event != null && event.getUuid() != null && event.getPosterUrl() == null) {
+                    ids.add(event.getUuid());
+                }
+            }
+            missing.setResult(ids);
+        });
+        return missing.getTask().onSuccessTask(ids -> backfillPosterBatch(ids, 0));
+    }
+
+    // Records the stored posters of a batch of events, then of the next batch
+    private Task<Void> backfillPosterBatch(List<String> eventIds, int from) {
+        if (from >= eventIds.size()) return Tasks.forResult(null);
+        int to = Math.min(eventIds.size(), from + POSTER_BACKFILL_BATCH);
+        List<Task<Uri>> batch = new ArrayList<>();
+        for (String eventId : eventIds.subList(from, to)) batch.add(recordStoredPoster(eventId));
+        return Tasks.whenAllComplete(batch).onSuccessTask(done -> {
+            for (Task<Uri> t : batch) {
+                // Most events simply have no poster
+                if (!t.isSuccessful() && !(t.getException() instanceof NoPosterException)) {
+                    return Tasks.forException(t.getException());
+                }
+            }
+            return backfillPosterBatch(eventIds, to);
+        });
+    }
+
     // ---------- Internals ----------
+    private ContentResolver contentResolver() {
+        return storage.getApp().getApplicationContext().getContentResolver();
+    }
+
+    /**
+     * Encodes the poster renditions: the full poster as JPEG, which older readers of
+     * {@code poster.jpg} expect, and each narrower rendition in {@link ImageEncoder#webpFormat()}.
+     * Call from a background thread.
+     */
+    private static Map<PosterRendition, byte[]> encodePosterRenditions(@NonNull Bitmap bitmap, int quality,
+                                                                      int maxBytes) throws Exception {
+        Map<PosterRendition, byte[]> renditions = new EnumMap<>(PosterRendition.class);
+        ImageEncoder.Result full = ImageEncoder.encode(bitmap, ImageEncoder.DEFAULT_MAX_PIXELS,
+                Bitmap.CompressFormat.JPEG, quality, maxBytes);
+        renditions.put(PosterRendition.FULL, full.bytes);
+        for (PosterRendition r : PosterRendition.values()) {
+            if (r == PosterRendition.FULL || !r.isNarrowerThan(full.width)) continue;
+            renditions.put(r, ImageEncoder.encode(bitmap, r.pixelBudget(bitmap.getWidth(), bitmap.getHeight()),
+                    ImageEncoder.webpFormat(), quality, r.maxBytes).bytes);
+        }
+        return renditions;
+    }
+
+    /**
+     * Uploads encoded renditions in parallel, then caches the full poster's URL and records it,
+     * its size and content hash and every rendition's URL on the event document. Renditions a
+     * previous, larger poster had and this one does not are deleted.
+     */
+    private Task<Uri> uploadPosterRenditions(@NonNull String eventId,
+                                             @NonNull Map<PosterRendition, byte[]> renditions) {
+        posterUrls.invalidate(eventId);
+        ResumableUploadManager uploads = uploads();
+        Map<PosterRendition, Task<Uri>> urls = new EnumMap<>(PosterRendition.class);
+        for (Map.Entry<PosterRendition, byte[]> entry : renditions.entrySet()) {
+            PosterRendition r = entry.getKey();
+            String contentType = ImageEncoder.contentType(r == PosterRendition.FULL
+                    ? Bitmap.CompressFormat.JPEG : ImageEncoder.webpFormat());
+            urls.put(r, resumeWhenReconnected(uploads.upload(eventPosterRef(eventId, r).getPath(),
+                    entry.getValue(), contentType).getResult()));
+        }
+        byte[] full = renditions.get(PosterRendition.FULL);
+        return Tasks.whenAllSuccess(urls.values()).onSuccessTask(results -> {
+            Map<String, String> renditionUrls = new HashMap<>();
+            for (Map.Entry<PosterRendition, Task<Uri>> entry : urls.entrySet()) {
+                renditionUrls.put(entry.getKey().key, entry.getValue().getResult().toString());
+            }
+            Uri uri = urls.get(PosterRendition.FULL).getResult();
+            // Same size and base64 MD5 Storage reports in the object's metadata
+            long size = full.length;
+            String hash = md5Base64(full);
+            posterUrls.put(eventId, uri);
+            EventDB.setPosterInfo(eventId, uri.toString(), size, hash, renditionUrls);
+            deleteStaleRenditions(eventId, renditions.keySet());
+            return Tasks.forResult(uri);
+        });
+    }
+
+    /**
+     * Deletes the stored renditions other than the full poster that are not in {@code keep};
+     * ones that do not exist are ignored.
+     */
+    private void deleteStaleRenditions(@NonNull String eventId, @NonNull Set<PosterRendition> keep) {
+        for (PosterRendition r : PosterRendition.values()) {
+            if (r == PosterRendition.FULL || keep.contains(r)) continue;
+            eventPosterRef(eventId, r).delete().addOnFailureListener(e -> {
+                if (!(e instanceof StorageException)
+                        || ((StorageException) e).getErrorCode() != StorageException.ERROR_OBJECT_NOT_FOUND) {
+                    Log.w(TAG, "Failed to delete " + r.key + " poster of event " + eventId, e);
+                }
+            });
+        }
+    }
+
+    /**
+     * Uploads encoded bytes through {@link ResumableUploadManager}, so an interrupted upload
+     * continues from the last acknowledged byte rather than starting over.
+     */
     private Task<Uri> putBytesAndGetUrl(StorageReference ref, byte[] data, String contentType) {
-        StorageMetadata metadata = new StorageMetadata.Builder()
-                .setContentType(contentType)
-                .build();
+        return resumeWhenReconnected(uploads().upload(ref.getPath(), data, contentType).getResult());
+    }
 
-        UploadTask upload = ref.putBytes(data, metadata);
-        return upload.continueWithTask(task -> {
-            if (!task.isSuccessful()) {
-                Exception e = (Exception) task.getException();
-                if (e != null) throw e;
-                throw new Exception("Upload task failed");
+    // An upload that fails on a dropped connection keeps its session; resume it, rather than
+    // waiting for the next start, once the device is back online
+    private Task<Uri> resumeWhenReconnected(Task<Uri> result) {
+        return result.addOnFailureListener(e -> {
+            if (ResumableUploadManager.isRecoverable(e)) uploads().runWhenReconnected(this::resumePendingUploads);
+        });
+    }
+
+    private ResumableUploadManager uploads() {
+        return new ResumableUploadManager(storage.getApp().getApplicationContext(), storage);
+    }
+
+    /**
+     * Reads a stored poster's renditions and metadata back and records them on the event, for
+     * posters whose uploads finished after the process that started them had died.
+     */
+    private Task<Uri> recordStoredPoster(@NonNull String eventId) {
+        Map<PosterRendition, Task<Uri>> urls = new EnumMap<>(PosterRendition.class);
+        for (PosterRendition r : PosterRendition.values()) {
+            urls.put(r, eventPosterRef(eventId, r).getDownloadUrl());
+        }
+        Task<StorageMetadata> metadata = eventPosterRef(eventId).getMetadata();
+        List<Task<?>> all = new ArrayList<>(urls.values());
+        all.add(metadata);
+        return Tasks.whenAllComplete(all).onSuccessTask(done -> {
+            Task<Uri> full = urls.get(PosterRendition.FULL);
+            if (!full.isSuccessful() || !metadata.isSuccessful()) {
+                return Tasks.forException(new NoPosterException(eventId));
             }
-            return ref.getDownloadUrl();
+            Map<String, String> renditionUrls = new HashMap<>();
+            for (Map.Entry<PosterRendition, Task<Uri>> entry : urls.entrySet()) {
+                // Renditions this poster is too narrow for are simply missing
+                if (entry.getValue().isSuccessful()) {
+                    renditionUrls.put(entry.getKey().key, entry.getValue().getResult().toString());
+                }
+            }
+            Uri uri = full.getResult();
+            posterUrls.put(eventId, uri);
+            EventDB.setPosterInfo(eventId, uri.toString(), metadata.getResult().getSizeBytes(),
+                    metadata.getResult().getMd5Hash(), renditionUrls);
+            return Tasks.forResult(uri);
         });
     }
 
+    private static String md5Base64(byte[] data) throws NoSuchAlgorithmException {
+        return Base64.encodeToString(MessageDigest.getInstance("MD5").digest(data), Base64.NO_WRAP);
+    }
+
     private Task<Uri> putFileAndGetUrl(StorageReference ref, Uri fileUri, String contentType) {
         StorageMetadata metadata = new StorageMetadata.Builder()
                 .setContentType(contentType)
@@ -455,32 +798,17 @@ public class FirebaseImageStorageService {
                 .continueWith(task -> task.isSuccessful());
     }
 
-    private byte[] compressBitmapToJpegBytes(@NonNull Bitmap bitmap, int initialQuality, int maxBytes) {
-        int quality = Math.min(Math.max(initialQuality, 1), 100);
-        byte[] out;
-        do {
-            ByteArrayOutputStream baos = new ByteArrayOutputStream();
-            bitmap.compress(Bitmap.CompressFormat.JPEG, quality, baos);
-            out = baos.toByteArray();
-            // reduce quality in steps if too large; clamp to avoid infinite loop
-            if (out.length > maxBytes && quality > 10) {
-                quality -= 10;
-            } else {
-                break;
-            }
-        } while (true);
-        return out;
-    }
-
     /**
      * Try PNG encoding first (lossless). If PNG bytes exceed maxBytes, fall back to JPEG compression.
+     * Call from a background thread.
      */
-    private byte[] compressBitmapToPngBytes(@NonNull Bitmap bitmap, int maxBytes) {
+    private static byte[] compressBitmapToPngBytes(@NonNull Bitmap bitmap, int jpegQuality, int maxBytes)
+            throws Exception {
         ByteArrayOutputStream baos = new ByteArrayOutputStream();
         bitmap.compress(Bitmap.CompressFormat.PNG, 100, baos);
         byte[] png = baos.toByteArray();
         if (png.length <= maxBytes) return png;
-        // Fallback: convert to JPEG with progressive quality reductions
-        return compressBitmapToJpegBytes(bitmap, 90, maxBytes);
+        // Fallback: JPEG at the largest quality that fits, keeping the QR at full size
+        return ImageEncoder.encodeJpeg(bitmap, 0, jpegQuality, maxBytes).bytes;
     }
 }
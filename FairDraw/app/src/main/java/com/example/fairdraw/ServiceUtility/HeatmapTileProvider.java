@@ -0,0 +1,308 @@
+package com.example.fairdraw.ServiceUtility;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.util.Log;
+import android.util.LruCache;
+
+import androidx.annotation.Nullable;
+
+import com.example.fairdraw.Others.GeoClusterIndex;
+import com.example.fairdraw.Others.GeoHash;
+import com.example.fairdraw.Others.HeatmapRasterizer;
+import com.google.android.gms.maps.model.Tile;
+import com.google.android.gms.maps.model.TileProvider;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * {@link TileProvider} that draws a density heatmap of an event's waitlist locations.
+ *
+ * <p>Google Maps calls {@link #getTile(int, int, int)} from its own pool of background threads.
+ * Rendered PNG tiles are kept per zoom/x/y in a bounded in-memory LRU and in a bounded directory
+ * under the app cache, so panning back over an area or reopening the map does not redraw it.
+ * Only the locations of the areas the map has shown are loaded, so a tile is cached only once
+ * every point it is drawn from lies in a loaded area; loading more areas then leaves the cached
+ * tiles valid. When entrants join or leave, {@link #update} drops only the tiles whose
+ * rendering includes the changed points; the caller then clears the overlay's tile cache and
+ * every other tile is served from these caches.</p>
+ *
+ * <p>The disk cache is stamped with the totals of the whole event's locations
+ * ({@link com.example.fairdraw.DBs.EventDB#getWaitlistLocationTotals}), kept current as changes
+ * arrive, so reopening the map keeps the cache unless the waitlist changed while it was closed.</p>
+ */
+public class HeatmapTileProvider implements TileProvider {
+
+    private static final String TAG = "HeatmapTileProvider";
+
+    /** Highest zoom the heatmap is drawn and cached for; Google Maps stops at 21. */
+    public static final int MAX_ZOOM = 21;
+    private static final int MEMORY_BYTES = 8 * 1024 * 1024;
+    private static final long DISK_BYTES = 32L * 1024 * 1024;
+    private static final String VERSION_FILE = "index.version";
+    // Most geohash cells a tile's area is checked against the loaded areas with
+    private static final int COVERAGE_CELLS = 9;
+    private static final byte[] EMPTY = new byte[0];
+
+    private final HeatmapRasterizer rasterizer = new HeatmapRasterizer();
+    private final File dir;
+    private final LruCache<String, byte[]> memory = new LruCache<String, byte[]>(MEMORY_BYTES) {
+        @Override
+        protected int sizeOf(String key, byte[] value) {
+            // Count empty tiles as a little so they are not free to keep forever
+            return Math.max(64, value.length);
+        }
+    };
+
+    private volatile GeoClusterIndex index;
+    // Geohash prefixes of the areas whose locations the index holds
+    private volatile Set<String> loaded = Collections.emptySet();
+    // Bumped on every update so tiles rendered from an older index are not cached
+    private volatile int generation;
+    private long diskBytes = -1;
+    // Whether the disk cache has been checked against the event's totals and may be used
+    private volatile boolean opened;
+    // {count, sum of latitudes, sum of longitudes} of the event's locations; null if unknown
+    @Nullable private double[] totals;
+
+    /**
+     * @param context any context; only the cache directory is used
+     * @param eventId event whose waitlist is drawn; tiles are cached per event
+     */
+    public HeatmapTileProvider(Context context, String eventId) {
+        this.dir = new File(new File(context.getCacheDir(), "heatmap_tiles"), eventId);
+    }
+
+    /**
+     * Checks the disk cache against the totals of the event's locations and drops it if they
+     * differ, since the changes made while the map was closed are unknown. Until this is called
+     * tiles are neither read from nor written to disk. Call off the main thread: it may delete
+     * cached files.
+     *
+     * @param eventTotals {count, sum of latitudes, sum of longitudes} of every location of the
+     *                    event, or null if they could not be read
+     */
+    public synchronized void open(@Nullable double[] eventTotals) {
+        String version = eventTotals == null ? null : version(eventTotals);
+        if (version == null || !version.equals(readVersion())) clearDisk();
+        totals = eventTotals == null ? null : eventTotals.clone();
+        if (version != null) writeVersion(version);
+        opened = true;
+    }
+
+    /**
+     * Replaces the points being drawn and drops the cached tiles whose rendering includes an
+     * entrant that joined or left. Locations that were only loaded or unloaded with an area
+     * are not changes. Call off the main thread: it may delete cached files.
+     *
+     * @param newIndex       points to draw from now on
+     * @param loadedPrefixes geohash prefixes of the areas whose locations {@code newIndex} holds
+     * @param joined         {lat, lng} of every entrant that joined, or moved there, since the
+     *                       previous call
+     * @param left           {lat, lng} of every entrant that left, or moved away, since the
+     *                       previous call
+     */
+    public synchronized void update(GeoClusterIndex newIndex, Set<String> loadedPrefixes,
+                                    List<double[]> joined, List<double[]> left) {
+        // Neighbouring points share most of their tiles, so collect them before deleting
+        Set<String> dirty = new HashSet<>();
+        for (double[] p : joined) addAffectedTiles(dirty, p);
+        for (double[] p : left) addAffectedTiles(dirty, p);
+        for (String key : dirty) {
+            memory.remove(key);
+            if (!opened) continue;
+            File f = new File(dir, key);
+            long len = f.length();
+            if (f.delete() && diskBytes >= 0) diskBytes -= len;
+        }
+        if (opened && totals != null && !dirty.isEmpty()) {
+            for (double[] p : joined) addToTotals(p, 1);
+            for (double[] p : left) addToTotals(p, -1);
+            writeVersion(version(totals));
+        }
+        index = newIndex;
+        loaded = new HashSet<>(loadedPrefixes);
+        generation++;
+    }
+
+    private static void addAffectedTiles(Set<String> out, double[] p) {
+        for (int zoom = 0; zoom <= MAX_ZOOM; zoom++) {
+            for (int[] t : HeatmapRasterizer.tilesAffectedBy(p[0], p[1], zoom)) {
+                out.add(key(zoom, t[0], t[1]));
+            }
+        }
+    }
+
+    private void addToTotals(double[] p, int sign) {
+        totals[0] += sign;
+        totals[1] += sign * p[0];
+        totals[2] += sign * p[1];
+    }
+
+    // Rounded so sums added up here and on the server give the same stamp
+    private static String version(double[] totals) {
+        return String.format(Locale.ROOT, "%d:%.5f:%.5f", Math.round(totals[0]), totals[1], totals[2]);
+    }
+
+    // Whether every point the tile is drawn from lies in an area whose locations are loaded
+    private static boolean covered(Set<String> loadedPrefixes, int zoom, int x, int y) {
+        if (loadedPrefixes.contains("")) return true;
+        double[] area = HeatmapRasterizer.tileReach(zoom, x, y);
+        for (String cell : GeoHash.coveringPrefixes(area[0], area[1], area[2], area[3], COVERAGE_CELLS)) {
+            boolean inLoaded = false;
+            for (String prefix : loadedPrefixes) {
+                if (cell.startsWith(prefix)) {
+                    inLoaded = true;
+                    break;
+                }
+            }
+            if (!inLoaded) return false;
+        }
+        return true;
+    }
+
+    @Override
+    public Tile getTile(int x, int y, int zoom) {
+        // Read the generation before the index; update() publishes them in the other order
+        int gen = generation;
+        GeoClusterIndex current = index;
+        Set<String> areas = loaded;
+        if (current == null || zoom > MAX_ZOOM) return NO_TILE;
+        String key = key(zoom, x, y);
+
+        byte[] png = memory.get(key);
+        if (png == null) {
+            boolean useDisk = opened;
+            png = useDisk ? readDisk(key) : null;
+            boolean rendered = false;
+            if (png == null) {
+                png = render(current, zoom, x, y);
+                if (png == null) return null; // Failed; Maps will ask again later
+                rendered = true;
+                // Drawn without some of its points; loading their area will redraw it
+                if (!covered(areas, zoom, x, y)) {
+                    return png.length == 0 ? NO_TILE
+                            : new Tile(HeatmapRasterizer.TILE_SIZE, HeatmapRasterizer.TILE_SIZE, png);
+                }
+            }
+            synchronized (this) {
+                // Skip caching if the points changed while this tile was being read or drawn
+                if (gen == generation) {
+                    memory.put(key, png);
+                    if (rendered && useDisk) writeDisk(key, png);
+                }
+            }
+        }
+        return png.length == 0 ? NO_TILE
+                : new Tile(HeatmapRasterizer.TILE_SIZE, HeatmapRasterizer.TILE_SIZE, png);
+    }
+
+    @Nullable
+    private byte[] render(GeoClusterIndex current, int zoom, int x, int y) {
+        int[] pixels = rasterizer.rasterize(current, zoom, x, y);
+        if (pixels == null) return EMPTY;
+        Bitmap bitmap = Bitmap.createBitmap(pixels, HeatmapRasterizer.TILE_SIZE,
+                HeatmapRasterizer.TILE_SIZE, Bitmap.Config.ARGB_8888);
+        try {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            bitmap.compress(Bitmap.CompressFormat.PNG, 100, out);
+            return out.toByteArray();
+        } catch (Exception e) {
+            Log.e(TAG, "Failed to encode tile " + key(zoom, x, y), e);
+            return null;
+        } finally {
+            bitmap.recycle();
+        }
+    }
+
+    private static String key(int zoom, int x, int y) {
+        return zoom + "_" + x + "_" + y;
+    }
+
+    @Nullable
+    private byte[] readDisk(String key) {
+        File f = new File(dir, key);
+        if (!f.isFile()) return null;
+        byte[] data = new byte[(int) f.length()];
+        try (InputStream in = new FileInputStream(f)) {
+            int read = 0;
+            while (read < data.length) {
+                int n = in.read(data, read, data.length - read);
+                if (n < 0) return null;
+                read += n;
+            }
+        } catch (IOException e) {
+            return null;
+        }
+        // Used recently, so trimming removes it last
+        f.setLastModified(System.currentTimeMillis());
+        return data;
+    }
+
+    // Called with the provider lock held
+    private void writeDisk(String key, byte[] png) {
+        if (!dir.isDirectory() && !dir.mkdirs()) return;
+        File f = new File(dir, key);
+        try (OutputStream out = new FileOutputStream(f)) {
+            out.write(png);
+        } catch (IOException e) {
+            Log.w(TAG, "Failed to cache tile " + key, e);
+            return;
+        }
+        if (diskBytes < 0) diskBytes = directorySize();
+        else diskBytes += png.length;
+        if (diskBytes > DISK_BYTES) trimDisk();
+    }
+
+    // Deletes the least recently used tiles until the cache is at three quarters of its budget
+    private void trimDisk() {
+        File[] files = dir.listFiles((d, name) -> !VERSION_FILE.equals(name));
+        if (files == null) return;
+        Arrays.sort(files, (a, b) -> Long.compare(a.lastModified(), b.lastModified()));
+        for (File f : files) {
+            if (diskBytes <= DISK_BYTES * 3 / 4) break;
+            long len = f.length();
+            if (f.delete()) diskBytes -= len;
+        }
+    }
+
+    private long directorySize() {
+        long total = 0;
+        File[] files = dir.listFiles();
+        if (files != null) for (File f : files) total += f.length();
+        return total;
+    }
+
+    private void clearDisk() {
+        File[] files = dir.listFiles();
+        if (files != null) for (File f : files) f.delete();
+        diskBytes = 0;
+    }
+
+    @Nullable
+    private String readVersion() {
+        byte[] data = readDisk(VERSION_FILE);
+        return data == null ? null : new String(data);
+    }
+
+    private void writeVersion(String version) {
+        if (!dir.isDirectory() && !dir.mkdirs()) return;
+        try (OutputStream out = new FileOutputStream(new File(dir, VERSION_FILE))) {
+            out.write(version.getBytes());
+        } catch (IOException e) {
+            Log.w(TAG, "Failed to record heatmap index version", e);
+        }
+    }
+}
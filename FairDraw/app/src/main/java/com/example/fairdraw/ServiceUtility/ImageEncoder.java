@@ -0,0 +1,246 @@
+package com.example.fairdraw.ServiceUtility;
+
+import android.graphics.Bitmap;
+import android.os.Build;
+
+import androidx.annotation.NonNull;
+
+import com.example.fairdraw.Others.QualitySearch;
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.Tasks;
+
+import java.io.ByteArrayOutputStream;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Encodes bitmaps to JPEG or WebP within a byte budget for upload.
+ *
+ * <p>The bitmap is first scaled down to a pixel budget, since a 12 MP photo is far larger
+ * than any screen it is shown on and encoding time grows with the pixel count. The quality
+ * is then chosen by {@link QualitySearch} in a few encodes instead of stepping down by 10 at a
+ * time. Each worker thread reuses two output buffers, one holding the best fitting result
+ * and one for the next attempt, so the search allocates nothing per encode.</p>
+ *
+ * <p>Encoding runs on a small shared pool of background threads; see
+ * {@link #encodeJpegAsync(Bitmap, int, int, int)}.</p>
+ */
+public final class ImageEncoder {
+
+    /** Pixel budget for uploaded images: a full HD screen. */
+    public static final int DEFAULT_MAX_PIXELS = 1920 * 1080;
+    /** Lowest quality the search goes down to before scaling further. */
+    public static final int MIN_QUALITY = 10;
+    // Encodes allowed per size before falling back to the lowest quality
+    private static final int MAX_ENCODES = 4;
+    // Extra downscales tried when even the lowest quality is over budget
+    private static final int MAX_SHRINKS = 3;
+
+    private static final int THREADS = 2;
+    private static final int QUEUE_CAPACITY = 16;
+    private static final ThreadPoolExecutor EXECUTOR = createExecutor();
+
+    // Output buffers kept per worker thread: the best result so far and the next attempt. They
+    // grow to the largest image encoded and are dropped when an idle worker thread exits.
+    private static final ThreadLocal<ByteArrayOutputStream[]> BUFFERS =
+            new ThreadLocal<ByteArrayOutputStream[]>() {
+                @Override
+                protected ByteArrayOutputStream[] initialValue() {
+                    return new ByteArrayOutputStream[]{
+                            new ByteArrayOutputStream(64 * 1024), new ByteArrayOutputStream(64 * 1024)};
+                }
+            };
+
+    /** Result of an encode. */
+    public static final class Result {
+        /** The encoded image. */
+        public final byte[] bytes;
+        /** Quality it was encoded at. */
+        public final int quality;
+        /** Width of the encoded image. */
+        public final int width;
+        /** Height of the encoded image. */
+        public final int height;
+        /** Number of encodes it took. */
+        public final int encodes;
+
+        Result(byte[] bytes, int quality, int width, int height, int encodes) {
+            this.bytes = bytes;
+            this.quality = quality;
+            this.width = width;
+            this.height = height;
+            this.encodes = encodes;
+        }
+    }
+
+    private ImageEncoder() {}
+
+    private static ThreadPoolExecutor createExecutor() {
+        AtomicInteger count = new AtomicInteger();
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(THREADS, THREADS, 30, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(QUEUE_CAPACITY), r -> {
+                    Thread t = new Thread(() -> {
+                        android.os.Process.setThreadPriority(android.os.Process.THREAD_PRIORITY_BACKGROUND);
+                        r.run();
+                    }, "ImageEncoder-" + count.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                });
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    /**
+     * @return the executor encodes run on: {@value #THREADS} background threads and a queue of
+     *         {@value #QUEUE_CAPACITY}; work submitted beyond that is rejected
+     */
+    public static Executor executor() {
+        return EXECUTOR;
+    }
+
+    /**
+     * Runs work on {@link #executor()}.
+     *
+     * @param work the work
+     * @param <T>  result type
+     * @return a task with its result; failed with {@link RejectedExecutionException} if the
+     *         queue is full
+     */
+    public static <T> Task<T> submit(@NonNull Callable<T> work) {
+        try {
+            return Tasks.call(EXECUTOR, work);
+        } catch (RejectedExecutionException e) {
+            return Tasks.forException(e);
+        }
+    }
+
+    /**
+     * Encodes a bitmap on the background pool. The bitmap must not be recycled or changed
+     * until the task completes.
+     *
+     * @param bitmap         the image
+     * @param maxPixels      pixel budget, or 0 for none; larger bitmaps are scaled down keeping
+     *                       their aspect ratio
+     * @param initialQuality highest quality to use (1-100)
+     * @param maxBytes       byte budget for the result
+     * @return a task with the JPEG bytes
+     */
+    public static Task<byte[]> encodeJpegAsync(@NonNull Bitmap bitmap, int maxPixels,
+                                               int initialQuality, int maxBytes) {
+        return submit(() -> encodeJpeg(bitmap, maxPixels, initialQuality, maxBytes).bytes);
+    }
+
+    /**
+     * Encodes a bitmap to JPEG on the calling thread; call from a background thread.
+     *
+     * @see #encode(Bitmap, int, Bitmap.CompressFormat, int, int)
+     */
+    public static Result encodeJpeg(@NonNull Bitmap bitmap, int maxPixels, int initialQuality,
+                                    int maxBytes) throws Exception {
+        return encode(bitmap, maxPixels, Bitmap.CompressFormat.JPEG, initialQuality, maxBytes);
+    }
+
+    /**
+     * Encodes a bitmap on the calling thread; call from a background thread.
+     *
+     * <p>If even {@link #MIN_QUALITY} does not fit, the image is scaled down further in
+     * proportion to the overshoot, a few times at most; the smallest result is returned even
+     * if it is still over budget.</p>
+     *
+     * @param bitmap         the image
+     * @param maxPixels      pixel budget, or 0 for none; larger bitmaps are scaled down keeping
+     *                       their aspect ratio
+     * @param format         a lossy format, such as JPEG or {@link #webpFormat()}
+     * @param initialQuality highest quality to use (1-100)
+     * @param maxBytes       byte budget for the result
+     * @return the encoded image
+     * @throws Exception if encoding fails
+     */
+    public static Result encode(@NonNull Bitmap bitmap, int maxPixels, @NonNull Bitmap.CompressFormat format,
+                                int initialQuality, int maxBytes) throws Exception {
+        int maxQuality = Math.min(Math.max(initialQuality, 1), 100);
+        int minQuality = Math.min(MIN_QUALITY, maxQuality);
+        ByteArrayOutputStream[] buffers = BUFFERS.get();
+
+        double scale = scaleFor(bitmap.getWidth(), bitmap.getHeight(), maxPixels);
+        int encodes = 0;
+        for (int shrink = 0; ; shrink++) {
+            Bitmap scaled = scaled(bitmap, scale);
+            try {
+                int[] attempts = {0};
+                int[] bestQuality = {-1};
+                int quality = QualitySearch.search(minQuality, maxQuality, maxBytes, MAX_ENCODES, q -> {
+                    ByteArrayOutputStream attempt = buffers[1];
+                    attempt.reset();
+                    if (!scaled.compress(format, q, attempt)) {
+                        throw new IllegalStateException(format + " encoding failed");
+                    }
+                    attempts[0]++;
+                    // Keep the highest quality that fits, or the last attempt if nothing fits yet
+                    if (attempt.size() <= maxBytes ? q > bestQuality[0] : bestQuality[0] < 0) {
+                        if (attempt.size() <= maxBytes) bestQuality[0] = q;
+                        buffers[1] = buffers[0];
+                        buffers[0] = attempt;
+                    }
+                    return attempt.size();
+                });
+                encodes += attempts[0];
+                if (quality >= 0 || shrink == MAX_SHRINKS) {
+                    return new Result(buffers[0].toByteArray(), quality >= 0 ? quality : minQuality,
+                            scaled.getWidth(), scaled.getHeight(), encodes);
+                }
+                // Pixels scale roughly with bytes; aim a little under the budget
+                scale *= Math.sqrt((double) maxBytes / buffers[0].size()) * 0.9;
+            } finally {
+                if (scaled != bitmap) scaled.recycle();
+            }
+        }
+    }
+
+    /**
+     * @return lossy WebP where the platform has a quality-controlled encoder for it (API 30+),
+     *         JPEG otherwise
+     */
+    public static Bitmap.CompressFormat webpFormat() {
+        return Build.VERSION.SDK_INT >= Build.VERSION_CODES.R
+                ? Bitmap.CompressFormat.WEBP_LOSSY
+                : Bitmap.CompressFormat.JPEG;
+    }
+
+    /**
+     * @param format an encoding format
+     * @return its MIME type
+     */
+    public static String contentType(@NonNull Bitmap.CompressFormat format) {
+        switch (format) {
+            case JPEG:
+                return "image/jpeg";
+            case PNG:
+                return "image/png";
+            default:
+                return "image/webp";
+        }
+    }
+
+    /**
+     * @return factor to scale a {@code width} x {@code height} image by to fit in
+     *         {@code maxPixels}, at most 1
+     */
+    static double scaleFor(int width, int height, int maxPixels) {
+        long pixels = (long) width * height;
+        if (maxPixels <= 0 || pixels <= maxPixels) return 1.0;
+        return Math.sqrt((double) maxPixels / pixels);
+    }
+
+    private static Bitmap scaled(Bitmap bitmap, double scale) {
+        if (scale >= 1.0) return bitmap;
+        int w = Math.max(1, (int) Math.round(bitmap.getWidth() * scale));
+        int h = Math.max(1, (int) Math.round(bitmap.getHeight() * scale));
+        return Bitmap.createScaledBitmap(bitmap, w, h, true);
+    }
+}
@@ -0,0 +1,184 @@
+package com.example.fairdraw.ServiceUtility;
+
+import android.content.ContentResolver;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.graphics.Matrix;
+import android.media.ExifInterface;
+import android.net.Uri;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+
+import com.example.fairdraw.Others.DecodePlan;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Decodes picked images for upload into an upright bitmap within a pixel budget, holding no more
+ * than a fixed number of bytes of pixels at once.
+ *
+ * <p>The image is read three times: once for its dimensions, once for its EXIF orientation and
+ * once to decode it, subsampled by the decoder as {@link DecodePlan} decides. The subsampled
+ * bitmap is then scaled to the pixel budget and turned upright in a single transform, so the
+ * result can go straight to {@link ImageEncoder} without further copies. A 50 MP photo never
+ * exists at full size in memory.</p>
+ *
+ * <p>Decodes through one instance run one at a time, so its budget also bounds concurrent
+ * callers. Call from a background thread.</p>
+ */
+public class ImageIngest {
+
+    private static final String TAG = "ImageIngest";
+
+    /** Memory budget used by {@link #ImageIngest()}, unless the heap is small. */
+    public static final long DEFAULT_MEMORY_BUDGET = 32L * 1024 * 1024;
+
+    /**
+     * Opens a fresh stream over the encoded image each time it is called.
+     */
+    public interface Source {
+        /**
+         * @return a stream positioned at the start of the image, closed by the caller
+         * @throws IOException if the image cannot be opened
+         */
+        InputStream open() throws IOException;
+    }
+
+    private final long memoryBudget;
+
+    /**
+     * Creates an ingest with {@link #DEFAULT_MEMORY_BUDGET}, or a quarter of the heap if that is
+     * smaller.
+     */
+    public ImageIngest() {
+        this(Math.min(DEFAULT_MEMORY_BUDGET, Runtime.getRuntime().maxMemory() / 4));
+    }
+
+    /**
+     * @param memoryBudget largest number of bytes of pixels to hold at once
+     */
+    public ImageIngest(long memoryBudget) {
+        this.memoryBudget = memoryBudget;
+    }
+
+    /**
+     * @return largest number of bytes of pixels held at once
+     */
+    public long getMemoryBudget() {
+        return memoryBudget;
+    }
+
+    /**
+     * Decodes an image from a content or file URI.
+     *
+     * @param resolver  resolver to open the image with
+     * @param uri       the image
+     * @param maxPixels pixel budget of the result, or 0 for none
+     * @return the upright bitmap, owned by the caller
+     * @throws IOException if the image cannot be read or decoded
+     * @see #decode(Source, int)
+     */
+    public Bitmap decode(@NonNull ContentResolver resolver, @NonNull Uri uri, int maxPixels)
+            throws IOException {
+        return decode(() -> {
+            InputStream in = resolver.openInputStream(uri);
+            if (in == null) throw new IOException("Cannot open " + uri);
+            return in;
+        }, maxPixels);
+    }
+
+    /**
+     * Decodes an image, scaled down to a pixel budget and turned upright according to its EXIF
+     * orientation. If the memory budget does not allow decoding at the pixel budget, the result
+     * is smaller.
+     *
+     * @param source    the image
+     * @param maxPixels pixel budget of the result, or 0 for none
+     * @return the upright bitmap, owned by the caller
+     * @throws IOException if the image cannot be read or decoded
+     */
+    public synchronized Bitmap decode(@NonNull Source source, int maxPixels) throws IOException {
+        BitmapFactory.Options options = new BitmapFactory.Options();
+        options.inJustDecodeBounds = true;
+        try (InputStream in = source.open()) {
+            BitmapFactory.decodeStream(in, null, options);
+        }
+        if (options.outWidth <= 0 || options.outHeight <= 0) throw new IOException("Not an image");
+
+        int orientation = readOrientation(source);
+        DecodePlan plan = DecodePlan.of(options.outWidth, options.outHeight, orientation, maxPixels,
+                memoryBudget);
+        if (plan.peakBytes > memoryBudget) {
+            throw new IOException("Cannot decode a " + options.outWidth + "x" + options.outHeight
+                    + " image within " + memoryBudget + " bytes");
+        }
+
+        options.inJustDecodeBounds = false;
+        options.inSampleSize = plan.sampleSize;
+        options.inPreferredConfig = Bitmap.Config.ARGB_8888;
+        Bitmap decoded;
+        try (InputStream in = source.open()) {
+            decoded = BitmapFactory.decodeStream(in, null, options);
+        }
+        if (decoded == null) throw new IOException("Cannot decode image");
+        if (!plan.transformed) return decoded;
+
+        // The decoder may round the subsampled size differently; scale from what it produced
+        boolean transposed = orientation >= 5 && orientation <= 8;
+        int targetWidth = transposed ? plan.outputHeight : plan.outputWidth;
+        int targetHeight = transposed ? plan.outputWidth : plan.outputHeight;
+        Matrix matrix = new Matrix();
+        matrix.setScale((float) targetWidth / decoded.getWidth(), (float) targetHeight / decoded.getHeight());
+        applyOrientation(matrix, orientation);
+        Bitmap upright = Bitmap.createBitmap(decoded, 0, 0, decoded.getWidth(), decoded.getHeight(),
+                matrix, true);
+        if (upright != decoded) decoded.recycle();
+        return upright;
+    }
+
+    /**
+     * @return the EXIF orientation tag of the image, or 1 (upright) if it has none or cannot be
+     *         read
+     */
+    private static int readOrientation(Source source) {
+        try (InputStream in = source.open()) {
+            return new ExifInterface(in).getAttributeInt(ExifInterface.TAG_ORIENTATION,
+                    ExifInterface.ORIENTATION_NORMAL);
+        } catch (IOException | RuntimeException e) {
+            Log.w(TAG, "Could not read EXIF orientation; assuming upright", e);
+            return ExifInterface.ORIENTATION_NORMAL;
+        }
+    }
+
+    private static void applyOrientation(Matrix matrix, int orientation) {
+        switch (orientation) {
+            case ExifInterface.ORIENTATION_FLIP_HORIZONTAL:
+                matrix.postScale(-1, 1);
+                break;
+            case ExifInterface.ORIENTATION_ROTATE_180:
+                matrix.postRotate(180);
+                break;
+            case ExifInterface.ORIENTATION_FLIP_VERTICAL:
+                matrix.postScale(1, -1);
+                break;
+            case ExifInterface.ORIENTATION_TRANSPOSE:
+                matrix.postRotate(90);
+                matrix.postScale(-1, 1);
+                break;
+            case ExifInterface.ORIENTATION_ROTATE_90:
+                matrix.postRotate(90);
+                break;
+            case ExifInterface.ORIENTATION_TRANSVERSE:
+                matrix.postRotate(-90);
+                matrix.postScale(-1, 1);
+                break;
+            case ExifInterface.ORIENTATION_ROTATE_270:
+                matrix.postRotate(-90);
+                break;
+            default:
+                break;
+        }
+    }
+}
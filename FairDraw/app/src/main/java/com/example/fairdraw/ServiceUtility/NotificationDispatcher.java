@@ -0,0 +1,381 @@
+package com.example.fairdraw.ServiceUtility;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.util.Log;
+
+import androidx.annotation.Nullable;
+
+import com.example.fairdraw.DBs.EntrantDB;
+import com.example.fairdraw.Others.AdminNotificationLog;
+import com.example.fairdraw.Others.EntrantNotification;
+import com.example.fairdraw.Others.NotificationType;
+import com.google.android.gms.tasks.Task;
+import com.google.firebase.firestore.DocumentReference;
+import com.google.firebase.firestore.FieldValue;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.SetOptions;
+import com.google.firebase.firestore.Transaction;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Sends the same notification to many entrants in batches of Firestore writes.
+ *
+ * <p>Recipients are grouped into batches, each written by one transaction of up to
+ * {@value #MAX_BATCH_WRITES} writes. Each recipient costs three writes in the same
+ * transaction: the notification document in the entrant's {@code notifications}
+ * subcollection, the unread counter (plus optional event history status) on the entrant
+ * document, and the matching record in {@code notification_logs}. Only a few batches are
+ * committed at once, and progress is reported to the caller as batches commit.</p>
+ *
+ * <p>Each job is persisted in SharedPreferences together with the batches that have
+ * committed. If the app is killed mid-send, {@link #resumePending(ProgressListener)} picks the
+ * job up again from the first uncommitted batch. A batch that committed just before the
+ * process died must not be applied twice, because the unread counter is an increment: each
+ * transaction first reads the log record of the batch's first recipient, whose id is fixed,
+ * and writes nothing if it already exists.</p>
+ */
+public class NotificationDispatcher {
+
+    private static final String TAG = "NotificationDispatcher";
+    private static final String PREFS = "notification_jobs";
+    // Job definitions and committed batch lists are stored under separate keys so that
+    // recording progress does not rewrite the whole recipient list after every batch.
+    private static final String KEY_JOB_PREFIX = "job:";
+    private static final String KEY_PROGRESS_PREFIX = "progress:";
+    private static final String LOG_COLLECTION = "notification_logs";
+
+    /** Firestore limit on writes in a single batch. */
+    public static final int MAX_BATCH_WRITES = 500;
+    /** Notification document, entrant document and notification log writes. */
+    private static final int WRITES_PER_RECIPIENT = 3;
+    static final int RECIPIENTS_PER_BATCH = MAX_BATCH_WRITES / WRITES_PER_RECIPIENT;
+    /** Default number of batches committed concurrently. */
+    public static final int DEFAULT_MAX_IN_FLIGHT = 4;
+
+    // Jobs currently being sent by this process, so a resume does not run them twice.
+    private static final Set<String> ACTIVE_JOBS = Collections.synchronizedSet(new HashSet<>());
+
+    /**
+     * Receives progress updates for a dispatch job. Called on the main thread.
+     */
+    public interface ProgressListener {
+        /**
+         * Invoked after each batch commits.
+         * @param sent number of recipients whose batch has committed so far
+         * @param total total number of recipients in the job
+         */
+        void onProgress(int sent, int total);
+
+        /**
+         * Invoked once every batch has either committed or failed.
+         * @param sent number of recipients notified
+         * @param failed number of recipients in batches that failed; these are kept for a later resume
+         */
+        void onComplete(int sent, int failed);
+    }
+
+    private final Context appContext;
+    private final int maxInFlight;
+
+    /**
+     * Creates a dispatcher with {@value #DEFAULT_MAX_IN_FLIGHT} batches in flight.
+     *
+     * @param context any Context; the application context will be used
+     */
+    public NotificationDispatcher(Context context) {
+        this(context, DEFAULT_MAX_IN_FLIGHT);
+    }
+
+    /**
+     * Creates a dispatcher.
+     *
+     * @param context     any Context; the application context will be used
+     * @param maxInFlight maximum number of batches committed concurrently
+     */
+    public NotificationDispatcher(Context context, int maxInFlight) {
+        this.appContext = context.getApplicationContext();
+        this.maxInFlight = Math.max(1, maxInFlight);
+    }
+
+    /**
+     * Starts sending a notification to every recipient.
+     *
+     * @param eventId       event the notification refers to
+     * @param eventTitle    event title shown in the notification
+     * @param type          notification type
+     * @param message       optional message body
+     * @param historyStatus optional {@link com.example.fairdraw.Others.EntrantEventStatus} to record in
+     *                      each recipient's event history in the same write, or null
+     * @param recipients    device ids to notify
+     * @param listener      optional progress listener
+     * @return id of the persisted job
+     */
+    public String dispatch(String eventId, String eventTitle, NotificationType type,
+                           @Nullable String message, @Nullable String historyStatus,
+                           List<String> recipients, @Nullable ProgressListener listener) {
+        Job job = new Job();
+        job.id = UUID.randomUUID().toString();
+        job.eventId = eventId;
+        job.eventTitle = eventTitle;
+        job.type = type == null ? null : type.name();
+        job.message = message;
+        job.historyStatus = historyStatus;
+        job.recipients = recipients == null ? new ArrayList<>() : new ArrayList<>(recipients);
+        saveJob(job);
+        new Run(job, listener).start();
+        return job.id;
+    }
+
+    /**
+     * Resumes every persisted job that has not finished, starting at its first uncommitted batch.
+     * Jobs already running in this process are skipped.
+     *
+     * @param listener optional progress listener, shared by all resumed jobs
+     */
+    public void resumePending(@Nullable ProgressListener listener) {
+        SharedPreferences sp = prefs();
+        for (String key : new ArrayList<>(sp.getAll().keySet())) {
+            if (!key.startsWith(KEY_JOB_PREFIX)) continue;
+            String jobId = key.substring(KEY_JOB_PREFIX.length());
+            if (ACTIVE_JOBS.contains(jobId)) continue;
+            Job job = Job.fromJson(sp.getString(key, null));
+            if (job == null) {
+                sp.edit().remove(key).remove(KEY_PROGRESS_PREFIX + jobId).apply();
+                continue;
+            }
+            job.readProgress(sp.getString(KEY_PROGRESS_PREFIX + jobId, ""));
+            Log.d(TAG, "resumePending: resuming job " + jobId + " at " + job.committed.size() + "/" + job.batchCount() + " batches");
+            new Run(job, listener).start();
+        }
+    }
+
+    private SharedPreferences prefs() {
+        return appContext.getSharedPreferences(PREFS, Context.MODE_PRIVATE);
+    }
+
+    private void saveJob(Job job) {
+        prefs().edit().putString(KEY_JOB_PREFIX + job.id, job.toJson()).apply();
+    }
+
+    private void saveProgress(Job job) {
+        prefs().edit().putString(KEY_PROGRESS_PREFIX + job.id, job.writeProgress()).apply();
+    }
+
+    private void deleteJob(Job job) {
+        prefs().edit().remove(KEY_JOB_PREFIX + job.id).remove(KEY_PROGRESS_PREFIX + job.id).apply();
+    }
+
+    /**
+     * Writes one batch of the recipients in a transaction, unless it was already written.
+     * The batch commits atomically, so its first recipient's log record marks the whole batch.
+     */
+    private static Task<Void> commitBatch(FirebaseFirestore db, Job job, int batchIndex) {
+        NotificationType type = job.type == null ? null : NotificationType.valueOf(job.type);
+        EntrantNotification notification = new EntrantNotification(type, job.eventId, job.eventTitle);
+        notification.message = job.message;
+
+        int from = batchIndex * RECIPIENTS_PER_BATCH;
+        int to = Math.min(from + RECIPIENTS_PER_BATCH, job.recipients.size());
+        DocumentReference marker = db.collection(LOG_COLLECTION).document(job.id + "_" + from);
+        return db.runTransaction(transaction -> {
+            if (transaction.get(marker).exists()) {
+                Log.d(TAG, "Batch " + batchIndex + " of job " + job.id + " was already sent");
+                return null;
+            }
+            for (int i = from; i < to; i++) {
+                writeRecipient(db, transaction, job, notification, i);
+            }
+            return null;
+        });
+    }
+
+    /**
+     * Adds the three writes for recipient {@code i} of the job to the transaction.
+     */
+    private static void writeRecipient(FirebaseFirestore db, Transaction transaction, Job job,
+                                       EntrantNotification notification, int i) {
+        String deviceId = job.recipients.get(i);
+        DocumentReference entrantRef = EntrantDB.getEntrantCollection().document(deviceId);
+        String docId = job.id + "_" + i;
+        transaction.set(EntrantDB.getNotificationCollection(deviceId).document(docId), notification);
+
+        Map<String, Object> entrantUpdate = new HashMap<>();
+        entrantUpdate.put(EntrantDB.UNREAD_FIELD, FieldValue.increment(1));
+        if (job.historyStatus != null) {
+            Map<String, Object> statusObj = new HashMap<>();
+            statusObj.put("status", job.historyStatus);
+            statusObj.put("lastUpdated", FieldValue.serverTimestamp());
+            entrantUpdate.put("eventHistory", FieldValue.arrayUnion(job.eventId));
+            entrantUpdate.put("eventHistoryStatus", Collections.singletonMap(job.eventId, statusObj));
+        }
+        transaction.set(entrantRef, entrantUpdate, SetOptions.merge());
+
+        AdminNotificationLog log = new AdminNotificationLog(deviceId, job.eventTitle, job.type, job.eventId);
+        DocumentReference logRef = db.collection(LOG_COLLECTION).document(docId);
+        transaction.set(logRef, log);
+    }
+
+    /**
+     * Sends one job, keeping at most {@link #maxInFlight} batches committing at a time.
+     * All callbacks run on the main thread, so the counters need no locking.
+     */
+    private class Run {
+        private final Job job;
+        @Nullable
+        private final ProgressListener listener;
+        private final Deque<Integer> pending = new ArrayDeque<>();
+        private final FirebaseFirestore db = FirebaseFirestore.getInstance();
+        private int inFlight = 0;
+        private int failedRecipients = 0;
+
+        Run(Job job, @Nullable ProgressListener listener) {
+            this.job = job;
+            this.listener = listener;
+            for (int b = 0; b < job.batchCount(); b++) {
+                if (!job.committed.contains(b)) pending.add(b);
+            }
+        }
+
+        void start() {
+            if (!ACTIVE_JOBS.add(job.id)) return;
+            if (pending.isEmpty()) {
+                finish();
+                return;
+            }
+            launchNext();
+        }
+
+        private void launchNext() {
+            while (inFlight < maxInFlight && !pending.isEmpty()) {
+                int batchIndex = pending.poll();
+                inFlight++;
+                commitBatch(db, job, batchIndex).addOnCompleteListener(task -> {
+                    inFlight--;
+                    if (task.isSuccessful()) {
+                        job.committed.add(batchIndex);
+                        saveProgress(job);
+                        if (listener != null) listener.onProgress(sentCount(), job.recipients.size());
+                    } else {
+                        failedRecipients += job.recipientsInBatch(batchIndex);
+                        Log.e(TAG, "Batch " + batchIndex + " of job " + job.id + " failed", task.getException());
+                    }
+
+                    if (pending.isEmpty() && inFlight == 0) {
+                        finish();
+                    } else {
+                        launchNext();
+                    }
+                });
+            }
+        }
+
+        private int sentCount() {
+            int sent = 0;
+            for (int b : job.committed) sent += job.recipientsInBatch(b);
+            return sent;
+        }
+
+        private void finish() {
+            ACTIVE_JOBS.remove(job.id);
+            if (failedRecipients == 0) {
+                deleteJob(job);
+            }
+            if (listener != null) listener.onComplete(sentCount(), failedRecipients);
+        }
+    }
+
+    /**
+     * Persisted description of a dispatch job.
+     */
+    static class Job {
+        String id;
+        String eventId;
+        String eventTitle;
+        String type;
+        String message;
+        String historyStatus;
+        List<String> recipients = new ArrayList<>();
+        Set<Integer> committed = new HashSet<>();
+
+        int batchCount() {
+            return (recipients.size() + RECIPIENTS_PER_BATCH - 1) / RECIPIENTS_PER_BATCH;
+        }
+
+        int recipientsInBatch(int batchIndex) {
+            int from = batchIndex * RECIPIENTS_PER_BATCH;
+            return Math.max(0, Math.min(RECIPIENTS_PER_BATCH, recipients.size() - from));
+        }
+
+        String writeProgress() {
+            StringBuilder sb = new StringBuilder();
+            for (int b : committed) {
+                if (sb.length() > 0) sb.append(',');
+                sb.append(b);
+            }
+            return sb.toString();
+        }
+
+        void readProgress(String progress) {
+            if (progress == null || progress.isEmpty()) return;
+            for (String part : progress.split(",")) {
+                try {
+                    committed.add(Integer.parseInt(part.trim()));
+                } catch (NumberFormatException ignored) {
+                    // Skip a corrupt entry; that batch is simply sent again.
+                }
+            }
+        }
+
+        String toJson() {
+            try {
+                JSONObject o = new JSONObject();
+                o.put("id", id);
+                o.put("eventId", eventId);
+                o.put("eventTitle", eventTitle);
+                o.put("type", type);
+                o.put("message", message);
+                o.put("historyStatus", historyStatus);
+                o.put("recipients", new JSONArray(recipients));
+                return o.toString();
+            } catch (JSONException e) {
+                throw new IllegalStateException("Failed to serialize notification job " + id, e);
+            }
+        }
+
+        @Nullable
+        static Job fromJson(@Nullable String json) {
+            if (json == null) return null;
+            try {
+                JSONObject o = new JSONObject(json);
+                Job job = new Job();
+                job.id = o.getString("id");
+                job.eventId = o.optString("eventId", null);
+                job.eventTitle = o.optString("eventTitle", null);
+                job.type = o.optString("type", null);
+                job.message = o.optString("message", null);
+                job.historyStatus = o.optString("historyStatus", null);
+                JSONArray recipients = o.getJSONArray("recipients");
+                for (int i = 0; i < recipients.length(); i++) job.recipients.add(recipients.getString(i));
+                return job;
+            } catch (JSONException e) {
+                Log.w(TAG, "Dropping unreadable notification job", e);
+                return null;
+            }
+        }
+    }
+}
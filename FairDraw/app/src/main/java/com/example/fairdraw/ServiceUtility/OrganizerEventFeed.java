@@ -0,0 +1,133 @@
+package com.example.fairdraw.ServiceUtility;
+
+import android.util.Log;
+
+import androidx.annotation.Nullable;
+
+import com.example.fairdraw.DBs.EventDB;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.ListenerRegistration;
+import com.google.firebase.firestore.Query;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Live, paged view of one organizer's events.
+ *
+ * <p>Events are read with {@link EventDB#getOrganizerEventsQuery(String)}, so the cost scales
+ * with the organizer's own events rather than the whole collection. Each loaded page keeps its
+ * own snapshot listener and reports only document changes to the sink. The newest page is
+ * open-ended ({@code limit}); when the next page is requested the previous one is pinned to
+ * the range it had ({@code endAt} its last document), so pages never overlap.</p>
+ *
+ * <p>Not thread-safe; call from the main thread.</p>
+ */
+public class OrganizerEventFeed {
+
+    private static final String TAG = "OrganizerEventFeed";
+
+    /** Default number of events per page. */
+    public static final int DEFAULT_PAGE_SIZE = 20;
+
+    private final Query baseQuery;
+    private final int pageSize;
+    private final EventDB.EventChangesListener sink;
+    private final List<Page> pages = new ArrayList<>();
+
+    private static final class Page {
+        @Nullable
+        final DocumentSnapshot startAfter;
+        @Nullable
+        DocumentSnapshot endAt;
+        @Nullable
+        DocumentSnapshot last;
+        int size;
+        boolean loaded;
+        ListenerRegistration registration;
+
+        Page(@Nullable DocumentSnapshot startAfter) {
+            this.startAfter = startAfter;
+        }
+    }
+
+    /**
+     * @param organizerId device id of the organizer
+     * @param pageSize    number of events per page
+     * @param sink        receives the changes of every page
+     */
+    public OrganizerEventFeed(String organizerId, int pageSize, EventDB.EventChangesListener sink) {
+        this.baseQuery = EventDB.getOrganizerEventsQuery(organizerId);
+        this.pageSize = pageSize;
+        this.sink = sink;
+    }
+
+    /**
+     * Starts listening to the first page. Does nothing if already started.
+     */
+    public void start() {
+        if (pages.isEmpty()) openPage(null);
+    }
+
+    /**
+     * Loads the next page if the newest one is full.
+     *
+     * @return true if a new page was requested
+     */
+    public boolean loadMore() {
+        if (!hasMore()) return false;
+        Page open = pages.get(pages.size() - 1);
+        DocumentSnapshot anchor = open.last;
+        // Pin the open page to its current range so it no longer shifts as events are added
+        open.registration.remove();
+        open.endAt = anchor;
+        listen(open);
+        openPage(anchor);
+        return true;
+    }
+
+    /**
+     * @return true if the newest page has loaded and is full, so there may be more events
+     */
+    public boolean hasMore() {
+        if (pages.isEmpty()) return false;
+        Page open = pages.get(pages.size() - 1);
+        return open.loaded && open.endAt == null && open.size >= pageSize && open.last != null;
+    }
+
+    /**
+     * Removes all listeners. The feed can be started again afterwards.
+     */
+    public void stop() {
+        for (Page page : pages) {
+            if (page.registration != null) page.registration.remove();
+        }
+        pages.clear();
+    }
+
+    private void openPage(@Nullable DocumentSnapshot startAfter) {
+        Page page = new Page(startAfter);
+        pages.add(page);
+        listen(page);
+    }
+
+    private void listen(Page page) {
+        Query q = baseQuery;
+        if (page.startAfter != null) q = q.startAfter(page.startAfter);
+        q = page.endAt != null ? q.endAt(page.endAt) : q.limit(pageSize);
+
+        page.registration = q.addSnapshotListener((snapshots, e) -> {
+            if (e != null) {
+                Log.e(TAG, "Page listener error", e);
+                sink.onError(e);
+                return;
+            }
+            if (snapshots == null) return;
+            page.loaded = true;
+            page.size = snapshots.size();
+            List<DocumentSnapshot> docs = snapshots.getDocuments();
+            page.last = docs.isEmpty() ? null : docs.get(docs.size() - 1);
+            sink.onChanges(EventDB.toEventChanges(snapshots));
+        });
+    }
+}
@@ -1,11 +1,14 @@
 package com.example.fairdraw.ServiceUtility;
 
 import android.graphics.Bitmap;
+import android.util.LruCache;
+
 import com.google.zxing.BarcodeFormat;
 import com.google.zxing.EncodeHintType;
 import com.google.zxing.common.BitMatrix;
 import com.google.zxing.qrcode.QRCodeWriter;
 
+import java.util.Arrays;
 import java.util.EnumMap;
 import java.util.Map;
 
@@ -14,12 +17,36 @@ import java.util.Map;
  *
  * <p>Creates a square QR code with a configurable size. A minimal margin is applied
  * to produce compact QR images.
+ *
+ * <p>The code is encoded at one bit per module (typically 30 to 60 modules across) and drawn
+ * into the bitmap a module row at a time with {@link Bitmap#setPixels}, rather than asking
+ * ZXing for a full-size matrix and setting every pixel individually. The layout (integer
+ * module size, centred with white padding) is the one ZXing produces. Recent results are kept
+ * in a small cache keyed by content and size, so showing the same code again costs nothing.
  */
 public final class QrUtil {
+
+    /** Size in pixels event QR codes are generated, uploaded and shown at. */
+    public static final int EVENT_QR_SIZE = 800;
+
+    private static final int BLACK = 0xFF000000;
+    private static final int WHITE = 0xFFFFFFFF;
+
+    // Bitmaps are 4 bytes per pixel, so this holds about three 800 px codes
+    private static final int CACHE_BYTES = 8 * 1024 * 1024;
+    private static final LruCache<String, Bitmap> cache = new LruCache<String, Bitmap>(CACHE_BYTES) {
+        @Override
+        protected int sizeOf(String key, Bitmap value) {
+            return value.getAllocationByteCount();
+        }
+    };
+
     private QrUtil() {}
 
     /**
-     * Generate a QR code bitmap for the provided content string.
+     * Generate a QR code bitmap for the provided content string, or return the cached one.
+     *
+     * <p>The returned bitmap may be shared with other callers: do not modify or recycle it.
      *
      * <p>Example:
      * <pre>
@@ -34,15 +61,59 @@ public final class QrUtil {
      * @throws Exception if the QR encoding fails for any reason
      */
     public static Bitmap generate(String content, int size) throws Exception {
+        String key = size + ":" + content;
+        Bitmap cached = cache.get(key);
+        if (cached != null && !cached.isRecycled()) return cached;
+        Bitmap bmp = render(encodeModules(content), size);
+        cache.put(key, bmp);
+        return bmp;
+    }
+
+    /**
+     * Encodes content into its module matrix, one bit per module including a one-module margin.
+     *
+     * @param content the text/URL to encode
+     * @return the modules
+     * @throws Exception if the QR encoding fails
+     */
+    static BitMatrix encodeModules(String content) throws Exception {
         Map<EncodeHintType, Object> hints = new EnumMap<>(EncodeHintType.class);
         hints.put(EncodeHintType.MARGIN, 1);
+        // A requested size of 0 makes ZXing return the matrix unscaled
+        return new QRCodeWriter().encode(content, BarcodeFormat.QR_CODE, 0, 0, hints);
+    }
 
-        BitMatrix m = new QRCodeWriter().encode(content, BarcodeFormat.QR_CODE, size, size, hints);
-        Bitmap bmp = Bitmap.createBitmap(size, size, Bitmap.Config.ARGB_8888);
-        for (int x = 0; x < size; x++) {
-            for (int y = 0; y < size; y++) {
-                bmp.setPixel(x, y, m.get(x, y) ? 0xFF000000 : 0xFFFFFFFF);
+    /**
+     * Draws a module matrix at the largest whole number of pixels per module that fits, centred
+     * with white padding. Each module row is built once in a buffer, repeated for the module's
+     * height and written with a single {@link Bitmap#setPixels} call.
+     *
+     * @param modules the module matrix
+     * @param size    width and height of the bitmap; enlarged to one pixel per module if smaller
+     * @return a new bitmap
+     */
+    static Bitmap render(BitMatrix modules, int size) {
+        int n = modules.getWidth();
+        int out = Math.max(size, n);
+        int multiple = out / n;
+        int padding = (out - n * multiple) / 2;
+
+        Bitmap bmp = Bitmap.createBitmap(out, out, Bitmap.Config.ARGB_8888);
+        bmp.eraseColor(WHITE);
+        int[] block = new int[out * multiple];
+        for (int my = 0; my < n; my++) {
+            // First pixel row of the module row, then copies of it
+            Arrays.fill(block, 0, out, WHITE);
+            for (int mx = 0; mx < n; mx++) {
+                if (modules.get(mx, my)) {
+                    int x = padding + mx * multiple;
+                    Arrays.fill(block, x, x + multiple, BLACK);
+                }
+            }
+            for (int r = 1; r < multiple; r++) {
+                System.arraycopy(block, 0, block, r * out, out);
             }
+            bmp.setPixels(block, 0, out, 0, padding + my * multiple, out, multiple);
         }
         return bmp;
     }
@@ -0,0 +1,460 @@
+package com.example.fairdraw.ServiceUtility;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.net.ConnectivityManager;
+import android.net.Network;
+import android.net.Uri;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Base64;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.TaskCompletionSource;
+import com.google.firebase.storage.FirebaseStorage;
+import com.google.firebase.storage.StorageException;
+import com.google.firebase.storage.StorageMetadata;
+import com.google.firebase.storage.StorageReference;
+import com.google.firebase.storage.UploadTask;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Uploads encoded images to Storage so that an interrupted upload continues where it stopped
+ * instead of starting over.
+ *
+ * <p>The bytes are first written to a file in the app's no-backup directory and uploaded from
+ * there with {@link StorageReference#putFile}, which sends them in chunks over a resumable
+ * upload session. The session URI is persisted in SharedPreferences as soon as Storage reports
+ * it. Within the process, the Storage client retries dropped chunks itself; if the upload fails
+ * with a recoverable error or the app is killed, {@link #resumePending()} starts it again with
+ * the saved session, and Storage continues from the last byte it acknowledged. Uploading the
+ * same bytes to the same path again also continues the saved session, so retrying a failed
+ * upload does not start over; {@link #runWhenReconnected} lets callers resume once the network
+ * returns. The file and record are deleted once the upload succeeds, is cancelled, or fails for
+ * good.</p>
+ *
+ * <p>There is at most one upload per Storage path: starting a new one cancels the previous,
+ * unless it is sending the same bytes.</p>
+ */
+public class ResumableUploadManager {
+
+    private static final String TAG = "ResumableUploads";
+    private static final String PREFS = "resumable_uploads";
+    private static final String KEY_UPLOAD_PREFIX = "upload:";
+    private static final String DIR = "uploads";
+
+    // Uploads running in this process by Storage path, so a resume does not start them twice
+    private static final Map<String, Upload> ACTIVE = new HashMap<>();
+    // Writes staged files off the main thread, in order
+    private static final ExecutorService STAGING = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "ResumableUploads");
+        t.setDaemon(true);
+        return t;
+    });
+    // Set while a callback waits for the network to return, so only one is registered
+    private static final AtomicBoolean WAITING_FOR_NETWORK = new AtomicBoolean();
+
+    /**
+     * Receives upload progress. Called on the main thread.
+     */
+    public interface ProgressListener {
+        /**
+         * @param bytesTransferred bytes Storage has acknowledged so far
+         * @param totalBytes       size of the upload
+         */
+        void onProgress(long bytesTransferred, long totalBytes);
+    }
+
+    /**
+     * An upload in progress.
+     */
+    public final class Upload {
+        private final String path;
+        // SHA-256 of the bytes, or null for a resumed upload recorded without one
+        @Nullable private final String digest;
+        private final TaskCompletionSource<Uri> result = new TaskCompletionSource<>();
+        private final List<ProgressListener> listeners = new CopyOnWriteArrayList<>();
+        private UploadTask task;
+        private boolean cancelled;
+
+        private Upload(String path, @Nullable String digest) {
+            this.path = path;
+            this.digest = digest;
+        }
+
+        /**
+         * @return Storage path being uploaded to
+         */
+        public String getPath() {
+            return path;
+        }
+
+        /**
+         * @return a task with the download URL once the upload succeeds; failed with a
+         *         {@link CancellationException} if it is cancelled
+         */
+        public Task<Uri> getResult() {
+            return result.getTask();
+        }
+
+        /**
+         * @param listener receives progress from now on
+         * @return this upload
+         */
+        public Upload addProgressListener(@NonNull ProgressListener listener) {
+            listeners.add(listener);
+            return this;
+        }
+
+        /**
+         * Stops sending without giving up the session; {@link #resume()} continues it.
+         *
+         * @return whether the upload was running and is now paused
+         */
+        public synchronized boolean pause() {
+            return task != null && task.pause();
+        }
+
+        /**
+         * Continues a paused upload.
+         *
+         * @return whether the upload was paused and is now running
+         */
+        public synchronized boolean resume() {
+            return task != null && task.resume();
+        }
+
+        /**
+         * Cancels the upload and deletes its staged file and record.
+         *
+         * @return false if the upload had already finished
+         */
+        public boolean cancel() {
+            synchronized (this) {
+                if (result.getTask().isComplete()) return false;
+                cancelled = true;
+                if (task != null) return task.cancel();
+            }
+            // Not started yet; the staging step sees the flag and finishes it
+            return true;
+        }
+
+        private synchronized boolean isCancelled() {
+            return cancelled;
+        }
+    }
+
+    private final FirebaseStorage storage;
+    private final Context appContext;
+    private final File dir;
+
+    /**
+     * @param context any Context; the application context will be used
+     */
+    public ResumableUploadManager(Context context) {
+        this(context, FirebaseStorage.getInstance());
+    }
+
+    /**
+     * @param context any Context; the application context will be used
+     * @param storage Storage instance to upload to, e.g. one connected to the emulator
+     */
+    public ResumableUploadManager(Context context, FirebaseStorage storage) {
+        this.appContext = context.getApplicationContext();
+        this.storage = storage;
+        this.dir = new File(appContext.getNoBackupFilesDir(), DIR);
+    }
+
+    /**
+     * Stages bytes on disk and starts uploading them, replacing any upload of other bytes to the
+     * same path. If the same bytes are already being sent to the path, that upload is returned;
+     * if an earlier upload of them was interrupted, its saved session is continued.
+     *
+     * @param path        Storage path to upload to
+     * @param data        the bytes
+     * @param contentType MIME type stored with the object
+     * @return the upload
+     */
+    public Upload upload(@NonNull String path, @NonNull byte[] data, @NonNull String contentType) {
+        String digest = sha256(data);
+        Upload upload = new Upload(path, digest);
+        Upload previous;
+        synchronized (ACTIVE) {
+            previous = ACTIVE.get(path);
+            if (previous != null && digest.equals(previous.digest) && !previous.result.getTask().isComplete()) {
+                return previous;
+            }
+            ACTIVE.put(path, upload);
+        }
+        if (previous != null) previous.cancel();
+
+        STAGING.execute(() -> {
+            try {
+                Uri session = savedSession(path, digest, contentType);
+                if (session != null) {
+                    Log.d(TAG, "Upload to " + path + " continues its saved session");
+                } else {
+                    File file = fileFor(path);
+                    File partial = new File(dir, file.getName() + ".part");
+                    if (!dir.isDirectory() && !dir.mkdirs()) throw new IOException("Cannot create " + dir);
+                    try (FileOutputStream out = new FileOutputStream(partial)) {
+                        out.write(data);
+                        out.getFD().sync();
+                    }
+                    if (!partial.renameTo(file)) throw new IOException("Cannot write " + file);
+                    saveRecord(path, contentType, digest, null);
+                }
+                start(upload, contentType, session);
+            } catch (IOException e) {
+                Log.e(TAG, "Failed to stage upload to " + path, e);
+                finish(upload, null, e);
+            }
+        });
+        return upload;
+    }
+
+    /**
+     * Restarts every persisted upload that is not running in this process, continuing its
+     * session where there is one.
+     *
+     * @return the restarted uploads
+     */
+    public List<Upload> resumePending() {
+        List<Upload> resumed = new ArrayList<>();
+        SharedPreferences sp = prefs();
+        for (String key : new ArrayList<>(sp.getAll().keySet())) {
+            if (!key.startsWith(KEY_UPLOAD_PREFIX)) continue;
+            String path = key.substring(KEY_UPLOAD_PREFIX.length());
+            JSONObject record = readRecord(sp.getString(key, null));
+            Upload upload = new Upload(path, record != null ? record.optString("sha256", null) : null);
+            synchronized (ACTIVE) {
+                if (ACTIVE.containsKey(path)) continue;
+                ACTIVE.put(path, upload);
+            }
+            if (record == null || !fileFor(path).isFile()) {
+                Log.w(TAG, "resumePending: dropping upload to " + path + " with no staged file");
+                finish(upload, null, new IOException("Nothing staged for " + path));
+                continue;
+            }
+            String session = record.optString("session", null);
+            Log.d(TAG, "resumePending: resuming upload to " + path + (session != null ? " in its session" : ""));
+            start(upload, record.optString("contentType", "application/octet-stream"),
+                    session != null ? Uri.parse(session) : null);
+            resumed.add(upload);
+        }
+        return resumed;
+    }
+
+    /**
+     * Runs an action on the main thread the next time the device gets a network back after
+     * losing it, e.g. {@link #resumePending()} after an upload failed on a dropped connection.
+     * While one action is waiting, further calls are ignored.
+     *
+     * @param action the action to run
+     */
+    public void runWhenReconnected(@NonNull Runnable action) {
+        if (!WAITING_FOR_NETWORK.compareAndSet(false, true)) return;
+        ConnectivityManager cm = appContext.getSystemService(ConnectivityManager.class);
+        if (cm == null) {
+            WAITING_FOR_NETWORK.set(false);
+            return;
+        }
+        Handler main = new Handler(Looper.getMainLooper());
+        boolean offline = cm.getActiveNetwork() == null;
+        cm.registerDefaultNetworkCallback(new ConnectivityManager.NetworkCallback() {
+            // Whether the network in use when the callback was registered has gone
+            private boolean lost = offline;
+
+            @Override
+            public void onLost(@NonNull Network network) {
+                lost = true;
+            }
+
+            @Override
+            public void onAvailable(@NonNull Network network) {
+                // The network already up when registering is reported at once; wait for a new one
+                if (!lost) return;
+                cm.unregisterNetworkCallback(this);
+                WAITING_FOR_NETWORK.set(false);
+                main.post(action);
+            }
+        });
+    }
+
+    /**
+     * Cancels the upload to a path, if one is running in this process.
+     *
+     * @param path Storage path
+     * @return whether an upload was cancelled
+     */
+    public boolean cancel(@NonNull String path) {
+        Upload upload;
+        synchronized (ACTIVE) {
+            upload = ACTIVE.get(path);
+        }
+        return upload != null && upload.cancel();
+    }
+
+    /**
+     * @return Storage paths of the uploads persisted and not yet finished
+     */
+    List<String> pendingPaths() {
+        List<String> paths = new ArrayList<>();
+        for (String key : prefs().getAll().keySet()) {
+            if (key.startsWith(KEY_UPLOAD_PREFIX)) paths.add(key.substring(KEY_UPLOAD_PREFIX.length()));
+        }
+        return paths;
+    }
+
+    private void start(Upload upload, String contentType, @Nullable Uri session) {
+        String path = upload.path;
+        StorageReference ref = storage.getReference(path);
+        StorageMetadata metadata = new StorageMetadata.Builder().setContentType(contentType).build();
+        Uri file = Uri.fromFile(fileFor(path));
+        UploadTask task = session != null ? ref.putFile(file, metadata, session) : ref.putFile(file, metadata);
+        synchronized (upload) {
+            upload.task = task;
+            if (upload.cancelled) task.cancel();
+        }
+
+        Uri[] saved = {session};
+        task.addOnProgressListener(snapshot -> {
+            Uri current = snapshot.getUploadSessionUri();
+            if (current != null && !current.equals(saved[0])) {
+                saved[0] = current;
+                saveRecord(path, contentType, upload.digest, current);
+            }
+            for (ProgressListener l : upload.listeners) {
+                l.onProgress(snapshot.getBytesTransferred(), snapshot.getTotalByteCount());
+            }
+        }).addOnCompleteListener(done -> {
+            if (done.isSuccessful()) {
+                ref.getDownloadUrl().addOnCompleteListener(url -> finish(upload,
+                        url.isSuccessful() ? url.getResult() : null, url.getException()));
+            } else if (done.isCanceled() || upload.isCancelled()) {
+                finish(upload, null, new CancellationException("Upload to " + path + " cancelled"));
+            } else if (session != null && !isRecoverable(done.getException())) {
+                // The saved session has expired or was rejected; start a new one
+                Log.w(TAG, "Session for " + path + " rejected; starting over", done.getException());
+                saveRecord(path, contentType, upload.digest, null);
+                start(upload, contentType, null);
+            } else if (isRecoverable(done.getException())) {
+                // Keep the file and session for resumePending
+                Log.w(TAG, "Upload to " + path + " interrupted; kept for resume", done.getException());
+                synchronized (ACTIVE) {
+                    if (ACTIVE.get(path) == upload) ACTIVE.remove(path);
+                }
+                upload.result.trySetException(done.getException());
+            } else {
+                finish(upload, null, done.getException());
+            }
+        });
+    }
+
+    /**
+     * Completes an upload and removes its staged file and record, unless a newer upload to the
+     * same path has replaced it.
+     */
+    private void finish(Upload upload, @Nullable Uri url, @Nullable Exception e) {
+        boolean current;
+        synchronized (ACTIVE) {
+            current = ACTIVE.get(upload.path) == upload;
+            if (current) ACTIVE.remove(upload.path);
+        }
+        if (current) {
+            prefs().edit().remove(KEY_UPLOAD_PREFIX + upload.path).apply();
+            File file = fileFor(upload.path);
+            if (file.exists() && !file.delete()) Log.w(TAG, "Failed to delete " + file);
+        }
+        if (url != null) {
+            upload.result.trySetResult(url);
+        } else {
+            upload.result.trySetException(e != null ? e : new IOException("Upload to " + upload.path + " failed"));
+        }
+    }
+
+    /**
+     * @return whether an upload that failed with {@code e} may succeed if resumed later
+     */
+    static boolean isRecoverable(@Nullable Exception e) {
+        if (!(e instanceof StorageException)) return e instanceof IOException;
+        StorageException se = (StorageException) e;
+        return se.getIsRecoverableException()
+                || se.getErrorCode() == StorageException.ERROR_RETRY_LIMIT_EXCEEDED;
+    }
+
+    private File fileFor(String path) {
+        return new File(dir, Uri.encode(path));
+    }
+
+    private SharedPreferences prefs() {
+        return appContext.getSharedPreferences(PREFS, Context.MODE_PRIVATE);
+    }
+
+    /**
+     * @return the persisted session of an interrupted upload of the same bytes to {@code path},
+     *         or null if there is none or its staged file is gone
+     */
+    @Nullable
+    private Uri savedSession(String path, String digest, String contentType) {
+        JSONObject record = readRecord(prefs().getString(KEY_UPLOAD_PREFIX + path, null));
+        if (record == null || !digest.equals(record.optString("sha256", null))
+                || !contentType.equals(record.optString("contentType", null))
+                || !fileFor(path).isFile()) {
+            return null;
+        }
+        String session = record.optString("session", null);
+        return session != null ? Uri.parse(session) : null;
+    }
+
+    private void saveRecord(String path, String contentType, @Nullable String digest, @Nullable Uri session) {
+        try {
+            JSONObject record = new JSONObject();
+            record.put("contentType", contentType);
+            if (digest != null) record.put("sha256", digest);
+            if (session != null) record.put("session", session.toString());
+            prefs().edit().putString(KEY_UPLOAD_PREFIX + path, record.toString()).apply();
+        } catch (JSONException e) {
+            Log.e(TAG, "Failed to save upload record for " + path, e);
+        }
+    }
+
+    private static String sha256(byte[] data) {
+        try {
+            return Base64.encodeToString(MessageDigest.getInstance("SHA-256").digest(data), Base64.NO_WRAP);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Nullable
+    private static JSONObject readRecord(@Nullable String json) {
+        if (json == null) return null;
+        try {
+            return new JSONObject(json);
+        } catch (JSONException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,177 @@
+package com.example.fairdraw.ServiceUtility;
+
+import android.util.Log;
+
+import androidx.annotation.Nullable;
+
+import com.example.fairdraw.DBs.UserDB;
+import com.example.fairdraw.Models.User;
+import com.example.fairdraw.Others.ExpiringLruCache;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Process-wide cache of {@link User} profiles, shared by every list that shows entrant names.
+ *
+ * <p>Missing profiles are fetched with {@link #prefetch(Collection)}, which skips ids that are
+ * cached or already being fetched and looks the rest up {@value UserDB#WHERE_IN_LIMIT} at a
+ * time. Ids without a user document are remembered for a shorter time so they are not looked
+ * up again on every bind. Registered {@link Listener}s are told which ids changed whenever
+ * profiles arrive, are written through {@link UserDB}, or are invalidated.</p>
+ *
+ * <p>Call from the main thread.</p>
+ */
+public class UserProfileCache {
+
+    private static final String TAG = "UserProfileCache";
+
+    private static final int MAX_ENTRIES = 2000;
+    private static final long TTL_MILLIS = 10 * 60 * 1000L;
+    private static final long MISSING_TTL_MILLIS = 2 * 60 * 1000L;
+
+    private static UserProfileCache instance;
+
+    /**
+     * Looks up a chunk of users; {@link UserDB#getUsersByIds} in production.
+     */
+    public interface Loader {
+        void getUsersByIds(List<String> ids, UserDB.GetUsersByIdCallback cb);
+    }
+
+    /**
+     * Notified when cached profiles change.
+     */
+    public interface Listener {
+        /**
+         * @param deviceIds ids whose profile was loaded, updated or invalidated
+         */
+        void onUsersChanged(Set<String> deviceIds);
+    }
+
+    private final ExpiringLruCache<String, User> cache;
+    private final Loader loader;
+    private final Set<String> inFlight = new HashSet<>();
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+
+    /**
+     * @return the shared cache
+     */
+    public static synchronized UserProfileCache getInstance() {
+        if (instance == null) {
+            instance = new UserProfileCache(
+                    new ExpiringLruCache<>(MAX_ENTRIES, TTL_MILLIS, MISSING_TTL_MILLIS),
+                    UserDB::getUsersByIds);
+        }
+        return instance;
+    }
+
+    UserProfileCache(ExpiringLruCache<String, User> cache, Loader loader) {
+        this.cache = cache;
+        this.loader = loader;
+    }
+
+    /**
+     * @param deviceId device id
+     * @return the cached user, or null if not cached or known to be missing
+     */
+    @Nullable
+    public User peek(String deviceId) {
+        return cache.peek(deviceId);
+    }
+
+    /**
+     * @param deviceId device id
+     * @return true if the id has been resolved, either to a user or to "no such user"
+     */
+    public boolean isResolved(String deviceId) {
+        return cache.get(deviceId) != null;
+    }
+
+    /**
+     * Fetches every id that is neither cached nor already being fetched.
+     *
+     * @param deviceIds ids to make available; null entries are ignored
+     * @return number of lookups started
+     */
+    public int prefetch(Collection<String> deviceIds) {
+        List<String> toFetch = new ArrayList<>();
+        for (String id : new LinkedHashSet<>(deviceIds)) {
+            if (id == null || inFlight.contains(id) || cache.get(id) != null) continue;
+            toFetch.add(id);
+        }
+        int lookups = 0;
+        for (int from = 0; from < toFetch.size(); from += UserDB.WHERE_IN_LIMIT) {
+            List<String> chunk = new ArrayList<>(
+                    toFetch.subList(from, Math.min(from + UserDB.WHERE_IN_LIMIT, toFetch.size())));
+            inFlight.addAll(chunk);
+            loader.getUsersByIds(chunk, (users, e) -> onLoaded(chunk, users, e));
+            lookups++;
+        }
+        return lookups;
+    }
+
+    private void onLoaded(List<String> chunk, @Nullable Map<String, User> users, @Nullable Exception e) {
+        chunk.forEach(inFlight::remove);
+        if (users == null) {
+            // Leave the ids uncached so the next bind tries again
+            Log.w(TAG, "User lookup failed", e);
+            return;
+        }
+        for (String id : chunk) {
+            User user = users.get(id);
+            if (user != null) {
+                cache.put(id, user);
+            } else {
+                cache.putMissing(id);
+            }
+        }
+        notifyChanged(new HashSet<>(chunk));
+    }
+
+    /**
+     * Stores a profile that was just written, so lists show the new value without a read.
+     *
+     * @param user the written user
+     */
+    public void put(User user) {
+        if (user == null || user.getDeviceId() == null) return;
+        cache.put(user.getDeviceId(), user);
+        notifyChanged(Collections.singleton(user.getDeviceId()));
+    }
+
+    /**
+     * Drops a profile so it is fetched again on next use.
+     *
+     * @param deviceId device id
+     */
+    public void invalidate(String deviceId) {
+        cache.invalidate(deviceId);
+        notifyChanged(Collections.singleton(deviceId));
+    }
+
+    /**
+     * @param listener listener to add
+     */
+    public void addListener(Listener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * @param listener listener to remove
+     */
+    public void removeListener(Listener listener) {
+        listeners.remove(listener);
+    }
+
+    private void notifyChanged(Set<String> deviceIds) {
+        for (Listener l : listeners) l.onUsersChanged(deviceIds);
+    }
+}
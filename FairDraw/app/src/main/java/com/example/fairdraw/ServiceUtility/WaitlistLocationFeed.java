@@ -0,0 +1,252 @@
+package com.example.fairdraw.ServiceUtility;
+
+import android.util.Log;
+
+import androidx.annotation.Nullable;
+
+import com.example.fairdraw.DBs.EventDB;
+import com.example.fairdraw.Models.Event;
+import com.example.fairdraw.Others.GeoHash;
+import com.google.firebase.firestore.DocumentChange;
+import com.google.firebase.firestore.ListenerRegistration;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Live view of the waitlist locations of one event, loaded only for the areas the map has
+ * shown.
+ *
+ * <p>{@link #setViewport(double, double, double, double)} covers the viewport with a few
+ * geohash cells ({@link GeoHash#coveringPrefixes}) and listens to one range query per cell
+ * that is not already covered by a listener, replacing any finer listeners inside it. Panning
+ * back over an area therefore costs no reads, and joins and leaves inside it arrive as they
+ * happen. The number of listeners is bounded; the oldest are removed first, together with the
+ * locations only they covered. Listeners are told which locations are real joins, leaves and
+ * moves, as opposed to locations loaded or dropped with an area.</p>
+ *
+ * <p>Call from the main thread.</p>
+ */
+public class WaitlistLocationFeed {
+
+    private static final String TAG = "WaitlistLocationFeed";
+
+    /** Largest number of range queries a single viewport is covered with. */
+    public static final int MAX_RANGES_PER_VIEWPORT = 9;
+    /** Largest number of range listeners kept open. */
+    public static final int MAX_RANGES = 36;
+
+    /**
+     * Receives every loaded location whenever one of them changes.
+     */
+    public interface Listener {
+        /**
+         * @param locations device id -> location, for every location loaded so far
+         * @param joined    {lat, lng} of entrants that joined, or moved there, inside an area
+         *                  that was already loaded
+         * @param left      {lat, lng} of entrants that left, or moved away from there
+         */
+        void onLocations(Map<String, Event.EntrantLocation> locations,
+                         List<double[]> joined, List<double[]> left);
+    }
+
+    /**
+     * Listens to the locations whose geohash starts with a prefix;
+     * {@link EventDB#getWaitlistLocationsQuery(String, String)} in production.
+     */
+    interface RangeSource {
+        Subscription listen(String prefix, RangeCallback callback);
+    }
+
+    /** An open range listener. */
+    interface Subscription {
+        void remove();
+    }
+
+    /** Changes delivered by one range snapshot. */
+    interface RangeCallback {
+        /**
+         * @param upserted locations added or moved, by device id
+         * @param removed  device ids that left the range
+         */
+        void onChanges(Map<String, Event.EntrantLocation> upserted, Set<String> removed);
+    }
+
+    private final RangeSource source;
+    private final Listener listener;
+    // Open listeners by prefix, oldest first
+    private final LinkedHashMap<String, Subscription> ranges = new LinkedHashMap<>();
+    // Prefixes of the open listeners that have delivered their first snapshot
+    private final Set<String> loaded = new HashSet<>();
+    private final Map<String, Event.EntrantLocation> locations = new HashMap<>();
+    private final Map<String, String> geohashes = new HashMap<>();
+
+    /**
+     * @param eventId  event whose waitlist locations are loaded
+     * @param listener receives the loaded locations
+     */
+    public WaitlistLocationFeed(String eventId, Listener listener) {
+        this(firestoreSource(eventId), listener);
+    }
+
+    WaitlistLocationFeed(RangeSource source, Listener listener) {
+        this.source = source;
+        this.listener = listener;
+    }
+
+    private static RangeSource firestoreSource(String eventId) {
+        return (prefix, callback) -> {
+            ListenerRegistration reg = EventDB.getWaitlistLocationsQuery(eventId, prefix)
+                    .addSnapshotListener((qs, e) -> {
+                        if (e != null || qs == null) {
+                            Log.w(TAG, "Location listener failed for prefix '" + prefix + "'", e);
+                            return;
+                        }
+                        Map<String, Event.EntrantLocation> upserted = new HashMap<>();
+                        Set<String> removed = new HashSet<>();
+                        for (DocumentChange dc : qs.getDocumentChanges()) {
+                            String id = dc.getDocument().getId();
+                            Event.EntrantLocation loc = dc.getType() == DocumentChange.Type.REMOVED
+                                    ? null : EventDB.toEntrantLocation(dc.getDocument());
+                            if (loc != null) upserted.put(id, loc); else removed.add(id);
+                        }
+                        callback.onChanges(upserted, removed);
+                    });
+            return reg::remove;
+        };
+    }
+
+    /**
+     * Makes sure the locations inside the given bounds are loaded and kept up to date.
+     * Bounds that cross the antimeridian ({@code west > east}) are handled.
+     *
+     * @param south southern latitude of the viewport
+     * @param west  western longitude of the viewport
+     * @param north northern latitude of the viewport
+     * @param east  eastern longitude of the viewport
+     * @return number of range listeners opened
+     */
+    public int setViewport(double south, double west, double north, double east) {
+        int opened = 0;
+        for (String prefix : GeoHash.coveringPrefixes(south, west, north, east, MAX_RANGES_PER_VIEWPORT)) {
+            String covering = coveringRange(prefix);
+            if (covering != null) {
+                // Still in view, so move it to the back of the eviction order
+                ranges.put(covering, ranges.remove(covering));
+                continue;
+            }
+            // A coarser cell replaces the finer listeners inside it; their locations stay
+            Iterator<Map.Entry<String, Subscription>> it = ranges.entrySet().iterator();
+            while (it.hasNext()) {
+                Map.Entry<String, Subscription> entry = it.next();
+                if (entry.getKey().startsWith(prefix)) {
+                    entry.getValue().remove();
+                    loaded.remove(entry.getKey());
+                    it.remove();
+                }
+            }
+            ranges.put(prefix, source.listen(prefix,
+                    (upserted, removed) -> onChanges(prefix, upserted, removed)));
+            opened++;
+        }
+        while (ranges.size() > MAX_RANGES) evictOldest();
+        return opened;
+    }
+
+    /**
+     * @return number of range listeners open
+     */
+    public int rangeCount() {
+        return ranges.size();
+    }
+
+    /**
+     * @return geohash prefixes of the areas whose locations are loaded and kept up to date
+     */
+    public Set<String> loadedPrefixes() {
+        return new HashSet<>(loaded);
+    }
+
+    /**
+     * Removes every listener. The feed can be used again with {@link #setViewport}.
+     */
+    public void stop() {
+        for (Subscription s : ranges.values()) s.remove();
+        ranges.clear();
+        loaded.clear();
+        locations.clear();
+        geohashes.clear();
+    }
+
+    @Nullable
+    private String coveringRange(String geohash) {
+        for (String prefix : ranges.keySet()) {
+            if (geohash.startsWith(prefix)) return prefix;
+        }
+        return null;
+    }
+
+    private void evictOldest() {
+        Iterator<Map.Entry<String, Subscription>> it = ranges.entrySet().iterator();
+        Map.Entry<String, Subscription> oldest = it.next();
+        oldest.getValue().remove();
+        loaded.remove(oldest.getKey());
+        it.remove();
+
+        // Drop the locations nothing listens to any more, since they would no longer be updated
+        Iterator<Map.Entry<String, String>> hashes = geohashes.entrySet().iterator();
+        while (hashes.hasNext()) {
+            Map.Entry<String, String> entry = hashes.next();
+            if (entry.getValue().startsWith(oldest.getKey()) && coveringRange(entry.getValue()) == null) {
+                locations.remove(entry.getKey());
+                hashes.remove();
+            }
+        }
+        // Delivered even if nothing was dropped, since what is loaded has changed
+        deliver(Collections.emptyList(), Collections.emptyList());
+    }
+
+    private void onChanges(String prefix, Map<String, Event.EntrantLocation> upserted, Set<String> removed) {
+        if (!ranges.containsKey(prefix)) return;
+        // The first snapshot of a range loads its area; only later ones are joins and leaves
+        boolean loading = loaded.add(prefix);
+        List<double[]> joined = new ArrayList<>();
+        List<double[]> left = new ArrayList<>();
+        for (String id : removed) {
+            // Ignore a location that has already moved into a cell another listener reported
+            String geohash = geohashes.get(id);
+            if (geohash == null || !geohash.startsWith(prefix)) continue;
+            left.add(point(locations.remove(id)));
+            geohashes.remove(id);
+        }
+        for (Map.Entry<String, Event.EntrantLocation> entry : upserted.entrySet()) {
+            Event.EntrantLocation loc = entry.getValue();
+            Event.EntrantLocation old = locations.put(entry.getKey(), loc);
+            geohashes.put(entry.getKey(),
+                    GeoHash.encode(loc.getLat(), loc.getLng(), GeoHash.DEFAULT_PRECISION));
+            if (old == null) {
+                if (!loading) joined.add(point(loc));
+            } else if (!old.getLat().equals(loc.getLat()) || !old.getLng().equals(loc.getLng())) {
+                left.add(point(old));
+                joined.add(point(loc));
+            }
+        }
+        // A newly loaded area is delivered even if empty, since what is loaded has changed
+        if (loading || !joined.isEmpty() || !left.isEmpty()) deliver(joined, left);
+    }
+
+    private static double[] point(Event.EntrantLocation loc) {
+        return new double[]{loc.getLat(), loc.getLng()};
+    }
+
+    private void deliver(List<double[]> joined, List<double[]> left) {
+        listener.onLocations(new HashMap<>(locations), joined, left);
+    }
+}
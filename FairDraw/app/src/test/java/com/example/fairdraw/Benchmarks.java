@@ -0,0 +1,27 @@
+package com.example.fairdraw;
+
+import org.junit.Assume;
+
+/**
+ * Switch for the timing benchmarks under src/test ({@code *Benchmark} classes).
+ * <p>
+ * They are skipped by default so ordinary unit test runs stay fast, and run only when the
+ * {@value #PROPERTY} system property is true, e.g. with
+ * {@code ./gradlew testDebugUnitTest -Pbenchmarks --tests '*Benchmark'}.
+ * A benchmark fails if the optimized path is not faster than the one it replaced; the timings
+ * are in the failure message.
+ */
+public final class Benchmarks {
+
+    /** System property that enables the benchmarks. */
+    public static final String PROPERTY = "fairdraw.benchmarks";
+
+    private Benchmarks() {}
+
+    /**
+     * Skips the calling test unless benchmarks are enabled. Call first in each benchmark.
+     */
+    public static void assumeEnabled() {
+        Assume.assumeTrue("Benchmarks are disabled; run with -Pbenchmarks", Boolean.getBoolean(PROPERTY));
+    }
+}
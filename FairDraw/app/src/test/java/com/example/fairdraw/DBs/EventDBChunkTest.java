@@ -0,0 +1,36 @@
+package com.example.fairdraw.DBs;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Unit tests for {@link EventDB#chunk(List, int)}, which splits id lists for whereIn queries.
+ */
+public class EventDBChunkTest {
+
+    private static List<String> ids(int n) {
+        List<String> ids = new ArrayList<>();
+        for (int i = 0; i < n; i++) ids.add("e" + i);
+        return ids;
+    }
+
+    @Test
+    public void chunk_twoHundredIdsTakeSevenQueries() {
+        List<List<String>> chunks = EventDB.chunk(ids(200), EventDB.WHERE_IN_LIMIT);
+        assertEquals(7, chunks.size());
+        for (int i = 0; i < 6; i++) assertEquals(30, chunks.get(i).size());
+        assertEquals(20, chunks.get(6).size());
+        assertEquals("e0", chunks.get(0).get(0));
+        assertEquals("e199", chunks.get(6).get(19));
+    }
+
+    @Test
+    public void chunk_exactMultipleHasNoEmptyTail() {
+        assertEquals(2, EventDB.chunk(ids(60), EventDB.WHERE_IN_LIMIT).size());
+        assertTrue(EventDB.chunk(ids(0), EventDB.WHERE_IN_LIMIT).isEmpty());
+    }
+}
@@ -0,0 +1,47 @@
+package com.example.fairdraw.DBs;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Unit tests for {@link EventDB#waitlistMigrationDelta(List, Set)}, which decides what the
+ * final step of a waiting list migration still has to copy or delete.
+ */
+public class EventDBWaitlistMigrationTest {
+
+    @Test
+    public void delta_copiesJoinsAndDeletesLeavesSinceCopy() {
+        Set<String> copied = new HashSet<>(Arrays.asList("a", "b", "c"));
+        List<String> current = Arrays.asList("a", "c", "d", "e");
+
+        List<List<String>> delta = EventDB.waitlistMigrationDelta(current, copied);
+
+        assertEquals(Arrays.asList("d", "e"), delta.get(0));
+        assertEquals(Collections.singletonList("b"), delta.get(1));
+    }
+
+    @Test
+    public void delta_isEmptyWhenNothingChanged() {
+        Set<String> copied = new HashSet<>(Arrays.asList("a", "b"));
+
+        List<List<String>> delta = EventDB.waitlistMigrationDelta(Arrays.asList("b", "a"), copied);
+
+        assertTrue(delta.get(0).isEmpty());
+        assertTrue(delta.get(1).isEmpty());
+    }
+
+    @Test
+    public void delta_copiesDuplicatedInlineIdsOnce() {
+        List<List<String>> delta = EventDB.waitlistMigrationDelta(
+                Arrays.asList("a", "a", "b"), new HashSet<>());
+
+        assertEquals(Arrays.asList("a", "b"), delta.get(0));
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.fairdraw.DBs;
+
+import static org.junit.Assert.*;
+
+import com.example.fairdraw.Models.Event;
+import com.example.fairdraw.Models.EventCard;
+
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Unit tests for the field masks {@link EventDB} saves events and cards with, which must
+ * cover every mapped property except the poster fields owned by
+ * {@link EventDB#setPosterInfo} and the legacy fields only migrations write.
+ */
+public class EventDBWriteFieldsTest {
+
+    @Test
+    public void eventWrite_leavesPosterFieldsAlone() {
+        for (String poster : EventDB.POSTER_FIELDS) {
+            assertFalse(poster, EventDB.EVENT_WRITE_FIELDS.contains(poster));
+            assertFalse(poster, EventDB.CARD_WRITE_FIELDS.contains(poster));
+        }
+        List<String> event = EventDB.EVENT_WRITE_FIELDS;
+        assertTrue(event.contains("title"));
+        assertTrue(event.contains("posterPath"));
+        assertTrue(event.contains("waitingList"));
+        assertTrue(event.contains("invitedList"));
+        assertTrue(event.contains("eventOpenRegDate"));
+        assertTrue(EventDB.CARD_WRITE_FIELDS.contains("waitingCount"));
+    }
+
+    @Test
+    public void eventWrite_leavesLegacyFieldsAlone() {
+        for (String legacy : EventDB.LEGACY_EVENT_FIELDS) {
+            assertFalse(legacy, EventDB.EVENT_WRITE_FIELDS.contains(legacy));
+            assertFalse(legacy, EventDB.ENTRIES_EVENT_WRITE_FIELDS.contains(legacy));
+        }
+        assertTrue(EventDB.mappedFields(Event.class, Collections.emptySet()).contains("waitlistLocations"));
+    }
+
+    @Test
+    public void entriesEventWrite_leavesWaitingListAlone() {
+        assertFalse(EventDB.ENTRIES_EVENT_WRITE_FIELDS.contains("waitingList"));
+        assertEquals(EventDB.EVENT_WRITE_FIELDS.size() - 1, EventDB.ENTRIES_EVENT_WRITE_FIELDS.size());
+        assertTrue(EventDB.ENTRIES_EVENT_WRITE_FIELDS.contains("invitedList"));
+    }
+
+    @Test
+    public void entriesCardWrite_leavesRolledUpCountsAlone() {
+        assertTrue(EventDB.CARD_WRITE_FIELDS.contains("countsUpdatedAt"));
+        assertFalse(EventDB.ENTRIES_CARD_WRITE_FIELDS.contains("waitingCount"));
+        assertFalse(EventDB.ENTRIES_CARD_WRITE_FIELDS.contains("countsUpdatedAt"));
+        assertEquals(EventDB.CARD_WRITE_FIELDS.size() - 2, EventDB.ENTRIES_CARD_WRITE_FIELDS.size());
+        assertTrue(EventDB.ENTRIES_CARD_WRITE_FIELDS.contains("invitedCount"));
+    }
+
+    @Test
+    public void mappedFields_followFirestoreNaming() {
+        List<String> all = EventDB.mappedFields(Event.class, Collections.emptySet());
+        assertTrue(all.containsAll(EventDB.POSTER_FIELDS));
+        assertTrue(all.contains("uuid"));
+        // Getters that take arguments and getClass are not properties
+        assertFalse(all.contains("joinWaitlistButtonText"));
+        assertFalse(all.contains("class"));
+        assertTrue(EventDB.mappedFields(EventCard.class, Collections.emptySet()).contains("posterUrl"));
+    }
+}
@@ -0,0 +1,79 @@
+package com.example.fairdraw.Models;
+
+import static org.junit.Assert.*;
+
+import com.example.fairdraw.Others.EventState;
+import com.example.fairdraw.Others.FilterUtils;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Unit tests for {@link EventCard}: projection of an event and filtering on the stored counts.
+ */
+public class EventCardTest {
+
+    private static List<String> ids(String prefix, int n) {
+        List<String> ids = new ArrayList<>();
+        for (int i = 0; i < n; i++) ids.add(prefix + i);
+        return ids;
+    }
+
+    private static Event event(String id, int capacity, int enrolled, int invited, int waiting) {
+        Event e = new Event();
+        e.setUuid(id);
+        e.setTitle("Event " + id);
+        e.setState(EventState.PUBLISHED);
+        e.setTags(new ArrayList<>(Arrays.asList("sports")));
+        e.setCapacity(capacity);
+        e.setEnrolledList(ids("e", enrolled));
+        e.setInvitedList(ids("i", invited));
+        e.setWaitingList(ids("w", waiting));
+        return e;
+    }
+
+    @Test
+    public void of_copiesFieldsAndCountsLists() {
+        EventCard card = EventCard.of(event("a", 10, 3, 2, 40));
+
+        assertEquals("a", card.getUuid());
+        assertEquals("Event a", card.getTitle());
+        assertEquals(EventState.PUBLISHED, card.getState());
+        assertEquals(Integer.valueOf(10), card.getCapacity());
+        assertEquals(3, card.getEnrolledCount());
+        assertEquals(2, card.getInvitedCount());
+        assertEquals(40, card.getWaitingCount());
+        assertEquals(Arrays.asList("sports"), card.getTags());
+    }
+
+    @Test
+    public void of_treatsMissingListsAsEmpty() {
+        Event e = new Event();
+        e.setUuid("b");
+        EventCard card = EventCard.of(e);
+        assertEquals(0, card.getWaitingCount());
+        assertEquals(0, card.getEnrolledCount());
+    }
+
+    @Test
+    public void cardFilters_agreeWithEventFilters() {
+        List<Event> events = Arrays.asList(
+                event("free", 10, 2, 2, 0),
+                event("full", 4, 3, 1, 5),
+                event("waiting", 10, 0, 0, 1));
+        List<EventCard> cards = new ArrayList<>();
+        for (Event e : events) cards.add(EventCard.of(e));
+
+        for (int code = -1; code <= 2; code++) {
+            List<Event> expected = FilterUtils.filter(events, "Open", "sport", code);
+            List<EventCard> actual = FilterUtils.filterCards(cards, "Open", "sport", code);
+            assertEquals(expected.size(), actual.size());
+            for (int i = 0; i < expected.size(); i++) {
+                assertEquals(expected.get(i).getUuid(), actual.get(i).getUuid());
+            }
+        }
+    }
+}
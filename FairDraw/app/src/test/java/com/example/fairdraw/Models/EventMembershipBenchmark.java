@@ -0,0 +1,85 @@
+package com.example.fairdraw.Models;
+
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import com.example.fairdraw.Benchmarks;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+/**
+ * Timing check for the {@link Event} membership index with 100k entrants on the waiting list.
+ * <p>
+ * Runs as a plain JUnit test (the app module has no JMH setup) comparing
+ * {@link Event#replaceLotteryWinner(String)} with the previous nested {@code contains} scan.
+ * Skipped unless benchmarks are enabled (see {@link Benchmarks}); fails if the indexed
+ * replacement is not faster.
+ */
+public class EventMembershipBenchmark {
+
+    private static final int WAITING = 100_000;
+    private static final int INVITED = 1_000;
+    private static final int ROUNDS = 5;
+
+    private Event buildEvent() {
+        Event event = new Event("T", "D", INVITED, new Date(), new Date(), "L", "org", 0f, "p", "s");
+        List<String> waiting = new ArrayList<>(WAITING);
+        for (int i = 0; i < WAITING; i++) waiting.add("waiting-" + i);
+        List<String> invited = new ArrayList<>(INVITED);
+        for (int i = 0; i < INVITED; i++) invited.add("invited-" + i);
+        event.setWaitingList(waiting);
+        event.setInvitedList(invited);
+        return event;
+    }
+
+    /** Candidate scan as it was done before the index: contains() on the invited list per entrant. */
+    private static String nestedScanReplace(List<String> waiting, List<String> invited, String oldWinner, Random random) {
+        invited.remove(oldWinner);
+        List<String> candidates = waiting.stream()
+                .filter(person -> !invited.contains(person))
+                .collect(Collectors.toList());
+        String newWinner = candidates.get(random.nextInt(candidates.size()));
+        invited.add(newWinner);
+        waiting.remove(newWinner);
+        return newWinner;
+    }
+
+    @Test
+    public void replaceLotteryWinner_at100kWaitlisted() {
+        Benchmarks.assumeEnabled();
+        Random random = new Random(11);
+        long indexedNanos = 0;
+        long nestedNanos = 0;
+
+        for (int round = 0; round < ROUNDS; round++) {
+            Event indexed = buildEvent();
+            long start = System.nanoTime();
+            String replacement = indexed.replaceLotteryWinner("invited-" + round);
+            indexedNanos += System.nanoTime() - start;
+            assertNotNull(replacement);
+
+            Event nested = buildEvent();
+            start = System.nanoTime();
+            nestedScanReplace(nested.getWaitingList(), nested.getInvitedList(), "invited-" + round, random);
+            nestedNanos += System.nanoTime() - start;
+
+            // Status checks after the replacement are index lookups
+            for (int i = 0; i < WAITING; i += 100) {
+                indexed.canJoinWaitingList("waiting-" + i);
+            }
+            assertTrue(indexed.isInvited(replacement));
+        }
+
+        assertTrue(String.format(Locale.US,
+                "waitlist=%,d invited=%,d  indexed replace=%.2f ms  nested contains replace=%.2f ms",
+                WAITING, INVITED, indexedNanos / (ROUNDS * 1e6), nestedNanos / (ROUNDS * 1e6)),
+                indexedNanos < nestedNanos);
+    }
+}
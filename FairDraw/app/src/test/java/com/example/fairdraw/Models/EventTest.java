@@ -3,11 +3,14 @@ package com.example.fairdraw.Models;
 import static org.junit.Assert.*;
 
 import com.example.fairdraw.R;
+import com.example.fairdraw.Others.EventCounts;
 import com.example.fairdraw.Others.EventState;
 
 import org.junit.Before;
 import org.junit.Test;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Date;
 import java.util.List;
 
@@ -72,6 +75,40 @@ public class EventTest {
         assertEquals(R.string.unavailable, event.getJoinWaitlistButtonText(null));
     }
 
+    @Test
+    public void waitlistEntries_storageFlagAndAppliedMembership() {
+        assertFalse(event.usesWaitlistEntries());
+        event.setWaitlistStorage(Event.WAITLIST_ENTRIES);
+        assertTrue(event.usesWaitlistEntries());
+
+        // The entry listener reports the device's membership without loading the whole list
+        event.applyWaitlistEntry("dev-1", true);
+        event.applyWaitlistEntry("dev-1", true);
+        assertTrue(event.isOnWaitingList("dev-1"));
+        assertEquals(1, event.getWaitingList().size());
+        assertEquals(R.string.on_waitlist, event.getJoinWaitlistButtonText("dev-1"));
+
+        event.applyWaitlistEntry("dev-1", false);
+        assertFalse(event.isOnWaitingList("dev-1"));
+        assertTrue(event.canJoinWaitingList("dev-1"));
+    }
+
+    @Test
+    public void waitingListLimit_usesAppliedCountsOverListSize() {
+        event.setWaitingListLimit(2);
+        event.getWaitingList().add("w1");
+        assertTrue(event.canJoinWaitingList("newdev"));
+
+        // Shards report more entrants than the loaded list holds
+        event.applyCounts(new EventCounts(2, 0, 0, 0));
+        assertFalse(event.canJoinWaitingList("newdev"));
+        assertEquals(R.string.waitlist_full, event.getJoinWaitlistButtonText("newdev"));
+
+        // Without counts the list size applies again
+        event.applyCounts(null);
+        assertTrue(event.canJoinWaitingList("newdev"));
+    }
+
     @Test
     public void drawLotteryWinners_behaviour_counts_and_removal() {
         // empty invited/enrolled; capacity 3
@@ -149,4 +186,61 @@ public class EventTest {
         event.setCapacity(10);
         assertEquals((Integer)10, event.getCapacity());
     }
+
+    @Test
+    public void membershipIndex_tracksSettersAndLotteryMoves() {
+        event.setWaitingList(new ArrayList<>(Arrays.asList("w1", "w2")));
+        event.setInvitedList(new ArrayList<>(Arrays.asList("i1")));
+        assertTrue(event.isOnWaitingList("w1"));
+        assertTrue(event.isInvited("i1"));
+        assertFalse(event.isEnrolled("i1"));
+
+        // Replacing a list through its setter rebuilds the index
+        event.setWaitingList(new ArrayList<>(Arrays.asList("w3")));
+        assertFalse(event.isOnWaitingList("w1"));
+        assertTrue(event.isOnWaitingList("w3"));
+
+        // Lottery methods keep the index in sync
+        event.acceptLotteryWinner("i1");
+        assertTrue(event.isEnrolled("i1"));
+        assertFalse(event.isInvited("i1"));
+        assertFalse(event.canJoinWaitingList("i1"));
+    }
+
+    @Test
+    public void membershipIndex_tracksSameSizeEditsThroughGetters() {
+        event.setWaitingList(new ArrayList<>(Arrays.asList("w1", "w2")));
+        event.setInvitedList(new ArrayList<>(Arrays.asList("i1")));
+        assertTrue(event.isOnWaitingList("w1"));
+
+        // Swap an entry in place; the list keeps its size
+        event.getWaitingList().set(0, "w9");
+        assertFalse(event.isOnWaitingList("w1"));
+        assertTrue(event.isOnWaitingList("w9"));
+
+        // Remove then add, also keeping the size
+        event.getInvitedList().remove("i1");
+        event.getInvitedList().add("i2");
+        assertFalse(event.isInvited("i1"));
+        assertTrue(event.isInvited("i2"));
+        assertTrue(event.canJoinWaitingList("i1"));
+
+        event.getEnrolledList().add("e1");
+        assertTrue(event.isEnrolled("e1"));
+        event.getEnrolledList().clear();
+        event.getEnrolledList().add("e2");
+        assertFalse(event.isEnrolled("e1"));
+        assertTrue(event.isEnrolled("e2"));
+    }
+
+    @Test
+    public void replaceLotteryWinner_skipsCandidatesAlreadyInvited() {
+        event.setInvitedList(new ArrayList<>(Arrays.asList("old", "dup")));
+        event.setWaitingList(new ArrayList<>(Arrays.asList("dup", "fresh")));
+
+        String replacement = event.replaceLotteryWinner("old");
+        assertEquals("fresh", replacement);
+        assertTrue(event.isInvited("fresh"));
+        assertFalse(event.isOnWaitingList("fresh"));
+    }
 }
@@ -0,0 +1,35 @@
+package com.example.fairdraw.Others;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+
+/**
+ * Unit tests for {@link CsvWriter}.
+ */
+public class CsvWriterTest {
+
+    @Test
+    public void escape_quotesOnlyWhenNeeded() {
+        assertEquals("plain", CsvWriter.escape("plain"));
+        assertEquals("", CsvWriter.escape(null));
+        assertEquals("\"a,b\"", CsvWriter.escape("a,b"));
+        assertEquals("\"say \"\"hi\"\"\"", CsvWriter.escape("say \"hi\""));
+        assertEquals("\"two\nlines\"", CsvWriter.escape("two\nlines"));
+    }
+
+    @Test
+    public void writeRow_joinsCellsAndCountsRows() throws IOException {
+        StringWriter out = new StringWriter();
+        CsvWriter csv = new CsvWriter(out);
+        csv.writeRow("DeviceId", "Name");
+        csv.writeRow("d1", null);
+        csv.flush();
+
+        assertEquals("DeviceId,Name\nd1,\n", out.toString());
+        assertEquals(2, csv.getRowsWritten());
+    }
+}
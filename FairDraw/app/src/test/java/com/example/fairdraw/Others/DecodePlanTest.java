@@ -0,0 +1,68 @@
+package com.example.fairdraw.Others;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link DecodePlan}.
+ */
+public class DecodePlanTest {
+
+    private static final int FULL_HD = 1920 * 1080;
+    private static final long MB = 1024 * 1024;
+
+    @Test
+    public void fiftyMegapixels_fitsIn32Mb() {
+        // 8660 x 5774 is about 50 MP, 200 MB as ARGB_8888
+        DecodePlan plan = DecodePlan.of(8660, 5774, 1, FULL_HD, 32 * MB);
+        assertTrue(plan.peakBytes <= 32 * MB);
+        assertEquals(4, plan.sampleSize);
+        assertEquals(2165, plan.decodedWidth);
+        assertEquals(1444, plan.decodedHeight);
+        assertTrue((long) plan.outputWidth * plan.outputHeight <= FULL_HD);
+        // Aspect ratio kept
+        assertEquals(8660.0 / 5774, (double) plan.outputWidth / plan.outputHeight, 0.01);
+    }
+
+    @Test
+    public void tightBudget_samplesFurtherInsteadOfExceedingIt() {
+        DecodePlan plan = DecodePlan.of(8660, 5774, 1, FULL_HD, 4 * MB);
+        assertTrue(plan.peakBytes <= 4 * MB);
+        assertTrue(plan.sampleSize > 4);
+        assertTrue((long) plan.outputWidth * plan.outputHeight < FULL_HD);
+    }
+
+    @Test
+    public void smallUprightImage_decodedAsIsWithoutCopy() {
+        DecodePlan plan = DecodePlan.of(800, 600, 1, FULL_HD, 32 * MB);
+        assertEquals(1, plan.sampleSize);
+        assertFalse(plan.transformed);
+        assertEquals(800, plan.outputWidth);
+        assertEquals(600, plan.outputHeight);
+        assertEquals(800L * 600 * DecodePlan.BYTES_PER_PIXEL, plan.peakBytes);
+    }
+
+    @Test
+    public void rotatedImage_swapsOutputDimensionsAndCountsTheCopy() {
+        // EXIF 6: stored landscape, shown portrait
+        DecodePlan plan = DecodePlan.of(800, 600, 6, FULL_HD, 32 * MB);
+        assertTrue(plan.transformed);
+        assertEquals(600, plan.outputWidth);
+        assertEquals(800, plan.outputHeight);
+        assertEquals(2L * 800 * 600 * DecodePlan.BYTES_PER_PIXEL, plan.peakBytes);
+
+        // A horizontal flip keeps the dimensions
+        DecodePlan flipped = DecodePlan.of(800, 600, 2, FULL_HD, 32 * MB);
+        assertTrue(flipped.transformed);
+        assertEquals(800, flipped.outputWidth);
+    }
+
+    @Test
+    public void noPixelBudget_decodesFullSizeWhenMemoryAllows() {
+        DecodePlan plan = DecodePlan.of(4000, 3000, 1, 0, 64 * MB);
+        assertEquals(1, plan.sampleSize);
+        assertEquals(4000, plan.outputWidth);
+        assertFalse(plan.transformed);
+    }
+}
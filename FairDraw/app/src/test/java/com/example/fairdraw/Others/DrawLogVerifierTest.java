@@ -0,0 +1,122 @@
+package com.example.fairdraw.Others;
+
+import static org.junit.Assert.*;
+
+import com.example.fairdraw.Models.Event;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Unit tests for seeded draws, {@link DrawLogEntry} and {@link DrawLogVerifier}.
+ */
+public class DrawLogVerifierTest {
+
+    private static Event eventWithWaitlist(int capacity, int waiting) {
+        Event event = new Event("T", "D", capacity, new Date(), new Date(), "L", "org", 0f, "p", "s");
+        List<String> list = new ArrayList<>();
+        for (int i = 0; i < waiting; i++) list.add("dev-" + i);
+        event.setWaitingList(list);
+        return event;
+    }
+
+    @Test
+    public void lotteryRandom_isDeterministicForASeed() {
+        LotteryRandom a = new LotteryRandom(123L);
+        LotteryRandom b = new LotteryRandom(123L);
+        for (int i = 0; i < 100; i++) {
+            assertEquals(a.nextInt(1000), b.nextInt(1000));
+        }
+        assertEquals(a.split().nextLong(), b.split().nextLong());
+    }
+
+    @Test
+    public void seededDraw_isReproducible() {
+        List<String> first = eventWithWaitlist(5, 200).drawLotteryWinners(new LotteryRandom(99L));
+        List<String> second = eventWithWaitlist(5, 200).drawLotteryWinners(new LotteryRandom(99L));
+        assertEquals(first, second);
+    }
+
+    @Test
+    public void loggedDraw_replaysAndVerifiesAgainstWaitlist() {
+        Event event = eventWithWaitlist(10, 500);
+        List<String> before = new ArrayList<>(event.getWaitingList());
+        long seed = 2024L;
+
+        List<Integer> indices = new ArrayList<>();
+        List<String> winners = event.drawLotteryWinners(new LotteryRandom(seed), indices);
+        DrawLogEntry entry = DrawLogEntry.forDraw("event-1", seed, before, indices, winners);
+
+        assertEquals(10, entry.pickIndices.size());
+        for (int i = 0; i < winners.size(); i++) {
+            assertEquals(winners.get(i), before.get(entry.pickIndices.get(i)));
+        }
+        assertTrue(DrawLogVerifier.replay(entry));
+        assertTrue(DrawLogVerifier.verify(entry, before));
+    }
+
+    @Test
+    public void tamperedLog_failsVerification() {
+        Event event = eventWithWaitlist(3, 50);
+        List<String> before = new ArrayList<>(event.getWaitingList());
+        List<Integer> indices = new ArrayList<>();
+        List<String> winners = event.drawLotteryWinners(new LotteryRandom(7L), indices);
+        DrawLogEntry entry = DrawLogEntry.forDraw("event-1", 7L, before, indices, winners);
+
+        // A different seed does not reproduce the picks
+        entry.seed = 8L;
+        assertFalse(DrawLogVerifier.replay(entry));
+        entry.seed = 7L;
+
+        // Swapping a pick for someone else is detected against the waiting list
+        entry.picks.set(0, "someone-else");
+        assertTrue(DrawLogVerifier.replay(entry));
+        assertFalse(DrawLogVerifier.verify(entry, before));
+
+        // A different waiting list does not match the digest
+        entry.picks.set(0, winners.get(0));
+        List<String> altered = new ArrayList<>(before);
+        altered.set(49, "late-joiner");
+        assertFalse(DrawLogVerifier.verify(entry, altered));
+    }
+
+    @Test
+    public void drawThatDisagreesWithReplay_failsVerification() {
+        Event event = eventWithWaitlist(4, 100);
+        List<String> before = new ArrayList<>(event.getWaitingList());
+
+        // The draw code used a different random sequence than the logged seed produces
+        List<Integer> indices = new ArrayList<>();
+        List<String> winners = event.drawLotteryWinners(new LotteryRandom(43L), indices);
+        DrawLogEntry entry = DrawLogEntry.forDraw("event-1", 42L, before, indices, winners);
+
+        // The record is internally consistent: each pick is at its recorded position
+        for (int i = 0; i < winners.size(); i++) {
+            assertEquals(winners.get(i), before.get(entry.pickIndices.get(i)));
+        }
+        // but the seed does not reproduce what the draw did
+        assertFalse(DrawLogVerifier.replay(entry));
+        assertFalse(DrawLogVerifier.verify(entry, before));
+    }
+
+    @Test
+    public void waitlistChunks_rebuildTheListTheDrawSaw() {
+        List<String> before = new ArrayList<>();
+        for (int i = 0; i < DrawLogEntry.WAITLIST_CHUNK_SIZE * 2 + 7; i++) before.add("dev-" + i);
+        Event event = eventWithWaitlist(5, 0);
+        event.setWaitingList(new ArrayList<>(before));
+
+        List<Integer> indices = new ArrayList<>();
+        List<String> winners = event.drawLotteryWinners(new LotteryRandom(5L), indices);
+        DrawLogEntry entry = DrawLogEntry.forDraw("event-1", 5L, before, indices, winners);
+
+        List<List<String>> chunks = DrawLogEntry.waitlistChunks(before);
+        assertEquals(3, chunks.size());
+        List<String> rebuilt = new ArrayList<>();
+        for (List<String> chunk : chunks) rebuilt.addAll(chunk);
+        assertTrue(DrawLogVerifier.verify(entry, rebuilt));
+    }
+}
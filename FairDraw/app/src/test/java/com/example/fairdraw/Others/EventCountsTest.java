@@ -0,0 +1,67 @@
+package com.example.fairdraw.Others;
+
+import static org.junit.Assert.*;
+
+import com.example.fairdraw.Models.Event;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * Unit tests for {@link EventCounts}: counting an event's lists and summing shards.
+ */
+public class EventCountsTest {
+
+    @Test
+    public void of_countsListsAndTreatsMissingAsEmpty() {
+        Event e = new Event();
+        e.setWaitingList(new ArrayList<>(Arrays.asList("a", "b", "c")));
+        e.setInvitedList(new ArrayList<>(Arrays.asList("d")));
+        e.setEnrolledList(null);
+        e.setCancelledList(new ArrayList<>());
+
+        assertEquals(new EventCounts(3, 1, 0, 0), EventCounts.of(e));
+    }
+
+    @Test
+    public void plus_sumsShardsIncludingNegativeDeltas() {
+        // A shard that only saw leaves holds a negative count
+        EventCounts total = new EventCounts(5, 0, 2, 0)
+                .plus(new EventCounts(-1, 3, 0, 1))
+                .plus(new EventCounts(2, 0, 0, 0))
+                .plus(null);
+
+        assertEquals(new EventCounts(6, 3, 2, 1), total);
+    }
+
+    @Test
+    public void minus_givesTheChangeBetweenTwoSaves() {
+        EventCounts before = new EventCounts(4, 2, 1, 0);
+        EventCounts after = new EventCounts(4, 1, 2, 0);
+
+        assertEquals(new EventCounts(0, -1, 1, 0), after.minus(before));
+        assertEquals(after, after.minus(null));
+    }
+
+    @Test
+    public void toMap_usesShardFieldNames() {
+        Map<String, Object> map = new EventCounts(1, 2, 3, 4).toMap();
+
+        assertEquals(4, map.size());
+        assertEquals(1, map.get(EventCounts.WAITING));
+        assertEquals(2, map.get(EventCounts.INVITED));
+        assertEquals(3, map.get(EventCounts.ENROLLED));
+        assertEquals(4, map.get(EventCounts.CANCELLED));
+    }
+
+    @Test
+    public void equalsAndHashCode_compareAllCounts() {
+        assertEquals(new EventCounts(1, 2, 3, 4), new EventCounts(1, 2, 3, 4));
+        assertEquals(new EventCounts(1, 2, 3, 4).hashCode(), new EventCounts(1, 2, 3, 4).hashCode());
+        assertFalse(new EventCounts(1, 2, 3, 4).equals(new EventCounts(1, 2, 3, 5)));
+        assertFalse(new EventCounts().equals(null));
+    }
+}
@@ -0,0 +1,73 @@
+package com.example.fairdraw.Others;
+
+import static org.junit.Assert.*;
+
+import com.example.fairdraw.Models.Event;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Unit tests for {@link EventStore}: applying added/modified/removed changes by id.
+ */
+public class EventStoreTest {
+
+    private static Event event(String id, String title) {
+        Event e = new Event();
+        e.setUuid(id);
+        e.setTitle(title);
+        return e;
+    }
+
+    private static EventStore.Change added(String id, String title) {
+        return new EventStore.Change(EventStore.Change.Type.ADDED, id, event(id, title));
+    }
+
+    @Test
+    public void apply_addsModifiesAndRemovesById() {
+        EventStore store = new EventStore();
+        assertTrue(store.apply(Arrays.asList(added("a", "A"), added("b", "B"), added("c", "C"))));
+        assertEquals(3, store.size());
+
+        store.apply(Collections.singletonList(
+                new EventStore.Change(EventStore.Change.Type.MODIFIED, "b", event("b", "B2"))));
+        assertEquals("B2", store.get("b").getTitle());
+
+        store.apply(Collections.singletonList(
+                new EventStore.Change(EventStore.Change.Type.REMOVED, "a", null)));
+        assertNull(store.get("a"));
+        assertEquals(2, store.size());
+    }
+
+    @Test
+    public void modify_keepsPosition() {
+        EventStore store = new EventStore();
+        store.apply(Arrays.asList(added("a", "A"), added("b", "B"), added("c", "C")));
+        store.apply(Collections.singletonList(
+                new EventStore.Change(EventStore.Change.Type.MODIFIED, "a", event("a", "A2"))));
+
+        List<Event> events = store.getEvents();
+        assertEquals("A2", events.get(0).getTitle());
+        assertEquals("c", events.get(2).getUuid());
+    }
+
+    @Test
+    public void getEvents_isReusedUntilNextChange() {
+        EventStore store = new EventStore();
+        store.apply(Collections.singletonList(added("a", "A")));
+        List<Event> first = store.getEvents();
+        assertSame(first, store.getEvents());
+
+        // Removing an unknown id is not a change
+        assertFalse(store.apply(Collections.singletonList(
+                new EventStore.Change(EventStore.Change.Type.REMOVED, "zzz", null))));
+        assertSame(first, store.getEvents());
+
+        store.apply(Collections.singletonList(added("b", "B")));
+        assertNotSame(first, store.getEvents());
+        assertEquals(2, store.getEvents().size());
+    }
+}
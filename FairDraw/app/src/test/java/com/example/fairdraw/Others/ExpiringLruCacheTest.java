@@ -0,0 +1,65 @@
+package com.example.fairdraw.Others;
+
+import static org.junit.Assert.*;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link ExpiringLruCache}: expiry, negative entries and LRU eviction.
+ */
+public class ExpiringLruCacheTest {
+
+    private long now;
+    private ExpiringLruCache<String, String> cache;
+
+    @Before
+    public void setUp() {
+        now = 1_000;
+        cache = new ExpiringLruCache<>(3, 100, 10, () -> now);
+    }
+
+    @Test
+    public void value_expiresAfterTtl() {
+        cache.put("a", "url-a");
+        now += 99;
+        assertEquals("url-a", cache.peek("a"));
+        now += 1;
+        assertNull(cache.get("a"));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void negativeEntry_isHitUntilItsShorterTtl() {
+        cache.putMissing("b");
+        ExpiringLruCache.Entry<String> e = cache.get("b");
+        assertNotNull(e);
+        assertTrue(e.isNegative());
+        assertNull(cache.peek("b"));
+
+        now += 10;
+        assertNull(cache.get("b"));
+    }
+
+    @Test
+    public void evictsLeastRecentlyUsed() {
+        cache.put("a", "1");
+        cache.put("b", "2");
+        cache.put("c", "3");
+        // Touch "a" so "b" becomes the eldest
+        cache.get("a");
+        cache.put("d", "4");
+
+        assertEquals(3, cache.size());
+        assertNull(cache.get("b"));
+        assertNotNull(cache.get("a"));
+        assertNotNull(cache.get("d"));
+    }
+
+    @Test
+    public void invalidate_removesEntry() {
+        cache.put("a", "1");
+        cache.invalidate("a");
+        assertNull(cache.get("a"));
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.fairdraw.Others;
+
+import static org.junit.Assert.*;
+
+import com.example.fairdraw.Models.AreaStats;
+
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Unit tests for {@link GeoClusterIndex}: key packing, per-level aggregation and viewport
+ * queries.
+ */
+public class GeoClusterIndexTest {
+
+    private static int sum(List<AreaStats> clusters) {
+        int total = 0;
+        for (AreaStats a : clusters) total += a.getCount();
+        return total;
+    }
+
+    @Test
+    public void cellKey_parentIsKeyShiftedByTwo() {
+        // Two points a few metres apart share every cell above the finest levels
+        long a = GeoClusterIndex.cellKey(53.5232, -113.5263);
+        long b = GeoClusterIndex.cellKey(53.52321, -113.52631);
+        assertEquals(a >>> 2 * 8, b >>> 2 * 8);
+        assertTrue(GeoClusterIndex.cellKey(53.5, -113.5) != GeoClusterIndex.cellKey(-33.9, 151.2));
+    }
+
+    @Test
+    public void everyLevel_accountsForAllPoints() {
+        Random rnd = new Random(42);
+        int n = 50_000;
+        double[] lats = new double[n];
+        double[] lngs = new double[n];
+        for (int i = 0; i < n; i++) {
+            lats[i] = 53.3 + rnd.nextDouble() * 0.5;
+            lngs[i] = -113.8 + rnd.nextDouble() * 0.6;
+        }
+        GeoClusterIndex index = GeoClusterIndex.build(lats, lngs, n);
+        assertEquals(n, index.totalCount());
+
+        for (int level = 0; level <= GeoClusterIndex.MAX_LEVEL; level += 4) {
+            assertEquals(n, sum(index.clusters(level, -90, -180, 90, 180)));
+        }
+        assertEquals(1, index.clusters(0, -90, -180, 90, 180).size());
+    }
+
+    @Test
+    public void clusters_centroidAndViewportFiltering() {
+        double[] lats = {10.0, 10.0, 10.0, -40.0};
+        double[] lngs = {20.0, 20.0, 20.0, 170.0};
+        GeoClusterIndex index = GeoClusterIndex.build(lats, lngs, 4);
+        assertEquals(2, index.cellCount());
+
+        List<AreaStats> near = index.clusters(12, 0, 10, 20, 30);
+        assertEquals(1, near.size());
+        assertEquals(3, near.get(0).getCount());
+        assertEquals(10.0, near.get(0).getLat(), 1e-4);
+        assertEquals(20.0, near.get(0).getLng(), 1e-4);
+
+        // Viewport across the antimeridian picks up the point at 170E only
+        List<AreaStats> pacific = index.clusters(12, -50, 160, -30, -170);
+        assertEquals(1, pacific.size());
+        assertEquals(1, pacific.get(0).getCount());
+    }
+
+    @Test
+    public void levelForZoom_isClamped() {
+        assertEquals(12, GeoClusterIndex.levelForZoom(10f));
+        assertEquals(0, GeoClusterIndex.levelForZoom(-5f));
+        assertEquals(GeoClusterIndex.MAX_LEVEL, GeoClusterIndex.levelForZoom(30f));
+    }
+}
@@ -0,0 +1,66 @@
+package com.example.fairdraw.Others;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Unit tests for {@link GeoHash}: encoding against known hashes and bounding-box covers.
+ */
+public class GeoHashTest {
+
+    private static boolean covered(List<String> prefixes, String geohash) {
+        for (String p : prefixes) {
+            if (geohash.startsWith(p)) return true;
+        }
+        return false;
+    }
+
+    @Test
+    public void encode_matchesKnownHashes() {
+        assertEquals("ezs42", GeoHash.encode(42.6, -5.6, 5));
+        assertEquals("u4pruydqqvj", GeoHash.encode(57.64911, 10.40744, 11));
+        assertEquals("c3x2", GeoHash.encode(53.5461, -113.4938, 4));
+    }
+
+    @Test
+    public void encode_longerHashExtendsShorterOne() {
+        String fine = GeoHash.encode(53.5232, -113.5263, GeoHash.DEFAULT_PRECISION);
+        assertEquals(GeoHash.DEFAULT_PRECISION, fine.length());
+        assertTrue(fine.startsWith(GeoHash.encode(53.5232, -113.5263, 5)));
+    }
+
+    @Test
+    public void coveringPrefixes_coverEveryPointInTheBox() {
+        double south = 53.40, west = -113.70, north = 53.65, east = -113.30;
+        List<String> prefixes = GeoHash.coveringPrefixes(south, west, north, east, 9);
+        assertTrue(prefixes.size() <= 9);
+        assertTrue(prefixes.get(0).length() >= 4);
+
+        Random rnd = new Random(7);
+        for (int i = 0; i < 10_000; i++) {
+            double lat = south + rnd.nextDouble() * (north - south);
+            double lng = west + rnd.nextDouble() * (east - west);
+            assertTrue(covered(prefixes, GeoHash.encode(lat, lng, GeoHash.DEFAULT_PRECISION)));
+        }
+    }
+
+    @Test
+    public void coveringPrefixes_handleTheAntimeridian() {
+        List<String> prefixes = GeoHash.coveringPrefixes(-20, 175, -10, -175, 9);
+        assertTrue(prefixes.size() <= 9);
+        assertTrue(covered(prefixes, GeoHash.encode(-15, 179.5, GeoHash.DEFAULT_PRECISION)));
+        assertTrue(covered(prefixes, GeoHash.encode(-15, -179.5, GeoHash.DEFAULT_PRECISION)));
+        assertFalse(covered(prefixes, GeoHash.encode(-15, 0, GeoHash.DEFAULT_PRECISION)));
+    }
+
+    @Test
+    public void coveringPrefixes_fallBackToEverythingForTheWholeWorld() {
+        List<String> prefixes = GeoHash.coveringPrefixes(-90, -180, 90, 180, 9);
+        assertEquals(1, prefixes.size());
+        assertEquals("", prefixes.get(0));
+    }
+}
@@ -0,0 +1,93 @@
+package com.example.fairdraw.Others;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+import java.util.List;
+
+/**
+ * Unit tests for {@link HeatmapRasterizer}: tile math, rendering and edge invalidation.
+ */
+public class HeatmapRasterizerTest {
+
+    private static final double LAT = 53.5461;
+    private static final double LNG = -113.4938;
+
+    private static int[] tileOf(double lat, double lng, int zoom) {
+        double world = HeatmapRasterizer.TILE_SIZE * Math.pow(2, zoom);
+        return new int[]{
+                (int) (HeatmapRasterizer.lngToPixel(lng, world) / HeatmapRasterizer.TILE_SIZE),
+                (int) (HeatmapRasterizer.latToPixel(lat, world) / HeatmapRasterizer.TILE_SIZE)};
+    }
+
+    @Test
+    public void mercator_roundTrips() {
+        double world = HeatmapRasterizer.TILE_SIZE * Math.pow(2, 12);
+        double py = HeatmapRasterizer.latToPixel(LAT, world);
+        assertEquals(LAT, HeatmapRasterizer.pixelToLat(py, world), 1e-9);
+        double px = HeatmapRasterizer.lngToPixel(LNG, world);
+        assertEquals(LNG, HeatmapRasterizer.pixelToLng(px, world), 1e-9);
+    }
+
+    @Test
+    public void rasterize_drawsOnlyTilesNearPoints() {
+        double[] lats = new double[500];
+        double[] lngs = new double[500];
+        for (int i = 0; i < lats.length; i++) {
+            lats[i] = LAT + (i % 10) * 1e-4;
+            lngs[i] = LNG + (i / 10) * 1e-4;
+        }
+        GeoClusterIndex index = GeoClusterIndex.build(lats, lngs, lats.length);
+        HeatmapRasterizer rasterizer = new HeatmapRasterizer();
+
+        int[] t = tileOf(LAT, LNG, 12);
+        int[] pixels = rasterizer.rasterize(index, 12, t[0], t[1]);
+        assertNotNull(pixels);
+        assertEquals(HeatmapRasterizer.TILE_SIZE * HeatmapRasterizer.TILE_SIZE, pixels.length);
+
+        // A tile on the other side of the world has nothing to draw
+        assertNull(rasterizer.rasterize(index, 12, (t[0] + 2048) % 4096, t[1]));
+    }
+
+    @Test
+    public void tilesAffectedBy_includesNeighbourNearEdge() {
+        int zoom = 10;
+        double world = HeatmapRasterizer.TILE_SIZE * Math.pow(2, zoom);
+        // A point two pixels inside the western edge of tile x = 100
+        double lng = HeatmapRasterizer.pixelToLng(100 * HeatmapRasterizer.TILE_SIZE + 2, world);
+        double lat = HeatmapRasterizer.pixelToLat(300 * HeatmapRasterizer.TILE_SIZE + 128, world);
+
+        List<int[]> tiles = HeatmapRasterizer.tilesAffectedBy(lat, lng, zoom);
+        assertEquals(2, tiles.size());
+        assertEquals(99, tiles.get(0)[0]);
+        assertEquals(100, tiles.get(1)[0]);
+        assertEquals(300, tiles.get(0)[1]);
+
+        // In the middle of a tile only that tile is affected
+        double mid = HeatmapRasterizer.pixelToLng(100 * HeatmapRasterizer.TILE_SIZE + 128, world);
+        assertEquals(1, HeatmapRasterizer.tilesAffectedBy(lat, mid, zoom).size());
+    }
+
+    @Test
+    public void tileReach_containsEveryPointThatAffectsTheTile() {
+        int zoom = 10;
+        double world = HeatmapRasterizer.TILE_SIZE * Math.pow(2, zoom);
+        // Two pixels west of tile x = 100, so it still affects that tile
+        double lng = HeatmapRasterizer.pixelToLng(100 * HeatmapRasterizer.TILE_SIZE - 2, world);
+        double lat = HeatmapRasterizer.pixelToLat(300 * HeatmapRasterizer.TILE_SIZE + 128, world);
+        boolean affects = false;
+        for (int[] t : HeatmapRasterizer.tilesAffectedBy(lat, lng, zoom)) {
+            if (t[0] == 100 && t[1] == 300) affects = true;
+        }
+        assertTrue(affects);
+
+        double[] area = HeatmapRasterizer.tileReach(zoom, 100, 300);
+        assertTrue(lat >= area[0] && lat <= area[2]);
+        assertTrue(lng >= area[1] && lng <= area[3]);
+
+        // The westernmost column reaches across the antimeridian
+        double[] edge = HeatmapRasterizer.tileReach(zoom, 0, 300);
+        assertTrue(edge[1] > edge[3]);
+    }
+}
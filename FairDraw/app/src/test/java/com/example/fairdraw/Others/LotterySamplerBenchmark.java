@@ -0,0 +1,85 @@
+package com.example.fairdraw.Others;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import com.example.fairdraw.Benchmarks;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * Timing comparison between the old full-shuffle lottery path and
+ * {@link LotterySampler#drawAndRemove(List, int, Random)} for waiting lists from 1k to 1M entrants.
+ * <p>
+ * The app module is an Android module, so this runs as a plain JUnit test with a warm-up pass
+ * rather than using a separate JMH harness. Skipped unless benchmarks are enabled (see
+ * {@link Benchmarks}); fails if the sampler is not faster than the full shuffle at 1M entrants.
+ */
+public class LotterySamplerBenchmark {
+
+    private static final int SEATS = 5;
+    private static final int WARMUP_ROUNDS = 3;
+    private static final int MEASURED_ROUNDS = 5;
+    private static final int[] SIZES = {1_000, 10_000, 100_000, 1_000_000};
+
+    /** The draw as it was done before: copy, shuffle everything, then copy both halves. */
+    private static List<String> fullShuffleDraw(List<String> waitingList, int numToDraw, Random random) {
+        List<String> copy = new ArrayList<>(waitingList);
+        Collections.shuffle(copy, random);
+        List<String> winners = new ArrayList<>(copy.subList(0, numToDraw));
+        List<String> remaining = new ArrayList<>(copy.subList(numToDraw, copy.size()));
+        waitingList.clear();
+        waitingList.addAll(remaining);
+        return winners;
+    }
+
+    @Test
+    public void compareFullShuffleWithPartialFisherYates() {
+        Benchmarks.assumeEnabled();
+        Random random = new Random(7);
+        StringBuilder report = new StringBuilder();
+        long largestShuffleNanos = 0;
+        long largestPartialNanos = 0;
+        for (int size : SIZES) {
+            List<String> source = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) source.add("device-" + i);
+
+            long shuffleNanos = 0;
+            long partialNanos = 0;
+            for (int round = 0; round < WARMUP_ROUNDS + MEASURED_ROUNDS; round++) {
+                List<String> a = new ArrayList<>(source);
+                long start = System.nanoTime();
+                List<String> w1 = fullShuffleDraw(a, SEATS, random);
+                long mid = System.nanoTime();
+
+                List<String> b = new ArrayList<>(source);
+                long start2 = System.nanoTime();
+                List<String> w2 = LotterySampler.drawAndRemove(b, SEATS, random);
+                long end = System.nanoTime();
+
+                assertEquals(SEATS, w1.size());
+                assertEquals(SEATS, w2.size());
+                assertEquals(size - SEATS, b.size());
+                if (round >= WARMUP_ROUNDS) {
+                    shuffleNanos += mid - start;
+                    partialNanos += end - start2;
+                }
+            }
+
+            report.append(String.format(Locale.US,
+                    "%nwaitlist=%,d  fullShuffle=%.3f ms  partialFisherYates=%.3f ms",
+                    size,
+                    shuffleNanos / (MEASURED_ROUNDS * 1e6),
+                    partialNanos / (MEASURED_ROUNDS * 1e6)));
+            largestShuffleNanos = shuffleNanos;
+            largestPartialNanos = partialNanos;
+        }
+        assertTrue(report.toString(), largestPartialNanos < largestShuffleNanos);
+    }
+}
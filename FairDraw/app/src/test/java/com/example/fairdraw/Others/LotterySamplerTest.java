@@ -0,0 +1,120 @@
+package com.example.fairdraw.Others;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Unit tests for {@link LotterySampler}: pick counts, removal semantics and uniformity.
+ */
+public class LotterySamplerTest {
+
+    private static List<String> names(int n) {
+        List<String> list = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) list.add("dev-" + i);
+        return list;
+    }
+
+    @Test
+    public void drawAndRemove_removesExactlyThePicks() {
+        List<String> waiting = names(100);
+        List<String> drawn = LotterySampler.drawAndRemove(waiting, 5, new Random(1));
+
+        assertEquals(5, drawn.size());
+        assertEquals(95, waiting.size());
+        Set<String> all = new HashSet<>(waiting);
+        all.addAll(drawn);
+        assertEquals(100, all.size());
+        for (String d : drawn) assertFalse(waiting.contains(d));
+    }
+
+    @Test
+    public void drawAndRemove_clampsToListSize_and_handlesEmpty() {
+        List<String> waiting = names(3);
+        assertEquals(3, LotterySampler.drawAndRemove(waiting, 10, new Random(2)).size());
+        assertTrue(waiting.isEmpty());
+        assertTrue(LotterySampler.drawAndRemove(waiting, 2, new Random(2)).isEmpty());
+        assertTrue(LotterySampler.drawAndRemove(null, 2, new Random(2)).isEmpty());
+    }
+
+    @Test
+    public void drawAndRemove_worksOnLinkedList() {
+        List<String> waiting = new LinkedList<>(names(10));
+        List<String> drawn = LotterySampler.drawAndRemove(waiting, 4, new Random(3));
+        assertEquals(4, drawn.size());
+        assertEquals(6, waiting.size());
+    }
+
+    @Test
+    public void sample_doesNotModifySource_and_hasNoDuplicates() {
+        List<String> source = names(1000);
+        List<String> before = new ArrayList<>(source);
+        List<String> drawn = LotterySampler.sample(source, 50, new Random(4));
+
+        assertEquals(before, source);
+        assertEquals(50, drawn.size());
+        assertEquals(50, new HashSet<>(drawn).size());
+    }
+
+    @Test
+    public void reservoirSample_returnsAtMostK() {
+        List<String> source = Arrays.asList("a", "b", "c");
+        assertEquals(3, LotterySampler.reservoirSample(source.iterator(), 5, new Random(5)).size());
+        List<String> drawn = LotterySampler.reservoirSample(names(500).iterator(), 7, new Random(5));
+        assertEquals(7, new HashSet<>(drawn).size());
+    }
+
+    @Test
+    public void allSamplers_areUniform() {
+        int n = 10;
+        int trials = 50_000;
+        int[] removeCounts = new int[n];
+        int[] sampleCounts = new int[n];
+        int[] reservoirCounts = new int[n];
+        Random random = new Random(42);
+
+        for (int t = 0; t < trials; t++) {
+            for (String s : LotterySampler.drawAndRemove(names(n), 2, random)) {
+                removeCounts[Integer.parseInt(s.substring(4))]++;
+            }
+            for (String s : LotterySampler.sample(names(n), 2, random)) {
+                sampleCounts[Integer.parseInt(s.substring(4))]++;
+            }
+            for (String s : LotterySampler.reservoirSample(names(n).iterator(), 2, random)) {
+                reservoirCounts[Integer.parseInt(s.substring(4))]++;
+            }
+        }
+
+        // Each entrant should be picked about trials * 2 / n = 10,000 times.
+        double expected = trials * 2.0 / n;
+        for (int i = 0; i < n; i++) {
+            assertEquals(expected, removeCounts[i], expected * 0.05);
+            assertEquals(expected, sampleCounts[i], expected * 0.05);
+            assertEquals(expected, reservoirCounts[i], expected * 0.05);
+        }
+    }
+
+    @Test
+    public void drawAndRemove_reportsOriginalPositions_matchingPickIndices() {
+        List<String> before = names(1000);
+        List<String> waiting = new ArrayList<>(before);
+        List<Integer> positions = new ArrayList<>();
+
+        List<String> drawn = LotterySampler.drawAndRemove(waiting, 25, new LotteryRandom(3L), positions);
+
+        assertEquals(25, positions.size());
+        int[] replayed = LotterySampler.pickIndices(1000, 25, new LotteryRandom(3L));
+        for (int i = 0; i < drawn.size(); i++) {
+            assertEquals(drawn.get(i), before.get(positions.get(i)));
+            assertEquals(replayed[i], (int) positions.get(i));
+        }
+    }
+}
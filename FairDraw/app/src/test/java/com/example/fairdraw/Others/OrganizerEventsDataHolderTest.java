@@ -0,0 +1,62 @@
+package com.example.fairdraw.Others;
+
+import static org.junit.Assert.*;
+
+import com.example.fairdraw.Models.Event;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Unit tests for {@link OrganizerEventsDataHolder#applyChanges(List)}.
+ */
+public class OrganizerEventsDataHolderTest {
+
+    private static Event event(String id, String title) {
+        Event e = new Event();
+        e.setUuid(id);
+        e.setTitle(title);
+        return e;
+    }
+
+    private static EventStore.Change change(EventStore.Change.Type type, String id, String title) {
+        return new EventStore.Change(type, id, title == null ? null : event(id, title));
+    }
+
+    @After
+    public void tearDown() {
+        OrganizerEventsDataHolder.clear();
+    }
+
+    @Test
+    public void applyChanges_upsertsAndRemovesByUuid() {
+        OrganizerEventsDataHolder.applyChanges(Arrays.asList(
+                change(EventStore.Change.Type.ADDED, "a", "A"),
+                change(EventStore.Change.Type.ADDED, "b", "B"),
+                change(EventStore.Change.Type.ADDED, "c", "C")));
+
+        OrganizerEventsDataHolder.applyChanges(Arrays.asList(
+                change(EventStore.Change.Type.MODIFIED, "b", "B2"),
+                change(EventStore.Change.Type.REMOVED, "a", null)));
+
+        List<Event> events = OrganizerEventsDataHolder.getEvents();
+        assertEquals(2, events.size());
+        assertEquals("B2", events.get(0).getTitle());
+        assertEquals("c", events.get(1).getUuid());
+    }
+
+    @Test
+    public void applyChanges_addedTwiceDoesNotDuplicate() {
+        // A pinned page re-reports its events as ADDED when its listener is re-attached
+        OrganizerEventsDataHolder.applyChanges(Collections.singletonList(
+                change(EventStore.Change.Type.ADDED, "a", "A")));
+        OrganizerEventsDataHolder.applyChanges(Collections.singletonList(
+                change(EventStore.Change.Type.ADDED, "a", "A")));
+
+        assertEquals(1, OrganizerEventsDataHolder.getEvents().size());
+    }
+}
@@ -0,0 +1,71 @@
+package com.example.fairdraw.Others;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Unit tests for {@link PosterRendition}.
+ */
+public class PosterRenditionTest {
+
+    private static Map<String, String> allRenditions() {
+        Map<String, String> urls = new HashMap<>();
+        urls.put("thumb", "t");
+        urls.put("medium", "m");
+        urls.put("full", "f");
+        return urls;
+    }
+
+    @Test
+    public void pickUrl_smallestRenditionAtLeastAsWideAsView() {
+        Map<String, String> urls = allRenditions();
+        assertEquals("t", PosterRendition.pickUrl(urls, "f", 200));
+        assertEquals("t", PosterRendition.pickUrl(urls, "f", 360));
+        assertEquals("m", PosterRendition.pickUrl(urls, "f", 361));
+        assertEquals("m", PosterRendition.pickUrl(urls, "f", 1080));
+        assertEquals("f", PosterRendition.pickUrl(urls, "f", 1440));
+    }
+
+    @Test
+    public void pickUrl_unknownWidthPicksLargest() {
+        assertEquals("f", PosterRendition.pickUrl(allRenditions(), "f", 0));
+    }
+
+    @Test
+    public void pickUrl_skipsRenditionsNotStored() {
+        // A narrow poster only has the renditions narrower than itself
+        Map<String, String> urls = new HashMap<>();
+        urls.put("thumb", "t");
+        urls.put("full", "f");
+        assertEquals("f", PosterRendition.pickUrl(urls, "f", 800));
+        assertEquals("t", PosterRendition.pickUrl(urls, "f", 100));
+    }
+
+    @Test
+    public void pickUrl_fallsBackToPosterUrl() {
+        assertEquals("p", PosterRendition.pickUrl(null, "p", 300));
+        assertEquals("p", PosterRendition.pickUrl(new HashMap<>(), "p", 300));
+        assertNull(PosterRendition.pickUrl(null, null, 300));
+    }
+
+    @Test
+    public void pixelBudget_scalesToMaxWidthKeepingAspectRatio() {
+        // 4000 x 3000 scaled to 360 wide is 360 x 270
+        assertEquals(360 * 270, PosterRendition.THUMB.pixelBudget(4000, 3000));
+        assertEquals(1080 * 810, PosterRendition.MEDIUM.pixelBudget(4000, 3000));
+        assertEquals(0, PosterRendition.MEDIUM.pixelBudget(1000, 3000));
+        assertEquals(0, PosterRendition.FULL.pixelBudget(4000, 3000));
+    }
+
+    @Test
+    public void isNarrowerThan_onlyStoresRenditionsSmallerThanFull() {
+        assertTrue(PosterRendition.FULL.isNarrowerThan(200));
+        assertTrue(PosterRendition.THUMB.isNarrowerThan(1920));
+        assertFalse(PosterRendition.THUMB.isNarrowerThan(360));
+        assertFalse(PosterRendition.MEDIUM.isNarrowerThan(1000));
+    }
+}
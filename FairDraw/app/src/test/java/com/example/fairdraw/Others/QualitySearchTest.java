@@ -0,0 +1,80 @@
+package com.example.fairdraw.Others;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Unit tests for {@link QualitySearch} against modelled JPEG size curves.
+ */
+public class QualitySearchTest {
+
+    // Size grows slowly at low quality and steeply near 100, like a JPEG encoder's output
+    private static int modelSize(int fullSize, int quality) {
+        double q = quality / 100.0;
+        return (int) (fullSize * (0.12 + 0.25 * q + 0.63 * Math.pow(q, 4)));
+    }
+
+    private static final class Recorder implements QualitySearch.Encoder {
+        final int fullSize;
+        final List<Integer> tried = new ArrayList<>();
+
+        Recorder(int fullSize) {
+            this.fullSize = fullSize;
+        }
+
+        @Override
+        public int sizeAt(int quality) {
+            tried.add(quality);
+            return modelSize(fullSize, quality);
+        }
+    }
+
+    @Test
+    public void fitsAtInitialQuality_encodesOnce() throws Exception {
+        Recorder r = new Recorder(100_000);
+        assertEquals(85, QualitySearch.search(10, 85, 200_000, 4, r));
+        assertEquals(1, r.tried.size());
+    }
+
+    @Test
+    public void findsHighFittingQualityInFewEncodes() throws Exception {
+        for (int budget : new int[]{300_000, 500_000, 700_000, 900_000}) {
+            Recorder r = new Recorder(2_000_000);
+            int quality = QualitySearch.search(10, 90, budget, 4, r);
+
+            assertTrue("budget " + budget, quality >= 10);
+            assertTrue(modelSize(2_000_000, quality) <= budget);
+            assertTrue("tried " + r.tried, r.tried.size() <= 3);
+            // Close to the best possible quality for the budget
+            int best = 10;
+            for (int q = 10; q <= 90; q++) if (modelSize(2_000_000, q) <= budget) best = q;
+            assertTrue("budget " + budget + " got " + quality + " best " + best, best - quality <= 4);
+        }
+    }
+
+    @Test
+    public void nothingFits_triesMinimumOnceAndReportsMiss() throws Exception {
+        Recorder r = new Recorder(1_000_000);
+        assertEquals(-1, QualitySearch.search(10, 85, 10_000, 4, r));
+        assertEquals(Integer.valueOf(10), r.tried.get(r.tried.size() - 1));
+        assertTrue(r.tried.size() <= 5);
+    }
+
+    @Test
+    public void onlyMinimumFits_returnsMinimum() throws Exception {
+        Recorder r = new Recorder(1_000_000);
+        int budget = modelSize(1_000_000, 10);
+        assertEquals(10, QualitySearch.search(10, 85, budget, 4, r));
+    }
+
+    @Test
+    public void neverTriesTheSameQualityTwice() throws Exception {
+        Recorder r = new Recorder(3_000_000);
+        QualitySearch.search(10, 95, 1_200_000, 8, r);
+        assertEquals(r.tried.size(), new java.util.HashSet<>(r.tried).size());
+    }
+}
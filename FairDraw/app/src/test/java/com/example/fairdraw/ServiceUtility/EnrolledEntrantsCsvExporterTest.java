@@ -0,0 +1,115 @@
+package com.example.fairdraw.ServiceUtility;
+
+import static org.junit.Assert.*;
+
+import androidx.test.runner.AndroidJUnit4;
+
+import com.example.fairdraw.DBs.UserDB;
+import com.example.fairdraw.Models.User;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.annotation.Config;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Unit tests for {@link EnrolledEntrantsCsvExporter}: chunked lookups, bounded concurrency
+ * and row order when lookups complete out of order.
+ * Runs under Robolectric because the exporter logs through android.util.Log.
+ */
+@Config(manifest = Config.NONE)
+@RunWith(AndroidJUnit4.class)
+public class EnrolledEntrantsCsvExporterTest {
+
+    /** Holds lookups until the test completes them, in any order. */
+    private static class ManualLookup implements EnrolledEntrantsCsvExporter.UserLookup {
+        final List<List<String>> requests = new ArrayList<>();
+        final List<UserDB.GetUsersByIdCallback> callbacks = new ArrayList<>();
+
+        @Override
+        public void getUsersByIds(List<String> ids, UserDB.GetUsersByIdCallback cb) {
+            requests.add(ids);
+            callbacks.add(cb);
+        }
+
+        void succeed(int index) {
+            Map<String, User> users = new HashMap<>();
+            for (String id : requests.get(index)) {
+                users.put(id, new User("Name " + id, id + "@mail.ca", "555", id, null));
+            }
+            callbacks.get(index).onCallback(users, null);
+        }
+    }
+
+    private static class RecordingListener implements EnrolledEntrantsCsvExporter.Listener {
+        int lastWritten = -1;
+        int completedRows = -1;
+        int failed = -1;
+        Exception error;
+
+        @Override public void onProgress(int written, int total) { lastWritten = written; }
+        @Override public void onComplete(int written, int failedLookups) { completedRows = written; failed = failedLookups; }
+        @Override public void onError(Exception e) { error = e; }
+    }
+
+    private static List<String> ids(int n) {
+        List<String> ids = new ArrayList<>();
+        for (int i = 0; i < n; i++) ids.add("d" + i);
+        return ids;
+    }
+
+    @Test
+    public void rowsKeepRequestedOrder_whenChunksCompleteOutOfOrder() {
+        ManualLookup lookup = new ManualLookup();
+        RecordingListener listener = new RecordingListener();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        EnrolledEntrantsCsvExporter exporter = new EnrolledEntrantsCsvExporter(
+                ids(100), out, listener, lookup, Runnable::run, Runnable::run, 2);
+
+        exporter.start();
+        // 100 ids -> 4 chunks of at most 30, but only 2 in flight
+        assertEquals(2, lookup.requests.size());
+        assertEquals(30, lookup.requests.get(0).size());
+
+        lookup.succeed(1);
+        assertEquals(2, lookup.requests.size());
+        lookup.succeed(0);
+        // Chunks 0 and 1 were written, so two more lookups start
+        assertEquals(4, lookup.requests.size());
+        assertEquals(60, listener.lastWritten);
+        assertEquals(10, lookup.requests.get(3).size());
+
+        lookup.callbacks.get(3).onCallback(null, new Exception("offline"));
+        lookup.succeed(2);
+
+        assertNull(listener.error);
+        assertEquals(100, listener.completedRows);
+        assertEquals(10, listener.failed);
+
+        String[] lines = new String(out.toByteArray(), StandardCharsets.UTF_8).split("\n");
+        assertEquals(101, lines.length);
+        assertEquals("DeviceId,Name,Email,Phone", lines[0]);
+        for (int i = 0; i < 100; i++) {
+            assertTrue(lines[i + 1].startsWith("d" + i + ","));
+        }
+        assertEquals("d0,Name d0,d0@mail.ca,555", lines[1]);
+        assertEquals("d99,,,", lines[100]);
+    }
+
+    @Test
+    public void emptyList_writesHeaderOnly() {
+        RecordingListener listener = new RecordingListener();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new EnrolledEntrantsCsvExporter(new ArrayList<>(), out, listener, new ManualLookup(),
+                Runnable::run, Runnable::run, 4).start();
+
+        assertEquals(0, listener.completedRows);
+        assertEquals("DeviceId,Name,Email,Phone\n", new String(out.toByteArray(), StandardCharsets.UTF_8));
+    }
+}
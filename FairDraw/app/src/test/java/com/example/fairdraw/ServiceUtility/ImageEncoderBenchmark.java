@@ -0,0 +1,161 @@
+package com.example.fairdraw.ServiceUtility;
+
+import static org.junit.Assert.assertTrue;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.LinearGradient;
+import android.graphics.Paint;
+import android.graphics.Shader;
+
+import androidx.test.runner.AndroidJUnit4;
+
+import com.example.fairdraw.Benchmarks;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.annotation.Config;
+import org.robolectric.annotation.GraphicsMode;
+
+import java.io.ByteArrayOutputStream;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Timing and size comparison between the old upload encoder (full resolution, quality stepped
+ * down by 10 per pass) and {@link ImageEncoder#encodeJpeg(Bitmap, int, int, int)} over a small
+ * corpus of generated bitmaps: a 12 MP noisy photo-like image, a gradient, a flat graphic and
+ * a small avatar.
+ * <p>
+ * Runs under Robolectric with native graphics so {@link Bitmap#compress} produces real JPEGs,
+ * with a warm-up pass. Skipped unless benchmarks are enabled (see {@link Benchmarks}); fails if
+ * the search is not faster than the linear step on the 12 MP photo. Encoder behaviour is
+ * covered by {@link ImageEncoderTest}.
+ */
+@Config(manifest = Config.NONE)
+@GraphicsMode(GraphicsMode.Mode.NATIVE)
+@RunWith(AndroidJUnit4.class)
+public class ImageEncoderBenchmark {
+
+    private static final int QUALITY = 90;
+    private static final int MAX_BYTES = 300 * 1024;
+    private static final int WARMUP_ROUNDS = 1;
+    private static final int MEASURED_ROUNDS = 3;
+
+    /** The encoder as it was: full resolution, quality stepped down by 10 per pass. */
+    private static byte[] linearEncode(Bitmap bitmap, int initialQuality, int maxBytes, int[] encodes) {
+        int quality = initialQuality;
+        byte[] out;
+        do {
+            ByteArrayOutputStream baos = new ByteArrayOutputStream();
+            bitmap.compress(Bitmap.CompressFormat.JPEG, quality, baos);
+            encodes[0]++;
+            out = baos.toByteArray();
+            if (out.length > maxBytes && quality > 10) {
+                quality -= 10;
+            } else {
+                break;
+            }
+        } while (true);
+        return out;
+    }
+
+    private static Bitmap photoLike(int w, int h, long seed) {
+        Bitmap bmp = Bitmap.createBitmap(w, h, Bitmap.Config.ARGB_8888);
+        Random random = new Random(seed);
+        int[] row = new int[w];
+        for (int y = 0; y < h; y++) {
+            for (int x = 0; x < w; x++) {
+                // Smooth shapes plus sensor-like noise, which is what makes photos expensive
+                int base = (int) (128 + 60 * Math.sin(x / 97.0) * Math.cos(y / 131.0));
+                int n = random.nextInt(41) - 20;
+                int r = clamp(base + n + 30);
+                int g = clamp(base + n);
+                int b = clamp(base + n - 30);
+                row[x] = Color.rgb(r, g, b);
+            }
+            bmp.setPixels(row, 0, w, 0, y, w, 1);
+        }
+        return bmp;
+    }
+
+    private static Bitmap gradient(int w, int h) {
+        Bitmap bmp = Bitmap.createBitmap(w, h, Bitmap.Config.ARGB_8888);
+        Paint p = new Paint();
+        p.setShader(new LinearGradient(0, 0, w, h, Color.BLUE, Color.YELLOW, Shader.TileMode.CLAMP));
+        new Canvas(bmp).drawRect(0, 0, w, h, p);
+        return bmp;
+    }
+
+    private static Bitmap flatGraphic(int w, int h) {
+        Bitmap bmp = Bitmap.createBitmap(w, h, Bitmap.Config.ARGB_8888);
+        Canvas c = new Canvas(bmp);
+        c.drawColor(Color.WHITE);
+        Paint p = new Paint(Paint.ANTI_ALIAS_FLAG);
+        p.setColor(Color.RED);
+        c.drawCircle(w / 2f, h / 2f, Math.min(w, h) / 3f, p);
+        p.setColor(Color.BLACK);
+        p.setTextSize(h / 10f);
+        c.drawText("FairDraw", w / 10f, h / 5f, p);
+        return bmp;
+    }
+
+    private static int clamp(int v) {
+        return Math.max(0, Math.min(255, v));
+    }
+
+    @Test
+    public void compareLinearStepWithDownsampleAndSearch() throws Exception {
+        Benchmarks.assumeEnabled();
+        Map<String, Bitmap> corpus = new LinkedHashMap<>();
+        corpus.put("photo 4000x3000", photoLike(4000, 3000, 1));
+        corpus.put("photo 1600x1200", photoLike(1600, 1200, 2));
+        corpus.put("gradient 3000x2000", gradient(3000, 2000));
+        corpus.put("graphic 2400x1600", flatGraphic(2400, 1600));
+        corpus.put("avatar 400x400", photoLike(400, 400, 3));
+
+        StringBuilder report = new StringBuilder();
+        long photoLinearNanos = 0;
+        long photoSearchNanos = 0;
+        for (Map.Entry<String, Bitmap> sample : corpus.entrySet()) {
+            Bitmap bitmap = sample.getValue();
+            long linearNanos = 0;
+            long searchNanos = 0;
+            int[] linearEncodes = {0};
+            int linearBytes = 0;
+            ImageEncoder.Result result = null;
+            for (int round = 0; round < WARMUP_ROUNDS + MEASURED_ROUNDS; round++) {
+                int[] encodes = {0};
+                long start = System.nanoTime();
+                byte[] linear = linearEncode(bitmap, QUALITY, MAX_BYTES, encodes);
+                long mid = System.nanoTime();
+                result = ImageEncoder.encodeJpeg(bitmap, ImageEncoder.DEFAULT_MAX_PIXELS, QUALITY, MAX_BYTES);
+                long end = System.nanoTime();
+
+                assertTrue(sample.getKey() + " over budget: " + result.bytes.length,
+                        result.bytes.length <= MAX_BYTES);
+                if (round >= WARMUP_ROUNDS) {
+                    linearNanos += mid - start;
+                    searchNanos += end - mid;
+                    linearEncodes[0] = encodes[0];
+                    linearBytes = linear.length;
+                }
+            }
+
+            report.append(String.format(Locale.US,
+                    "%n%-20s linear=%.1f ms %,d B (%d encodes)  search=%.1f ms %,d B (%d encodes, q=%d, %dx%d)",
+                    sample.getKey(),
+                    linearNanos / (MEASURED_ROUNDS * 1e6), linearBytes, linearEncodes[0],
+                    searchNanos / (MEASURED_ROUNDS * 1e6), result.bytes.length, result.encodes,
+                    result.quality, result.width, result.height));
+            if (photoLinearNanos == 0) {
+                photoLinearNanos = linearNanos;
+                photoSearchNanos = searchNanos;
+            }
+        }
+        assertTrue(report.toString(), photoSearchNanos < photoLinearNanos);
+    }
+}
@@ -0,0 +1,91 @@
+package com.example.fairdraw.ServiceUtility;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import android.graphics.Bitmap;
+import android.graphics.Color;
+
+import androidx.test.runner.AndroidJUnit4;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.annotation.Config;
+import org.robolectric.annotation.GraphicsMode;
+
+import java.util.Random;
+
+/**
+ * Tests for {@link ImageEncoder}, encoding real JPEGs under Robolectric with native graphics.
+ */
+@Config(manifest = Config.NONE)
+@GraphicsMode(GraphicsMode.Mode.NATIVE)
+@RunWith(AndroidJUnit4.class)
+public class ImageEncoderTest {
+
+    /** A noisy image, which compresses poorly the way photos do. */
+    private static Bitmap noise(int w, int h) {
+        Bitmap bmp = Bitmap.createBitmap(w, h, Bitmap.Config.ARGB_8888);
+        Random random = new Random(1);
+        int[] row = new int[w];
+        for (int y = 0; y < h; y++) {
+            for (int x = 0; x < w; x++) {
+                row[x] = Color.rgb(random.nextInt(256), random.nextInt(256), random.nextInt(256));
+            }
+            bmp.setPixels(row, 0, w, 0, y, w, 1);
+        }
+        return bmp;
+    }
+
+    private static boolean isJpeg(byte[] bytes) {
+        return bytes.length > 2 && (bytes[0] & 0xFF) == 0xFF && (bytes[1] & 0xFF) == 0xD8;
+    }
+
+    @Test
+    public void fitsAtInitialQuality_encodesOnceAtFullSize() throws Exception {
+        Bitmap flat = Bitmap.createBitmap(400, 300, Bitmap.Config.ARGB_8888);
+        flat.eraseColor(Color.WHITE);
+
+        ImageEncoder.Result result = ImageEncoder.encodeJpeg(flat, 0, 90, 100 * 1024);
+
+        assertTrue(isJpeg(result.bytes));
+        assertEquals(90, result.quality);
+        assertEquals(1, result.encodes);
+        assertEquals(400, result.width);
+        assertEquals(300, result.height);
+    }
+
+    @Test
+    public void largeImage_scaledToPixelBudget() throws Exception {
+        Bitmap bitmap = noise(1200, 800);
+
+        ImageEncoder.Result result = ImageEncoder.encodeJpeg(bitmap, 240_000, 90, 1024 * 1024);
+
+        assertTrue((long) result.width * result.height <= 240_000);
+        // Aspect ratio is kept
+        assertEquals(1.5, (double) result.width / result.height, 0.02);
+    }
+
+    @Test
+    public void overBudget_lowersQualityUntilItFits() throws Exception {
+        Bitmap bitmap = noise(500, 500);
+        int budget = ImageEncoder.encodeJpeg(bitmap, 0, 90, Integer.MAX_VALUE).bytes.length / 2;
+
+        ImageEncoder.Result result = ImageEncoder.encodeJpeg(bitmap, 0, 90, budget);
+
+        assertTrue(result.bytes.length + " > " + budget, result.bytes.length <= budget);
+        assertTrue(result.quality < 90 && result.quality >= ImageEncoder.MIN_QUALITY);
+        assertEquals(500, result.width);
+    }
+
+    @Test
+    public void tooSmallBudgetForMinimumQuality_shrinksImage() throws Exception {
+        Bitmap bitmap = noise(800, 600);
+        int budget = ImageEncoder.encodeJpeg(bitmap, 0, ImageEncoder.MIN_QUALITY, Integer.MAX_VALUE).bytes.length / 4;
+
+        ImageEncoder.Result result = ImageEncoder.encodeJpeg(bitmap, 0, 90, budget);
+
+        assertTrue(result.bytes.length + " > " + budget, result.bytes.length <= budget);
+        assertTrue(result.width < 800 && result.height < 600);
+    }
+}
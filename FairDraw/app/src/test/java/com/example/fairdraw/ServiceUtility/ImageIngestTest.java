@@ -0,0 +1,91 @@
+package com.example.fairdraw.ServiceUtility;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import android.graphics.Bitmap;
+import android.graphics.Color;
+
+import androidx.test.runner.AndroidJUnit4;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.robolectric.annotation.Config;
+import org.robolectric.annotation.GraphicsMode;
+
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.FileInputStream;
+
+import javax.imageio.ImageIO;
+
+/**
+ * Tests for {@link ImageIngest}, decoding real images under Robolectric with native graphics.
+ */
+@Config(manifest = Config.NONE)
+@GraphicsMode(GraphicsMode.Mode.NATIVE)
+@RunWith(AndroidJUnit4.class)
+public class ImageIngestTest {
+
+    private static final long BUDGET = 32L * 1024 * 1024;
+
+    @Rule
+    public TemporaryFolder tmp = new TemporaryFolder();
+
+    /**
+     * Writes a PNG whose left half is white and right half black. One bit per pixel keeps even
+     * a 50 MP image small to generate and store.
+     */
+    private File halfWhitePng(int width, int height) throws Exception {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_BYTE_BINARY);
+        Graphics2D g = image.createGraphics();
+        g.setColor(java.awt.Color.WHITE);
+        g.fillRect(0, 0, width / 2, height);
+        g.dispose();
+        File file = tmp.newFile("image.png");
+        ImageIO.write(image, "png", file);
+        return file;
+    }
+
+    @Test
+    public void fiftyMegapixelImage_decodedWithin32MbBudget() throws Exception {
+        File png = halfWhitePng(8660, 5774);
+        ImageIngest ingest = new ImageIngest(BUDGET);
+
+        Bitmap bitmap = ingest.decode(() -> new FileInputStream(png), ImageEncoder.DEFAULT_MAX_PIXELS);
+
+        assertTrue((long) bitmap.getWidth() * bitmap.getHeight() <= ImageEncoder.DEFAULT_MAX_PIXELS);
+        assertTrue(bitmap.getAllocationByteCount() <= BUDGET);
+        assertEquals(8660.0 / 5774, (double) bitmap.getWidth() / bitmap.getHeight(), 0.01);
+        // The pixels are the image's, not a placeholder
+        assertEquals(Color.WHITE, bitmap.getPixel(10, bitmap.getHeight() / 2));
+        assertEquals(Color.BLACK, bitmap.getPixel(bitmap.getWidth() - 10, bitmap.getHeight() / 2));
+        bitmap.recycle();
+    }
+
+    @Test
+    public void smallImage_decodedAtFullSize() throws Exception {
+        File png = halfWhitePng(640, 480);
+
+        Bitmap bitmap = new ImageIngest(BUDGET)
+                .decode(() -> new FileInputStream(png), ImageEncoder.DEFAULT_MAX_PIXELS);
+
+        assertEquals(640, bitmap.getWidth());
+        assertEquals(480, bitmap.getHeight());
+    }
+
+    @Test
+    public void tinyBudget_yieldsSmallerImage() throws Exception {
+        File png = halfWhitePng(4000, 3000);
+        long budget = 1024 * 1024;
+
+        Bitmap bitmap = new ImageIngest(budget)
+                .decode(() -> new FileInputStream(png), ImageEncoder.DEFAULT_MAX_PIXELS);
+
+        assertTrue(bitmap.getAllocationByteCount() <= budget);
+        assertEquals(4000.0 / 3000, (double) bitmap.getWidth() / bitmap.getHeight(), 0.02);
+    }
+}
@@ -0,0 +1,74 @@
+package com.example.fairdraw.ServiceUtility;
+
+import static org.junit.Assert.*;
+
+import androidx.test.runner.AndroidJUnit4;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.annotation.Config;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Unit tests for the batching and resume bookkeeping of {@link NotificationDispatcher}.
+ * Runs under Robolectric because job persistence uses org.json.
+ */
+@Config(manifest = Config.NONE)
+@RunWith(AndroidJUnit4.class)
+public class NotificationDispatcherTest {
+
+    private static NotificationDispatcher.Job jobWithRecipients(int count) {
+        NotificationDispatcher.Job job = new NotificationDispatcher.Job();
+        job.id = "job-1";
+        job.eventId = "event-1";
+        job.eventTitle = "Title";
+        job.type = "WIN";
+        job.historyStatus = "INVITED";
+        List<String> recipients = new ArrayList<>();
+        for (int i = 0; i < count; i++) recipients.add("dev-" + i);
+        job.recipients = recipients;
+        return job;
+    }
+
+    @Test
+    public void batches_stayWithinFirestoreWriteLimit() {
+        NotificationDispatcher.Job job = jobWithRecipients(10_000);
+        // Three writes per recipient -> 166 recipients per 500-write batch
+        assertEquals(166, NotificationDispatcher.RECIPIENTS_PER_BATCH);
+        assertEquals(61, job.batchCount());
+        assertEquals(40, job.recipientsInBatch(60));
+        assertTrue(NotificationDispatcher.RECIPIENTS_PER_BATCH * 3 <= NotificationDispatcher.MAX_BATCH_WRITES);
+
+        NotificationDispatcher.Job partial = jobWithRecipients(167);
+        assertEquals(2, partial.batchCount());
+        assertEquals(1, partial.recipientsInBatch(1));
+        assertEquals(0, jobWithRecipients(0).batchCount());
+    }
+
+    @Test
+    public void job_and_progress_surviveRoundTrip() {
+        NotificationDispatcher.Job job = jobWithRecipients(600);
+        job.committed.add(0);
+        job.committed.add(2);
+
+        NotificationDispatcher.Job restored = NotificationDispatcher.Job.fromJson(job.toJson());
+        assertNotNull(restored);
+        restored.readProgress(job.writeProgress());
+
+        assertEquals(job.recipients, restored.recipients);
+        assertEquals("event-1", restored.eventId);
+        assertEquals("INVITED", restored.historyStatus);
+        assertNull(restored.message);
+        assertTrue(restored.committed.contains(0));
+        assertTrue(restored.committed.contains(2));
+        assertFalse(restored.committed.contains(1));
+    }
+
+    @Test
+    public void unreadableJob_isDropped() {
+        assertNull(NotificationDispatcher.Job.fromJson("not json"));
+        assertNull(NotificationDispatcher.Job.fromJson(null));
+    }
+}
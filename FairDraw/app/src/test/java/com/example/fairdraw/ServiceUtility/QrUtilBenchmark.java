@@ -0,0 +1,102 @@
+package com.example.fairdraw.ServiceUtility;
+
+import static org.junit.Assert.assertTrue;
+
+import android.graphics.Bitmap;
+
+import androidx.test.runner.AndroidJUnit4;
+
+import com.example.fairdraw.Benchmarks;
+import com.google.zxing.BarcodeFormat;
+import com.google.zxing.EncodeHintType;
+import com.google.zxing.common.BitMatrix;
+import com.google.zxing.qrcode.QRCodeWriter;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.annotation.Config;
+import org.robolectric.annotation.GraphicsMode;
+
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Timing comparison between the old QR generator (full-size ZXing matrix, one
+ * {@link Bitmap#setPixel} per pixel), {@link QrUtil#render} (module matrix, one
+ * {@link Bitmap#setPixels} per module row) and a cached {@link QrUtil#generate} for sizes from
+ * 256 to 2048 pixels.
+ * <p>
+ * Runs under Robolectric with native graphics so pixel writes go through the real bitmap code,
+ * with a warm-up pass. Skipped unless benchmarks are enabled (see {@link Benchmarks}); fails if
+ * the row writes are not faster than per-pixel writes at 2048 pixels. Output equality is
+ * covered by {@link QrUtilTest}.
+ */
+@Config(manifest = Config.NONE)
+@GraphicsMode(GraphicsMode.Mode.NATIVE)
+@RunWith(AndroidJUnit4.class)
+public class QrUtilBenchmark {
+
+    private static final String LINK = "fairdraw://open?dest=com.example.fairdraw.Activities.EntrantEventDetails"
+            + "&event_id=2b7f3c1e-8a4d-4f6b-9e2a-5c0d1f7a9b3e";
+    private static final int[] SIZES = {256, 512, 800, 1024, 2048};
+    private static final int WARMUP_ROUNDS = 2;
+    private static final int MEASURED_ROUNDS = 5;
+
+    /** The generator as it was: a full-size matrix and a setPixel call per pixel. */
+    private static Bitmap perPixel(String content, int size) throws Exception {
+        Map<EncodeHintType, Object> hints = new EnumMap<>(EncodeHintType.class);
+        hints.put(EncodeHintType.MARGIN, 1);
+        BitMatrix m = new QRCodeWriter().encode(content, BarcodeFormat.QR_CODE, size, size, hints);
+        Bitmap bmp = Bitmap.createBitmap(size, size, Bitmap.Config.ARGB_8888);
+        for (int x = 0; x < size; x++) {
+            for (int y = 0; y < size; y++) {
+                bmp.setPixel(x, y, m.get(x, y) ? 0xFF000000 : 0xFFFFFFFF);
+            }
+        }
+        return bmp;
+    }
+
+    @Test
+    public void comparePerPixelWithBulkRowsAndCache() throws Exception {
+        Benchmarks.assumeEnabled();
+        StringBuilder report = new StringBuilder();
+        long largestPerPixelNanos = 0;
+        long largestBulkNanos = 0;
+        for (int size : SIZES) {
+            long perPixelNanos = 0;
+            long bulkNanos = 0;
+            long cachedNanos = 0;
+            QrUtil.generate(LINK, size);
+            for (int round = 0; round < WARMUP_ROUNDS + MEASURED_ROUNDS; round++) {
+                long start = System.nanoTime();
+                Bitmap old = perPixel(LINK, size);
+                long mid = System.nanoTime();
+                Bitmap bulk = QrUtil.render(QrUtil.encodeModules(LINK), size);
+                long end = System.nanoTime();
+                QrUtil.generate(LINK, size);
+                long cached = System.nanoTime();
+
+                assertTrue("size " + size + " differs from the per-pixel output", old.sameAs(bulk));
+                if (round >= WARMUP_ROUNDS) {
+                    perPixelNanos += mid - start;
+                    bulkNanos += end - mid;
+                    cachedNanos += cached - end;
+                }
+                old.recycle();
+                bulk.recycle();
+            }
+
+            report.append(String.format(Locale.US,
+                    "%n%4d px  setPixel=%.2f ms  setPixels=%.2f ms (%.0fx)  cached=%.3f ms",
+                    size,
+                    perPixelNanos / (MEASURED_ROUNDS * 1e6),
+                    bulkNanos / (MEASURED_ROUNDS * 1e6),
+                    (double) perPixelNanos / Math.max(1, bulkNanos),
+                    cachedNanos / (MEASURED_ROUNDS * 1e6)));
+            largestPerPixelNanos = perPixelNanos;
+            largestBulkNanos = bulkNanos;
+        }
+        assertTrue(report.toString(), largestBulkNanos < largestPerPixelNanos);
+    }
+}
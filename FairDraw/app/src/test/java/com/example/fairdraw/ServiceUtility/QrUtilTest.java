@@ -0,0 +1,67 @@
+package com.example.fairdraw.ServiceUtility;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+import android.graphics.Bitmap;
+
+import androidx.test.runner.AndroidJUnit4;
+
+import com.google.zxing.BarcodeFormat;
+import com.google.zxing.EncodeHintType;
+import com.google.zxing.common.BitMatrix;
+import com.google.zxing.qrcode.QRCodeWriter;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.annotation.Config;
+import org.robolectric.annotation.GraphicsMode;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Tests for {@link QrUtil}: the bulk renderer draws exactly what ZXing's full-size matrix
+ * describes, and results are cached by content and size.
+ */
+@Config(manifest = Config.NONE)
+@GraphicsMode(GraphicsMode.Mode.NATIVE)
+@RunWith(AndroidJUnit4.class)
+public class QrUtilTest {
+
+    private static final String LINK = "fairdraw://open?dest=com.example.fairdraw.Activities.EntrantEventDetails"
+            + "&event_id=2b7f3c1e-8a4d-4f6b-9e2a-5c0d1f7a9b3e";
+
+    private static BitMatrix fullSizeMatrix(String content, int size) throws Exception {
+        Map<EncodeHintType, Object> hints = new EnumMap<>(EncodeHintType.class);
+        hints.put(EncodeHintType.MARGIN, 1);
+        return new QRCodeWriter().encode(content, BarcodeFormat.QR_CODE, size, size, hints);
+    }
+
+    @Test
+    public void render_matchesZxingFullSizeMatrix() throws Exception {
+        for (int size : new int[]{37, 256, 800, 1001}) {
+            BitMatrix expected = fullSizeMatrix(LINK, size);
+            Bitmap bmp = QrUtil.render(QrUtil.encodeModules(LINK), size);
+            assertEquals(expected.getWidth(), bmp.getWidth());
+            assertEquals(expected.getHeight(), bmp.getHeight());
+            int[] row = new int[bmp.getWidth()];
+            for (int y = 0; y < bmp.getHeight(); y++) {
+                bmp.getPixels(row, 0, row.length, 0, y, row.length, 1);
+                for (int x = 0; x < row.length; x++) {
+                    assertEquals("size " + size + " at " + x + "," + y,
+                            expected.get(x, y) ? 0xFF000000 : 0xFFFFFFFF, row[x]);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void generate_cachesByContentAndSize() throws Exception {
+        Bitmap first = QrUtil.generate(LINK, 512);
+        assertSame(first, QrUtil.generate(LINK, 512));
+        assertNotSame(first, QrUtil.generate(LINK, 640));
+        assertNotSame(first, QrUtil.generate(LINK + "x", 512));
+    }
+}
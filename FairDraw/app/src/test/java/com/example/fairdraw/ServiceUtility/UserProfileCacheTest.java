@@ -0,0 +1,108 @@
+package com.example.fairdraw.ServiceUtility;
+
+import static org.junit.Assert.*;
+
+import androidx.test.runner.AndroidJUnit4;
+
+import com.example.fairdraw.DBs.UserDB;
+import com.example.fairdraw.Models.User;
+import com.example.fairdraw.Others.ExpiringLruCache;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.annotation.Config;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Unit tests for {@link UserProfileCache}: batched prefetch, de-duplication of in-flight ids
+ * and change notifications.
+ * Runs under Robolectric because the cache logs through android.util.Log.
+ */
+@Config(manifest = Config.NONE)
+@RunWith(AndroidJUnit4.class)
+public class UserProfileCacheTest {
+
+    private final List<List<String>> requests = new ArrayList<>();
+    private final List<UserDB.GetUsersByIdCallback> callbacks = new ArrayList<>();
+    private final List<Set<String>> changes = new ArrayList<>();
+    private UserProfileCache cache;
+
+    @Before
+    public void setUp() {
+        cache = new UserProfileCache(new ExpiringLruCache<>(100, 60_000, 10_000),
+                (ids, cb) -> {
+                    requests.add(ids);
+                    callbacks.add(cb);
+                });
+        cache.addListener(changes::add);
+    }
+
+    private static List<String> ids(int from, int to) {
+        List<String> ids = new ArrayList<>();
+        for (int i = from; i < to; i++) ids.add("d" + i);
+        return ids;
+    }
+
+    private void respond(int request, String... missing) {
+        Map<String, User> users = new HashMap<>();
+        List<String> skip = Arrays.asList(missing);
+        for (String id : requests.get(request)) {
+            if (!skip.contains(id)) users.put(id, new User("Name " + id, null, null, id, null));
+        }
+        callbacks.get(request).onCallback(users, null);
+    }
+
+    @Test
+    public void prefetch_chunksAndSkipsInFlightIds() {
+        assertEquals(2, cache.prefetch(ids(0, 45)));
+        assertEquals(30, requests.get(0).size());
+        assertEquals(15, requests.get(1).size());
+
+        // Overlapping window: only the 15 new ids are requested
+        assertEquals(1, cache.prefetch(ids(30, 60)));
+        assertEquals(ids(45, 60), requests.get(2));
+    }
+
+    @Test
+    public void loadedAndMissingIds_areResolvedAndReported() {
+        cache.prefetch(ids(0, 3));
+        respond(0, "d1");
+
+        assertEquals("Name d0", cache.peek("d0").getName());
+        assertNull(cache.peek("d1"));
+        assertTrue(cache.isResolved("d1"));
+        assertEquals(1, changes.size());
+        assertEquals(3, changes.get(0).size());
+
+        // Everything is resolved, so nothing is fetched again
+        assertEquals(0, cache.prefetch(ids(0, 3)));
+    }
+
+    @Test
+    public void failedLookup_isRetried() {
+        cache.prefetch(ids(0, 2));
+        callbacks.get(0).onCallback(null, new Exception("offline"));
+
+        assertFalse(cache.isResolved("d0"));
+        assertTrue(changes.isEmpty());
+        assertEquals(1, cache.prefetch(ids(0, 2)));
+    }
+
+    @Test
+    public void putAndInvalidate_notifyListeners() {
+        cache.put(new User("Renamed", null, null, "d7", null));
+        assertEquals("Renamed", cache.peek("d7").getName());
+
+        cache.invalidate("d7");
+        assertFalse(cache.isResolved("d7"));
+        assertEquals(2, changes.size());
+        assertTrue(changes.get(1).contains("d7"));
+    }
+}
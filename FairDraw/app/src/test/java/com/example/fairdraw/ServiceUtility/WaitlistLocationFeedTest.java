@@ -0,0 +1,140 @@
+package com.example.fairdraw.ServiceUtility;
+
+import static org.junit.Assert.*;
+
+import com.example.fairdraw.Models.Event;
+import com.example.fairdraw.Others.GeoHash;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Unit tests for {@link WaitlistLocationFeed}: which ranges are listened to as the viewport
+ * moves, and how range snapshots are merged.
+ */
+public class WaitlistLocationFeedTest {
+
+    private final Map<String, WaitlistLocationFeed.RangeCallback> open = new HashMap<>();
+    private final List<String> listened = new ArrayList<>();
+    private final List<Map<String, Event.EntrantLocation>> delivered = new ArrayList<>();
+    private final List<double[]> joins = new ArrayList<>();
+    private final List<double[]> leaves = new ArrayList<>();
+    private WaitlistLocationFeed feed;
+
+    @Before
+    public void setUp() {
+        feed = new WaitlistLocationFeed((prefix, callback) -> {
+            listened.add(prefix);
+            open.put(prefix, callback);
+            return () -> open.remove(prefix);
+        }, (locations, joined, left) -> {
+            delivered.add(locations);
+            joins.addAll(joined);
+            leaves.addAll(left);
+        });
+    }
+
+    private static Map<String, Event.EntrantLocation> one(String id, double lat, double lng) {
+        return Collections.singletonMap(id, new Event.EntrantLocation(lat, lng));
+    }
+
+    private WaitlistLocationFeed.RangeCallback rangeOf(double lat, double lng) {
+        String geohash = GeoHash.encode(lat, lng, GeoHash.DEFAULT_PRECISION);
+        for (Map.Entry<String, WaitlistLocationFeed.RangeCallback> e : open.entrySet()) {
+            if (geohash.startsWith(e.getKey())) return e.getValue();
+        }
+        throw new AssertionError("no open range for " + geohash);
+    }
+
+    @Test
+    public void revisitedViewport_opensNoNewRanges() {
+        int opened = feed.setViewport(53.45, -113.60, 53.60, -113.40);
+        assertTrue(opened > 0 && opened <= WaitlistLocationFeed.MAX_RANGES_PER_VIEWPORT);
+
+        // A smaller view inside the first one is already covered
+        assertEquals(0, feed.setViewport(53.50, -113.55, 53.55, -113.45));
+        assertEquals(opened, listened.size());
+    }
+
+    @Test
+    public void coarserViewport_replacesFinerRanges() {
+        feed.setViewport(53.50, -113.55, 53.55, -113.45);
+        int fine = feed.rangeCount();
+
+        // Zooming far out covers the old cells with a few coarse ones
+        feed.setViewport(40, -130, 60, -100);
+        assertTrue(feed.rangeCount() <= WaitlistLocationFeed.MAX_RANGES_PER_VIEWPORT);
+        assertEquals(feed.rangeCount(), open.size());
+        assertTrue(listened.size() > fine);
+    }
+
+    @Test
+    public void snapshots_areMergedAndOnlyChangesDelivered() {
+        feed.setViewport(53.45, -113.60, 53.60, -113.40);
+        WaitlistLocationFeed.RangeCallback range = rangeOf(53.5, -113.5);
+
+        range.onChanges(one("a", 53.5, -113.5), Collections.emptySet());
+        assertEquals(1, delivered.size());
+        assertEquals(1, delivered.get(0).size());
+
+        // Same coordinates again is not a change
+        range.onChanges(one("a", 53.5, -113.5), Collections.emptySet());
+        assertEquals(1, delivered.size());
+
+        range.onChanges(Collections.emptyMap(), new HashSet<>(Collections.singleton("a")));
+        assertEquals(2, delivered.size());
+        assertTrue(delivered.get(1).isEmpty());
+    }
+
+    @Test
+    public void firstSnapshot_isALoadNotJoins() {
+        feed.setViewport(53.45, -113.60, 53.60, -113.40);
+        WaitlistLocationFeed.RangeCallback range = rangeOf(53.5, -113.5);
+
+        range.onChanges(one("a", 53.5, -113.5), Collections.emptySet());
+        assertEquals(1, delivered.size());
+        assertTrue(joins.isEmpty());
+        assertEquals(1, feed.loadedPrefixes().size());
+
+        // Later snapshots of the same range are real joins, leaves and moves
+        range.onChanges(one("b", 53.51, -113.51), Collections.emptySet());
+        assertEquals(1, joins.size());
+        range.onChanges(one("a", 53.52, -113.52), Collections.emptySet());
+        assertEquals(2, joins.size());
+        assertEquals(1, leaves.size());
+        assertEquals(53.5, leaves.get(0)[0], 1e-9);
+    }
+
+    @Test
+    public void removalFromOldRange_isIgnoredAfterMoveIntoAnother() {
+        feed.setViewport(53.45, -113.60, 53.60, -113.40);
+        feed.setViewport(43.60, -79.45, 43.70, -79.30);
+        WaitlistLocationFeed.RangeCallback edmonton = rangeOf(53.5, -113.5);
+        WaitlistLocationFeed.RangeCallback toronto = rangeOf(43.65, -79.38);
+
+        edmonton.onChanges(one("a", 53.5, -113.5), Collections.emptySet());
+        // The entrant rejoined from Toronto; that range reports it before Edmonton drops it
+        toronto.onChanges(one("a", 43.65, -79.38), Collections.emptySet());
+        Set<String> removed = new HashSet<>(Collections.singleton("a"));
+        edmonton.onChanges(Collections.emptyMap(), removed);
+
+        Map<String, Event.EntrantLocation> last = delivered.get(delivered.size() - 1);
+        assertEquals(43.65, last.get("a").getLat(), 1e-9);
+    }
+
+    @Test
+    public void stop_removesEveryRange() {
+        feed.setViewport(53.45, -113.60, 53.60, -113.40);
+        feed.stop();
+        assertTrue(open.isEmpty());
+        assertEquals(0, feed.rangeCount());
+    }
+}